@@ -0,0 +1,314 @@
+package eu.dirk.haase.jdbc.benchmark;
+
+import com.google.common.collect.MapMaker;
+import eu.dirk.haase.jdbc.proxy.common.ConcurrentMapFunktions;
+import eu.dirk.haase.jdbc.proxy.common.WeakIdentityHashMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Misst {@link ConcurrentMapFunktions} &uuml;ber einer {@link WeakIdentityHashMap}
+ * (der Identity-Cache der JDBC-Wrapper) unter Konkurrenz mehrerer Threads.
+ * <p>
+ * Vergleichswerte liefern:
+ * <ul>
+ * <li>{@code ConcurrentHashMap} (ohne schwache Referenzen, die untere Schranke),</li>
+ * <li>{@code GuavaWeakKeys}: {@code new MapMaker().weakKeys().makeMap()} und</li>
+ * <li>{@code SynchronizedWeakHashMap}: {@code Collections.synchronizedMap(new WeakHashMap())}.</li>
+ * </ul>
+ * Variiert werden:
+ * <ul>
+ * <li>{@code hitRatio}: der Anteil der Zugriffe auf bereits vorhandene
+ * Schl&uuml;ssel. Ein Fehlzugriff f&uuml;gt einen neuen Schl&uuml;ssel ein und
+ * entfernt ihn anschlie&szlig;end wieder, damit die Map nicht w&auml;chst,</li>
+ * <li>{@code garbageBytes}: die Anzahl der Bytes die pro Operation zus&auml;tzlich
+ * alloziert werden, um GC-Druck (und damit die Verarbeitung der schwachen
+ * Referenzen) zu erzeugen,</li>
+ * <li>die Anzahl der Threads: {@link #main(String...)} f&uuml;hrt alle
+ * Benchmarks mit 1, 4 und 16 Threads aus, &uuml;ber {@code benchmarks.jar}
+ * mit der Option {@code -t}.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapContentionBenchmark {
+
+    static final int HOT_KEY_COUNT = 1024;
+
+    static final int COLD_KEY_COUNT = 1024;
+
+    public static void main(final String... args) throws Exception {
+        for (final int threads : new int[]{1, 4, 16}) {
+            final Options options = new OptionsBuilder()
+                    .include(MapContentionBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static Object nextKey(final MapState mapState, final ThreadState threadState) {
+        if (ThreadLocalRandom.current().nextDouble() < mapState.hitRatio) {
+            return mapState.hotKeys[ThreadLocalRandom.current().nextInt(HOT_KEY_COUNT)];
+        }
+        return threadState.nextColdKey();
+    }
+
+    private static void produceGarbage(final MapState mapState, final Blackhole blackhole) {
+        if (mapState.garbageBytes > 0) {
+            blackhole.consume(new byte[mapState.garbageBytes]);
+        }
+    }
+
+    @Benchmark
+    public Integer compute(final MapState mapState, final ThreadState threadState, final Blackhole blackhole) throws Exception {
+        produceGarbage(mapState, blackhole);
+        final Object key = nextKey(mapState, threadState);
+        final Integer value = mapState.adapter.compute(key, (k, v) -> (v == null ? 1 : v + 1));
+        mapState.removeIfCold(key);
+        return value;
+    }
+
+    @Benchmark
+    public Integer computeIfAbsent(final MapState mapState, final ThreadState threadState, final Blackhole blackhole) throws Exception {
+        produceGarbage(mapState, blackhole);
+        final Object key = nextKey(mapState, threadState);
+        final Integer value = mapState.adapter.computeIfAbsent(key, (k) -> 1);
+        mapState.removeIfCold(key);
+        return value;
+    }
+
+    @Benchmark
+    public Integer merge(final MapState mapState, final ThreadState threadState, final Blackhole blackhole) throws Exception {
+        produceGarbage(mapState, blackhole);
+        final Object key = nextKey(mapState, threadState);
+        final Integer value = mapState.adapter.merge(key, 1, Integer::sum);
+        mapState.removeIfCold(key);
+        return value;
+    }
+
+    /**
+     * {@code replaceAll} sperrt (bzw. durchl&auml;uft) die ganze Map und
+     * konkurriert daher mit allen anderen Threads; gemessen wird es deshalb im
+     * Wechsel mit {@code computeIfAbsent}: ein Aufruf pro 64 Operationen.
+     */
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void replaceAll(final MapState mapState, final ThreadState threadState, final Blackhole blackhole) throws Exception {
+        mapState.adapter.replaceAll((k, v) -> v);
+        for (int i = 1; 64 > i; ++i) {
+            blackhole.consume(computeIfAbsent(mapState, threadState, blackhole));
+        }
+    }
+
+    /**
+     * Gemeinsame Schnittstelle f&uuml;r die untersuchten Map-Implementationen.
+     */
+    interface MapAdapter {
+
+        Integer compute(Object key, BiFunction<Object, Integer, Integer> remappingFunction) throws Exception;
+
+        Integer computeIfAbsent(Object key, Function<Object, Integer> mappingFunction) throws Exception;
+
+        Integer merge(Object key, Integer value, BiFunction<Integer, Integer, Integer> remappingFunction) throws Exception;
+
+        void put(Object key, Integer value) throws Exception;
+
+        void remove(Object key) throws Exception;
+
+        void replaceAll(BiFunction<Object, Integer, Integer> function) throws Exception;
+
+    }
+
+    /**
+     * Adapter f&uuml;r alle Maps die ihre Methoden selbst nebenl&auml;ufig
+     * ausf&uuml;hren k&ouml;nnen.
+     */
+    static final class MapMethodsAdapter implements MapAdapter {
+
+        private final Map<Object, Integer> map;
+
+        MapMethodsAdapter(final Map<Object, Integer> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Integer compute(final Object key, final BiFunction<Object, Integer, Integer> remappingFunction) {
+            return map.compute(key, remappingFunction);
+        }
+
+        @Override
+        public Integer computeIfAbsent(final Object key, final Function<Object, Integer> mappingFunction) {
+            return map.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public Integer merge(final Object key, final Integer value, final BiFunction<Integer, Integer, Integer> remappingFunction) {
+            return map.merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public void put(final Object key, final Integer value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public void remove(final Object key) {
+            map.remove(key);
+        }
+
+        @Override
+        public void replaceAll(final BiFunction<Object, Integer, Integer> function) {
+            map.replaceAll(function);
+        }
+
+    }
+
+    /**
+     * Adapter f&uuml;r {@link ConcurrentMapFunktions} &uuml;ber einer
+     * {@link WeakIdentityHashMap}, mit einer gemeinsamen {@link StampedLock}
+     * wie in den JDBC-Wrappern.
+     */
+    static final class ConcurrentMapFunktionsAdapter implements MapAdapter {
+
+        private final ConcurrentMapFunktions<WeakIdentityHashMap<Object, Integer>, Object, Integer> functions;
+        private final StampedLock stampedLock;
+
+        ConcurrentMapFunktionsAdapter() {
+            this.functions = new ConcurrentMapFunktions<>(new WeakIdentityHashMap<>());
+            this.stampedLock = new StampedLock();
+        }
+
+        @Override
+        public Integer compute(final Object key, final BiFunction<Object, Integer, Integer> remappingFunction) throws TimeoutException, InterruptedException {
+            return functions.compute(stampedLock, key, remappingFunction);
+        }
+
+        @Override
+        public Integer computeIfAbsent(final Object key, final Function<Object, Integer> mappingFunction) throws TimeoutException, InterruptedException {
+            return functions.computeIfAbsent(stampedLock, key, mappingFunction);
+        }
+
+        @Override
+        public Integer merge(final Object key, final Integer value, final BiFunction<Integer, Integer, Integer> remappingFunction) throws TimeoutException, InterruptedException {
+            return functions.merge(stampedLock, key, value, remappingFunction);
+        }
+
+        @Override
+        public void put(final Object key, final Integer value) throws TimeoutException, InterruptedException {
+            functions.withWriteLock(stampedLock, (m) -> m.put(key, value));
+        }
+
+        @Override
+        public void remove(final Object key) throws TimeoutException, InterruptedException {
+            functions.withWriteLock(stampedLock, (m) -> m.remove(key));
+        }
+
+        @Override
+        public void replaceAll(final BiFunction<Object, Integer, Integer> function) throws TimeoutException, InterruptedException {
+            functions.replaceAll(stampedLock, function);
+        }
+
+    }
+
+    /**
+     * Die gemeinsame Map aller Threads, vorbelegt mit {@link #HOT_KEY_COUNT}
+     * Schl&uuml;sseln.
+     */
+    @State(Scope.Benchmark)
+    public static class MapState {
+
+        MapAdapter adapter;
+
+        @Param({"0", "4096"})
+        int garbageBytes;
+
+        @Param({"1.0", "0.9", "0.5"})
+        double hitRatio;
+
+        Object[] hotKeys;
+
+        @Param({"WeakIdentityHashMap", "ConcurrentHashMap", "GuavaWeakKeys", "SynchronizedWeakHashMap"})
+        String mapType;
+
+        private Map<Object, Boolean> hotKeyMap;
+
+        void removeIfCold(final Object key) throws Exception {
+            if (!hotKeyMap.containsKey(key)) {
+                adapter.remove(key);
+            }
+        }
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            switch (mapType) {
+                case "WeakIdentityHashMap":
+                    adapter = new ConcurrentMapFunktionsAdapter();
+                    break;
+                case "ConcurrentHashMap":
+                    adapter = new MapMethodsAdapter(new ConcurrentHashMap<>());
+                    break;
+                case "GuavaWeakKeys":
+                    adapter = new MapMethodsAdapter(new MapMaker().weakKeys().makeMap());
+                    break;
+                case "SynchronizedWeakHashMap":
+                    adapter = new MapMethodsAdapter(Collections.synchronizedMap(new WeakHashMap<>()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown map type: " + mapType);
+            }
+            hotKeys = new Object[HOT_KEY_COUNT];
+            hotKeyMap = new ConcurrentHashMap<>();
+            for (int i = 0; HOT_KEY_COUNT > i; ++i) {
+                hotKeys[i] = new Object();
+                hotKeyMap.put(hotKeys[i], Boolean.TRUE);
+                adapter.put(hotKeys[i], 0);
+            }
+        }
+
+    }
+
+    /**
+     * Die Schl&uuml;ssel eines Threads f&uuml;r Fehlzugriffe.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private final Object[] coldKeys = new Object[COLD_KEY_COUNT];
+        private int nextIndex;
+
+        Object nextColdKey() {
+            final int index = nextIndex;
+            nextIndex = (index + 1) % COLD_KEY_COUNT;
+            return coldKeys[index];
+        }
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; COLD_KEY_COUNT > i; ++i) {
+                coldKeys[i] = new Object();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+package eu.dirk.haase.jdbc.benchmark;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den Overhead der JDBC-Wrapper gegen&uuml;ber direkten Aufrufen des
+ * H2-Treibers.
+ * <p>
+ * Jeder Benchmark l&auml;uft einmal gegen die H2-DataSource ({@code raw}) und
+ * einmal gegen dieselbe DataSource eingepackt von
+ * {@link DataSourceWrapperFactory} ({@code proxy}). Die Differenz der beiden
+ * Ergebnisse (ns/op sowie {@code gc.alloc.rate.norm} in Bytes/op) ist der
+ * Overhead der Wrapper.
+ * <p>
+ * Gemessen werden:
+ * <ul>
+ * <li>{@code getConnection}: Connection holen und schlie&szlig;en,</li>
+ * <li>{@code prepareStatement}: PreparedStatement erzeugen und schlie&szlig;en,</li>
+ * <li>{@code executeQuery}: Abfrage ausf&uuml;hren und ResultSet schlie&szlig;en,</li>
+ * <li>{@code iterateResultSet}: Abfrage ausf&uuml;hren und alle Zeilen mit
+ * Gettern lesen,</li>
+ * <li>{@code commit}: Commit einer Connection ohne Auto-Commit.</li>
+ * </ul>
+ * Da die JDBC-Wrapper Auto-Commit immer abschalten, enth&auml;lt
+ * {@code getConnection} im Modus {@code proxy} auch das Abschalten von
+ * Auto-Commit. Alle anderen Benchmarks laufen in beiden Modi ohne Auto-Commit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProxyOverheadBenchmark {
+
+    static final int ROW_COUNT = 100;
+
+    static final String SELECT_SQL = "select id, name, amount from bench where id <= ?";
+
+    public static void main(final String... args) throws Exception {
+        final Options options = new OptionsBuilder()
+                .include(ProxyOverheadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public void commit(final ConnectionState state) throws SQLException {
+        state.connection.commit();
+    }
+
+    @Benchmark
+    public int executeQuery(final ConnectionState state) throws SQLException {
+        state.statement.setInt(1, 1);
+        try (ResultSet resultSet = state.statement.executeQuery()) {
+            return resultSet.getType();
+        }
+    }
+
+    @Benchmark
+    public void getConnection(final DataSourceState state, final Blackhole blackhole) throws SQLException {
+        try (Connection connection = state.dataSource.getConnection()) {
+            blackhole.consume(connection);
+        }
+    }
+
+    @Benchmark
+    public void iterateResultSet(final ConnectionState state, final Blackhole blackhole) throws SQLException {
+        state.statement.setInt(1, ROW_COUNT);
+        try (ResultSet resultSet = state.statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong(1));
+                blackhole.consume(resultSet.getString(2));
+                blackhole.consume(resultSet.getBigDecimal(3));
+            }
+        }
+    }
+
+    @Benchmark
+    public void prepareStatement(final ConnectionState state, final Blackhole blackhole) throws SQLException {
+        try (PreparedStatement statement = state.connection.prepareStatement(SELECT_SQL)) {
+            blackhole.consume(statement);
+        }
+    }
+
+    /**
+     * Die DataSource eines Benchmark-Laufs: H2 direkt oder eingepackt in die
+     * JDBC-Wrapper.
+     */
+    @State(Scope.Benchmark)
+    public static class DataSourceState {
+
+        DataSource dataSource;
+
+        @Param({"raw", "proxy"})
+        String mode;
+
+        private Connection keepAliveConnection;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            final JdbcDataSource h2DataSource = new JdbcDataSource();
+            h2DataSource.setURL("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+            keepAliveConnection = h2DataSource.getConnection();
+            try (Statement statement = keepAliveConnection.createStatement()) {
+                statement.execute("create table if not exists bench (id int primary key, name varchar(40), amount decimal(12,2))");
+                statement.execute("delete from bench");
+            }
+            try (PreparedStatement statement = keepAliveConnection.prepareStatement("insert into bench values (?, ?, ?)")) {
+                for (int id = 1; ROW_COUNT >= id; ++id) {
+                    statement.setInt(1, id);
+                    statement.setString(2, "name-" + id);
+                    statement.setBigDecimal(3, java.math.BigDecimal.valueOf(id * 100L, 2));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+
+            if ("proxy".equals(mode)) {
+                final Map<Class<?>, Class<?>> iface2CustomClassMap = new HashMap<>();
+                iface2CustomClassMap.put(DataSource.class, AbstractDataSourceProxy.class);
+                iface2CustomClassMap.put(Connection.class, AbstractConnectionProxy.class);
+                iface2CustomClassMap.put(Statement.class, AbstractStatementProxy.class);
+                iface2CustomClassMap.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
+                iface2CustomClassMap.put(CallableStatement.class, AbstractCallableStatementProxy.class);
+                iface2CustomClassMap.put(ResultSet.class, AbstractResultSetProxy.class);
+                dataSource = DataSourceWrapperFactory.newInstance(iface2CustomClassMap).wrapDataSource(h2DataSource);
+            } else {
+                dataSource = h2DataSource;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            keepAliveConnection.close();
+        }
+
+    }
+
+    /**
+     * Die Connection und das PreparedStatement eines Benchmark-Threads.
+     */
+    @State(Scope.Thread)
+    public static class ConnectionState {
+
+        Connection connection;
+        PreparedStatement statement;
+
+        @Setup(Level.Trial)
+        public void setUp(final DataSourceState dataSourceState) throws SQLException {
+            connection = dataSourceState.dataSource.getConnection();
+            // Die JDBC-Wrapper schalten Auto-Commit immer ab,
+            // fuer einen fairen Vergleich also auch bei H2 direkt
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+            }
+            statement = connection.prepareStatement(SELECT_SQL);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            statement.close();
+            connection.close();
+        }
+
+    }
+
+}
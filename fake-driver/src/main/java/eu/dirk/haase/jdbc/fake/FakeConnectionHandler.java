@@ -0,0 +1,112 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.lang.reflect.Method;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Simuliert eine {@link Connection}.
+ * <p>
+ * Eine physische Connection schlie&szlig;t beim {@code close()} ihre
+ * {@link FakeSession}. Eine logische Connection (aus einer
+ * {@link javax.sql.PooledConnection}) benachrichtigt stattdessen ihre
+ * PooledConnection, die die Session weiter verwendet.
+ */
+final class FakeConnectionHandler extends FakeHandler {
+
+    private final Runnable closeListener;
+    private final FakeSession session;
+    private volatile boolean closed;
+
+    FakeConnectionHandler(final FakeSession session, final Runnable closeListener) {
+        this.session = session;
+        this.closeListener = closeListener;
+        setProperty("AutoCommit", Boolean.TRUE);
+        setProperty("Holdability", ResultSet.HOLD_CURSORS_OVER_COMMIT);
+        setProperty("TransactionIsolation", Connection.TRANSACTION_READ_COMMITTED);
+    }
+
+    /**
+     * Erzeugt eine physische Connection.
+     *
+     * @param session die Session der Connection.
+     * @return die Connection.
+     */
+    static Connection newConnection(final FakeSession session) {
+        return newProxy(Connection.class, new FakeConnectionHandler(session, session::close));
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw OracleErrors.exception(OracleErrors.CLOSED_CONNECTION);
+        }
+    }
+
+    @Override
+    Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    closeListener.run();
+                }
+                return null;
+            case "isClosed":
+                return closed;
+            case "isValid":
+                if (closed) {
+                    return false;
+                }
+                try {
+                    session.perform(Operation.VALIDATE);
+                    return true;
+                } catch (SQLException ex) {
+                    return false;
+                }
+            case "commit":
+                checkOpen();
+                session.perform(Operation.COMMIT);
+                return null;
+            case "rollback":
+                checkOpen();
+                session.perform(Operation.ROLLBACK);
+                return null;
+            case "createStatement":
+                checkOpen();
+                return newStatement((Connection) proxy, Statement.class, null);
+            case "prepareStatement":
+                checkOpen();
+                session.perform(Operation.PREPARE);
+                return newStatement((Connection) proxy, PreparedStatement.class, (String) args[0]);
+            case "prepareCall":
+                checkOpen();
+                session.perform(Operation.PREPARE);
+                return newStatement((Connection) proxy, CallableStatement.class, (String) args[0]);
+            case "getMetaData":
+                checkOpen();
+                return newProxy(DatabaseMetaData.class, new FakeDatabaseMetaDataHandler((Connection) proxy, session));
+            case "nativeSQL":
+                checkOpen();
+                return args[0];
+            case "getWarnings":
+            case "clearWarnings":
+            case "setSavepoint":
+            case "releaseSavepoint":
+            case "abort":
+                return null;
+            default:
+                checkOpen();
+                return NOT_HANDLED;
+        }
+    }
+
+    private <T extends Statement> T newStatement(final Connection connection, final Class<T> iface, final String sql) {
+        return newProxy(iface, new FakeStatementHandler(connection, session, sql));
+    }
+
+}
@@ -0,0 +1,129 @@
+package eu.dirk.haase.jdbc.fake;
+
+import javax.sql.ConnectionPoolDataSource;
+import javax.sql.DataSource;
+import javax.sql.PooledConnection;
+import javax.sql.XAConnection;
+import javax.sql.XADataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * DataSource f&uuml;r Last- und Ausfalltests, deren Connections das Verhalten
+ * einer {@link FakeDatabase} simulieren.
+ * <p>
+ * Diese Klasse implementiert alle drei DataSource-Varianten, damit sie direkt
+ * mit {@code DataSourceWrapperFactory}
+ * verwendet werden kann. Benutzer und Passwort werden ignoriert.
+ * <p>
+ * Beispiel:
+ * <pre><code>
+ * FakeDatabase database = FakeDatabase.named("orders");
+ * database.setLatency(Operation.CONNECT, LatencyDistribution.logNormal(20, 0.5, TimeUnit.MILLISECONDS));
+ * database.setErrorRate(Operation.EXECUTE, 0.001, OracleErrors.END_OF_FILE_ON_CHANNEL);
+ * database.scheduleOutage(30, 5, TimeUnit.SECONDS, OracleErrors.NOT_AVAILABLE);
+ * DataSource dataSource = new FakeDataSource(database);
+ * </code></pre>
+ */
+public final class FakeDataSource implements DataSource, XADataSource, ConnectionPoolDataSource {
+
+    private final FakeDatabase database;
+    private volatile PrintWriter logWriter;
+    private volatile int loginTimeout;
+
+    /**
+     * Erzeugt eine DataSource f&uuml;r eine simulierte Datenbank.
+     *
+     * @param database die simulierte Datenbank.
+     */
+    public FakeDataSource(final FakeDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return FakeConnectionHandler.newConnection(FakeSession.open(database));
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Liefert die simulierte Datenbank dieser DataSource.
+     *
+     * @return die simulierte Datenbank.
+     */
+    public FakeDatabase getDatabase() {
+        return database;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(final PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public void setLoginTimeout(final int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public PooledConnection getPooledConnection() throws SQLException {
+        return FakePooledConnectionHandler.open(database, PooledConnection.class);
+    }
+
+    @Override
+    public PooledConnection getPooledConnection(final String user, final String password) throws SQLException {
+        return getPooledConnection();
+    }
+
+    @Override
+    public XAConnection getXAConnection() throws SQLException {
+        return FakePooledConnectionHandler.open(database, XAConnection.class);
+    }
+
+    @Override
+    public XAConnection getXAConnection(final String user, final String password) throws SQLException {
+        return getXAConnection();
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        throw new SQLException("Not a wrapper for " + iface);
+    }
+
+    @Override
+    public String toString() {
+        return "FakeDataSource{database=" + database + '}';
+    }
+
+}
@@ -0,0 +1,351 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Eine simulierte Datenbank: das Verhalten aller Connections, die &uuml;ber eine
+ * {@link FakeDataSource} oder den {@link FakeDriver} zu dieser Datenbank
+ * ge&ouml;ffnet werden.
+ * <p>
+ * Pro {@link Operation} k&ouml;nnen konfiguriert werden:
+ * <ul>
+ * <li>eine {@link LatencyDistribution} (zum Beispiel die Kosten f&uuml;r den
+ * Aufbau einer Connection mit {@link Operation#CONNECT}) und</li>
+ * <li>eine Fehlerrate mit einem Oracle-Fehlercode (siehe {@link OracleErrors}).</li>
+ * </ul>
+ * Zus&auml;tzlich k&ouml;nnen Ausf&auml;lle ausgel&ouml;st oder im Voraus geplant
+ * werden. W&auml;hrend eines Ausfalls schl&auml;gt jede Operation mit dem
+ * Fehlercode des Ausfalls fehl. Connections, die vor einem Ausfall ge&ouml;ffnet
+ * wurden, bleiben auch danach unbrauchbar (ORA-03113), so wie nach einem
+ * Neustart einer echten Datenbank.
+ * <p>
+ * Alle Einstellungen k&ouml;nnen jederzeit, auch w&auml;hrend eines Lasttests,
+ * ge&auml;ndert werden.
+ */
+public final class FakeDatabase {
+
+    static final long NO_CONNECTION = Long.MIN_VALUE;
+
+    private static final Map<String, FakeDatabase> name2DatabaseMap = new ConcurrentHashMap<>();
+
+    private final Map<Operation, LongAdder> errorCountMap;
+    private final Map<Operation, Fault> faultMap;
+    private final Map<Operation, LongAdder> invocationCountMap;
+    private final Map<Operation, LatencyDistribution> latencyMap;
+    private final String name;
+    private final AtomicInteger openConnectionCount;
+    private final List<Outage> outageList;
+    private volatile String[] columnLabels;
+    private volatile int rowCount;
+
+    /**
+     * Erzeugt eine simulierte Datenbank ohne Latenzen, Fehler und Ausf&auml;lle,
+     * deren Abfragen 10 Zeilen mit den Spalten {@code ID} und {@code NAME}
+     * liefern.
+     *
+     * @param name der Name der Datenbank.
+     */
+    public FakeDatabase(final String name) {
+        this.name = name;
+        this.latencyMap = new ConcurrentHashMap<>();
+        this.faultMap = new ConcurrentHashMap<>();
+        this.invocationCountMap = new EnumMap<>(Operation.class);
+        this.errorCountMap = new EnumMap<>(Operation.class);
+        for (final Operation operation : Operation.values()) {
+            this.invocationCountMap.put(operation, new LongAdder());
+            this.errorCountMap.put(operation, new LongAdder());
+        }
+        this.outageList = new CopyOnWriteArrayList<>();
+        this.openConnectionCount = new AtomicInteger();
+        this.columnLabels = new String[]{"ID", "NAME"};
+        this.rowCount = 10;
+    }
+
+    /**
+     * Liefert die simulierte Datenbank zu einem Namen, zum Beispiel f&uuml;r die
+     * URL {@code jdbc:fake:orders} die Datenbank {@code orders}. Existiert noch
+     * keine Datenbank mit diesem Namen, dann wird sie angelegt.
+     *
+     * @param name der Name der Datenbank.
+     * @return die Datenbank.
+     */
+    public static FakeDatabase named(final String name) {
+        return name2DatabaseMap.computeIfAbsent(name, FakeDatabase::new);
+    }
+
+    private static void sleep(final long nanos) throws SQLException {
+        final long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new SQLTimeoutException("Interrupted while simulating latency");
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Beginnt sofort einen Ausfall, der bis zum Aufruf von {@link #endOutage()}
+     * andauert.
+     *
+     * @param errorCode der Oracle-Fehlercode mit dem alle Operationen
+     *                  fehlschlagen, zum Beispiel {@link OracleErrors#NOT_AVAILABLE}.
+     */
+    public void beginOutage(final int errorCode) {
+        outageList.add(new Outage(System.nanoTime(), Long.MAX_VALUE, errorCode));
+    }
+
+    private Outage currentOutage(final long now) {
+        for (final Outage outage : outageList) {
+            if ((outage.startNanos <= now) && (now < outage.endNanos)) {
+                return outage;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Beendet alle laufenden Ausf&auml;lle. Geplante Ausf&auml;lle die noch nicht
+     * begonnen haben, bleiben bestehen.
+     */
+    public void endOutage() {
+        final long now = System.nanoTime();
+        for (final Outage outage : outageList) {
+            if ((outage.startNanos <= now) && (now < outage.endNanos)) {
+                outage.endNanos = now;
+            }
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der fehlgeschlagenen Aufrufe einer Operation.
+     *
+     * @param operation die Operation.
+     * @return die Anzahl der fehlgeschlagenen Aufrufe.
+     */
+    public long errorCount(final Operation operation) {
+        return errorCountMap.get(operation).sum();
+    }
+
+    private SQLException fail(final Operation operation, final int errorCode) {
+        errorCountMap.get(operation).increment();
+        return OracleErrors.exception(errorCode);
+    }
+
+    String[] getColumnLabels() {
+        return columnLabels;
+    }
+
+    /**
+     * Liefert den Namen der Datenbank.
+     *
+     * @return der Name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Liefert die Anzahl der Aufrufe einer Operation (einschlie&szlig;lich der
+     * fehlgeschlagenen).
+     *
+     * @param operation die Operation.
+     * @return die Anzahl der Aufrufe.
+     */
+    public long invocationCount(final Operation operation) {
+        return invocationCountMap.get(operation).sum();
+    }
+
+    /**
+     * Liefert {@code true} wenn gerade kein Ausfall andauert.
+     *
+     * @return {@code true} wenn die Datenbank verf&uuml;gbar ist.
+     */
+    public boolean isAvailable() {
+        return (currentOutage(System.nanoTime()) == null);
+    }
+
+    private boolean isBroken(final long connectionNanos, final long now) {
+        if (connectionNanos == NO_CONNECTION) {
+            return false;
+        }
+        for (final Outage outage : outageList) {
+            if ((outage.startNanos > connectionNanos) && (outage.startNanos <= now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void connectionClosed() {
+        openConnectionCount.decrementAndGet();
+    }
+
+    void connectionOpened() {
+        openConnectionCount.incrementAndGet();
+    }
+
+    /**
+     * Liefert die Anzahl der aktuell ge&ouml;ffneten physischen Connections.
+     *
+     * @return die Anzahl der ge&ouml;ffneten Connections.
+     */
+    public int openConnectionCount() {
+        return openConnectionCount.get();
+    }
+
+    /**
+     * F&uuml;hrt eine Operation aus: pr&uuml;ft auf Ausf&auml;lle, wartet die
+     * simulierte Latenz ab und l&ouml;st gegebenenfalls einen zuf&auml;lligen
+     * Fehler aus.
+     *
+     * @param operation       die Operation.
+     * @param connectionNanos der Zeitpunkt ({@link System#nanoTime()}) zu dem
+     *                        die physische Connection ge&ouml;ffnet wurde oder
+     *                        {@link #NO_CONNECTION}.
+     * @throws SQLException der simulierte Fehler.
+     */
+    void perform(final Operation operation, final long connectionNanos) throws SQLException {
+        invocationCountMap.get(operation).increment();
+        final long now = System.nanoTime();
+        final Outage outage = currentOutage(now);
+        if (outage != null) {
+            throw fail(operation, outage.errorCode);
+        }
+        if (isBroken(connectionNanos, now)) {
+            throw fail(operation, OracleErrors.END_OF_FILE_ON_CHANNEL);
+        }
+        final LatencyDistribution latency = latencyMap.get(operation);
+        if (latency != null) {
+            sleep(latency.nextNanos());
+        }
+        final Fault fault = faultMap.get(operation);
+        if ((fault != null) && (ThreadLocalRandom.current().nextDouble() < fault.rate)) {
+            throw fail(operation, fault.errorCode);
+        }
+    }
+
+    /**
+     * Setzt alle Z&auml;hler zur&uuml;ck und entfernt alle Ausf&auml;lle.
+     */
+    public void reset() {
+        outageList.clear();
+        invocationCountMap.values().forEach(LongAdder::reset);
+        errorCountMap.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Plant einen Ausfall.
+     *
+     * @param delay     die Zeit bis zum Beginn des Ausfalls.
+     * @param duration  die Dauer des Ausfalls.
+     * @param unit      die Zeiteinheit f&uuml;r {@code delay} und {@code duration}.
+     * @param errorCode der Oracle-Fehlercode mit dem alle Operationen w&auml;hrend
+     *                  des Ausfalls fehlschlagen.
+     */
+    public void scheduleOutage(final long delay, final long duration, final TimeUnit unit, final int errorCode) {
+        final long startNanos = System.nanoTime() + unit.toNanos(delay);
+        outageList.add(new Outage(startNanos, startNanos + unit.toNanos(duration), errorCode));
+    }
+
+    /**
+     * Legt die Fehlerrate einer Operation fest.
+     *
+     * @param operation die Operation.
+     * @param rate      die Wahrscheinlichkeit (zwischen {@code 0.0} und
+     *                  {@code 1.0}) mit der ein Aufruf fehlschl&auml;gt.
+     * @param errorCode der Oracle-Fehlercode des Fehlers (siehe {@link OracleErrors}).
+     */
+    public void setErrorRate(final Operation operation, final double rate, final int errorCode) {
+        if ((rate < 0.0) || (rate > 1.0)) {
+            throw new IllegalArgumentException("Error rate must be between 0.0 and 1.0: " + rate);
+        }
+        if (rate == 0.0) {
+            faultMap.remove(operation);
+        } else {
+            faultMap.put(operation, new Fault(rate, errorCode));
+        }
+    }
+
+    /**
+     * Legt die Latenz-Verteilung einer Operation fest.
+     *
+     * @param operation die Operation.
+     * @param latency   die Latenz-Verteilung.
+     */
+    public void setLatency(final Operation operation, final LatencyDistribution latency) {
+        latencyMap.put(operation, latency);
+    }
+
+    /**
+     * Legt die Spalten der Ergebnisse aller Abfragen fest. Die erste Spalte
+     * enth&auml;lt die Zeilennummer als {@code BIGINT}, alle weiteren Spalten
+     * {@code VARCHAR}-Werte.
+     *
+     * @param columnLabels die Namen der Spalten.
+     */
+    public void setResultColumns(final String... columnLabels) {
+        if (columnLabels.length == 0) {
+            throw new IllegalArgumentException("At least one column is required.");
+        }
+        this.columnLabels = columnLabels.clone();
+    }
+
+    /**
+     * Legt die Anzahl der Zeilen der Ergebnisse aller Abfragen fest.
+     *
+     * @param rowCount die Anzahl der Zeilen.
+     */
+    public void setResultRowCount(final int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FakeDatabase{name='" + name + "', openConnections=" + openConnectionCount + ", available=" + isAvailable() + '}';
+    }
+
+    static final class Fault {
+
+        final int errorCode;
+        final double rate;
+
+        Fault(final double rate, final int errorCode) {
+            this.rate = rate;
+            this.errorCode = errorCode;
+        }
+
+    }
+
+    static final class Outage {
+
+        final int errorCode;
+        final long startNanos;
+        volatile long endNanos;
+
+        Outage(final long startNanos, final long endNanos, final int errorCode) {
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.errorCode = errorCode;
+        }
+
+    }
+
+}
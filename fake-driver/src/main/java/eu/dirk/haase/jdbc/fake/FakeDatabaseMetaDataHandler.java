@@ -0,0 +1,61 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * Simuliert die {@link DatabaseMetaData} einer {@link FakeDatabase}.
+ * <p>
+ * Alle Abfragen, die ein ResultSet liefern, kosten einen Roundtrip (siehe
+ * {@link Operation#METADATA}) und liefern ein leeres ResultSet.
+ */
+final class FakeDatabaseMetaDataHandler extends FakeHandler {
+
+    private final Connection connection;
+    private final FakeSession session;
+
+    FakeDatabaseMetaDataHandler(final Connection connection, final FakeSession session) {
+        this.connection = connection;
+        this.session = session;
+    }
+
+    @Override
+    Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getConnection":
+                return connection;
+            case "getDatabaseProductName":
+                return "Fake";
+            case "getDatabaseProductVersion":
+            case "getDriverVersion":
+                return FakeDriver.MAJOR_VERSION + "." + FakeDriver.MINOR_VERSION;
+            case "getDatabaseMajorVersion":
+            case "getDriverMajorVersion":
+            case "getJDBCMajorVersion":
+                return FakeDriver.MAJOR_VERSION;
+            case "getDatabaseMinorVersion":
+            case "getDriverMinorVersion":
+            case "getJDBCMinorVersion":
+                return FakeDriver.MINOR_VERSION;
+            case "getDriverName":
+                return FakeDriver.class.getSimpleName();
+            case "getURL":
+                return FakeDriver.URL_PREFIX + session.getDatabase().getName();
+            case "getIdentifierQuoteString":
+                return "\"";
+            case "getDefaultTransactionIsolation":
+                return Connection.TRANSACTION_READ_COMMITTED;
+            default:
+                if (method.getReturnType() == ResultSet.class) {
+                    session.perform(Operation.METADATA);
+                    return FakeResultSetHandler.newEmptyResultSet(null, session);
+                } else if ((args != null) && (args.length > 0)) {
+                    return defaultValue(method.getReturnType());
+                }
+                return NOT_HANDLED;
+        }
+    }
+
+}
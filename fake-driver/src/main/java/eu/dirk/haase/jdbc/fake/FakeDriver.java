@@ -0,0 +1,73 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * JDBC-Treiber f&uuml;r Last- und Ausfalltests mit URLs der Form
+ * {@code jdbc:fake:<name>}.
+ * <p>
+ * Jede URL adressiert die simulierte Datenbank {@link FakeDatabase#named(String)}
+ * mit dem angegebenen Namen. Der Treiber registriert sich beim Laden der Klasse
+ * (und per {@code META-INF/services/java.sql.Driver}) selbst beim
+ * {@link DriverManager}.
+ */
+public final class FakeDriver implements Driver {
+
+    static final int MAJOR_VERSION = 1;
+    static final int MINOR_VERSION = 0;
+    static final String URL_PREFIX = "jdbc:fake:";
+
+    static {
+        try {
+            DriverManager.registerDriver(new FakeDriver());
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    @Override
+    public boolean acceptsURL(final String url) {
+        return (url != null) && url.startsWith(URL_PREFIX) && (url.length() > URL_PREFIX.length());
+    }
+
+    @Override
+    public Connection connect(final String url, final Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        return FakeConnectionHandler.newConnection(FakeSession.open(FakeDatabase.named(url.substring(URL_PREFIX.length()))));
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return MAJOR_VERSION;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return MINOR_VERSION;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(final String url, final Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+}
@@ -0,0 +1,139 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Basis-Klasse f&uuml;r die {@link InvocationHandler} der simulierten
+ * JDBC-Objekte.
+ * <p>
+ * Behandelt die Methoden von {@link Object} und {@link java.sql.Wrapper} sowie
+ * alle einfachen Properties: {@code setXxx(value)} speichert einen Wert, der
+ * anschlie&szlig;end von {@code getXxx()} beziehungsweise {@code isXxx()}
+ * geliefert wird. Alle anderen Methoden werden an {@link #handle(Object, Method, Object[])}
+ * weitergegeben.
+ */
+abstract class FakeHandler implements InvocationHandler {
+
+    /**
+     * Kennzeichnet im Ergebnis von {@link #handle(Object, Method, Object[])},
+     * dass die Methode als einfache Property behandelt werden soll.
+     */
+    static final Object NOT_HANDLED = new Object();
+
+    private final Map<String, Object> propertyMap;
+
+    FakeHandler() {
+        this.propertyMap = new ConcurrentHashMap<>();
+    }
+
+    static Object defaultValue(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return Boolean.FALSE;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == double.class) {
+            return 0.0d;
+        } else if (type == float.class) {
+            return 0.0f;
+        } else if (type == char.class) {
+            return '\0';
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T newProxy(final Class<T> iface, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(FakeHandler.class.getClassLoader(), new Class<?>[]{iface}, handler);
+    }
+
+    private static String propertyName(final String methodName) {
+        if (methodName.startsWith("is")) {
+            return methodName.substring(2);
+        }
+        return methodName.substring(3);
+    }
+
+    final Object getProperty(final String name) {
+        return propertyMap.get(name);
+    }
+
+    /**
+     * Behandelt alle Methoden, die weder zu {@link Object} oder
+     * {@link java.sql.Wrapper} geh&ouml;ren noch einfache Properties sind.
+     *
+     * @param proxy  das simulierte JDBC-Objekt.
+     * @param method die aufgerufene Methode.
+     * @param args   die Argumente des Aufrufs.
+     * @return das Ergebnis des Aufrufs.
+     * @throws Throwable der simulierte Fehler.
+     */
+    abstract Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable;
+
+    @Override
+    public final Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final String methodName = method.getName();
+        final int argCount = (args == null ? 0 : args.length);
+        switch (methodName) {
+            case "equals":
+                return (argCount == 1) && (proxy == args[0]);
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy);
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                throw new SQLException("Not a wrapper for " + args[0]);
+            default:
+                break;
+        }
+        final Object result = handle(proxy, method, args);
+        if (result != NOT_HANDLED) {
+            return result;
+        }
+        return handleProperty(method, args, argCount);
+    }
+
+    private Object handleProperty(final Method method, final Object[] args, final int argCount) throws SQLException {
+        final String methodName = method.getName();
+        final Class<?> returnType = method.getReturnType();
+        if ((argCount == 1) && methodName.startsWith("set") && (returnType == void.class)) {
+            if (args[0] == null) {
+                propertyMap.remove(propertyName(methodName));
+            } else {
+                propertyMap.put(propertyName(methodName), args[0]);
+            }
+            return null;
+        } else if ((argCount == 0) && (methodName.startsWith("get") || methodName.startsWith("is"))) {
+            final Object value = propertyMap.get(propertyName(methodName));
+            return (value == null ? defaultValue(returnType) : value);
+        } else if (returnType == void.class) {
+            return null;
+        } else {
+            throw new SQLFeatureNotSupportedException(method.getDeclaringClass().getSimpleName() + "." + methodName);
+        }
+    }
+
+    final void setProperty(final String name, final Object value) {
+        propertyMap.put(name, value);
+    }
+
+}
@@ -0,0 +1,109 @@
+package eu.dirk.haase.jdbc.fake;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.PooledConnection;
+import javax.sql.StatementEventListener;
+import javax.sql.XAConnection;
+import javax.transaction.xa.XAResource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Simuliert eine {@link PooledConnection} beziehungsweise {@link XAConnection}.
+ * <p>
+ * Die physische Connection wird beim Erzeugen ge&ouml;ffnet. Jeder Aufruf von
+ * {@code getConnection()} liefert eine neue logische Connection und schlie&szlig;t
+ * die vorherige. Tritt ein Verbindungsfehler auf, dann werden alle
+ * {@link ConnectionEventListener} mit {@code connectionErrorOccurred}
+ * benachrichtigt.
+ */
+final class FakePooledConnectionHandler extends FakeHandler {
+
+    private final List<ConnectionEventListener> connectionEventListenerList;
+    private final FakeSession session;
+    private final List<StatementEventListener> statementEventListenerList;
+    private Connection logicalConnection;
+    private PooledConnection pooledConnection;
+
+    private FakePooledConnectionHandler(final FakeSession session) {
+        this.session = session;
+        this.connectionEventListenerList = new CopyOnWriteArrayList<>();
+        this.statementEventListenerList = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * &Ouml;ffnet eine physische Connection und liefert sie als
+     * {@link PooledConnection} beziehungsweise {@link XAConnection}.
+     *
+     * @param database die Datenbank.
+     * @param iface    {@link PooledConnection} oder {@link XAConnection}.
+     * @param <T>      der Typ der Connection.
+     * @return die ge&ouml;ffnete Connection.
+     * @throws SQLException wird ausgel&ouml;st wenn die Datenbank nicht
+     *                      verf&uuml;gbar ist.
+     */
+    static <T extends PooledConnection> T open(final FakeDatabase database, final Class<T> iface) throws SQLException {
+        final FakePooledConnectionHandler handler = new FakePooledConnectionHandler(FakeSession.open(database));
+        final T pooledConnection = newProxy(iface, handler);
+        handler.pooledConnection = pooledConnection;
+        handler.session.setFatalErrorListener(handler::fireConnectionErrorOccurred);
+        return pooledConnection;
+    }
+
+    private void fireConnectionClosed() {
+        final ConnectionEvent event = new ConnectionEvent(pooledConnection);
+        for (final ConnectionEventListener listener : connectionEventListenerList) {
+            listener.connectionClosed(event);
+        }
+    }
+
+    private void fireConnectionErrorOccurred(final SQLException ex) {
+        final ConnectionEvent event = new ConnectionEvent(pooledConnection, ex);
+        for (final ConnectionEventListener listener : connectionEventListenerList) {
+            listener.connectionErrorOccurred(event);
+        }
+    }
+
+    private synchronized Connection getConnection() throws SQLException {
+        if (session.isClosed()) {
+            throw OracleErrors.exception(OracleErrors.CLOSED_CONNECTION);
+        }
+        if (logicalConnection != null) {
+            logicalConnection.close();
+        }
+        logicalConnection = newProxy(Connection.class, new FakeConnectionHandler(session, this::fireConnectionClosed));
+        return logicalConnection;
+    }
+
+    @Override
+    Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getConnection":
+                return getConnection();
+            case "close":
+                session.close();
+                return null;
+            case "getXAResource":
+                return newProxy(XAResource.class, new FakeXAResourceHandler(session));
+            case "addConnectionEventListener":
+                connectionEventListenerList.add((ConnectionEventListener) args[0]);
+                return null;
+            case "removeConnectionEventListener":
+                connectionEventListenerList.remove(args[0]);
+                return null;
+            case "addStatementEventListener":
+                statementEventListenerList.add((StatementEventListener) args[0]);
+                return null;
+            case "removeStatementEventListener":
+                statementEventListenerList.remove(args[0]);
+                return null;
+            default:
+                return NOT_HANDLED;
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * Simuliert ein {@link ResultSet} mit generierten Werten.
+ * <p>
+ * Die erste Spalte enth&auml;lt die Zeilennummer (beginnend mit 1) als
+ * {@code BIGINT}, alle weiteren Spalten den {@code VARCHAR}-Wert
+ * {@code <Spaltenname>-<Zeilennummer>}.
+ * <p>
+ * Wie bei einem echten Treiber kostet nicht jede Zeile einen Roundtrip, sondern
+ * nur jeweils {@code fetchSize} Zeilen (siehe {@link Operation#FETCH}).
+ */
+final class FakeResultSetHandler extends FakeHandler {
+
+    private final String[] columnLabels;
+    private final int rowCount;
+    private final FakeSession session;
+    private final Statement statement;
+    private volatile boolean closed;
+    private int fetchSize;
+    private int row;
+
+    FakeResultSetHandler(final Statement statement, final FakeSession session, final String[] columnLabels, final int rowCount, final int fetchSize) {
+        this.statement = statement;
+        this.session = session;
+        this.columnLabels = columnLabels;
+        this.rowCount = rowCount;
+        this.fetchSize = fetchSize;
+    }
+
+    static ResultSet newEmptyResultSet(final Statement statement, final FakeSession session) {
+        return newProxy(ResultSet.class, new FakeResultSetHandler(statement, session, new String[]{"ID"}, 0, FakeStatementHandler.DEFAULT_FETCH_SIZE));
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Closed Resultset", "HY010", 17010);
+        }
+    }
+
+    private int columnIndex(final Object column) throws SQLException {
+        if (column instanceof Integer) {
+            final int index = (Integer) column;
+            if ((index < 1) || (index > columnLabels.length)) {
+                throw new SQLException("Invalid column index: " + index, "07009", 17003);
+            }
+            return index;
+        }
+        final String label = (String) column;
+        for (int i = 0; columnLabels.length > i; ++i) {
+            if (columnLabels[i].equalsIgnoreCase(label)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Invalid column name: " + label, "42S22", 17006);
+    }
+
+    private Object convert(final Object value, final Class<?> type) throws SQLException {
+        if ((type == Object.class) || type.isInstance(value)) {
+            return value;
+        } else if (type == String.class) {
+            return String.valueOf(value);
+        } else if (value instanceof Long) {
+            final long number = (Long) value;
+            if (type == long.class) {
+                return number;
+            } else if (type == int.class) {
+                return (int) number;
+            } else if (type == short.class) {
+                return (short) number;
+            } else if (type == byte.class) {
+                return (byte) number;
+            } else if (type == double.class) {
+                return (double) number;
+            } else if (type == float.class) {
+                return (float) number;
+            } else if (type == boolean.class) {
+                return (number != 0);
+            } else if (type == BigDecimal.class) {
+                return BigDecimal.valueOf(number);
+            }
+        }
+        throw new SQLException("Invalid column type: " + type.getSimpleName(), "22005", 17004);
+    }
+
+    private Object getValue(final Method method, final Object[] args) throws SQLException {
+        checkOpen();
+        if ((row < 1) || (row > rowCount)) {
+            throw new SQLException("Exhausted Resultset", "24000", 17011);
+        }
+        final int index = columnIndex(args[0]);
+        final Object value = (index == 1 ? (Object) (long) row : (Object) (columnLabels[index - 1] + "-" + row));
+        if ((args.length == 2) && (args[1] instanceof Class)) {
+            return convert(value, (Class<?>) args[1]);
+        }
+        return convert(value, method.getReturnType());
+    }
+
+    @Override
+    Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final String methodName = method.getName();
+        switch (methodName) {
+            case "close":
+                closed = true;
+                return null;
+            case "isClosed":
+                return closed;
+            case "next":
+                return next();
+            case "findColumn":
+                return columnIndex(args[0]);
+            case "wasNull":
+                return false;
+            case "getMetaData":
+                return newProxy(ResultSetMetaData.class, new FakeResultSetMetaDataHandler(columnLabels));
+            case "getStatement":
+                return statement;
+            case "getRow":
+                return (row > rowCount ? 0 : row);
+            case "isBeforeFirst":
+                return (row == 0) && (rowCount > 0);
+            case "isFirst":
+                return (row == 1);
+            case "isLast":
+                return (row == rowCount) && (rowCount > 0);
+            case "isAfterLast":
+                return (row > rowCount) && (rowCount > 0);
+            case "getType":
+                return ResultSet.TYPE_FORWARD_ONLY;
+            case "getConcurrency":
+                return ResultSet.CONCUR_READ_ONLY;
+            case "getFetchSize":
+                return fetchSize;
+            case "setFetchSize":
+                fetchSize = ((Integer) args[0] > 0 ? (Integer) args[0] : FakeStatementHandler.DEFAULT_FETCH_SIZE);
+                return null;
+            case "getWarnings":
+            case "clearWarnings":
+                return null;
+            default:
+                if (methodName.startsWith("get") && (args != null) && (args.length > 0)
+                        && ((args[0] instanceof Integer) || (args[0] instanceof String))) {
+                    return getValue(method, args);
+                }
+                checkOpen();
+                return NOT_HANDLED;
+        }
+    }
+
+    private boolean next() throws SQLException {
+        checkOpen();
+        if (row > rowCount) {
+            return false;
+        }
+        if ((row % fetchSize) == 0) {
+            session.perform(Operation.FETCH);
+        }
+        row += 1;
+        return (row <= rowCount);
+    }
+
+    /**
+     * Simuliert die {@link ResultSetMetaData} eines {@link FakeResultSetHandler}.
+     */
+    static final class FakeResultSetMetaDataHandler extends FakeHandler {
+
+        private final String[] columnLabels;
+
+        FakeResultSetMetaDataHandler(final String[] columnLabels) {
+            this.columnLabels = columnLabels;
+        }
+
+        @Override
+        Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if ("getColumnCount".equals(method.getName())) {
+                return columnLabels.length;
+            }
+            if ((args == null) || (args.length != 1) || !(args[0] instanceof Integer)) {
+                return NOT_HANDLED;
+            }
+            final int column = (Integer) args[0];
+            if ((column < 1) || (column > columnLabels.length)) {
+                throw new SQLException("Invalid column index: " + column, "07009", 17003);
+            }
+            final boolean numeric = (column == 1);
+            switch (method.getName()) {
+                case "getColumnLabel":
+                case "getColumnName":
+                    return columnLabels[column - 1];
+                case "getColumnType":
+                    return (numeric ? Types.BIGINT : Types.VARCHAR);
+                case "getColumnTypeName":
+                    return (numeric ? "NUMBER" : "VARCHAR2");
+                case "getColumnClassName":
+                    return (numeric ? Long.class.getName() : String.class.getName());
+                case "getColumnDisplaySize":
+                case "getPrecision":
+                    return (numeric ? 19 : 100);
+                case "isNullable":
+                    return (numeric ? ResultSetMetaData.columnNoNulls : ResultSetMetaData.columnNullable);
+                case "isSigned":
+                    return numeric;
+                case "isReadOnly":
+                    return true;
+                case "isSearchable":
+                    return true;
+                case "getSchemaName":
+                case "getTableName":
+                case "getCatalogName":
+                    return "";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Eine physische Connection zu einer {@link FakeDatabase}.
+ * <p>
+ * Ein Verbindungsfehler (siehe {@link OracleErrors#isConnectionLoss(int)})
+ * macht die Session dauerhaft unbrauchbar: alle weiteren Operationen schlagen
+ * mit demselben Fehlercode fehl.
+ */
+final class FakeSession {
+
+    private final AtomicBoolean closed;
+    private final long createdNanos;
+    private final FakeDatabase database;
+    private volatile int brokenErrorCode;
+    private volatile Consumer<SQLException> fatalErrorListener;
+
+    private FakeSession(final FakeDatabase database) {
+        this.database = database;
+        this.createdNanos = System.nanoTime();
+        this.closed = new AtomicBoolean();
+    }
+
+    /**
+     * &Ouml;ffnet eine physische Connection (siehe {@link Operation#CONNECT}).
+     *
+     * @param database die Datenbank.
+     * @return die ge&ouml;ffnete Session.
+     * @throws SQLException wird ausgel&ouml;st wenn die Datenbank nicht
+     *                      verf&uuml;gbar ist.
+     */
+    static FakeSession open(final FakeDatabase database) throws SQLException {
+        database.perform(Operation.CONNECT, FakeDatabase.NO_CONNECTION);
+        database.connectionOpened();
+        return new FakeSession(database);
+    }
+
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            database.connectionClosed();
+        }
+    }
+
+    FakeDatabase getDatabase() {
+        return database;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    void perform(final Operation operation) throws SQLException {
+        if (closed.get()) {
+            throw OracleErrors.exception(OracleErrors.CLOSED_CONNECTION);
+        }
+        if (brokenErrorCode != 0) {
+            throw OracleErrors.exception(brokenErrorCode);
+        }
+        try {
+            database.perform(operation, createdNanos);
+        } catch (SQLException ex) {
+            if (OracleErrors.isConnectionLoss(ex.getErrorCode())) {
+                brokenErrorCode = ex.getErrorCode();
+                final Consumer<SQLException> listener = fatalErrorListener;
+                if (listener != null) {
+                    listener.accept(ex);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    void setFatalErrorListener(final Consumer<SQLException> fatalErrorListener) {
+        this.fatalErrorListener = fatalErrorListener;
+    }
+
+}
@@ -0,0 +1,144 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Simuliert ein {@link Statement}, {@link java.sql.PreparedStatement} oder
+ * {@link java.sql.CallableStatement}.
+ * <p>
+ * Abfragen liefern ein ResultSet nach den Vorgaben der {@link FakeDatabase},
+ * alle anderen SQL-Anweisungen &auml;ndern genau eine Zeile. Gebundene
+ * Parameter werden ignoriert.
+ */
+final class FakeStatementHandler extends FakeHandler {
+
+    static final int DEFAULT_FETCH_SIZE = 10;
+
+    private final Connection connection;
+    private final FakeSession session;
+    private final String preparedSql;
+    private int batchCount;
+    private volatile boolean closed;
+    private ResultSet resultSet;
+    private long updateCount;
+
+    FakeStatementHandler(final Connection connection, final FakeSession session, final String preparedSql) {
+        this.connection = connection;
+        this.session = session;
+        this.preparedSql = preparedSql;
+        this.updateCount = -1;
+        setProperty("FetchSize", DEFAULT_FETCH_SIZE);
+        setProperty("ResultSetType", ResultSet.TYPE_FORWARD_ONLY);
+        setProperty("ResultSetConcurrency", ResultSet.CONCUR_READ_ONLY);
+    }
+
+    private static boolean isQuery(final String sql) {
+        final String trimmed = sql.trim().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith("select") || trimmed.startsWith("with");
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Closed Statement", "HY010", 17009);
+        }
+    }
+
+    private Object execute(final Object proxy, final Method method, final Object[] args) throws SQLException {
+        checkOpen();
+        final String sql = ((args != null) && (args.length > 0) && (args[0] instanceof String) ? (String) args[0] : preparedSql);
+        session.perform(Operation.EXECUTE);
+        resultSet = null;
+        updateCount = -1;
+        switch (method.getName()) {
+            case "executeQuery":
+                resultSet = newResultSet((Statement) proxy);
+                return resultSet;
+            case "execute":
+                if ((sql != null) && isQuery(sql)) {
+                    resultSet = newResultSet((Statement) proxy);
+                    return true;
+                }
+                updateCount = 1;
+                return false;
+            default:
+                updateCount = 1;
+                return (method.getReturnType() == long.class ? (Object) 1L : (Object) 1);
+        }
+    }
+
+    private Object executeBatch(final Method method) throws SQLException {
+        checkOpen();
+        session.perform(Operation.EXECUTE);
+        final int count = batchCount;
+        batchCount = 0;
+        if (method.getReturnType() == long[].class) {
+            final long[] counts = new long[count];
+            Arrays.fill(counts, 1L);
+            return counts;
+        }
+        final int[] counts = new int[count];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    @Override
+    Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                closed = true;
+                return null;
+            case "isClosed":
+                return closed;
+            case "executeQuery":
+            case "execute":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+                return execute(proxy, method, args);
+            case "addBatch":
+                checkOpen();
+                batchCount += 1;
+                return null;
+            case "clearBatch":
+                batchCount = 0;
+                return null;
+            case "executeBatch":
+            case "executeLargeBatch":
+                return executeBatch(method);
+            case "getConnection":
+                return connection;
+            case "getResultSet":
+                return resultSet;
+            case "getUpdateCount":
+                return (int) updateCount;
+            case "getLargeUpdateCount":
+                return updateCount;
+            case "getMoreResults":
+                resultSet = null;
+                updateCount = -1;
+                return false;
+            case "getGeneratedKeys":
+                return FakeResultSetHandler.newEmptyResultSet((Statement) proxy, session);
+            case "getWarnings":
+            case "clearWarnings":
+            case "cancel":
+                return null;
+            default:
+                checkOpen();
+                return NOT_HANDLED;
+        }
+    }
+
+    private ResultSet newResultSet(final Statement statement) {
+        final FakeDatabase database = session.getDatabase();
+        final int fetchSize = (Integer) getProperty("FetchSize");
+        return newProxy(ResultSet.class, new FakeResultSetHandler(statement, session, database.getColumnLabels(), database.getRowCount(),
+                (fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE)));
+    }
+
+}
@@ -0,0 +1,54 @@
+package eu.dirk.haase.jdbc.fake;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+
+/**
+ * Simuliert die {@link XAResource} einer {@link javax.sql.XAConnection}.
+ * <p>
+ * Jeder Aufruf kostet einen Roundtrip (siehe {@link Operation#XA}). Simulierte
+ * Fehler werden als {@link XAException} mit {@link XAException#XAER_RMFAIL}
+ * ausgel&ouml;st.
+ */
+final class FakeXAResourceHandler extends FakeHandler {
+
+    private final FakeSession session;
+
+    FakeXAResourceHandler(final FakeSession session) {
+        this.session = session;
+    }
+
+    @Override
+    Object handle(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "isSameRM":
+                return (proxy == args[0]);
+            case "getTransactionTimeout":
+                return NOT_HANDLED;
+            case "setTransactionTimeout":
+                setProperty("TransactionTimeout", args[0]);
+                return true;
+            default:
+                break;
+        }
+        try {
+            session.perform(Operation.XA);
+        } catch (SQLException ex) {
+            final XAException xaException = new XAException(XAException.XAER_RMFAIL);
+            xaException.initCause(ex);
+            throw xaException;
+        }
+        switch (method.getName()) {
+            case "prepare":
+                return XAResource.XA_OK;
+            case "recover":
+                return new Xid[0];
+            default:
+                return null;
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verteilung der simulierten Latenz einer {@link Operation}.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Exponentiell verteilte Latenz, wie sie zum Beispiel f&uuml;r
+     * Warteschlangen typisch ist.
+     *
+     * @param mean der Mittelwert.
+     * @param unit die Zeiteinheit des Mittelwertes.
+     * @return die Verteilung.
+     */
+    static LatencyDistribution exponential(final long mean, final TimeUnit unit) {
+        final double meanNanos = unit.toNanos(mean);
+        return () -> (long) (-meanNanos * Math.log(1.0 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Konstante Latenz.
+     *
+     * @param latency die Latenz.
+     * @param unit    die Zeiteinheit der Latenz.
+     * @return die Verteilung.
+     */
+    static LatencyDistribution fixed(final long latency, final TimeUnit unit) {
+        final long latencyNanos = unit.toNanos(latency);
+        return () -> latencyNanos;
+    }
+
+    /**
+     * Log-normal verteilte Latenz mit einem langen Ende, wie sie f&uuml;r
+     * Datenbank-Abfragen typisch ist.
+     *
+     * @param median der Median.
+     * @param sigma  die Standardabweichung des Logarithmus (zum Beispiel
+     *               {@code 0.5} f&uuml;r ein 99-Perzentil von etwa dem
+     *               3,2-fachen des Medians).
+     * @param unit   die Zeiteinheit des Medians.
+     * @return die Verteilung.
+     */
+    static LatencyDistribution logNormal(final long median, final double sigma, final TimeUnit unit) {
+        final double medianNanos = unit.toNanos(median);
+        return () -> (long) (medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Keine Latenz.
+     *
+     * @return die Verteilung.
+     */
+    static LatencyDistribution none() {
+        return () -> 0L;
+    }
+
+    /**
+     * Gleichverteilte Latenz.
+     *
+     * @param min  die minimale Latenz.
+     * @param max  die maximale Latenz.
+     * @param unit die Zeiteinheit.
+     * @return die Verteilung.
+     */
+    static LatencyDistribution uniform(final long min, final long max, final TimeUnit unit) {
+        final long minNanos = unit.toNanos(min);
+        final long maxNanos = unit.toNanos(max);
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("Maximum " + max + " is less than minimum " + min);
+        }
+        return () -> (minNanos == maxNanos ? minNanos : ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1));
+    }
+
+    /**
+     * Liefert die n&auml;chste Latenz.
+     *
+     * @return die Latenz in Nanosekunden.
+     */
+    long nextNanos();
+
+}
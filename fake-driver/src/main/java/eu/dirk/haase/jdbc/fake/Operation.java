@@ -0,0 +1,51 @@
+package eu.dirk.haase.jdbc.fake;
+
+/**
+ * Die Operationen der simulierten Datenbank, f&uuml;r die jeweils eigene
+ * Latenzen und Fehlerraten konfiguriert werden k&ouml;nnen (siehe
+ * {@link FakeDatabase}).
+ */
+public enum Operation {
+
+    /**
+     * Aufbau einer physischen Connection.
+     */
+    CONNECT,
+    /**
+     * Erzeugen eines Statements ({@code createStatement}, {@code prepareStatement},
+     * {@code prepareCall}).
+     */
+    PREPARE,
+    /**
+     * Ausf&uuml;hren einer SQL-Anweisung ({@code execute}, {@code executeQuery},
+     * {@code executeUpdate}, {@code executeBatch}).
+     */
+    EXECUTE,
+    /**
+     * Lesen der n&auml;chsten Zeilen eines ResultSets: ein Roundtrip pro
+     * {@code fetchSize} Zeilen ({@code ResultSet.next}).
+     */
+    FETCH,
+    /**
+     * {@code Connection.commit}.
+     */
+    COMMIT,
+    /**
+     * {@code Connection.rollback}.
+     */
+    ROLLBACK,
+    /**
+     * {@code Connection.isValid}.
+     */
+    VALIDATE,
+    /**
+     * Alle Abfragen von {@link java.sql.DatabaseMetaData} die ein ResultSet
+     * liefern.
+     */
+    METADATA,
+    /**
+     * Alle Operationen einer {@link javax.transaction.xa.XAResource}.
+     */
+    XA
+
+}
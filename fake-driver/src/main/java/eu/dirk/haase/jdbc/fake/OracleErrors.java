@@ -0,0 +1,130 @@
+package eu.dirk.haase.jdbc.fake;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Erzeugt {@link SQLException}s mit Fehlercodes und Meldungen wie sie der
+ * Oracle JDBC-Treiber liefert, so dass sie zum Beispiel vom
+ * {@code OracleExceptionAnalyzer} erkannt werden.
+ */
+public final class OracleErrors {
+
+    /**
+     * ORA-00001: unique constraint violated (kein Verbindungsfehler).
+     */
+    public static final int UNIQUE_CONSTRAINT = 1;
+    /**
+     * ORA-00028: your session has been killed.
+     */
+    public static final int SESSION_KILLED = 28;
+    /**
+     * ORA-00054: resource busy (kein Verbindungsfehler).
+     */
+    public static final int RESOURCE_BUSY = 54;
+    /**
+     * ORA-00060: deadlock detected (kein Verbindungsfehler).
+     */
+    public static final int DEADLOCK = 60;
+    /**
+     * ORA-01012: not logged on.
+     */
+    public static final int NOT_LOGGED_ON = 1012;
+    /**
+     * ORA-01034: ORACLE not available.
+     */
+    public static final int NOT_AVAILABLE = 1034;
+    /**
+     * ORA-01089: immediate shutdown in progress.
+     */
+    public static final int SHUTDOWN_IN_PROGRESS = 1089;
+    /**
+     * ORA-03113: end-of-file on communication channel.
+     */
+    public static final int END_OF_FILE_ON_CHANNEL = 3113;
+    /**
+     * ORA-03114: not connected to ORACLE.
+     */
+    public static final int NOT_CONNECTED = 3114;
+    /**
+     * ORA-12541: TNS:no listener.
+     */
+    public static final int TNS_NO_LISTENER = 12541;
+    /**
+     * ORA-12170: TNS:Connect timeout occurred.
+     */
+    public static final int TNS_CONNECT_TIMEOUT = 12170;
+    /**
+     * Io exception: Connection reset (Fehler des JDBC-Treibers).
+     */
+    public static final int CONNECTION_RESET = 17002;
+    /**
+     * Closed Connection (Fehler des JDBC-Treibers).
+     */
+    public static final int CLOSED_CONNECTION = 17008;
+
+    private static final Map<Integer, String> code2MessageMap = new HashMap<>();
+
+    static {
+        code2MessageMap.put(UNIQUE_CONSTRAINT, "unique constraint violated");
+        code2MessageMap.put(SESSION_KILLED, "your session has been killed");
+        code2MessageMap.put(RESOURCE_BUSY, "resource busy and acquire with NOWAIT specified or timeout expired");
+        code2MessageMap.put(DEADLOCK, "deadlock detected while waiting for resource");
+        code2MessageMap.put(NOT_LOGGED_ON, "not logged on");
+        code2MessageMap.put(NOT_AVAILABLE, "ORACLE not available");
+        code2MessageMap.put(SHUTDOWN_IN_PROGRESS, "immediate shutdown in progress - no operations are permitted");
+        code2MessageMap.put(END_OF_FILE_ON_CHANNEL, "end-of-file on communication channel");
+        code2MessageMap.put(NOT_CONNECTED, "not connected to ORACLE");
+        code2MessageMap.put(TNS_NO_LISTENER, "TNS:no listener");
+        code2MessageMap.put(TNS_CONNECT_TIMEOUT, "TNS:Connect timeout occurred");
+        code2MessageMap.put(CONNECTION_RESET, "Io exception: Connection reset");
+        code2MessageMap.put(CLOSED_CONNECTION, "Closed Connection");
+    }
+
+    private OracleErrors() {
+    }
+
+    /**
+     * Erzeugt eine {@link SQLException} zu einem Fehlercode.
+     * <p>
+     * Verbindungsfehler (siehe {@link #isConnectionLoss(int)}) werden wie beim
+     * Oracle JDBC-Treiber als {@link SQLRecoverableException} erzeugt.
+     *
+     * @param errorCode der Oracle-Fehlercode.
+     * @return die Exception.
+     */
+    public static SQLException exception(final int errorCode) {
+        final String text = code2MessageMap.getOrDefault(errorCode, "simulated error");
+        final String message = (errorCode < 17000 ? String.format("ORA-%05d: %s", errorCode, text) : text);
+        if (isConnectionLoss(errorCode)) {
+            return new SQLRecoverableException(message, "08006", errorCode);
+        }
+        return new SQLException(message, "72000", errorCode);
+    }
+
+    /**
+     * Liefert {@code true} wenn der Fehlercode bedeutet, dass die Verbindung zur
+     * Datenbank verloren ist.
+     *
+     * @param errorCode der Oracle-Fehlercode.
+     * @return {@code true} bei einem Verbindungsfehler.
+     */
+    public static boolean isConnectionLoss(final int errorCode) {
+        switch (errorCode) {
+            case SESSION_KILLED:
+            case NOT_LOGGED_ON:
+            case NOT_AVAILABLE:
+            case SHUTDOWN_IN_PROGRESS:
+            case END_OF_FILE_ON_CHANNEL:
+            case NOT_CONNECTED:
+            case CONNECTION_RESET:
+            case CLOSED_CONNECTION:
+                return true;
+            default:
+                return (errorCode >= 12100) && (errorCode <= 12299);
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+package eu.dirk.haase.jdbc.fake;
+
+import eu.dirk.haase.jdbc.health.check.OracleExceptionAnalyzer;
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.generate.Generator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.ConnectionPoolDataSource;
+import javax.sql.DataSource;
+import javax.sql.PooledConnection;
+import javax.sql.XAConnection;
+import javax.sql.XADataSource;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class FakeDriverTest {
+
+    private static DataSourceWrapperFactory wrapperFactory;
+
+    private FakeDatabase database;
+    private FakeDataSource fakeDataSource;
+
+    private static synchronized DataSourceWrapperFactory wrapperFactory() throws Exception {
+        if (wrapperFactory == null) {
+            final Map<Class<?>, Class<?>> iface2CustomClassMap = new HashMap<>();
+            iface2CustomClassMap.put(DataSource.class, AbstractDataSourceProxy.class);
+            iface2CustomClassMap.put(XADataSource.class, AbstractXADataSourceProxy.class);
+            iface2CustomClassMap.put(ConnectionPoolDataSource.class, AbstractConnectionPoolDataSourceProxy.class);
+            iface2CustomClassMap.put(PooledConnection.class, AbstractPooledConnectionProxy.class);
+            iface2CustomClassMap.put(XAConnection.class, AbstractXAConnectionProxy.class);
+            iface2CustomClassMap.put(XAResource.class, AbstractXAResourceProxy.class);
+            iface2CustomClassMap.put(Connection.class, AbstractConnectionProxy.class);
+            iface2CustomClassMap.put(Statement.class, AbstractStatementProxy.class);
+            iface2CustomClassMap.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
+            iface2CustomClassMap.put(CallableStatement.class, AbstractCallableStatementProxy.class);
+            iface2CustomClassMap.put(ResultSet.class, AbstractResultSetProxy.class);
+            final Map<Class<?>, Object> ifaceToClassMap = Generator.instance().generate(iface2CustomClassMap, (cn, iface) -> cn.replaceAll("(.+)\\.(\\w+)", "$1.fake.$2"));
+            wrapperFactory = new DataSourceWrapperFactory(ifaceToClassMap);
+        }
+        return wrapperFactory;
+    }
+
+    @Before
+    public void setUp() {
+        database = new FakeDatabase("test");
+        fakeDataSource = new FakeDataSource(database);
+    }
+
+    @Test
+    public void test_wrapped_datasource_query() throws Exception {
+        // Given
+        database.setResultRowCount(25);
+        final DataSource dataSource = wrapperFactory().wrapDataSource(fakeDataSource);
+        // When
+        int count = 0;
+        String lastName = null;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select id, name from person")) {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    count += 1;
+                    assertThat(resultSet.getLong(1)).isEqualTo(count);
+                    lastName = resultSet.getString("NAME");
+                }
+            }
+            connection.commit();
+        }
+        // Then
+        assertThat(count).isEqualTo(25);
+        assertThat(lastName).isEqualTo("NAME-25");
+        assertThat(database.invocationCount(Operation.CONNECT)).isEqualTo(1);
+        assertThat(database.invocationCount(Operation.PREPARE)).isEqualTo(1);
+        assertThat(database.invocationCount(Operation.EXECUTE)).isEqualTo(1);
+        assertThat(database.invocationCount(Operation.FETCH)).isEqualTo(3);
+        assertThat(database.invocationCount(Operation.COMMIT)).isEqualTo(1);
+        assertThat(database.openConnectionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_wrapped_xa_and_pooled_datasource() throws Exception {
+        // Given
+        final XADataSource dataSource = wrapperFactory().wrapXADataSource(fakeDataSource);
+        final ConnectionPoolDataSource poolDataSource = wrapperFactory().wrapConnectionPoolDataSource(fakeDataSource);
+        // When
+        poolDataSource.getPooledConnection().close();
+        final XAConnection xaConnection = dataSource.getXAConnection();
+        final XAResource xaResource = xaConnection.getXAResource();
+        final int prepared = xaResource.prepare(null);
+        xaResource.commit(null, false);
+        xaConnection.close();
+        // Then
+        assertThat(prepared).isEqualTo(XAResource.XA_OK);
+        assertThat(database.invocationCount(Operation.CONNECT)).isEqualTo(2);
+        assertThat(database.invocationCount(Operation.XA)).isEqualTo(2);
+        assertThat(database.openConnectionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_error_rate_is_fatal() throws Exception {
+        // Given
+        database.setErrorRate(Operation.EXECUTE, 1.0, OracleErrors.END_OF_FILE_ON_CHANNEL);
+        final PooledConnection pooledConnection = fakeDataSource.getPooledConnection();
+        final List<ConnectionEvent> errorEventList = new CopyOnWriteArrayList<>();
+        pooledConnection.addConnectionEventListener(new ConnectionEventListener() {
+            @Override
+            public void connectionClosed(final ConnectionEvent event) {
+            }
+
+            @Override
+            public void connectionErrorOccurred(final ConnectionEvent event) {
+                errorEventList.add(event);
+            }
+        });
+        final Connection connection = pooledConnection.getConnection();
+        // When
+        try {
+            connection.createStatement().executeUpdate("update person set name = 'x'");
+            fail("SQLException expected");
+        } catch (SQLException ex) {
+            // Then
+            assertThat((Throwable) ex).isInstanceOf(SQLRecoverableException.class);
+            assertThat(ex.getErrorCode()).isEqualTo(3113);
+            assertThat(ex.getMessage()).startsWith("ORA-03113");
+            assertThat(OracleExceptionAnalyzer.isFatal.test(ex)).isTrue();
+        }
+        assertThat(errorEventList).hasSize(1);
+        assertThat(connection.isValid(1)).isFalse();
+        assertThat(database.errorCount(Operation.EXECUTE)).isEqualTo(1);
+    }
+
+    @Test
+    public void test_outage() throws Exception {
+        // Given
+        final Connection connection = fakeDataSource.getConnection();
+        // When
+        database.beginOutage(OracleErrors.NOT_AVAILABLE);
+        // Then
+        assertThat(database.isAvailable()).isFalse();
+        try {
+            fakeDataSource.getConnection();
+            fail("SQLException expected");
+        } catch (SQLException ex) {
+            assertThat(ex.getErrorCode()).isEqualTo(1034);
+        }
+        database.endOutage();
+        assertThat(database.isAvailable()).isTrue();
+        assertThat(connection.isValid(1)).isFalse();
+        assertThat(fakeDataSource.getConnection().isValid(1)).isTrue();
+        try {
+            connection.commit();
+            fail("SQLException expected");
+        } catch (SQLException ex) {
+            assertThat(ex.getErrorCode()).isEqualTo(3113);
+        }
+    }
+
+    @Test
+    public void test_scheduled_outage_and_xa_error() throws Exception {
+        // Given
+        final XAConnection xaConnection = fakeDataSource.getXAConnection();
+        database.scheduleOutage(0, 1, TimeUnit.HOURS, OracleErrors.SHUTDOWN_IN_PROGRESS);
+        // When
+        try {
+            xaConnection.getXAResource().commit(null, true);
+            fail("XAException expected");
+        } catch (XAException ex) {
+            // Then
+            assertThat(ex.errorCode).isEqualTo(XAException.XAER_RMFAIL);
+            assertThat(((SQLException) ex.getCause()).getErrorCode()).isEqualTo(1089);
+        }
+    }
+
+    @Test
+    public void test_connect_latency() throws Exception {
+        // Given
+        database.setLatency(Operation.CONNECT, LatencyDistribution.fixed(20, TimeUnit.MILLISECONDS));
+        final long start = System.nanoTime();
+        // When
+        fakeDataSource.getConnection().close();
+        // Then
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void test_driver_manager() throws Exception {
+        // Given
+        FakeDatabase.named("driver").setResultColumns("ID", "CITY", "ZIP");
+        // When
+        try (Connection connection = DriverManager.getConnection("jdbc:fake:driver");
+             ResultSet resultSet = connection.createStatement().executeQuery("select * from address")) {
+            // Then
+            assertThat(resultSet.getMetaData().getColumnCount()).isEqualTo(3);
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getString(3)).isEqualTo("ZIP-1");
+            assertThat(connection.getMetaData().getURL()).isEqualTo("jdbc:fake:driver");
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package eu.dirk.haase.jdbc.health.check;
 
 import eu.dirk.haase.jdbc.proxy.AbstractDataSourceProxy;
+import eu.dirk.haase.jdbc.proxy.base.HealthState;
+import eu.dirk.haase.jdbc.proxy.jfr.JdbcFlightRecorder;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -11,12 +13,13 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
-public abstract class HCDataSource extends AbstractDataSourceProxy {
+public abstract class HCDataSource extends AbstractDataSourceProxy implements HealthState {
 
     private final static Predicate<Throwable> isFatal = OracleExceptionAnalyzer.isFatal;
 
     private final DataSource delegate;
     private final AtomicBoolean isRunning;
+    private final AtomicBoolean isUpReported;
     private final AtomicReference<Throwable> lastFailure;
     private final AtomicLong lastFailureTimeMillis;
     private final AtomicLong thresholdFailureMillis;
@@ -25,6 +28,7 @@ public abstract class HCDataSource extends AbstractDataSourceProxy {
         super(delegate);
         this.delegate = delegate;
         this.isRunning = new AtomicBoolean(true);
+        this.isUpReported = new AtomicBoolean(true);
         this.lastFailure = new AtomicReference();
         this.lastFailureTimeMillis = new AtomicLong();
         this.thresholdFailureMillis = new AtomicLong(1000L);
@@ -66,6 +70,12 @@ public abstract class HCDataSource extends AbstractDataSourceProxy {
         }
     }
 
+    @Override
+    public final Throwable getLastFailure() {
+        return lastFailure.get();
+    }
+
+    @Override
     public final long getLastFailureTimeMillis() {
         return lastFailureTimeMillis.get();
     }
@@ -76,10 +86,18 @@ public abstract class HCDataSource extends AbstractDataSourceProxy {
 
     public final void setRunning(boolean isRunning) {
         this.isRunning.set(isRunning);
+        isUpAndRunning();
+    }
+
+    @Override
+    public final boolean isUp() {
+        return isUpAndRunning();
     }
 
     final boolean isUpAndRunning() {
-        return (isRunning.get() && checkLastFailure());
+        final boolean isUp = (isRunning.get() && checkLastFailure());
+        reportHealthState(isUp);
+        return isUp;
     }
 
     @Override
@@ -94,6 +112,21 @@ public abstract class HCDataSource extends AbstractDataSourceProxy {
         if (isFatal.test(ex)) {
             lastFailure.set(ex);
             lastFailureTimeMillis.set(System.currentTimeMillis());
+            reportHealthState(false);
+        }
+    }
+
+    /**
+     * Meldet einen Wechsel des Zustands als JFR-Event (siehe {@link JdbcFlightRecorder}).
+     * <p>
+     * Da die DataSource nach Ablauf des Schwellwertes implizit wieder verf&uuml;gbar
+     * ist, wird der Wechsel erst bei der n&auml;chsten Pr&uuml;fung erkannt.
+     *
+     * @param isUp der aktuelle Zustand.
+     */
+    private void reportHealthState(final boolean isUp) {
+        if (isUpReported.compareAndSet(!isUp, isUp)) {
+            JdbcFlightRecorder.healthStateChanged(this, isUp, (isUp ? null : lastFailure.get()));
         }
     }
 
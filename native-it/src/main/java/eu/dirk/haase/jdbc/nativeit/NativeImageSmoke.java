@@ -0,0 +1,60 @@
+package eu.dirk.haase.jdbc.nativeit;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.base.JdbcWrapper;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rauchtest f&uuml;r das GraalVM Native-Image: wickelt eine H2-DataSource mit
+ * den vorab generierten Standard JDBC-Wrapper Klassen ein und f&uuml;hrt eine
+ * Abfrage aus.
+ * <p>
+ * Beendet sich mit einem Exit-Code ungleich 0 wenn der Test fehlschl&auml;gt.
+ */
+public final class NativeImageSmoke {
+
+    private NativeImageSmoke() {
+    }
+
+    public static void main(final String... args) throws Exception {
+        final long startNanos = System.nanoTime();
+
+        final Map<Class<?>, Class<?>> iface2CustomClassMap = new HashMap<>();
+        iface2CustomClassMap.put(DataSource.class, AbstractDataSourceProxy.class);
+        iface2CustomClassMap.put(Connection.class, AbstractConnectionProxy.class);
+        iface2CustomClassMap.put(Statement.class, AbstractStatementProxy.class);
+        iface2CustomClassMap.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
+        iface2CustomClassMap.put(ResultSet.class, AbstractResultSetProxy.class);
+
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL("jdbc:h2:mem:native-it");
+        final DataSource dataSource = DataSourceWrapperFactory.newInstance(iface2CustomClassMap).wrapDataSource(h2DataSource);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select ? from dual");) {
+            statement.setInt(1, 42);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ensure(connection instanceof JdbcWrapper, "Connection is not wrapped: " + connection);
+                ensure(resultSet instanceof JdbcWrapper, "ResultSet is not wrapped: " + resultSet);
+                ensure(resultSet.next() && (resultSet.getInt(1) == 42), "Unexpected result");
+            }
+        }
+
+        System.out.println("native-it: OK in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+    }
+
+    private static void ensure(final boolean condition, final String message) {
+        if (!condition) {
+            System.err.println("native-it: FAILED - " + message);
+            System.exit(1);
+        }
+    }
+
+}
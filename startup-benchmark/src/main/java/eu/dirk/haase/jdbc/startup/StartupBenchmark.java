@@ -0,0 +1,83 @@
+package eu.dirk.haase.jdbc.startup;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.generate.StartupTimings;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Startzeit einer frischen JVM bis zur ersten Abfrage &uuml;ber die
+ * JDBC-Wrapper: von {@link DataSourceWrapperFactory#newInstance(Map)} &uuml;ber
+ * {@link DataSourceWrapperFactory#wrapDataSource(DataSource)} bis zum ersten
+ * {@link PreparedStatement#executeQuery()} gegen H2.
+ * <p>
+ * Zus&auml;tzlich werden die Schritte dieses Weges und die Phasen der Generierung
+ * der JDBC-Wrapper (siehe {@link StartupTimings}) jeweils als eine Zeile
+ * {@code startup-phase <Name> <Nanosekunden>} ausgegeben. Der
+ * {@link StartupForkRunner} startet diesen Benchmark mehrfach in frischen JVMs
+ * und wertet diese Zeilen aus.
+ * <p>
+ * Dient gleichzeitig als Trainingslauf f&uuml;r ein dynamisches CDS-Archiv
+ * (siehe Maven-Profil '{@code cds}' in diesem Modul).
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(final String... args) throws Exception {
+        final long startNanos = System.nanoTime();
+
+        final Map<Class<?>, Class<?>> iface2CustomClassMap = new HashMap<>();
+        iface2CustomClassMap.put(DataSource.class, AbstractDataSourceProxy.class);
+        iface2CustomClassMap.put(Connection.class, AbstractConnectionProxy.class);
+        iface2CustomClassMap.put(Statement.class, AbstractStatementProxy.class);
+        iface2CustomClassMap.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
+        iface2CustomClassMap.put(CallableStatement.class, AbstractCallableStatementProxy.class);
+        iface2CustomClassMap.put(ResultSet.class, AbstractResultSetProxy.class);
+
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL("jdbc:h2:mem:startup");
+        final long newInstanceNanos = System.nanoTime();
+        final DataSourceWrapperFactory dataSourceWrapperFactory = DataSourceWrapperFactory.newInstance(iface2CustomClassMap);
+        final long wrapNanos = System.nanoTime();
+        final DataSource dataSource = dataSourceWrapperFactory.wrapDataSource(h2DataSource);
+        final long firstQueryNanos = System.nanoTime();
+
+        int result;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select ? from dual")) {
+            statement.setInt(1, 42);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                result = resultSet.getInt(1);
+            }
+        }
+
+        final long endNanos = System.nanoTime();
+        final long firstQueryMillis = TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+        final long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.println("startup: result=" + result + "; main to first query: " + firstQueryMillis + " ms; jvm uptime: " + uptimeMillis + " ms");
+
+        printPhase("NEW_INSTANCE", wrapNanos - newInstanceNanos);
+        for (final StartupTimings.Phase phase : StartupTimings.Phase.values()) {
+            printPhase(phase.name(), StartupTimings.getNanos(phase));
+        }
+        printPhase("WRAP_DATASOURCE", firstQueryNanos - wrapNanos);
+        printPhase("FIRST_QUERY", endNanos - firstQueryNanos);
+        printPhase("MAIN_TO_FIRST_QUERY", endNanos - startNanos);
+        printPhase("JVM_UPTIME", TimeUnit.MILLISECONDS.toNanos(uptimeMillis));
+    }
+
+    private static void printPhase(final String name, final long nanos) {
+        System.out.println(StartupForkRunner.PHASE_PREFIX + name + " " + nanos);
+    }
+
+}
@@ -0,0 +1,87 @@
+package eu.dirk.haase.jdbc.startup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startet den {@link StartupBenchmark} mehrfach in jeweils einer frischen JVM
+ * und gibt pro Phase Minimum, Median und Maximum aus.
+ * <p>
+ * Die Phasen sind ineinander geschachtelt (siehe
+ * {@code eu.dirk.haase.jdbc.proxy.generate.StartupTimings}): {@code NEW_INSTANCE}
+ * enth&auml;lt {@code GENERATOR_STATIC_INIT}, dieses {@code JAVASSIST_GENERATE}
+ * und dieses wiederum {@code CLASS_DEFINITION}. {@code FIRST_OBJECT_CONSTRUCTION}
+ * ist ein Teil von {@code FIRST_QUERY}.
+ * <p>
+ * Aufruf (siehe Maven-Profil '{@code startup}' in diesem Modul):
+ * <pre><code>
+ * java -cp &lt;Classpath&gt; eu.dirk.haase.jdbc.startup.StartupForkRunner [Anzahl JVMs] [JVM-Optionen...]
+ * </code></pre>
+ */
+public final class StartupForkRunner {
+
+    static final String PHASE_PREFIX = "startup-phase ";
+
+    private static final int DEFAULT_FORKS = 10;
+
+    private StartupForkRunner() {
+    }
+
+    public static void main(final String... args) throws Exception {
+        final int forks = (args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FORKS);
+        final List<String> jvmOptionList = (args.length > 1 ? Arrays.asList(args).subList(1, args.length) : Collections.emptyList());
+
+        final Map<String, List<Long>> phase2NanosMap = new LinkedHashMap<>();
+        for (int fork = 0; forks > fork; ++fork) {
+            runFork(jvmOptionList).forEach((p, n) -> phase2NanosMap.computeIfAbsent(p, (k) -> new ArrayList<>()).add(n));
+        }
+
+        System.out.println("startup phases over " + forks + " fresh JVMs " + jvmOptionList + " (ms):");
+        System.out.println(String.format("%-28s %10s %10s %10s", "phase", "min", "median", "max"));
+        phase2NanosMap.forEach((phase, nanosList) -> {
+            Collections.sort(nanosList);
+            System.out.println(String.format("%-28s %10.2f %10.2f %10.2f", phase,
+                    toMillis(nanosList.get(0)), toMillis(nanosList.get(nanosList.size() / 2)), toMillis(nanosList.get(nanosList.size() - 1))));
+        });
+    }
+
+    private static Map<String, Long> runFork(final List<String> jvmOptionList) throws IOException, InterruptedException {
+        final List<String> commandList = new ArrayList<>();
+        commandList.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        commandList.addAll(jvmOptionList);
+        commandList.add("-cp");
+        commandList.add(System.getProperty("java.class.path"));
+        commandList.add(StartupBenchmark.class.getName());
+
+        final Process process = new ProcessBuilder(commandList).redirectErrorStream(true).start();
+        final Map<String, Long> phase2NanosMap = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PHASE_PREFIX)) {
+                    final String[] fields = line.substring(PHASE_PREFIX.length()).split(" ");
+                    phase2NanosMap.put(fields[0], Long.parseLong(fields[1]));
+                }
+            }
+        }
+        final int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Startup benchmark failed with exit code " + exitCode + ": " + commandList);
+        }
+        return phase2NanosMap;
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,77 @@
+package eu.dirk.haase.jdbc.proxy.flow;
+
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetPublisher;
+import eu.dirk.haase.jdbc.proxy.resultset.RowSubscriber;
+import eu.dirk.haase.jdbc.proxy.resultset.RowSubscription;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Sicht auf einen {@link ResultSetPublisher} als {@link Flow.Publisher}.
+ * <p>
+ * Diese Klasse liegt im eigenen Modul {@code wrapper-flow}, das nur unter
+ * Java 11+ gebaut wird, da {@link Flow} erst ab Java 9 existiert. Die Signale werden unver&auml;ndert
+ * durchgereicht: {@link Flow.Subscription#request(long)} wird zur Nachfrage
+ * (und damit zur Fetch-Size) des {@link ResultSetPublisher},
+ * {@link Flow.Subscription#cancel()} schlie&szlig;t das Statement.
+ *
+ * @param <T> der Typ der abgebildeten Zeilen.
+ */
+public final class FlowResultSetPublisher<T> implements Flow.Publisher<T> {
+
+    private final ResultSetPublisher<T> publisher;
+
+    private FlowResultSetPublisher(final ResultSetPublisher<T> publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Liefert die Sicht als {@link Flow.Publisher}.
+     *
+     * @param publisher der Publisher der Zeilen.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return die Sicht als {@link Flow.Publisher}.
+     */
+    public static <T> Flow.Publisher<T> of(final ResultSetPublisher<T> publisher) {
+        return new FlowResultSetPublisher<>(publisher);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber is null");
+        }
+        publisher.subscribe(new RowSubscriber<T>() {
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onNext(final T item) {
+                subscriber.onNext(item);
+            }
+
+            @Override
+            public void onSubscribe(final RowSubscription subscription) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void cancel() {
+                        subscription.cancel();
+                    }
+
+                    @Override
+                    public void request(final long n) {
+                        subscription.request(n);
+                    }
+                });
+            }
+        });
+    }
+
+}
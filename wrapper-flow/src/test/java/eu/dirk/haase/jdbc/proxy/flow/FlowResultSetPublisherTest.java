@@ -0,0 +1,68 @@
+package eu.dirk.haase.jdbc.proxy.flow;
+
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetPublisher;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class FlowResultSetPublisherTest {
+
+    @Test
+    public void test_flow_publisher_delivers_requested_rows_and_cancels() throws Exception {
+        // Given
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:flow;DB_CLOSE_DELAY=-1");
+        final Connection connection = h2DataSource.getConnection();
+        final Statement statement = connection.createStatement();
+        final String sql = "select x from system_range(1, 100)";
+        final Flow.Publisher<Integer> publisher = FlowResultSetPublisher.of(ResultSetPublisher.of(statement, () -> statement.executeQuery(sql), (rs) -> rs.getInt(1), ResultSetPublisher.defaultExecutor()));
+        final List<Integer> itemList = new CopyOnWriteArrayList<>();
+        final Flow.Subscription[] subscription = new Flow.Subscription[1];
+        final CountDownLatch firstRows = new CountDownLatch(3);
+        // When
+        publisher.subscribe(new Flow.Subscriber<Integer>() {
+            @Override
+            public void onComplete() {
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+            }
+
+            @Override
+            public void onNext(final Integer item) {
+                itemList.add(item);
+                firstRows.countDown();
+            }
+
+            @Override
+            public void onSubscribe(final Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(3);
+            }
+        });
+        final boolean isFirstRows = firstRows.await(10, TimeUnit.SECONDS);
+        subscription[0].cancel();
+        // Then
+        assertThat(isFirstRows).isTrue();
+        assertThat(itemList).containsExactly(1, 2, 3);
+        for (int i = 0; (100 > i) && !statement.isClosed(); ++i) {
+            Thread.sleep(10);
+        }
+        assertThat(statement.isClosed()).isTrue();
+        connection.close();
+    }
+
+}
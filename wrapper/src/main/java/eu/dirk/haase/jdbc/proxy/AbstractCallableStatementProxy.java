@@ -1,21 +1,72 @@
 package eu.dirk.haase.jdbc.proxy;
 
+import eu.dirk.haase.jdbc.proxy.base.BindParameters;
 import eu.dirk.haase.jdbc.proxy.base.CloseState;
 import eu.dirk.haase.jdbc.proxy.base.FactoryJdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.FetchSizeTuning;
+import eu.dirk.haase.jdbc.proxy.base.ParameterCapture;
+import eu.dirk.haase.jdbc.proxy.base.PreparedSql;
+import eu.dirk.haase.jdbc.proxy.base.WriteTracking;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+import eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor;
 
 import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.ParameterMetaData;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 
-public abstract class AbstractCallableStatementProxy extends FactoryJdbcProxy<CallableStatement> implements CloseState, CallableStatement {
+public abstract class AbstractCallableStatementProxy extends FactoryJdbcProxy<CallableStatement> implements CloseState, FetchSizeTuning, ParameterCapture, PreparedSql, WriteTracking, CallableStatement {
 
+    private final BindParameters bindParameters;
     private final Connection connection;
     private final CallableStatement delegate;
+    private final FetchSizeAdvisor fetchSizeAdvisor;
+    private final MetaDataCache metaDataCache;
+    private final String sql;
+    private boolean isFetchSizeExplicit;
+    private int tunedFetchSize;
 
     protected AbstractCallableStatementProxy(CallableStatement delegate, Connection connection, final Object[] argumentArray) {
         super(CallableStatement.class, delegate);
         this.connection = connection;
         this.delegate = delegate;
+        this.fetchSizeAdvisor = FetchSizeAdvisor.of(connection);
+        this.bindParameters = (BindParameters.isCaptureRequested() ? new BindParameters() : null);
+        this.metaDataCache = MetaDataCache.of(connection);
+        this.sql = ((argumentArray != null) && (argumentArray.length > 0) && (argumentArray[0] instanceof String) ? (String) argumentArray[0] : null);
+    }
+
+    @Override
+    public final void captureInexactParameter(final int parameterIndex, final Object value) {
+        if (bindParameters != null) {
+            bindParameters.setInexact(parameterIndex, value);
+        }
+    }
+
+    @Override
+    public final void captureParameter(final int parameterIndex, final Object value) {
+        if (bindParameters != null) {
+            bindParameters.set(parameterIndex, value);
+        }
+    }
+
+    @Override
+    public final String capturedParameters() {
+        return (bindParameters != null ? bindParameters.toString() : null);
+    }
+
+    @Override
+    public final Object[] capturedParameterValues() {
+        return (bindParameters != null ? bindParameters.toArray() : null);
+    }
+
+    @Override
+    public final void clearCapturedParameters() {
+        if (bindParameters != null) {
+            bindParameters.clear();
+        }
     }
 
     /**
@@ -28,6 +79,93 @@ public abstract class AbstractCallableStatementProxy extends FactoryJdbcProxy<Ca
         return connection;
     }
 
+    @Override
+    public final ResultSetMetaData getMetaData() throws SQLException {
+        try {
+            if ((metaDataCache == null) || (sql == null)) {
+                return delegate.getMetaData();
+            }
+            return metaDataCache.resultSetMetaData(sql, delegate::getMetaData);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final ParameterMetaData getParameterMetaData() throws SQLException {
+        try {
+            if ((metaDataCache == null) || (sql == null)) {
+                return delegate.getParameterMetaData();
+            }
+            return metaDataCache.parameterMetaData(sql, delegate::getParameterMetaData);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final String getSql() {
+        return sql;
+    }
+
+    @Override
+    public final boolean isCapturingParameters() {
+        return (bindParameters != null);
+    }
+
+    /**
+     * Setzt die Fetch-Size. Eine von der Anwendung gesetzte Fetch-Size wird
+     * nicht mehr durch die gelernte Fetch-Size (siehe {@link FetchSizeAdvisor})
+     * ersetzt.
+     *
+     * @param rows die Fetch-Size.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die Fetch-Size
+     *                      nicht setzen kann.
+     */
+    @Override
+    public final void setFetchSize(final int rows) throws SQLException {
+        try {
+            delegate.setFetchSize(rows);
+            this.isFetchSizeExplicit = true;
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final void trackWrite(final String sql) {
+        if (connection instanceof AbstractConnectionProxy) {
+            ((AbstractConnectionProxy) connection).trackWrite(sql != null ? sql : this.sql);
+        }
+    }
+
+    @Override
+    public final void hintFetchSize(final int rows) throws SQLException {
+        try {
+            delegate.setFetchSize(rows);
+            this.tunedFetchSize = rows;
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final void tuneFetchSize(final String sql) {
+        final String currSql = (sql != null ? sql : this.sql);
+        if (isFetchSizeExplicit || (fetchSizeAdvisor == null) || (currSql == null)) {
+            return;
+        }
+        final int fetchSize = fetchSizeAdvisor.fetchSize(currSql);
+        if ((fetchSize > 0) && (fetchSize != tunedFetchSize)) {
+            try {
+                delegate.setFetchSize(fetchSize);
+                this.tunedFetchSize = fetchSize;
+            } catch (SQLException ignore) {
+                // Dann bleibt es bei der bisherigen Fetch-Size
+            }
+        }
+    }
+
     /**
      * Dekoriert ein {@link ResultSet}-Objekt, das bedeutet: es wird in ein anderes
      * Objekt eingepackt (welches selbst das Interface {@link ResultSet} implementiert).
@@ -2,21 +2,31 @@ package eu.dirk.haase.jdbc.proxy;
 
 import eu.dirk.haase.jdbc.proxy.base.CloseState;
 import eu.dirk.haase.jdbc.proxy.base.FactoryJdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.TransactionTracking;
 import eu.dirk.haase.jdbc.proxy.base.ValidState;
+import eu.dirk.haase.jdbc.proxy.querycache.QueryResultCache;
 
 import javax.sql.DataSource;
 import javax.sql.PooledConnection;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-public abstract class AbstractConnectionProxy extends FactoryJdbcProxy<Connection> implements CloseState, ValidState, Connection {
+public abstract class AbstractConnectionProxy extends FactoryJdbcProxy<Connection> implements CloseState, TransactionTracking, ValidState, Connection {
 
     private final DataSource dataSource;
     private final Connection delegate;
+    private final QueryResultCache queryResultCache;
+    private final Set<String> writtenTableSet;
 
     protected AbstractConnectionProxy(final Connection delegate, final DataSource dataSource, final Object[] argumentArray) throws SQLException {
         super(Connection.class, delegate);
         this.dataSource = dataSource;
         this.delegate = delegate;
+        this.queryResultCache = QueryResultCache.of(dataSource);
+        this.writtenTableSet = (queryResultCache != null ? ConcurrentHashMap.newKeySet() : null);
         if (this.delegate.getAutoCommit()) {
             this.delegate.setAutoCommit(false);
         }
@@ -32,6 +42,38 @@ public abstract class AbstractConnectionProxy extends FactoryJdbcProxy<Connectio
         return dataSource;
     }
 
+    @Override
+    public final void endTransaction() {
+        if ((writtenTableSet != null) && !writtenTableSet.isEmpty()) {
+            final List<String> endedTableList = new ArrayList<>(writtenTableSet.size());
+            for (final String tableName : writtenTableSet) {
+                if (writtenTableSet.remove(tableName)) {
+                    endedTableList.add(tableName);
+                }
+            }
+            queryResultCache.endWrite(endedTableList);
+        }
+    }
+
+    /**
+     * Meldet eine (m&ouml;glicherweise) schreibende SQL-Anweisung, die &uuml;ber
+     * ein Statement dieser Connection ausgef&uuml;hrt wird. Schreibt sie in
+     * eine Tabelle die f&uuml;r den {@link QueryResultCache} freigegeben ist,
+     * dann wird der Cache f&uuml;r diese Tabelle bis zum Ende der Transaktion
+     * umgangen.
+     *
+     * @param sql die SQL-Anweisung.
+     */
+    public final void trackWrite(final String sql) {
+        if ((queryResultCache != null) && (sql != null) && queryResultCache.isEnabled()) {
+            for (final String tableName : queryResultCache.cacheableTablesWrittenBy(sql)) {
+                if (writtenTableSet.add(tableName)) {
+                    queryResultCache.beginWrite(tableName);
+                }
+            }
+        }
+    }
+
     public final void setAutoCommit(boolean autoCommit) throws SQLException {
         throw new SQLException("AutoCommit is not allowed for a transaction managed Connection.");
     }
@@ -50,6 +92,20 @@ public abstract class AbstractConnectionProxy extends FactoryJdbcProxy<Connectio
      */
     protected abstract <T extends CallableStatement> T wrapCallableStatement(CallableStatement delegate, Object... argumentArray);
 
+    /**
+     * Dekoriert ein {@link DatabaseMetaData}-Objekt, das bedeutet: es wird in ein anderes
+     * Objekt eingepackt (welches selbst das Interface {@link DatabaseMetaData} implementiert).
+     * <p>
+     * Die Implementation dieser Methode wird generiert und muss daher nicht implementiert
+     * werden.
+     *
+     * @param delegate      das interne {@link DatabaseMetaData}-Objekt das dekoriert werden soll.
+     * @param argumentArray alle Parameter die urspr&uuml;nglich zum
+     *                      Erzeugen des internen Objektes verwendet wurden.
+     * @return das dekorierte {@link DatabaseMetaData}-Objekt.
+     */
+    protected abstract <T extends DatabaseMetaData> T wrapDatabaseMetaData(DatabaseMetaData delegate, Object... argumentArray);
+
     /**
      * Dekoriert ein {@link PreparedStatement}-Objekt, das bedeutet: es wird in ein anderes
      * Objekt eingepackt (welches selbst das Interface {@link PreparedStatement} implementiert).
@@ -3,6 +3,10 @@ package eu.dirk.haase.jdbc.proxy;
 import eu.dirk.haase.jdbc.proxy.base.ConcurrentFactoryJdbcProxy;
 import eu.dirk.haase.jdbc.proxy.base.ValidState;
 import eu.dirk.haase.jdbc.proxy.common.WeakIdentityHashMap;
+import eu.dirk.haase.jdbc.proxy.metadata.CatalogCache;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+import eu.dirk.haase.jdbc.proxy.querycache.QueryResultCache;
+import eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor;
 
 import javax.sql.DataSource;
 import java.sql.CallableStatement;
@@ -10,9 +14,58 @@ import java.sql.Connection;
 
 public abstract class AbstractDataSourceProxy extends ConcurrentFactoryJdbcProxy<WeakIdentityHashMap<Object, Object>, DataSource> implements ValidState, DataSource {
 
+    private final CatalogCache catalogCache;
+    private final FetchSizeAdvisor fetchSizeAdvisor;
+    private final MetaDataCache metaDataCache;
+    private final QueryResultCache queryResultCache;
 
     protected AbstractDataSourceProxy(final DataSource delegate) {
         super(DataSource.class, delegate);
+        this.catalogCache = new CatalogCache();
+        this.fetchSizeAdvisor = new FetchSizeAdvisor();
+        this.metaDataCache = new MetaDataCache();
+        this.queryResultCache = new QueryResultCache();
+    }
+
+    /**
+     * Liefert den Cache der Katalog-Abfragen von {@link java.sql.DatabaseMetaData},
+     * den sich alle Connections dieser DataSource teilen.
+     *
+     * @return der Cache der Katalog-Abfragen.
+     */
+    public final CatalogCache getCatalogCache() {
+        return catalogCache;
+    }
+
+    /**
+     * Liefert den Advisor der gelernten Fetch-Size pro SQL-Fingerabdruck, den
+     * sich alle Connections dieser DataSource teilen.
+     *
+     * @return der Advisor der Fetch-Size.
+     */
+    public final FetchSizeAdvisor getFetchSizeAdvisor() {
+        return fetchSizeAdvisor;
+    }
+
+    /**
+     * Liefert den Cache der {@link java.sql.ResultSetMetaData} und
+     * {@link java.sql.ParameterMetaData}, den sich alle Connections dieser
+     * DataSource teilen.
+     *
+     * @return der Cache der Metadaten.
+     */
+    public final MetaDataCache getMetaDataCache() {
+        return metaDataCache;
+    }
+
+    /**
+     * Liefert den (opt-in) Cache der Abfrage-Ergebnisse, den sich alle
+     * Connections dieser DataSource teilen.
+     *
+     * @return der Cache der Abfrage-Ergebnisse.
+     */
+    public final QueryResultCache getQueryResultCache() {
+        return queryResultCache;
     }
 
     /**
@@ -0,0 +1,163 @@
+package eu.dirk.haase.jdbc.proxy;
+
+import eu.dirk.haase.jdbc.proxy.base.JdbcProxy;
+import eu.dirk.haase.jdbc.proxy.metadata.CatalogCache;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Basis-Klasse f&uuml;r die generierten {@link DatabaseMetaData}-Wrapper.
+ * <p>
+ * Die Katalog-Abfragen ({@code getTables}, {@code getColumns},
+ * {@code getPrimaryKeys} und weitere) werden im {@link CatalogCache} der
+ * DataSource zwischengespeichert. Alle anderen Methoden werden direkt
+ * an den Treiber delegiert.
+ */
+public abstract class AbstractDatabaseMetaDataProxy extends JdbcProxy<DatabaseMetaData> implements DatabaseMetaData {
+
+    private final CatalogCache catalogCache;
+    private final Connection connection;
+    private final DatabaseMetaData delegate;
+
+    protected AbstractDatabaseMetaDataProxy(final DatabaseMetaData delegate, final Connection connection, final Object[] argumentArray) {
+        super(DatabaseMetaData.class, delegate);
+        this.connection = connection;
+        this.delegate = delegate;
+        this.catalogCache = CatalogCache.of(connection);
+    }
+
+    private ResultSet cached(final MetaDataCache.MetaDataSupplier<ResultSet> supplier, final Object... key) throws SQLException {
+        try {
+            if (catalogCache == null) {
+                return supplier.get();
+            }
+            return catalogCache.get(keyOf(key), supplier);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    /**
+     * Liefert den Katalog f&uuml;r den Schl&uuml;ssel einer Katalog-Abfrage.
+     * <p>
+     * Manche Treiber lesen bei {@code null} den aktuellen Katalog der
+     * Connection. Da sich alle Connections der DataSource den Cache teilen,
+     * geh&ouml;rt dieser dann zum Schl&uuml;ssel.
+     */
+    private Object catalogKey(final String catalog) throws SQLException {
+        if ((catalog != null) || (catalogCache == null)) {
+            return catalog;
+        }
+        return Collections.singletonList(delegate.getConnection().getCatalog());
+    }
+
+    private static List<Object> keyOf(final Object... key) {
+        for (int i = 0; key.length > i; ++i) {
+            if (key[i] instanceof Object[]) {
+                key[i] = Arrays.asList((Object[]) key[i]);
+            }
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Liefert das Schema f&uuml;r den Schl&uuml;ssel einer Katalog-Abfrage; wie
+     * bei {@link #catalogKey(String)} geh&ouml;rt bei {@code null} das aktuelle
+     * Schema der Connection zum Schl&uuml;ssel.
+     */
+    private Object schemaKey(final String schema) throws SQLException {
+        if ((schema != null) || (catalogCache == null)) {
+            return schema;
+        }
+        try {
+            return Collections.singletonList(delegate.getConnection().getSchema());
+        } catch (AbstractMethodError ex) {
+            // Treiber vor JDBC 4.1
+            return Collections.singletonList(null);
+        }
+    }
+
+    @Override
+    public final ResultSet getBestRowIdentifier(final String catalog, final String schema, final String table, final int scope, final boolean nullable) throws SQLException {
+        return cached(() -> delegate.getBestRowIdentifier(catalog, schema, table, scope, nullable), "getBestRowIdentifier", catalogKey(catalog), schemaKey(schema), table, scope, nullable);
+    }
+
+    @Override
+    public final ResultSet getCatalogs() throws SQLException {
+        return cached(() -> delegate.getCatalogs(), "getCatalogs");
+    }
+
+    @Override
+    public final ResultSet getColumns(final String catalog, final String schemaPattern, final String tableNamePattern, final String columnNamePattern) throws SQLException {
+        return cached(() -> delegate.getColumns(catalog, schemaPattern, tableNamePattern, columnNamePattern), "getColumns", catalogKey(catalog), schemaKey(schemaPattern), tableNamePattern, columnNamePattern);
+    }
+
+    /**
+     * Liefert das {@link Connection}-Objekt (das dieses Objekt erzeugt hat),
+     * welches wahrscheinlich auch ein Proxy-Objekt ist.
+     *
+     * @return das zugrundeliegende {@link Connection}-Objekt.
+     */
+    @Override
+    public final Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public final ResultSet getCrossReference(final String parentCatalog, final String parentSchema, final String parentTable, final String foreignCatalog, final String foreignSchema, final String foreignTable) throws SQLException {
+        return cached(() -> delegate.getCrossReference(parentCatalog, parentSchema, parentTable, foreignCatalog, foreignSchema, foreignTable), "getCrossReference", catalogKey(parentCatalog), schemaKey(parentSchema), parentTable, catalogKey(foreignCatalog), schemaKey(foreignSchema), foreignTable);
+    }
+
+    @Override
+    public final ResultSet getExportedKeys(final String catalog, final String schema, final String table) throws SQLException {
+        return cached(() -> delegate.getExportedKeys(catalog, schema, table), "getExportedKeys", catalogKey(catalog), schemaKey(schema), table);
+    }
+
+    @Override
+    public final ResultSet getImportedKeys(final String catalog, final String schema, final String table) throws SQLException {
+        return cached(() -> delegate.getImportedKeys(catalog, schema, table), "getImportedKeys", catalogKey(catalog), schemaKey(schema), table);
+    }
+
+    @Override
+    public final ResultSet getIndexInfo(final String catalog, final String schema, final String table, final boolean unique, final boolean approximate) throws SQLException {
+        return cached(() -> delegate.getIndexInfo(catalog, schema, table, unique, approximate), "getIndexInfo", catalogKey(catalog), schemaKey(schema), table, unique, approximate);
+    }
+
+    @Override
+    public final ResultSet getPrimaryKeys(final String catalog, final String schema, final String table) throws SQLException {
+        return cached(() -> delegate.getPrimaryKeys(catalog, schema, table), "getPrimaryKeys", catalogKey(catalog), schemaKey(schema), table);
+    }
+
+    @Override
+    public final ResultSet getSchemas() throws SQLException {
+        return cached(() -> delegate.getSchemas(), "getSchemas");
+    }
+
+    @Override
+    public final ResultSet getSchemas(final String catalog, final String schemaPattern) throws SQLException {
+        return cached(() -> delegate.getSchemas(catalog, schemaPattern), "getSchemas", catalogKey(catalog), schemaKey(schemaPattern));
+    }
+
+    @Override
+    public final ResultSet getTableTypes() throws SQLException {
+        return cached(() -> delegate.getTableTypes(), "getTableTypes");
+    }
+
+    @Override
+    public final ResultSet getTables(final String catalog, final String schemaPattern, final String tableNamePattern, final String[] types) throws SQLException {
+        return cached(() -> delegate.getTables(catalog, schemaPattern, tableNamePattern, types), "getTables", catalogKey(catalog), schemaKey(schemaPattern), tableNamePattern, types);
+    }
+
+    @Override
+    public final ResultSet getTypeInfo() throws SQLException {
+        return cached(() -> delegate.getTypeInfo(), "getTypeInfo");
+    }
+
+}
@@ -1,22 +1,85 @@
 package eu.dirk.haase.jdbc.proxy;
 
+import eu.dirk.haase.jdbc.proxy.base.BindParameters;
 import eu.dirk.haase.jdbc.proxy.base.CloseState;
 import eu.dirk.haase.jdbc.proxy.base.FactoryJdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.FetchSizeTuning;
+import eu.dirk.haase.jdbc.proxy.base.ParameterCapture;
+import eu.dirk.haase.jdbc.proxy.base.PreparedSql;
+import eu.dirk.haase.jdbc.proxy.base.ResultCaching;
+import eu.dirk.haase.jdbc.proxy.base.WriteTracking;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+import eu.dirk.haase.jdbc.proxy.querycache.QueryResultCache;
+import eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor;
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetPublisher;
+import eu.dirk.haase.jdbc.proxy.resultset.RowMapper;
 
 import javax.sql.ConnectionPoolDataSource;
 import java.sql.Connection;
+import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
 
-public abstract class AbstractPreparedStatementProxy extends FactoryJdbcProxy<PreparedStatement> implements CloseState, PreparedStatement {
+public abstract class AbstractPreparedStatementProxy extends FactoryJdbcProxy<PreparedStatement> implements CloseState, FetchSizeTuning, ParameterCapture, PreparedSql, ResultCaching, WriteTracking, PreparedStatement {
 
+    private final BindParameters bindParameters;
     private final Connection connection;
     private final PreparedStatement delegate;
+    private final FetchSizeAdvisor fetchSizeAdvisor;
+    private final MetaDataCache metaDataCache;
+    private final QueryResultCache queryResultCache;
+    private final String sql;
+    private boolean isFetchSizeExplicit;
+    private int tunedFetchSize;
 
     protected AbstractPreparedStatementProxy(PreparedStatement delegate, Connection connection, final Object[] argumentArray) {
         super(PreparedStatement.class, delegate);
         this.connection = connection;
         this.delegate = delegate;
+        this.fetchSizeAdvisor = FetchSizeAdvisor.of(connection);
+        this.bindParameters = (BindParameters.isCaptureRequested() ? new BindParameters() : null);
+        this.metaDataCache = MetaDataCache.of(connection);
+        this.queryResultCache = QueryResultCache.of(connection);
+        this.sql = ((argumentArray != null) && (argumentArray.length > 0) && (argumentArray[0] instanceof String) ? (String) argumentArray[0] : null);
+    }
+
+    @Override
+    public final ResultSet cachedExecuteQuery() throws SQLException {
+        return queryResultCache.executeQuery(sql, bindParameters.toKeyArray(), this, delegate::executeQuery);
+    }
+
+    @Override
+    public final void captureInexactParameter(final int parameterIndex, final Object value) {
+        if (bindParameters != null) {
+            bindParameters.setInexact(parameterIndex, value);
+        }
+    }
+
+    @Override
+    public final void captureParameter(final int parameterIndex, final Object value) {
+        if (bindParameters != null) {
+            bindParameters.set(parameterIndex, value);
+        }
+    }
+
+    @Override
+    public final String capturedParameters() {
+        return (bindParameters != null ? bindParameters.toString() : null);
+    }
+
+    @Override
+    public final Object[] capturedParameterValues() {
+        return (bindParameters != null ? bindParameters.toArray() : null);
+    }
+
+    @Override
+    public final void clearCapturedParameters() {
+        if (bindParameters != null) {
+            bindParameters.clear();
+        }
     }
 
     /**
@@ -29,6 +92,126 @@ public abstract class AbstractPreparedStatementProxy extends FactoryJdbcProxy<Pr
         return connection;
     }
 
+    @Override
+    public final ResultSetMetaData getMetaData() throws SQLException {
+        try {
+            if ((metaDataCache == null) || (sql == null)) {
+                return delegate.getMetaData();
+            }
+            return metaDataCache.resultSetMetaData(sql, delegate::getMetaData);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final ParameterMetaData getParameterMetaData() throws SQLException {
+        try {
+            if ((metaDataCache == null) || (sql == null)) {
+                return delegate.getParameterMetaData();
+            }
+            return metaDataCache.parameterMetaData(sql, delegate::getParameterMetaData);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final String getSql() {
+        return sql;
+    }
+
+    @Override
+    public final boolean isCapturingParameters() {
+        return (bindParameters != null);
+    }
+
+    @Override
+    public final boolean isResultCacheable() {
+        return (bindParameters != null) && (queryResultCache != null) && queryResultCache.isCacheable(sql) && bindParameters.isKey();
+    }
+
+    /**
+     * Liefert die Zeilen der Abfrage gesteuert durch die Nachfrage eines
+     * Abonnenten (siehe {@link ResultSetPublisher}); der Cursor wird auf dem
+     * gemeinsamen Executor bewegt (siehe {@link ResultSetPublisher#defaultExecutor()}).
+     *
+     * @param rowMapper bildet die Zeilen ab.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return ein Publisher, der die Abfrage erst beim Abonnieren ausf&uuml;hrt.
+     */
+    public final <T> ResultSetPublisher<T> publish(final RowMapper<T> rowMapper) {
+        return publish(rowMapper, ResultSetPublisher.defaultExecutor());
+    }
+
+    /**
+     * Liefert die Zeilen der Abfrage gesteuert durch die Nachfrage eines
+     * Abonnenten (siehe {@link ResultSetPublisher}). Die Bind-Parameter
+     * m&uuml;ssen vor dem Abonnieren gesetzt sein. Bricht der Abonnent ab,
+     * dann wird dieses Statement geschlossen.
+     *
+     * @param rowMapper bildet die Zeilen ab.
+     * @param executor  der Executor, auf dem der Cursor bewegt wird.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return ein Publisher, der die Abfrage erst beim Abonnieren ausf&uuml;hrt.
+     */
+    public final <T> ResultSetPublisher<T> publish(final RowMapper<T> rowMapper, final Executor executor) {
+        return ResultSetPublisher.of(this, this::executeQuery, rowMapper, executor);
+    }
+
+    /**
+     * Setzt die Fetch-Size. Eine von der Anwendung gesetzte Fetch-Size wird
+     * nicht mehr durch die gelernte Fetch-Size (siehe {@link FetchSizeAdvisor})
+     * ersetzt.
+     *
+     * @param rows die Fetch-Size.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die Fetch-Size
+     *                      nicht setzen kann.
+     */
+    @Override
+    public final void setFetchSize(final int rows) throws SQLException {
+        try {
+            delegate.setFetchSize(rows);
+            this.isFetchSizeExplicit = true;
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final void trackWrite(final String sql) {
+        if (connection instanceof AbstractConnectionProxy) {
+            ((AbstractConnectionProxy) connection).trackWrite(sql != null ? sql : this.sql);
+        }
+    }
+
+    @Override
+    public final void hintFetchSize(final int rows) throws SQLException {
+        try {
+            delegate.setFetchSize(rows);
+            this.tunedFetchSize = rows;
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final void tuneFetchSize(final String sql) {
+        final String currSql = (sql != null ? sql : this.sql);
+        if (isFetchSizeExplicit || (fetchSizeAdvisor == null) || (currSql == null)) {
+            return;
+        }
+        final int fetchSize = fetchSizeAdvisor.fetchSize(currSql);
+        if ((fetchSize > 0) && (fetchSize != tunedFetchSize)) {
+            try {
+                delegate.setFetchSize(fetchSize);
+                this.tunedFetchSize = fetchSize;
+            } catch (SQLException ignore) {
+                // Dann bleibt es bei der bisherigen Fetch-Size
+            }
+        }
+    }
+
     /**
      * Dekoriert ein {@link ResultSet}-Objekt, das bedeutet: es wird in ein anderes
      * Objekt eingepackt (welches selbst das Interface {@link ResultSet} implementiert).
@@ -1,21 +1,275 @@
 package eu.dirk.haase.jdbc.proxy;
 
 import eu.dirk.haase.jdbc.proxy.base.CloseState;
+import eu.dirk.haase.jdbc.proxy.base.ColumnIndexResolver;
 import eu.dirk.haase.jdbc.proxy.base.JdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.PreparedSql;
+import eu.dirk.haase.jdbc.proxy.base.RowCounting;
+import eu.dirk.haase.jdbc.proxy.generate.RowMapperGenerator;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnLabelCache;
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnLabels;
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnarTable;
+import eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor;
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetPrefetcher;
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetSpliterator;
+import eu.dirk.haase.jdbc.proxy.resultset.RowMapper;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.stream.Stream;
 
-public abstract class AbstractResultSetProxy extends JdbcProxy<ResultSet> implements CloseState, ResultSet {
+public abstract class AbstractResultSetProxy extends JdbcProxy<ResultSet> implements CloseState, ColumnIndexResolver, RowCounting, ResultSet {
 
     private final ResultSet delegate;
+    private final FetchSizeAdvisor fetchSizeAdvisor;
+    private final MetaDataCache metaDataCache;
+    private final String sql;
     private final Statement statement;
+    private ColumnLabels columnLabels;
+    private ResultSetMetaData metaData;
+    private long rowCount;
 
     protected AbstractResultSetProxy(final ResultSet delegate, final Statement statement, final Object[] argumentArray) {
         super(ResultSet.class, delegate);
         this.statement = statement;
         this.delegate = delegate;
+        this.sql = sqlOf(statement, argumentArray);
+        this.metaDataCache = MetaDataCache.of(statement);
+        this.fetchSizeAdvisor = (sql != null ? FetchSizeAdvisor.of(statement) : null);
+    }
+
+    /**
+     * Ermittelt die SQL-Anweisung die dieses ResultSet erzeugt hat: entweder
+     * das erste Argument von {@code Statement.executeQuery(String)} oder die
+     * SQL-Anweisung eines vorbereiteten Statements.
+     * <p>
+     * Nur ResultSets von {@code executeQuery} erhalten Argumente. Die
+     * ResultSets aller anderen Methoden (zum Beispiel {@code getResultSet()}
+     * nach {@code getMoreResults()} oder {@code getGeneratedKeys()}) haben eine
+     * andere Form als die SQL-Anweisung und werden ihr daher nicht zugeordnet.
+     *
+     * @param statement     das Statement das dieses ResultSet erzeugt hat.
+     * @param argumentArray die Argumente der Methode die dieses ResultSet erzeugt
+     *                      hat oder {@code null} wenn es nicht von
+     *                      {@code executeQuery} erzeugt wurde.
+     * @return die SQL-Anweisung oder {@code null} wenn sie nicht bekannt ist.
+     */
+    private static String sqlOf(final Statement statement, final Object[] argumentArray) {
+        if (argumentArray == null) {
+            return null;
+        } else if ((argumentArray.length > 0) && (argumentArray[0] instanceof String)) {
+            return (String) argumentArray[0];
+        } else if (statement instanceof PreparedSql) {
+            return ((PreparedSql) statement).getSql();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Liefert den Index der Spalte mit dem angegebenen Namen (Label).
+     * <p>
+     * Die Zuordnung der Spaltennamen wird beim ersten Aufruf aus den Metadaten
+     * gelesen und pro SQL-Anweisung &uuml;ber alle Ausf&uuml;hrungen hinweg
+     * gecacht (siehe {@link ColumnLabelCache}). Unbekannte Spaltennamen werden
+     * an {@link ResultSet#findColumn(String)} des Treibers weitergereicht.
+     *
+     * @param columnLabel der Name (Label) der Spalte.
+     * @return der Index der Spalte (beginnend mit 1).
+     * @throws SQLException wird ausgel&ouml;st wenn es keine Spalte mit diesem
+     *                      Namen gibt.
+     */
+    @Override
+    public final int columnIndex(final String columnLabel) throws SQLException {
+        ColumnLabels currColumnLabels = this.columnLabels;
+        if (currColumnLabels == null) {
+            // Die Metadaten sind gegen die des Treibers geprueft, da
+            // sich die Form des Ergebnisses geaendert haben kann:
+            currColumnLabels = ColumnLabelCache.get(sql, resultSetMetaData());
+            this.columnLabels = currColumnLabels;
+        }
+        final int columnIndex = currColumnLabels.indexOf(columnLabel);
+        return (columnIndex > 0 ? columnIndex : delegate.findColumn(columnLabel));
+    }
+
+    @Override
+    public final int findColumn(final String columnLabel) throws SQLException {
+        try {
+            return columnIndex(columnLabel);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    /**
+     * Liefert die {@link ResultSetMetaData}, bei bekannter SQL-Anweisung aus dem
+     * Cache der DataSource (siehe {@link MetaDataCache}). Die gecachten
+     * Metadaten werden einmal pro ResultSet gegen die Metadaten des Treibers
+     * gepr&uuml;ft.
+     *
+     * @return die Metadaten dieses ResultSets.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die Metadaten
+     *                      nicht liefern kann.
+     */
+    @Override
+    public final ResultSetMetaData getMetaData() throws SQLException {
+        try {
+            return resultSetMetaData();
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    private ResultSetMetaData resultSetMetaData() throws SQLException {
+        ResultSetMetaData currMetaData = this.metaData;
+        if (currMetaData == null) {
+            final ResultSetMetaData driverMetaData = delegate.getMetaData();
+            if ((metaDataCache == null) || (sql == null)) {
+                return driverMetaData;
+            }
+            currMetaData = metaDataCache.resultSetMetaData(sql, driverMetaData);
+            this.metaData = currMetaData;
+        }
+        return currMetaData;
+    }
+
+    /**
+     * Liest alle verbleibenden Zeilen dieses ResultSets spaltenweise in
+     * Speicher au&szlig;erhalb des Java-Heaps (siehe {@link ColumnarTable}).
+     * <p>
+     * Die Tabelle ist danach unabh&auml;ngig von diesem ResultSet und der
+     * Connection; dieses ResultSet steht danach hinter der letzten Zeile und
+     * kann (und sollte) geschlossen werden. Lesende ResultSets auf die Tabelle
+     * liefert {@link ColumnarTable#newResultSet()}; wird die Tabelle nicht mehr
+     * gebraucht, dann gibt {@link ColumnarTable#close()} ihren Speicher frei.
+     *
+     * @return die materialisierte Tabelle.
+     * @throws SQLException wird ausgel&ouml;st wenn das ResultSet nicht gelesen
+     *                      werden kann.
+     */
+    public final ColumnarTable materialize() throws SQLException {
+        try {
+            return ColumnarTable.materialize(this);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    /**
+     * Z&auml;hlt die gelesenen Zeilen. Ist das ResultSet vollst&auml;ndig gelesen,
+     * dann wird die Anzahl der Zeilen f&uuml;r die SQL-Anweisung gemeldet (siehe
+     * {@link FetchSizeAdvisor}).
+     *
+     * @param hasNext das Ergebnis von {@code next()} des Treibers.
+     * @return unver&auml;ndert das Ergebnis von {@code next()} des Treibers.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht
+     *                      gelesen werden k&ouml;nnen.
+     */
+    @Override
+    public final boolean countRow(final boolean hasNext) throws SQLException {
+        if (hasNext) {
+            ++rowCount;
+        } else if ((fetchSizeAdvisor != null) && (rowCount >= 0)) {
+            fetchSizeAdvisor.recordRows(sql, rowCount, resultSetMetaData());
+            // Nur einmal melden:
+            rowCount = -1;
+        }
+        return hasNext;
+    }
+
+    /**
+     * Liest dieses ResultSet in einem eigenen Thread blockweise voraus (siehe
+     * {@link ResultSetPrefetcher}); die Blockgr&ouml;&szlig;e ist durch die
+     * Anzahl der Bytes begrenzt, nicht durch die Fetch-Size des Treibers.
+     *
+     * @return ein nur lesbares, vorw&auml;rts gerichtetes ResultSet.
+     * @throws SQLException wird ausgel&ouml;st wenn das Vorauslesen nicht
+     *                      gestartet werden kann.
+     * @see #prefetch(int)
+     */
+    public final ResultSet prefetch() throws SQLException {
+        try {
+            return ResultSetPrefetcher.start(this, statement);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    /**
+     * Liest dieses ResultSet in einem eigenen Thread blockweise voraus: w&auml;hrend
+     * die Anwendung einen Block verarbeitet, werden die n&auml;chsten Bl&ouml;cke
+     * bereits vom Treiber gelesen (siehe {@link ResultSetPrefetcher}).
+     * <p>
+     * Ab diesem Aufruf geh&ouml;ren alle Zugriffe auf das ResultSet des Treibers
+     * dem Prefetch-Thread. Dieses ResultSet darf danach nicht mehr verwendet
+     * werden; gelesen und geschlossen wird nur noch das gelieferte ResultSet.
+     *
+     * @param chunkRows die maximale Anzahl der Zeilen pro Block.
+     * @return ein nur lesbares, vorw&auml;rts gerichtetes ResultSet.
+     * @throws SQLException wird ausgel&ouml;st wenn das Vorauslesen nicht
+     *                      gestartet werden kann.
+     */
+    public final ResultSet prefetch(final int chunkRows) throws SQLException {
+        try {
+            return ResultSetPrefetcher.start(this, statement, chunkRows);
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    /**
+     * Liefert einen generierten {@link RowMapper}, der die Zeilen dieses
+     * ResultSets ohne Reflection auf Objekte der Ziel-Klasse abbildet (siehe
+     * {@link RowMapperGenerator}). Der Mapper wird pro Ziel-Klasse und
+     * SQL-Fingerabdruck gecacht.
+     *
+     * @param type die Ziel-Klasse.
+     * @param <T>  der Typ der Ziel-Klasse.
+     * @return der Mapper.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht gelesen
+     *                      werden k&ouml;nnen.
+     */
+    public final <T> RowMapper<T> rowMapper(final Class<T> type) throws SQLException {
+        try {
+            return RowMapperGenerator.rowMapper(type, sql, getMetaData());
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    /**
+     * Liefert einen sequentiellen, lazy ausgewerteten Stream auf die
+     * (verbleibenden) Zeilen dieses ResultSets (siehe {@link ResultSetSpliterator}).
+     * Beim Schlie&szlig;en des Streams werden dieses ResultSet und sein Statement
+     * geschlossen.
+     *
+     * @param rowMapper bildet die Zeilen ab; darf nicht {@code null} liefern.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return der Stream auf die Zeilen.
+     */
+    public final <T> Stream<T> stream(final RowMapper<T> rowMapper) {
+        return stream(rowMapper, 0);
+    }
+
+    /**
+     * Liefert einen sequentiellen, lazy ausgewerteten Stream auf die
+     * (verbleibenden) Zeilen dieses ResultSets (siehe {@link ResultSetSpliterator}).
+     * Als paralleler Stream werden jeweils {@code batchSize} abgebildete Zeilen
+     * als Block parallel verarbeitet. Beim Schlie&szlig;en des Streams werden
+     * dieses ResultSet und sein Statement geschlossen.
+     *
+     * @param rowMapper bildet die Zeilen ab; darf nicht {@code null} liefern.
+     * @param batchSize die Anzahl der Zeilen pro Block oder {@code 0} wenn
+     *                  nicht geteilt werden soll.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return der Stream auf die Zeilen.
+     */
+    public final <T> Stream<T> stream(final RowMapper<T> rowMapper, final int batchSize) {
+        return ResultSetSpliterator.stream(this, statement, rowMapper, batchSize);
     }
 
     /**
@@ -2,20 +2,31 @@ package eu.dirk.haase.jdbc.proxy;
 
 import eu.dirk.haase.jdbc.proxy.base.CloseState;
 import eu.dirk.haase.jdbc.proxy.base.FactoryJdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.FetchSizeTuning;
+import eu.dirk.haase.jdbc.proxy.base.WriteTracking;
+import eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor;
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetPublisher;
+import eu.dirk.haase.jdbc.proxy.resultset.RowMapper;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.Executor;
 
-public abstract class AbstractStatementProxy extends FactoryJdbcProxy<Statement> implements CloseState, Statement {
+public abstract class AbstractStatementProxy extends FactoryJdbcProxy<Statement> implements CloseState, FetchSizeTuning, WriteTracking, Statement {
 
     private final Connection connection;
     private final Statement delegate;
+    private final FetchSizeAdvisor fetchSizeAdvisor;
+    private boolean isFetchSizeExplicit;
+    private int tunedFetchSize;
 
     protected AbstractStatementProxy(final Statement delegate, final Connection connection, final Object[] argumentArray) {
         super(Statement.class, delegate);
         this.connection = connection;
         this.delegate = delegate;
+        this.fetchSizeAdvisor = FetchSizeAdvisor.of(connection);
     }
 
     /**
@@ -28,6 +39,87 @@ public abstract class AbstractStatementProxy extends FactoryJdbcProxy<Statement>
         return connection;
     }
 
+    /**
+     * Liefert die Zeilen einer Abfrage gesteuert durch die Nachfrage eines
+     * Abonnenten (siehe {@link ResultSetPublisher}); der Cursor wird auf dem
+     * gemeinsamen Executor bewegt (siehe {@link ResultSetPublisher#defaultExecutor()}).
+     *
+     * @param sql       die Abfrage.
+     * @param rowMapper bildet die Zeilen ab.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return ein Publisher, der die Abfrage erst beim Abonnieren ausf&uuml;hrt.
+     */
+    public final <T> ResultSetPublisher<T> publish(final String sql, final RowMapper<T> rowMapper) {
+        return publish(sql, rowMapper, ResultSetPublisher.defaultExecutor());
+    }
+
+    /**
+     * Liefert die Zeilen einer Abfrage gesteuert durch die Nachfrage eines
+     * Abonnenten (siehe {@link ResultSetPublisher}). Bricht der Abonnent ab,
+     * dann wird dieses Statement geschlossen.
+     *
+     * @param sql       die Abfrage.
+     * @param rowMapper bildet die Zeilen ab.
+     * @param executor  der Executor, auf dem der Cursor bewegt wird.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return ein Publisher, der die Abfrage erst beim Abonnieren ausf&uuml;hrt.
+     */
+    public final <T> ResultSetPublisher<T> publish(final String sql, final RowMapper<T> rowMapper, final Executor executor) {
+        return ResultSetPublisher.of(this, () -> executeQuery(sql), rowMapper, executor);
+    }
+
+    /**
+     * Setzt die Fetch-Size. Eine von der Anwendung gesetzte Fetch-Size wird
+     * nicht mehr durch die gelernte Fetch-Size (siehe {@link FetchSizeAdvisor})
+     * ersetzt.
+     *
+     * @param rows die Fetch-Size.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die Fetch-Size
+     *                      nicht setzen kann.
+     */
+    @Override
+    public final void setFetchSize(final int rows) throws SQLException {
+        try {
+            delegate.setFetchSize(rows);
+            this.isFetchSizeExplicit = true;
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final void trackWrite(final String sql) {
+        if (connection instanceof AbstractConnectionProxy) {
+            ((AbstractConnectionProxy) connection).trackWrite(sql);
+        }
+    }
+
+    @Override
+    public final void hintFetchSize(final int rows) throws SQLException {
+        try {
+            delegate.setFetchSize(rows);
+            this.tunedFetchSize = rows;
+        } catch (Throwable ex) {
+            throw checkException(ex);
+        }
+    }
+
+    @Override
+    public final void tuneFetchSize(final String sql) {
+        if (isFetchSizeExplicit || (fetchSizeAdvisor == null) || (sql == null)) {
+            return;
+        }
+        final int fetchSize = fetchSizeAdvisor.fetchSize(sql);
+        if ((fetchSize > 0) && (fetchSize != tunedFetchSize)) {
+            try {
+                delegate.setFetchSize(fetchSize);
+                this.tunedFetchSize = fetchSize;
+            } catch (SQLException ignore) {
+                // Dann bleibt es bei der bisherigen Fetch-Size
+            }
+        }
+    }
+
     /**
      * Dekoriert ein {@link ResultSet}-Objekt, das bedeutet: es wird in ein anderes
      * Objekt eingepackt (welches selbst das Interface {@link ResultSet} implementiert).
@@ -0,0 +1,212 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wiederverwendbarer Puffer f&uuml;r die Bind-Parameter eines Statements.
+ * <p>
+ * Die Werte werden nur als Referenzen abgelegt; erst wenn eine Ausf&uuml;hrung
+ * tats&auml;chlich protokolliert wird, werden sie mit {@link #toString()} in
+ * lesbare Form gebracht. Gro&szlig;e Werte (Streams, LOBs und Arrays) werden
+ * dabei nur mit ihrem Typ dargestellt, lange Strings werden gek&uuml;rzt.
+ * <p>
+ * Ein Puffer geh&ouml;rt genau zu einem Statement und ist, wie das Statement
+ * selbst, nicht thread-sicher.
+ * <p>
+ * Ob neu erzeugte Statements einen Puffer erhalten, entscheiden die Komponenten
+ * die Bind-Parameter ben&ouml;tigen (zum Beispiel das Protokoll langsamer
+ * SQL-Anweisungen) mit {@link #requestCapture(Object, boolean)}.
+ */
+public final class BindParameters {
+
+    private static final int MAX_VALUE_LENGTH = 200;
+    private static final Set<Object> captureRequesterSet = ConcurrentHashMap.newKeySet();
+    private static volatile boolean isCaptureRequested;
+
+    private boolean isInexact;
+    private int size;
+    private Object[] valueArray;
+
+    public BindParameters() {
+        this.valueArray = new Object[8];
+    }
+
+    private static void appendValue(final StringBuilder text, final Object value) {
+        if (value == null) {
+            text.append("NULL");
+        } else if ((value instanceof Number) || (value instanceof Boolean)) {
+            text.append(value);
+        } else if ((value instanceof CharSequence) || (value instanceof java.util.Date)
+                || (value instanceof java.time.temporal.Temporal) || (value instanceof Character)) {
+            final String string = value.toString();
+            text.append('\'');
+            if (string.length() > MAX_VALUE_LENGTH) {
+                text.append(string, 0, MAX_VALUE_LENGTH).append("...");
+            } else {
+                text.append(string);
+            }
+            text.append('\'');
+        } else {
+            text.append('<').append(value.getClass().getSimpleName()).append('>');
+        }
+    }
+
+    private static boolean isKeyValue(final Object value) {
+        return (value == null) || (value instanceof String) || (value instanceof Number)
+                || (value instanceof Boolean) || (value instanceof Character) || (value instanceof byte[])
+                || (value instanceof java.util.Date) || (value instanceof java.time.temporal.Temporal);
+    }
+
+    /**
+     * Liefert {@code true} wenn mindestens eine Komponente das Mitschreiben der
+     * Bind-Parameter angefordert hat.
+     * <p>
+     * Wird von den Wrapper-Klassen beim Erzeugen eines Statements abgefragt.
+     *
+     * @return {@code true} wenn neu erzeugte Statements ihre Bind-Parameter
+     * mitschreiben sollen.
+     */
+    public static boolean isCaptureRequested() {
+        return isCaptureRequested;
+    }
+
+    /**
+     * Fordert das Mitschreiben der Bind-Parameter f&uuml;r alle danach erzeugten
+     * Statements an oder gibt die Anforderung wieder frei.
+     * <p>
+     * Die Bind-Parameter werden mitgeschrieben solange mindestens eine
+     * Komponente das Mitschreiben angefordert hat.
+     *
+     * @param requester die anfordernde Komponente.
+     * @param isCapture {@code true} um das Mitschreiben anzufordern,
+     *                  {@code false} um die Anforderung freizugeben.
+     */
+    public static void requestCapture(final Object requester, final boolean isCapture) {
+        synchronized (captureRequesterSet) {
+            if (isCapture) {
+                captureRequesterSet.add(requester);
+            } else {
+                captureRequesterSet.remove(requester);
+            }
+            isCaptureRequested = !captureRequesterSet.isEmpty();
+        }
+    }
+
+    /**
+     * Verwirft alle Werte. Der Puffer selbst wird weiterverwendet.
+     */
+    public void clear() {
+        Arrays.fill(valueArray, 0, size, null);
+        size = 0;
+        isInexact = false;
+    }
+
+    /**
+     * Legt den Wert eines Bind-Parameters ab.
+     *
+     * @param parameterIndex der Index des Parameters (beginnend mit 1).
+     * @param value          der Wert des Parameters.
+     */
+    public void set(final int parameterIndex, final Object value) {
+        final int index = parameterIndex - 1;
+        if (index < 0) {
+            return;
+        }
+        if (index >= valueArray.length) {
+            valueArray = Arrays.copyOf(valueArray, Math.max(index + 1, valueArray.length * 2));
+        }
+        valueArray[index] = value;
+        size = Math.max(size, index + 1);
+    }
+
+    /**
+     * Legt den Wert eines Bind-Parameters ab, dessen weitere Argumente (zum
+     * Beispiel {@code Calendar}, SQL-Typ, Skalierung oder L&auml;nge) nicht
+     * abgelegt werden. Bis zum n&auml;chsten {@link #clear()} liefert
+     * {@link #toKeyArray()} danach {@code null}.
+     *
+     * @param parameterIndex der Index des Parameters (beginnend mit 1).
+     * @param value          der Wert des Parameters.
+     */
+    public void setInexact(final int parameterIndex, final Object value) {
+        set(parameterIndex, value);
+        isInexact = true;
+    }
+
+    /**
+     * Liefert die Anzahl der Parameter (der h&ouml;chste gesetzte Index).
+     *
+     * @return die Anzahl der Parameter.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Liefert eine Kopie der Werte.
+     *
+     * @return die Werte, der Index {@code 0} enth&auml;lt den ersten Parameter.
+     */
+    public Object[] toArray() {
+        return Arrays.copyOf(valueArray, size);
+    }
+
+    /**
+     * Liefert {@code true} wenn sich die Werte als Teil eines
+     * Cache-Schl&uuml;ssels eignen (siehe {@link #toKeyArray()}).
+     *
+     * @return {@code true} wenn {@link #toKeyArray()} nicht {@code null} liefert.
+     */
+    public boolean isKey() {
+        if (isInexact) {
+            return false;
+        }
+        for (int i = 0; size > i; ++i) {
+            if (!isKeyValue(valueArray[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Liefert eine Kopie der Werte, die als Teil eines Cache-Schl&uuml;ssels
+     * verwendet werden kann: ver&auml;nderliche Werte ({@code byte[]} und
+     * {@link java.util.Date}) werden ebenfalls kopiert.
+     *
+     * @return die Werte oder {@code null} wenn ein Wert nicht vollst&auml;ndig
+     * abgelegt wurde (siehe {@link #setInexact(int, Object)}) oder sich nicht
+     * als Schl&uuml;ssel eignet (zum Beispiel Streams und LOBs).
+     */
+    public Object[] toKeyArray() {
+        if (!isKey()) {
+            return null;
+        }
+        final Object[] keyArray = Arrays.copyOf(valueArray, size);
+        for (int i = 0; size > i; ++i) {
+            final Object value = keyArray[i];
+            if (value instanceof byte[]) {
+                keyArray[i] = ((byte[]) value).clone();
+            } else if (value instanceof java.util.Date) {
+                keyArray[i] = ((java.util.Date) value).clone();
+            }
+        }
+        return keyArray;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder text = new StringBuilder(16 * size + 2);
+        text.append('[');
+        for (int i = 0; size > i; ++i) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            appendValue(text, valueArray[i]);
+        }
+        return text.append(']').toString();
+    }
+
+}
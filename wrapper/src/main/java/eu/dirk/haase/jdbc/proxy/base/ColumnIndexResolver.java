@@ -0,0 +1,28 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+import java.sql.SQLException;
+
+/**
+ * Ein ResultSet das Spaltennamen (Labels) selbst in Spalten-Indizes
+ * aufl&ouml;sen kann.
+ * <p>
+ * Die generierten Wrapper-Klassen rufen in jeder Methode, deren erster
+ * Parameter ein Spaltenname ist und zu der es eine Variante mit dem
+ * Spalten-Index gibt (zum Beispiel {@code getString(String)} und
+ * {@code getString(int)}), zuerst {@link #columnIndex(String)} auf und
+ * delegieren dann an die Variante mit dem Index. Damit entf&auml;llt die
+ * (oft lineare) Suche des Treibers nach dem Spaltennamen bei jedem Aufruf.
+ */
+public interface ColumnIndexResolver {
+
+    /**
+     * Liefert den Index der Spalte mit dem angegebenen Namen (Label).
+     *
+     * @param columnLabel der Name (Label) der Spalte.
+     * @return der Index der Spalte (beginnend mit 1).
+     * @throws SQLException wird ausgel&ouml;st wenn es keine Spalte mit diesem
+     *                      Namen gibt.
+     */
+    int columnIndex(String columnLabel) throws SQLException;
+
+}
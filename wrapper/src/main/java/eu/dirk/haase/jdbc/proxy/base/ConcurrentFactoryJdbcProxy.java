@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Basis-Klasse f&uuml;r JDBC-Klassen die eingepackt werden sollen und
@@ -66,10 +67,83 @@ public abstract class ConcurrentFactoryJdbcProxy<M extends Map<Object, Object> &
         this.concurrentMapFunktions = new ConcurrentMapFunktions<>(identityMap);
     }
 
+    /**
+     * Liefert die Anzahl der Wrapper-Objekte im Identity-Cache.
+     *
+     * @return die Anzahl der Eintr&auml;ge im Cache.
+     * @throws SQLException wird ausgel&ouml;st wenn die Sperre nicht angefordert werden kann.
+     */
+    public final int cacheSize() throws SQLException {
+        return withCacheLock(false, Map::size);
+    }
+
+    /**
+     * Liefert die Statistik der {@link StampedLock}-Sperre die den Identity-Cache
+     * sch&uuml;tzt.
+     *
+     * @return die Funktionen mit denen der Cache nebenl&auml;ufig bearbeitet wird
+     * und die die Wartezeiten und Zeit&uuml;berschreitungen der Sperre z&auml;hlen.
+     */
+    public final ConcurrentMapFunktions<M, Object, Object> concurrentMapFunktions() {
+        return concurrentMapFunktions;
+    }
+
     public boolean isValid(int timeoutSeconds) throws SQLException {
         return true;
     }
 
+    /**
+     * Entfernt alle Eintr&auml;ge aus dem Identity-Cache deren Schl&uuml;ssel bereits
+     * vom Garbage-Collector freigegeben wurden.
+     *
+     * @return die Anzahl der bisher insgesamt freigegebenen Eintr&auml;ge (siehe
+     * {@link #reclaimedCacheEntryCount()}) oder {@code 0} wenn der Cache keine
+     * {@link WeakIdentityHashMap} ist.
+     * @throws SQLException wird ausgel&ouml;st wenn die Sperre nicht angefordert werden kann.
+     */
+    public final int purgeCache() throws SQLException {
+        return withCacheLock(true, (m) -> (m instanceof WeakIdentityHashMap ? ((WeakIdentityHashMap<?, ?>) m).purge() : 0));
+    }
+
+    /**
+     * Liefert die Anzahl der Eintr&auml;ge die bisher aus dem Identity-Cache entfernt
+     * wurden, weil ihre Schl&uuml;ssel vom Garbage-Collector freigegeben wurden.
+     *
+     * @return die Anzahl der freigegebenen Eintr&auml;ge oder {@code 0} wenn der
+     * Cache keine {@link WeakIdentityHashMap} ist.
+     * @throws SQLException wird ausgel&ouml;st wenn die Sperre nicht angefordert werden kann.
+     */
+    public final int reclaimedCacheEntryCount() throws SQLException {
+        return withCacheLock(false, (m) -> (m instanceof WeakIdentityHashMap ? ((WeakIdentityHashMap<?, ?>) m).getReclaimedEntryCount() : 0));
+    }
+
+    /**
+     * Verkleinert die interne Tabelle des Identity-Caches auf die aktuell
+     * ben&ouml;tigte Gr&ouml;&szlig;e.
+     *
+     * @throws SQLException wird ausgel&ouml;st wenn die Sperre nicht angefordert werden kann.
+     */
+    public final void trimCacheToSize() throws SQLException {
+        withCacheLock(true, (m) -> {
+            if (m instanceof WeakIdentityHashMap) {
+                ((WeakIdentityHashMap<?, ?>) m).trimToSize();
+            }
+            return null;
+        });
+    }
+
+    private <R> R withCacheLock(final boolean isExclusive, final Function<? super M, R> function) throws SQLException {
+        try {
+            if (isExclusive) {
+                return this.concurrentMapFunktions.withWriteLock(stampedLock, function);
+            } else {
+                return this.concurrentMapFunktions.withReadLock(stampedLock, function);
+            }
+        } catch (InterruptedException | TimeoutException ex) {
+            throw new SQLException(ex.toString(), ex);
+        }
+    }
+
 
     /**
      * Dekoriert ein Objekt, das bedeutet: es wird in ein anderes Objekt eingepackt.
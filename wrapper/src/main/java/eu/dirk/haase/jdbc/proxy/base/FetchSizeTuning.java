@@ -0,0 +1,35 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+import java.sql.SQLException;
+
+/**
+ * Ein Statement das vor jeder Abfrage eine gelernte Fetch-Size setzt (siehe
+ * {@link eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor}).
+ * <p>
+ * Die generierten Wrapper-Klassen rufen in jeder {@code executeQuery}-Methode
+ * zuerst {@link #tuneFetchSize(String)} auf.
+ */
+public interface FetchSizeTuning {
+
+    /**
+     * Setzt vor der Ausf&uuml;hrung einer Abfrage die gelernte Fetch-Size,
+     * sofern die Anwendung keine eigene gesetzt hat.
+     *
+     * @param sql die SQL-Anweisung oder {@code null} bei einem vorbereiteten
+     *            Statement, dessen SQL-Anweisung bereits bekannt ist.
+     */
+    void tuneFetchSize(String sql);
+
+    /**
+     * Setzt eine Fetch-Size ohne sie als von der Anwendung gesetzt zu
+     * markieren: anders als nach {@link java.sql.Statement#setFetchSize(int)}
+     * bleibt die Anpassung durch {@link #tuneFetchSize(String)} aktiv und eine
+     * gelernte Fetch-Size hat bei der n&auml;chsten Abfrage Vorrang.
+     *
+     * @param rows die Fetch-Size.
+     * @throws SQLException wird ausgel&ouml;st wenn das Statement die
+     *                      Fetch-Size nicht annimmt.
+     */
+    void hintFetchSize(int rows) throws SQLException;
+
+}
@@ -0,0 +1,35 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+/**
+ * Zustand einer DataSource die ihre Verf&uuml;gbarkeit selbst &uuml;berwacht
+ * (zum Beispiel mit einem Health-Check).
+ * <p>
+ * Nach einem schwerwiegenden Fehler verh&auml;lt sich eine solche DataSource wie
+ * ein ge&ouml;ffneter Schutzschalter (Circuit-Breaker): sie weist alle Anfragen
+ * zur&uuml;ck bis sie wieder als verf&uuml;gbar gilt.
+ */
+public interface HealthState {
+
+    /**
+     * Liefert den letzten schwerwiegenden Fehler.
+     *
+     * @return der letzte schwerwiegende Fehler oder {@code null}.
+     */
+    Throwable getLastFailure();
+
+    /**
+     * Liefert den Zeitpunkt des letzten schwerwiegenden Fehlers.
+     *
+     * @return der Zeitpunkt in Millisekunden seit 1970 oder {@code 0}.
+     */
+    long getLastFailureTimeMillis();
+
+    /**
+     * Liefert {@code true} wenn die DataSource verf&uuml;gbar ist (der
+     * Schutzschalter also geschlossen ist).
+     *
+     * @return {@code true} wenn die DataSource verf&uuml;gbar ist.
+     */
+    boolean isUp();
+
+}
@@ -0,0 +1,63 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+/**
+ * Ein Statement das die Werte seiner Bind-Parameter mitschreiben kann, zum
+ * Beispiel f&uuml;r das Protokoll langsamer SQL-Anweisungen.
+ * <p>
+ * Die generierten Wrapper-Klassen rufen in jeder {@code setXxx(int, ...)}-Methode
+ * zuerst {@link #isCapturingParameters()} auf und nur wenn diese Methode
+ * {@code true} liefert auch {@link #captureParameter(int, Object)}
+ * beziehungsweise {@link #captureInexactParameter(int, Object)}. Ist das
+ * Mitschreiben ausgeschaltet, dann entsteht (insbesondere f&uuml;r primitive
+ * Werte) keine zus&auml;tzliche Allokation.
+ */
+public interface ParameterCapture {
+
+    /**
+     * Schreibt den Wert eines Bind-Parameters mit.
+     *
+     * @param parameterIndex der Index des Parameters (beginnend mit 1).
+     * @param value          der Wert des Parameters.
+     */
+    void captureParameter(int parameterIndex, Object value);
+
+    /**
+     * Schreibt den Wert eines Bind-Parameters mit, dessen weitere Argumente
+     * (zum Beispiel {@code Calendar}, SQL-Typ, Skalierung oder L&auml;nge) nicht
+     * mitgeschrieben werden. Die Bind-Parameter eignen sich danach nicht mehr
+     * als Schl&uuml;ssel eines Caches (siehe {@link BindParameters#toKeyArray()}).
+     *
+     * @param parameterIndex der Index des Parameters (beginnend mit 1).
+     * @param value          der Wert des Parameters.
+     */
+    void captureInexactParameter(int parameterIndex, Object value);
+
+    /**
+     * Liefert die mitgeschriebenen Bind-Parameter in lesbarer Form.
+     *
+     * @return die mitgeschriebenen Bind-Parameter oder {@code null} wenn das
+     * Mitschreiben ausgeschaltet ist.
+     */
+    String capturedParameters();
+
+    /**
+     * Liefert eine Kopie der mitgeschriebenen Bind-Parameter.
+     *
+     * @return die Werte der Bind-Parameter (der Index {@code 0} enth&auml;lt den
+     * ersten Parameter) oder {@code null} wenn das Mitschreiben ausgeschaltet ist.
+     */
+    Object[] capturedParameterValues();
+
+    /**
+     * Verwirft alle mitgeschriebenen Bind-Parameter.
+     */
+    void clearCapturedParameters();
+
+    /**
+     * Liefert {@code true} wenn dieses Statement seine Bind-Parameter mitschreibt.
+     *
+     * @return {@code true} wenn die Bind-Parameter mitgeschrieben werden.
+     */
+    boolean isCapturingParameters();
+
+}
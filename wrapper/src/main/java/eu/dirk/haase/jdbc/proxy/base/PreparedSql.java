@@ -0,0 +1,17 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+/**
+ * Ein Statement das mit einer SQL-Anweisung erzeugt (vorbereitet) wurde,
+ * zum Beispiel ein {@link java.sql.PreparedStatement} oder ein
+ * {@link java.sql.CallableStatement}.
+ */
+public interface PreparedSql {
+
+    /**
+     * Liefert die SQL-Anweisung mit der dieses Statement erzeugt wurde.
+     *
+     * @return die SQL-Anweisung oder {@code null} wenn sie nicht bekannt ist.
+     */
+    String getSql();
+
+}
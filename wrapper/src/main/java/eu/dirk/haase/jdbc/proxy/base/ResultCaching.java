@@ -0,0 +1,34 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Ein Statement dessen Abfrage-Ergebnisse aus einem Cache geliefert werden
+ * k&ouml;nnen (siehe {@link eu.dirk.haase.jdbc.proxy.querycache.QueryResultCache}).
+ * <p>
+ * Die generierten Wrapper-Klassen rufen in {@code executeQuery()} zuerst
+ * {@link #isResultCacheable()} auf und nur wenn diese Methode {@code true}
+ * liefert, wird die Abfrage &uuml;ber {@link #cachedExecuteQuery()}
+ * ausgef&uuml;hrt. Andernfalls wird wie gewohnt an den Treiber delegiert. In
+ * beiden F&auml;llen wird das Ergebnis in das generierte ResultSet eingepackt
+ * und die Interceptoren werden aufgerufen.
+ */
+public interface ResultCaching {
+
+    /**
+     * F&uuml;hrt die Abfrage &uuml;ber den Cache aus.
+     *
+     * @return das (gegebenenfalls gecachte) Ergebnis.
+     * @throws SQLException wird ausgel&ouml;st wenn die Abfrage fehlschl&auml;gt.
+     */
+    ResultSet cachedExecuteQuery() throws SQLException;
+
+    /**
+     * Liefert {@code true} wenn das Ergebnis der Abfrage gecacht werden kann.
+     *
+     * @return {@code true} wenn das Ergebnis gecacht werden kann.
+     */
+    boolean isResultCacheable();
+
+}
@@ -0,0 +1,25 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+import java.sql.SQLException;
+
+/**
+ * Ein ResultSet das seine gelesenen Zeilen z&auml;hlt (siehe
+ * {@link eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor}).
+ * <p>
+ * Die generierten Wrapper-Klassen reichen in der Methode {@code next()} das
+ * Ergebnis des Treibers durch {@link #countRow(boolean)}.
+ */
+public interface RowCounting {
+
+    /**
+     * Z&auml;hlt eine gelesene Zeile beziehungsweise meldet das Ende des
+     * ResultSets.
+     *
+     * @param hasNext das Ergebnis von {@code next()} des Treibers.
+     * @return unver&auml;ndert das Ergebnis von {@code next()} des Treibers.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten zum Melden
+     *                      der Zeilen nicht gelesen werden k&ouml;nnen.
+     */
+    boolean countRow(boolean hasNext) throws SQLException;
+
+}
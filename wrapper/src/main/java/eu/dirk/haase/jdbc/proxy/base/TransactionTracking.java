@@ -0,0 +1,18 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+/**
+ * Eine Connection die das Ende ihrer Transaktionen meldet (siehe
+ * {@link WriteTracking}).
+ * <p>
+ * Die generierten Wrapper-Klassen rufen nach {@code commit()},
+ * {@code rollback()} und {@code close()} (auch im Fehlerfall)
+ * {@link #endTransaction()} auf.
+ */
+public interface TransactionTracking {
+
+    /**
+     * Meldet das Ende der aktuellen Transaktion.
+     */
+    void endTransaction();
+
+}
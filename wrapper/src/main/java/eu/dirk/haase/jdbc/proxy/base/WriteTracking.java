@@ -0,0 +1,23 @@
+package eu.dirk.haase.jdbc.proxy.base;
+
+/**
+ * Ein Statement das seine schreibenden Anweisungen meldet, damit gecachte
+ * Abfrage-Ergebnisse verworfen werden k&ouml;nnen (siehe
+ * {@link eu.dirk.haase.jdbc.proxy.querycache.QueryResultCache}).
+ * <p>
+ * Die generierten Wrapper-Klassen rufen in jeder {@code execute}-Methode
+ * (au&szlig;er {@code executeQuery}) und in {@code addBatch(String)} zuerst
+ * {@link #trackWrite(String)} auf.
+ */
+public interface WriteTracking {
+
+    /**
+     * Meldet die Ausf&uuml;hrung einer (m&ouml;glicherweise) schreibenden
+     * SQL-Anweisung.
+     *
+     * @param sql die SQL-Anweisung oder {@code null} bei einem vorbereiteten
+     *            Statement, dessen SQL-Anweisung bereits bekannt ist.
+     */
+    void trackWrite(String sql);
+
+}
@@ -4,6 +4,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.*;
 
@@ -43,6 +44,9 @@ public class ConcurrentMapFunktions<M extends Map<K, V> & ModificationStampingOb
     private static final int RETRIES = 5;
 
     private final M delegate;
+    private final LongAdder lockTimeoutCount;
+    private final LongAdder lockWaitCount;
+    private final LongAdder lockWaitNanos;
     private final long timeoutSeconds;
 
     /**
@@ -66,6 +70,9 @@ public class ConcurrentMapFunktions<M extends Map<K, V> & ModificationStampingOb
     public ConcurrentMapFunktions(final M delegate, final long timeoutSeconds) {
         this.delegate = delegate;
         this.timeoutSeconds = timeoutSeconds;
+        this.lockTimeoutCount = new LongAdder();
+        this.lockWaitCount = new LongAdder();
+        this.lockWaitNanos = new LongAdder();
     }
 
     /**
@@ -749,37 +756,22 @@ public class ConcurrentMapFunktions<M extends Map<K, V> & ModificationStampingOb
         final long[] inOutStamp = {INVALID_STAMP};
         try {
             inOutStamp[0] = tryReadLock(stampedLock);
-            delegate.forEach(new BiConsumer<K, V>() {
-
-                @Override
-                public void accept(K k, V v) {
-                    while (!replace(stampedLock, inOutStamp, k, v, remappingFunction.apply(k, v))) {
-                        // value hat sich geaendert oder key ist nicht mehr in der Map
-                        if (!delegate.containsKey(k)) {
-                            // key ist nicht mehr in der Map
-                            break;
-                        }
-                    }
-                }
-
-                boolean replace(final StampedLock stampedLock, final long[] inOutStamp, K key, V oldValue, V newValue) {
-                    try {
-                        return ConcurrentMapFunktions.this.replace(stampedLock, inOutStamp, key, oldValue, newValue);
-                    } catch (InterruptedException | TimeoutException ex) {
-                        // Maskiert die Checked-Exceptions in eine Runtime-Exception
-                        throw new IllegalStateException(ex);
+            // Schnappschuss aller Eintraege: replace() wandelt die Lese- in eine
+            // Schreibsperre um und aendert die Map, ein Iterator ueber die Map
+            // selbst waere danach ungueltig (ConcurrentModificationException)
+            final List<Map.Entry<K, V>> entryList = new ArrayList<>(delegate.size());
+            delegate.forEach((k, v) -> entryList.add(new AbstractMap.SimpleImmutableEntry<>(k, v)));
+            for (final Map.Entry<K, V> entry : entryList) {
+                final K key = entry.getKey();
+                V oldValue = entry.getValue();
+                while (!replace(stampedLock, inOutStamp, key, oldValue, remappingFunction.apply(key, oldValue))) {
+                    // value hat sich geaendert oder key ist nicht mehr in der Map
+                    oldValue = delegate.get(key);
+                    if ((oldValue == null) && !delegate.containsKey(key)) {
+                        // key ist nicht mehr in der Map
+                        break;
                     }
                 }
-            });
-        } catch (IllegalStateException ise) {
-            // Die maskierte Checked-Exceptions wird wieder offengelegt:
-            final Throwable cause = ise.getCause();
-            if (cause instanceof InterruptedException) {
-                throw ((InterruptedException) cause);
-            } else if (cause instanceof TimeoutException) {
-                throw ((TimeoutException) cause);
-            } else {
-                throw ise;
             }
         } finally {
             if (inOutStamp[0] != INVALID_STAMP) {
@@ -788,6 +780,85 @@ public class ConcurrentMapFunktions<M extends Map<K, V> & ModificationStampingOb
         }
     }
 
+    /**
+     * F&uuml;hrt eine Funktion auf der Map unter einer Lese-Sperre aus, zum Beispiel
+     * um die Gr&ouml;&szlig;e der Map nebenl&auml;ufig abzufragen.
+     *
+     * @param stampedLock die Sperre mit der die Lese-Sperre angefordert werden soll.
+     * @param function    die Funktion die auf der Map ausgef&uuml;hrt werden soll.
+     * @param <R>         der generische Typ des Ergebnisses.
+     * @return das Ergebnis der Funktion.
+     * @throws InterruptedException wenn der aktuelle Thread durch {@link Thread#interrupt()}
+     *                              unterbrochen wurde.
+     * @throws TimeoutException     der Lock konnte nicht rechtzeitig in vorgegebener Zeit angefordert werden.
+     */
+    public <R> R withReadLock(final StampedLock stampedLock, final Function<? super M, R> function) throws InterruptedException, TimeoutException {
+        final long readStamp = tryReadLock(stampedLock);
+        try {
+            return function.apply(delegate);
+        } finally {
+            stampedLock.unlockRead(readStamp);
+        }
+    }
+
+    /**
+     * F&uuml;hrt eine Funktion auf der Map unter einer exklusiven Schreib-Sperre aus,
+     * zum Beispiel um die Map zu bereinigen.
+     *
+     * @param stampedLock die Sperre mit der die Schreib-Sperre angefordert werden soll.
+     * @param function    die Funktion die auf der Map ausgef&uuml;hrt werden soll.
+     * @param <R>         der generische Typ des Ergebnisses.
+     * @return das Ergebnis der Funktion.
+     * @throws InterruptedException wenn der aktuelle Thread durch {@link Thread#interrupt()}
+     *                              unterbrochen wurde.
+     * @throws TimeoutException     der Lock konnte nicht rechtzeitig in vorgegebener Zeit angefordert werden.
+     */
+    public <R> R withWriteLock(final StampedLock stampedLock, final Function<? super M, R> function) throws InterruptedException, TimeoutException {
+        final long writeStamp = tryWriteLock(stampedLock);
+        try {
+            return function.apply(delegate);
+        } finally {
+            stampedLock.unlockWrite(writeStamp);
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der Sperr-Anforderungen die wegen Zeit&uuml;berschreitung
+     * gescheitert sind (und mit einer {@link TimeoutException} beendet wurden).
+     *
+     * @return die Anzahl der Zeit&uuml;berschreitungen.
+     */
+    public long getLockTimeoutCount() {
+        return lockTimeoutCount.sum();
+    }
+
+    /**
+     * Liefert die Anzahl der Sperr-Anforderungen bei denen gewartet werden musste,
+     * weil die Sperre nicht unmittelbar verf&uuml;gbar war.
+     *
+     * @return die Anzahl der Wartevorg&auml;nge.
+     */
+    public long getLockWaitCount() {
+        return lockWaitCount.sum();
+    }
+
+    /**
+     * Liefert die Summe der Wartezeiten aller Sperr-Anforderungen.
+     *
+     * @return die gesamte Wartezeit in Nanosekunden.
+     */
+    public long getLockWaitNanos() {
+        return lockWaitNanos.sum();
+    }
+
+    private void registerLockWait(final long startNanos, final long stamp) {
+        lockWaitNanos.add(System.nanoTime() - startNanos);
+        lockWaitCount.increment();
+        if (stamp == INVALID_STAMP) {
+            lockTimeoutCount.increment();
+        }
+    }
+
     /**
      * Fordert eine Lese-Sperre an, wenn sie in gegebener Zeit verf&uuml;gbar
      * ist und der aktuelle Thread nicht unterbrochen wurde.
@@ -800,7 +871,15 @@ public class ConcurrentMapFunktions<M extends Map<K, V> & ModificationStampingOb
      *                              angefordert werden.
      */
     private long tryReadLock(final StampedLock stampedLock) throws InterruptedException, TimeoutException {
-        final long readStamp = stampedLock.tryReadLock(timeoutSeconds, TimeUnit.SECONDS);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        long readStamp = stampedLock.tryReadLock();
+        if (readStamp == INVALID_STAMP) {
+            final long startNanos = System.nanoTime();
+            readStamp = stampedLock.tryReadLock(timeoutSeconds, TimeUnit.SECONDS);
+            registerLockWait(startNanos, readStamp);
+        }
         if (readStamp == INVALID_STAMP) {
             throw new TimeoutException("Unable to acquire a read lock within " + timeoutSeconds + " seconds.");
         }
@@ -819,7 +898,15 @@ public class ConcurrentMapFunktions<M extends Map<K, V> & ModificationStampingOb
      *                              angefordert werden.
      */
     private long tryWriteLock(final StampedLock stampedLock) throws InterruptedException, TimeoutException {
-        final long writeStamp = stampedLock.tryWriteLock(timeoutSeconds, TimeUnit.SECONDS);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        long writeStamp = stampedLock.tryWriteLock();
+        if (writeStamp == INVALID_STAMP) {
+            final long startNanos = System.nanoTime();
+            writeStamp = stampedLock.tryWriteLock(timeoutSeconds, TimeUnit.SECONDS);
+            registerLockWait(startNanos, writeStamp);
+        }
         if (writeStamp == INVALID_STAMP) {
             throw new TimeoutException("Unable to acquire a write lock within " + timeoutSeconds + " seconds.");
         }
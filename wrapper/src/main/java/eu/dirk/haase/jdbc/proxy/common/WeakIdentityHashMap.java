@@ -95,8 +95,12 @@ public class WeakIdentityHashMap<K, V> extends AbstractMap<K, V> implements Map<
         return isEqualityByIdentity ? System.identityHashCode(thisKey) : thisKey.hashCode();
     }
 
+    private static int bucketIndex(int hash, int bucketSize) {
+        return (hash > 0 ? (hash & 0x7FFFFFFF) % bucketSize : 0);
+    }
+
     private int bucketIndex(int hash) {
-        return (hash > 0 ? (hash & 0x7FFFFFFF) % bucketArray.length : 0);
+        return bucketIndex(hash, bucketArray.length);
     }
 
     @Override
@@ -384,11 +388,12 @@ public class WeakIdentityHashMap<K, V> extends AbstractMap<K, V> implements Map<
         final Entry<K, V> currEntry = getEntryOfKey(key);
         if (currEntry == null) {
             purge();
-            final int index = bucketIndex(keyHash(isEqualityByIdentity, key));
             entryCount++;
             if (entryCount > threshold) {
                 expandBucketArray(bucketArray.length);
             }
+            // Der Index muss zur (eventuell vergroesserten) Tabelle passen:
+            final int index = bucketIndex(keyHash(isEqualityByIdentity, key));
             final Entry<K, V> newEntry = createEntry(key, newValue, referenceQueue);
             modificationCount.incrementAndGet();
             newEntry.setNext(bucketArray[index]);
@@ -429,7 +434,8 @@ public class WeakIdentityHashMap<K, V> extends AbstractMap<K, V> implements Map<
         if (bucketArray != null) {
             for (Entry<K, V> entry : bucketArray) {
                 while (entry != null) {
-                    int index = entry.isNull() ? 0 : bucketIndex(entry.hash());
+                    // Der Index muss zur neuen Tabelle passen (nicht zur alten):
+                    int index = entry.isNull() ? 0 : bucketIndex(entry.hash(), newBucketArray.length);
                     Entry<K, V> next = entry.getNext();
                     entry.setNext(newBucketArray[index]);
                     newBucketArray[index] = entry;
@@ -1,11 +1,13 @@
 package eu.dirk.haase.jdbc.proxy.factory;
 
+import eu.dirk.haase.jdbc.proxy.base.ConcurrentFactoryJdbcProxy;
 import eu.dirk.haase.jdbc.proxy.base.JdbcWrapper;
 import eu.dirk.haase.jdbc.proxy.generate.Generator;
 import eu.dirk.haase.jdbc.proxy.generate.MultipleParentClassLoader;
 import eu.dirk.haase.jdbc.proxy.hybrid.ConnectionPoolDataSourceHybrid;
 import eu.dirk.haase.jdbc.proxy.hybrid.ConnectionPoolXADataSourceHybrid;
 import eu.dirk.haase.jdbc.proxy.hybrid.XADataSourceHybrid;
+import eu.dirk.haase.jdbc.proxy.jmx.JdbcMBeans;
 
 import javax.sql.ConnectionPoolDataSource;
 import javax.sql.DataSource;
@@ -141,9 +143,16 @@ public final class DataSourceWrapperFactory {
     public ConnectionPoolDataSource wrapConnectionPoolDataSource(final ConnectionPoolDataSource delegate) throws Exception {
         final ConnectionPoolDataSource wrapper = getConnectionPoolDataSourceConstructor(delegate.getClass()).newInstance(delegate);
         ensureOnlyWrappingOnce(delegate, wrapper);
+        registerMBean(wrapper);
         return wrapper;
     }
 
+    private void registerMBean(final Object wrapper) {
+        if (JdbcMBeans.isAutoRegistration() && (wrapper instanceof ConcurrentFactoryJdbcProxy)) {
+            JdbcMBeans.register((ConcurrentFactoryJdbcProxy<?, ?>) wrapper);
+        }
+    }
+
     /**
      * Dekoriert eine {@link DataSource}-Instanz mit einem Wrapper.
      *
@@ -155,6 +164,7 @@ public final class DataSourceWrapperFactory {
     public DataSource wrapDataSource(final DataSource delegate) throws Exception {
         final DataSource wrapper = getDataSourceConstructor(delegate.getClass()).newInstance(delegate);
         ensureOnlyWrappingOnce(delegate, wrapper);
+        registerMBean(wrapper);
         return wrapper;
     }
 
@@ -169,6 +179,7 @@ public final class DataSourceWrapperFactory {
     public XADataSource wrapXADataSource(final XADataSource delegate) throws Exception {
         final XADataSource wrapper = getXADataSourceConstructor(delegate.getClass()).newInstance(delegate);
         ensureOnlyWrappingOnce(delegate, wrapper);
+        registerMBean(wrapper);
         return wrapper;
     }
 
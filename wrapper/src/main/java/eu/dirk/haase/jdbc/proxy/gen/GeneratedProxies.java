@@ -0,0 +1,18 @@
+package eu.dirk.haase.jdbc.proxy.gen;
+
+/**
+ * Anker-Klasse f&uuml;r das Standard-Subpackage '{@code gen}' in das die
+ * Standard JDBC-Wrapper Klassen generiert werden.
+ * <p>
+ * Unter Java 11+ (Multi-Release JAR) werden die generierten Klassen per
+ * {@code MethodHandles.Lookup#defineClass(byte[])} in diesem Package und damit
+ * im ClassLoader der abstrakten Super-Klassen definiert. Dazu wird ein
+ * {@code Lookup} auf eine bereits existierende Klasse aus demselben Package
+ * ben&ouml;tigt, was diese Klasse bereitstellt.
+ */
+public final class GeneratedProxies {
+
+    private GeneratedProxies() {
+    }
+
+}
@@ -0,0 +1,37 @@
+package eu.dirk.haase.jdbc.proxy.generate;
+
+import java.security.ProtectionDomain;
+
+/**
+ * Definiert (l&auml;dt) den Bytecode der generierten JDBC-Wrapper Klassen.
+ * <p>
+ * Diese Implementation ist die Java 8 Basis-Variante: alle generierten Klassen
+ * werden in dem angegebenen {@link MultipleParentClassLoader} definiert.
+ * <p>
+ * Im Multi-Release JAR (siehe {@code META-INF/versions/11}) wird diese Klasse
+ * durch eine Variante ersetzt, die Klassen aus dem Package der abstrakten
+ * Super-Klasse und aus dem Standard-Subpackage '{@code gen}' per
+ * {@code MethodHandles.Lookup#defineClass(byte[])} im ClassLoader der
+ * Super-Klasse definiert.
+ */
+final class ClassDefiner {
+
+    private ClassDefiner() {
+    }
+
+    /**
+     * Definiert eine generierte Klasse.
+     *
+     * @param className        der vollqualifizierte Name der generierten Klasse.
+     * @param bytecode         der Bytecode der generierten Klasse.
+     * @param superClass       die Super-Klasse von der die generierte Klasse abgeleitet ist.
+     * @param classLoader      der ClassLoader in dem die Klasse definiert werden soll.
+     * @param protectionDomain die ProtectionDomain die die Klasse erhalten soll.
+     * @return die geladene Klasse.
+     */
+    static Class<?> defineClass(final String className, final byte[] bytecode, final Class<?> superClass,
+                                final MultipleParentClassLoader classLoader, final ProtectionDomain protectionDomain) {
+        return classLoader.defineGeneratedClass(className, bytecode, protectionDomain);
+    }
+
+}
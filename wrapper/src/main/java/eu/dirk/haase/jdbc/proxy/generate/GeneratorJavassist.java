@@ -1,7 +1,6 @@
 package eu.dirk.haase.jdbc.proxy.generate;
 
 import eu.dirk.haase.jdbc.proxy.*;
-import javassist.CannotCompileException;
 import javassist.CtClass;
 
 import javax.sql.*;
@@ -37,22 +36,10 @@ final class GeneratorJavassist implements Generator {
         // Spaeter muessen diese dann nicht mehr generiert werden. So wird
         // verhindert das es zu Konflikten bei nebenlaeufigen Zugriffen
         // kommen kann.
-        final Map<Class<?>, Class<?>> iface2ClassMap = new HashMap<>();
-
-        iface2ClassMap.put(ResultSet.class, AbstractResultSetProxy.class);
-        iface2ClassMap.put(CallableStatement.class, AbstractCallableStatementProxy.class);
-        iface2ClassMap.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
-        iface2ClassMap.put(Statement.class, AbstractStatementProxy.class);
-        iface2ClassMap.put(Connection.class, AbstractConnectionProxy.class);
-        iface2ClassMap.put(DataSource.class, AbstractDataSourceProxy.class);
-        iface2ClassMap.put(XAResource.class, AbstractXAResourceProxy.class);
-        iface2ClassMap.put(XAConnection.class, AbstractXAConnectionProxy.class);
-        iface2ClassMap.put(XADataSource.class, AbstractXADataSourceProxy.class);
-        iface2ClassMap.put(PooledConnection.class, AbstractPooledConnectionProxy.class);
-        iface2ClassMap.put(ConnectionPoolDataSource.class, AbstractConnectionPoolDataSourceProxy.class);
-
+        final long startNanos = System.nanoTime();
         final GeneratorJavassist generator = new GeneratorJavassist();
-        generator.generate(iface2ClassMap);
+        generator.generate(standardIface2ClassMap());
+        StartupTimings.record(StartupTimings.Phase.GENERATOR_STATIC_INIT, System.nanoTime() - startNanos);
     }
 
     private final ConcurrentHashMap<String, Object> parallelLockMap;
@@ -70,22 +57,67 @@ final class GeneratorJavassist implements Generator {
         return SINGLETON;
     }
 
+    /**
+     * Liefert die Funktion mit der die Standard-Klassennamen im Subpackage
+     * '{@code gen}' gebildet werden.
+     *
+     * @return die Funktion f&uuml;r die Standard-Klassennamen.
+     */
+    static BiFunction<String, Class<?>, String> standardClassNameFun() {
+        return CLASS_NAME_FUN;
+    }
+
+    /**
+     * Liefert eine neue Map mit allen JDBC-Interfaces und den abstrakten
+     * Standard-Klassen von denen die JDBC-Wrapper Klassen abgeleitet werden.
+     *
+     * @return eine neue Map mit den abstrakten Standard-Klassen.
+     */
+    static Map<Class<?>, Class<?>> standardIface2ClassMap() {
+        final Map<Class<?>, Class<?>> iface2ClassMap = new HashMap<>();
+
+        iface2ClassMap.put(ResultSet.class, AbstractResultSetProxy.class);
+        iface2ClassMap.put(CallableStatement.class, AbstractCallableStatementProxy.class);
+        iface2ClassMap.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
+        iface2ClassMap.put(Statement.class, AbstractStatementProxy.class);
+        iface2ClassMap.put(DatabaseMetaData.class, AbstractDatabaseMetaDataProxy.class);
+        iface2ClassMap.put(Connection.class, AbstractConnectionProxy.class);
+        iface2ClassMap.put(DataSource.class, AbstractDataSourceProxy.class);
+        iface2ClassMap.put(XAResource.class, AbstractXAResourceProxy.class);
+        iface2ClassMap.put(XAConnection.class, AbstractXAConnectionProxy.class);
+        iface2ClassMap.put(XADataSource.class, AbstractXADataSourceProxy.class);
+        iface2ClassMap.put(PooledConnection.class, AbstractPooledConnectionProxy.class);
+        iface2ClassMap.put(ConnectionPoolDataSource.class, AbstractConnectionPoolDataSourceProxy.class);
+
+        return iface2ClassMap;
+    }
+
     /**
      * Erzeugt aus einer Javassist-Klasse eine normale Klasse.
+     * <p>
+     * Die Klasse wird &uuml;ber den {@link ClassDefiner} definiert und nicht mehr
+     * &uuml;ber {@code CtClass.toClass(ClassLoader, ProtectionDomain)}, da Javassist
+     * dabei reflektiv auf {@code ClassLoader.defineClass} zugreift, was ab Java 9
+     * zunehmend (und ab Java 16 standardm&auml;&szlig;ig) verboten ist.
      *
-     * @param ctClass          die Javassist-Klasse aus der die normale Klasse
-     *                         erzeugt werden soll.
-     * @param classLoader      der ClassLoader mit der die normale Klasse erzeugt
-     *                         werden soll.
-     * @param protectionDomain die ProtectionDomain die die die normale Klasse
-     *                         erhalten soll.
+     * @param ctClass            die Javassist-Klasse aus der die normale Klasse
+     *                           erzeugt werden soll.
+     * @param name2SuperClassMap eine Map mit den Namen der abstrakten Super-Klassen
+     *                           auf die jeweilige Super-Klasse.
+     * @param classLoader        der ClassLoader mit der die normale Klasse erzeugt
+     *                           werden soll.
+     * @param protectionDomain   die ProtectionDomain die die die normale Klasse
+     *                           erhalten soll.
      * @return die geladene normale Klasse.
      */
-    private static Class<?> toClass(final CtClass ctClass, final ClassLoader classLoader, final ProtectionDomain protectionDomain) {
+    private static Class<?> toClass(final CtClass ctClass, final Map<String, Class<?>> name2SuperClassMap, final MultipleParentClassLoader classLoader, final ProtectionDomain protectionDomain) {
+        final Class<?> superClass = name2SuperClassMap.get(ctClass.getClassFile().getSuperclass());
+        final byte[] bytecode = JavassistProxyClasses.toBytecode(ctClass);
+        final long startNanos = System.nanoTime();
         try {
-            return ctClass.toClass(classLoader, protectionDomain);
-        } catch (CannotCompileException ex) {
-            throw new IllegalStateException(ex.toString(), ex);
+            return ClassDefiner.defineClass(ctClass.getName(), bytecode, superClass, classLoader, protectionDomain);
+        } finally {
+            StartupTimings.record(StartupTimings.Phase.CLASS_DEFINITION, System.nanoTime() - startNanos);
         }
     }
 
@@ -193,16 +225,27 @@ final class GeneratorJavassist implements Generator {
 
         final Class<?> candidateCustomClass = extractCandidateCustomClass(iface2CustomClassMap);
         final ClassLoader classLoader = getClassLoader(candidateCustomClass);
-        final ClassLoader multipleParentClassLoader = new MultipleParentClassLoader(classLoader);
+        final MultipleParentClassLoader multipleParentClassLoader = new MultipleParentClassLoader(classLoader);
         final ProtectionDomain protectionDomain = getProtectionDomain(candidateCustomClass);
 
         synchronized (getClassGeneratingLock(candidateCustomClass.getName())) {
             final Map<Class<?>, Class<?>> existingClassesMap = filterExistingClasses(iface2ClassMap, classNameFun, multipleParentClassLoader);
+            if (iface2ClassMap.isEmpty()) {
+                // Alle Klassen existieren bereits (zum Beispiel vorab generiert
+                // fuer ein GraalVM Native-Image), dann wird Javassist nicht
+                // benoetigt:
+                return new HashMap<>(existingClassesMap);
+            }
+
+            final Map<String, Class<?>> name2SuperClassMap = new HashMap<>();
+            iface2ClassMap.forEach((i, c) -> name2SuperClassMap.put(c.getName(), c));
 
-            final Function<CtClass, Object> resultFunction = (c) -> toClass(c, multipleParentClassLoader, protectionDomain);
+            final Function<CtClass, Object> resultFunction = (c) -> toClass(c, name2SuperClassMap, multipleParentClassLoader, protectionDomain);
 
+            final long startNanos = System.nanoTime();
             final JavassistProxyClasses javassistProxyClasses = new JavassistProxyClasses(classNameFun, iface2ClassMap);
             final Map<Class<?>, Object> iface2ResultClassMap = javassistProxyClasses.generate(resultFunction);
+            StartupTimings.record(StartupTimings.Phase.JAVASSIST_GENERATE, System.nanoTime() - startNanos);
 
             iface2ResultClassMap.forEach((i, c) -> typeCheck(i, c));
             iface2ResultClassMap.putAll(existingClassesMap);
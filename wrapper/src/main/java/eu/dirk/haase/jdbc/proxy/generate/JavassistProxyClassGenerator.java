@@ -1,8 +1,20 @@
 package eu.dirk.haase.jdbc.proxy.generate;
 
+import eu.dirk.haase.jdbc.proxy.base.ColumnIndexResolver;
 import eu.dirk.haase.jdbc.proxy.base.ConcurrentFactoryJdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.ParameterCapture;
+import eu.dirk.haase.jdbc.proxy.base.FetchSizeTuning;
+import eu.dirk.haase.jdbc.proxy.base.ResultCaching;
+import eu.dirk.haase.jdbc.proxy.base.RowCounting;
+import eu.dirk.haase.jdbc.proxy.base.TransactionTracking;
+import eu.dirk.haase.jdbc.proxy.base.WriteTracking;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
 import javassist.*;
+import javassist.bytecode.Descriptor;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -11,24 +23,42 @@ import java.util.function.Function;
 
 public final class JavassistProxyClassGenerator {
 
+    private static final String INTERCEPTOR_FIELD = "interceptor";
+
     private final Set<String> allFieldSet;
     private final Set<String> allInitFieldSet;
     private final Set<String> allMethodSet;
     private final Function<String, String> delegateMethodBody;
+    private final boolean isColumnIndexResolver;
+    private final boolean isFetchSizeTuning;
+    private final boolean isParameterCapture;
+    private final boolean isResultCaching;
+    private final boolean isRowCounting;
+    private final boolean isTransactionTracking;
     private final boolean isWrapMethodConcurrent;
+    private final boolean isWriteTracking;
     private final String newClassName;
     private final Class<?> primaryIfaceClass;
     private final Class<?> superClass;
     private final BiFunction<String, String, String> wrapMethodBody;
     private ClassPool classPool;
+    private int interceptorIndex;
+    private boolean isIntercepted;
 
     public JavassistProxyClassGenerator(final BiFunction<String, Class<?>, String> classNameFun, final Class<?> primaryIfaceClass, final Class<?> superClass) {
         this.newClassName = GeneratorJavassist.computeClassName(classNameFun, primaryIfaceClass, superClass);
-        this.delegateMethodBody = (d) -> "{ try { return delegate." + d + "($$); } catch (Throwable ex) { throw checkException(ex); } }";
-        this.wrapMethodBody = (w, d) -> "{ try { return " + w + "(delegate." + d + "($$), $args); } catch (Throwable ex) { throw checkException(ex); } }";
+        this.delegateMethodBody = (i) -> "{ try { return " + i + "; } catch (Throwable ex) { throw checkException(ex); } }";
+        this.wrapMethodBody = (w, i) -> "{ try { return " + w + "(" + i + "); } catch (Throwable ex) { throw checkException(ex); } }";
         this.primaryIfaceClass = primaryIfaceClass;
         this.superClass = superClass;
         this.isWrapMethodConcurrent = ConcurrentFactoryJdbcProxy.class.isAssignableFrom(superClass);
+        this.isParameterCapture = ParameterCapture.class.isAssignableFrom(superClass);
+        this.isColumnIndexResolver = ColumnIndexResolver.class.isAssignableFrom(superClass);
+        this.isResultCaching = ResultCaching.class.isAssignableFrom(superClass);
+        this.isFetchSizeTuning = FetchSizeTuning.class.isAssignableFrom(superClass);
+        this.isRowCounting = RowCounting.class.isAssignableFrom(superClass);
+        this.isWriteTracking = WriteTracking.class.isAssignableFrom(superClass);
+        this.isTransactionTracking = TransactionTracking.class.isAssignableFrom(superClass);
         this.allInitFieldSet = new HashSet<>();
         this.allFieldSet = new HashSet<>();
         this.allMethodSet = new HashSet<>();
@@ -43,13 +73,18 @@ public final class JavassistProxyClassGenerator {
                 CtMethod newMethod = new CtMethod(intfMethod.getReturnType(), intfMethod.getName(), intfMethod.getParameterTypes(), targetCt);
                 newMethod.setExceptionTypes(intfMethod.getExceptionTypes());
                 CtClass child = childs.get(intfMethod.getName());
-                if (child == null) {
-                    newMethod.setBody(delegateMethodBody.apply(intfMethod.getName()));
+                final String arguments = delegateArguments(intfClass, intfMethod);
+                final String body;
+                if (isIntercepted) {
+                    body = interceptedMethodBody(intfMethod, child, arguments);
+                } else if (child == null) {
+                    body = delegateMethodBody.apply(trackingInvocation(intfMethod, arguments));
                 } else {
                     final CtClass ifaceParentCt = child.getInterfaces()[0];
                     final String wrapMethodName = "wrap" + ifaceParentCt.getSimpleName();
-                    newMethod.setBody(this.wrapMethodBody.apply(wrapMethodName, intfMethod.getName()));
+                    body = this.wrapMethodBody.apply(wrapMethodName, trackingInvocation(intfMethod, arguments) + ", " + wrapArguments(intfMethod, child));
                 }
+                newMethod.setBody(trackingMethodBody(intfMethod, isParameterCapture ? parameterCaptureMethodBody(intfMethod, body) : body));
                 targetCt.addMethod(newMethod);
             }
         }
@@ -87,6 +122,21 @@ public final class JavassistProxyClassGenerator {
         }
     }
 
+    /**
+     * F&uuml;gt das {@code private static final} Feld mit dem aktuell registrierten
+     * {@link Interceptor} hinzu. Das Feld wird bei der Initialisierung der
+     * generierten Klasse einmalig gesetzt, und zwar mit dem Interceptor der
+     * beim Generieren registriert war.
+     *
+     * @param targetCt die generierte Klasse.
+     */
+    private void addInterceptorField(final CtClass targetCt) throws CannotCompileException, NotFoundException {
+        final CtClass interceptorCt = classPool.getCtClass(Interceptor.class.getName());
+        final CtField field = new CtField(interceptorCt, INTERCEPTOR_FIELD, targetCt);
+        field.setModifiers(Modifier.STATIC | Modifier.FINAL | Modifier.PRIVATE);
+        targetCt.addField(field, CtField.Initializer.byExpr(Interceptors.class.getName() + ".interceptor(" + interceptorIndex + ")"));
+    }
+
     private void addWrapMethod(CtClass targetCt, CtConstructor targetConstructorCt, Map<String, CtClass> childs, boolean isWrapMethodConcurrent) throws NotFoundException, CannotCompileException {
         final CtClass factoryCt = classPool.getCtClass(BiFunction.class.getName());
 
@@ -96,7 +146,7 @@ public final class JavassistProxyClassGenerator {
             final String objectMakerFieldName = "new" + ifaceParentCt.getSimpleName();
             addField(targetCt, factoryCt, objectMakerFieldName);
             if (allInitFieldSet.add(objectMakerFieldName)) {
-                targetConstructorCt.insertAfter(objectMakerFieldName + " = new ObjectMaker(" + child.getName() + ".class, $1);");
+                targetConstructorCt.insertAfter(objectMakerFieldName + " = new ObjectMaker(" + child.getName() + ".class, this);");
             }
             // fuege die Wrap-Methode hinzu:
             CtClass[] wrapParameter = {ifaceParentCt, classPool.getCtClass(Object[].class.getName())};
@@ -138,6 +188,9 @@ public final class JavassistProxyClassGenerator {
             targetCt.addInterface(primaryIfCt);
 
             final CtField field = addField(targetCt, primaryIfCt, "delegate");
+            if (isIntercepted) {
+                addInterceptorField(targetCt);
+            }
             final CtConstructor targetConstructorCt = addConstructor(targetCt, parentIfCt, primaryIfCt, field);
             if (childs != null) {
                 addWrapMethod(targetCt, targetConstructorCt, childs, isWrapMethodConcurrent);
@@ -160,11 +213,228 @@ public final class JavassistProxyClassGenerator {
 
     private void init(ClassPool classPool) {
         this.classPool = classPool;
+        this.interceptorIndex = Interceptors.currentIndex();
+        this.isIntercepted = (interceptorIndex >= 0);
         this.allInitFieldSet.clear();
         this.allFieldSet.clear();
         this.allMethodSet.clear();
     }
 
+    /**
+     * Erzeugt den Rumpf einer delegierten Methode mit eingewobenem {@link Interceptor}:
+     * <pre><code>
+     * { long token = interceptor.before(this, 17, $1);
+     *   ResultSet result;
+     *   try { result = wrapResultSet(delegate.executeQuery($$), $args); }
+     *   catch (Throwable ex) { interceptor.afterThrowing(this, 17, token, ex, $1); throw checkException(ex); }
+     *   interceptor.afterReturning(this, 17, token, ($w) result, $1);
+     *   return result; }
+     * </code></pre>
+     *
+     * @param intfMethod die Interface-Methode.
+     * @param child      die generierte Klasse mit der das Ergebnis eingepackt wird
+     *                   oder {@code null} wenn das Ergebnis nicht eingepackt wird.
+     * @param arguments  die Argumente f&uuml;r den Aufruf des Delegates.
+     * @return der Rumpf der Methode.
+     */
+    private String interceptedMethodBody(final CtMethod intfMethod, final CtClass child, final String arguments) throws NotFoundException {
+        final int methodId = Interceptors.methodId(primaryIfaceClass, intfMethod.getName(), intfMethod.getSignature());
+        final CtClass returnType = intfMethod.getReturnType();
+        final boolean isVoid = (returnType == CtClass.voidType);
+        String invocation = trackingInvocation(intfMethod, arguments);
+        if (child != null) {
+            invocation = "wrap" + child.getInterfaces()[0].getSimpleName() + "(" + invocation + ", " + wrapArguments(intfMethod, child) + ")";
+        }
+        String body = "";
+        body += "{ ";
+        final String sqlArgument = (isSqlMethod(intfMethod) ? ", $1" : "");
+        body += "long token = " + INTERCEPTOR_FIELD + ".before(this, " + methodId + sqlArgument + "); ";
+        if (!isVoid) {
+            body += returnType.getName() + " result; ";
+        }
+        body += "try { " + (isVoid ? "" : "result = ") + invocation + "; } ";
+        body += "catch (Throwable ex) { " + INTERCEPTOR_FIELD + ".afterThrowing(this, " + methodId + ", token, ex" + sqlArgument + "); throw checkException(ex); } ";
+        body += INTERCEPTOR_FIELD + ".afterReturning(this, " + methodId + ", token, " + (isVoid ? "null" : "($w) result") + sqlArgument + "); ";
+        if (!isVoid) {
+            body += "return result; ";
+        }
+        body += "}";
+        return body;
+    }
+
+    /**
+     * Liefert die Argumente f&uuml;r den Aufruf des Delegates, normalerweise
+     * einfach {@code $$}.
+     * <p>
+     * Implementiert die Super-Klasse {@link ColumnIndexResolver}, dann wird bei
+     * Methoden deren erster Parameter ein Spaltenname ist und zu denen es eine
+     * Variante mit dem Spalten-Index gibt, der Spaltenname vorab aufgel&ouml;st
+     * und die Variante mit dem Index aufgerufen:
+     * <pre><code>
+     * delegate.getString(columnIndex($1))
+     * delegate.updateObject(columnIndex($1), $2, $3)
+     * </code></pre>
+     *
+     * @param intfClass  das Interface.
+     * @param intfMethod die Interface-Methode.
+     * @return die Argumente f&uuml;r den Aufruf des Delegates.
+     */
+    private String delegateArguments(final CtClass intfClass, final CtMethod intfMethod) throws NotFoundException {
+        if (!isColumnIndexResolver) {
+            return "$$";
+        }
+        final CtClass[] parameterTypes = intfMethod.getParameterTypes();
+        if ((parameterTypes.length == 0) || !String.class.getName().equals(parameterTypes[0].getName())) {
+            return "$$";
+        }
+        final CtClass[] indexParameterTypes = parameterTypes.clone();
+        indexParameterTypes[0] = CtClass.intType;
+        final String indexDescriptor = Descriptor.ofMethod(intfMethod.getReturnType(), indexParameterTypes);
+        try {
+            intfClass.getMethod(intfMethod.getName(), indexDescriptor);
+        } catch (NotFoundException ex) {
+            // keine Variante mit dem Spalten-Index
+            return "$$";
+        }
+        final StringBuilder arguments = new StringBuilder("columnIndex($1)");
+        for (int i = 2; parameterTypes.length >= i; ++i) {
+            arguments.append(", $").append(i);
+        }
+        return arguments.toString();
+    }
+
+    /**
+     * Liefert {@code true} wenn die Methode eine {@code execute}-Methode (oder
+     * {@code addBatch}) eines Statements ist, deren erster Parameter die
+     * SQL-Anweisung ist.
+     *
+     * @param intfMethod die Interface-Methode.
+     * @return {@code true} wenn der erste Parameter die SQL-Anweisung ist.
+     */
+    private boolean isSqlMethod(final CtMethod intfMethod) throws NotFoundException {
+        final String methodName = intfMethod.getName();
+        if (!Statement.class.isAssignableFrom(primaryIfaceClass)
+                || !(methodName.startsWith("execute") || methodName.equals("addBatch"))) {
+            return false;
+        }
+        final CtClass[] parameterTypes = intfMethod.getParameterTypes();
+        return (parameterTypes.length > 0) && String.class.getName().equals(parameterTypes[0].getName());
+    }
+
+    /**
+     * Stellt einem Methoden-Rumpf das Mitschreiben der Bind-Parameter voran
+     * (siehe {@link ParameterCapture}):
+     * <pre><code>
+     * { if (isCapturingParameters()) { captureParameter($1, ($w) $2); }
+     *   { try { delegate.setInt($$); } catch (Throwable ex) { throw checkException(ex); } } }
+     * </code></pre>
+     * Betroffen sind nur die {@code setXxx}-Methoden deren erster Parameter der
+     * Index ist, sowie {@code clearParameters()}. Alle anderen R&uuml;mpfe bleiben
+     * unver&auml;ndert. Hat eine {@code setXxx}-Methode weitere Argumente (zum
+     * Beispiel {@code setTimestamp(int, Timestamp, Calendar)}), die nicht
+     * mitgeschrieben werden, dann wird {@code captureInexactParameter} gerufen.
+     *
+     * @param intfMethod die Interface-Methode.
+     * @param body       der Rumpf der Methode.
+     * @return der Rumpf der Methode.
+     */
+    private String parameterCaptureMethodBody(final CtMethod intfMethod, final String body) throws NotFoundException {
+        final String methodName = intfMethod.getName();
+        final CtClass[] parameterTypes = intfMethod.getParameterTypes();
+        final String capture;
+        if (methodName.equals("clearParameters") && (parameterTypes.length == 0)) {
+            capture = "clearCapturedParameters();";
+        } else if (methodName.startsWith("set") && (parameterTypes.length > 0) && (parameterTypes[0] == CtClass.intType)) {
+            final boolean hasValue = (parameterTypes.length > 1) && !methodName.equals("setNull");
+            final boolean isInexact = hasValue && (parameterTypes.length > 2);
+            capture = (isInexact ? "captureInexactParameter" : "captureParameter") + "($1, " + (hasValue ? "($w) $2" : "null") + ");";
+        } else {
+            return body;
+        }
+        return "{ if (isCapturingParameters()) { " + capture + " } " + body + " }";
+    }
+
+    /**
+     * Erg&auml;nzt einen Methoden-Rumpf um das Setzen der gelernten Fetch-Size
+     * (siehe {@link FetchSizeTuning}), das Melden schreibender Anweisungen
+     * (siehe {@link WriteTracking}) und das Melden des Transaktions-Endes
+     * (siehe {@link TransactionTracking}):
+     * <pre><code>
+     * { tuneFetchSize($1); { ... } }
+     * { trackWrite($1); { ... } }
+     * { try { ... } finally { endTransaction(); } }
+     * </code></pre>
+     * Alle anderen R&uuml;mpfe bleiben unver&auml;ndert.
+     *
+     * @param intfMethod die Interface-Methode.
+     * @param body       der Rumpf der Methode.
+     * @return der Rumpf der Methode.
+     */
+    private String trackingMethodBody(final CtMethod intfMethod, final String body) throws NotFoundException {
+        final String methodName = intfMethod.getName();
+        final CtClass[] parameterTypes = intfMethod.getParameterTypes();
+        final boolean isSqlFirst = (parameterTypes.length > 0) && String.class.getName().equals(parameterTypes[0].getName());
+        if (isFetchSizeTuning && methodName.equals("executeQuery")) {
+            return "{ tuneFetchSize(" + (isSqlFirst ? "$1" : "null") + "); " + body + " }";
+        } else if (isWriteTracking && ((methodName.startsWith("execute") && !methodName.equals("executeQuery"))
+                || (methodName.equals("addBatch") && isSqlFirst))) {
+            return "{ trackWrite(" + (isSqlFirst ? "$1" : "null") + "); " + body + " }";
+        } else if (isTransactionTracking && (parameterTypes.length == 0)
+                && (methodName.equals("commit") || methodName.equals("rollback") || methodName.equals("close"))) {
+            return "{ try " + body + " finally { endTransaction(); } }";
+        }
+        return body;
+    }
+
+    /**
+     * Liefert den Aufruf des Delegates, normalerweise einfach
+     * {@code delegate.method(arguments)}.
+     * <p>
+     * Z&auml;hlt die Super-Klasse die gelesenen Zeilen (siehe {@link RowCounting}),
+     * dann wird das Ergebnis von {@code next()} durch {@code countRow} gereicht.
+     * Kann die Super-Klasse Abfrage-Ergebnisse cachen (siehe {@link ResultCaching}),
+     * dann kommt das Ergebnis von {@code executeQuery()} gegebenenfalls aus dem
+     * Cache. Beide Aufrufe liegen damit innerhalb der Interceptor-Aufrufe und
+     * das Ergebnis wird wie jedes andere eingepackt:
+     * <pre><code>
+     * countRow(delegate.next())
+     * (isResultCacheable() ? cachedExecuteQuery() : delegate.executeQuery())
+     * </code></pre>
+     *
+     * @param intfMethod die Interface-Methode.
+     * @param arguments  die Argumente f&uuml;r den Aufruf des Delegates.
+     * @return der Aufruf des Delegates.
+     */
+    private String trackingInvocation(final CtMethod intfMethod, final String arguments) throws NotFoundException {
+        final String invocation = "delegate." + intfMethod.getName() + "(" + arguments + ")";
+        final boolean isNoArgs = (intfMethod.getParameterTypes().length == 0);
+        if (isRowCounting && intfMethod.getName().equals("next") && isNoArgs) {
+            return "countRow(" + invocation + ")";
+        } else if (isResultCaching && intfMethod.getName().equals("executeQuery") && isNoArgs) {
+            return "(isResultCacheable() ? cachedExecuteQuery() : " + invocation + ")";
+        }
+        return invocation;
+    }
+
+    /**
+     * Liefert die Argumente mit denen das Ergebnis einer Methode eingepackt
+     * wird, normalerweise die Argumente der Methode ({@code $args}).
+     * <p>
+     * Ein ResultSet erh&auml;lt nur von {@code executeQuery} die Argumente. Alle
+     * anderen ResultSets (zum Beispiel von {@code getResultSet()} nach
+     * {@code getMoreResults()} oder von {@code getGeneratedKeys()}) erhalten
+     * {@code null}, damit sie nicht der SQL-Anweisung des Statements zugeordnet
+     * werden (siehe {@code AbstractResultSetProxy}).
+     *
+     * @param intfMethod die Interface-Methode.
+     * @param child      die generierte Klasse mit der das Ergebnis eingepackt wird.
+     * @return die Argumente f&uuml;r die {@code wrap}-Methode.
+     */
+    private String wrapArguments(final CtMethod intfMethod, final CtClass child) throws NotFoundException {
+        final boolean isResultSet = ResultSet.class.getName().equals(child.getInterfaces()[0].getName());
+        return (isResultSet && !intfMethod.getName().equals("executeQuery") ? "(Object[]) null" : "$args");
+    }
+
     /**
      * Liefert {@code true} wenn der {@link Modifier} {@code public} ist.
      *
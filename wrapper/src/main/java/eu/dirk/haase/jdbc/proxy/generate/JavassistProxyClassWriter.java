@@ -0,0 +1,61 @@
+package eu.dirk.haase.jdbc.proxy.generate;
+
+import javassist.CannotCompileException;
+import javassist.CtClass;
+import javassist.bytecode.ClassFile;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Generiert die Standard JDBC-Wrapper Klassen (Subpackage '{@code gen}') vorab
+ * zur Build-Zeit und schreibt sie als Class-Dateien in ein Verzeichnis.
+ * <p>
+ * Die so vorab generierten Klassen werden zur Laufzeit von {@link Generator#instance()}
+ * als bereits existierende Klassen erkannt, so dass Javassist zur Laufzeit nicht
+ * mehr ben&ouml;tigt wird. Das ist zum Beispiel die Voraussetzung f&uuml;r ein
+ * GraalVM Native-Image (siehe Maven-Profil '{@code native}').
+ * <p>
+ * Aufruf:
+ * <pre><code>
+ * java eu.dirk.haase.jdbc.proxy.generate.JavassistProxyClassWriter target/classes
+ * </code></pre>
+ */
+public final class JavassistProxyClassWriter {
+
+    private JavassistProxyClassWriter() {
+    }
+
+    public static void main(final String... args) throws Exception {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: JavassistProxyClassWriter <output-directory>");
+        }
+        write(args[0]);
+    }
+
+    /**
+     * Generiert die Standard JDBC-Wrapper Klassen und schreibt sie in das
+     * angegebene Verzeichnis.
+     *
+     * @param directoryName das Verzeichnis in das die Class-Dateien geschrieben werden.
+     * @throws CannotCompileException wird ausgel&ouml;st wenn eine Klasse nicht
+     *                                generiert werden kann.
+     * @throws IOException            wird ausgel&ouml;st wenn eine Class-Datei nicht
+     *                                geschrieben werden kann.
+     */
+    public static void write(final String directoryName) throws CannotCompileException, IOException {
+        final Map<Class<?>, Class<?>> iface2ClassMap = GeneratorJavassist.standardIface2ClassMap();
+        final JavassistProxyClasses javassistProxyClasses = new JavassistProxyClasses(GeneratorJavassist.standardClassNameFun(), iface2ClassMap);
+
+        final Function<CtClass, Object> valueFunction = (c) -> c;
+        final Map<Class<?>, Object> interfaceToClassMap = javassistProxyClasses.generate(valueFunction);
+
+        for (final Object ctClassObj : interfaceToClassMap.values()) {
+            final CtClass ctClass = (CtClass) ctClassObj;
+            ctClass.getClassFile().setMajorVersion(ClassFile.JAVA_8);
+            ctClass.writeFile(directoryName);
+        }
+    }
+
+}
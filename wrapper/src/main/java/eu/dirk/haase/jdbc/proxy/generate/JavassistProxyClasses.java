@@ -1,11 +1,13 @@
 package eu.dirk.haase.jdbc.proxy.generate;
 
+import javassist.CannotCompileException;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.LoaderClassPath;
 
 import javax.sql.*;
 import javax.transaction.xa.XAResource;
+import java.io.IOException;
 import java.sql.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +27,8 @@ public final class JavassistProxyClasses {
     private JavassistProxyClassGenerator connectionPoolDataSourceGen;
     private CtClass dataSourceCt;
     private JavassistProxyClassGenerator dataSourceGen;
+    private CtClass databaseMetaDataCt;
+    private JavassistProxyClassGenerator databaseMetaDataGen;
     private CtClass pooledConnectionCt;
     private JavassistProxyClassGenerator pooledConnectionGen;
     private CtClass preparedStatementCt;
@@ -44,6 +48,7 @@ public final class JavassistProxyClasses {
         this.iface2ClassMap = new HashMap<>(iface2ClassMap);
 
         this.resultSetGen = createIfPresent(ResultSet.class, classNameFun, iface2ClassMap);
+        this.databaseMetaDataGen = createIfPresent(DatabaseMetaData.class, classNameFun, iface2ClassMap);
         this.connectionGen = createIfPresent(Connection.class, classNameFun, iface2ClassMap);
         this.preparedStatementGen = createIfPresent(PreparedStatement.class, classNameFun, iface2ClassMap);
         this.callableStatementGen = createIfPresent(CallableStatement.class, classNameFun, iface2ClassMap);
@@ -78,7 +83,7 @@ public final class JavassistProxyClasses {
         return classPool;
     }
 
-    private CtClass createConnection(CtClass cStatementCt, CtClass pStatementCt, CtClass statementCt) {
+    private CtClass createConnection(CtClass cStatementCt, CtClass pStatementCt, CtClass statementCt, CtClass databaseMetaDataCt) {
         final Map<String, CtClass> child = new HashMap<>();
         if (iface2ClassMap.containsKey(Statement.class)) {
             child.put("createStatement", statementCt);
@@ -89,6 +94,9 @@ public final class JavassistProxyClasses {
         if (iface2ClassMap.containsKey(CallableStatement.class)) {
             child.put("prepareCall", cStatementCt);
         }
+        if (iface2ClassMap.containsKey(DatabaseMetaData.class)) {
+            child.put("getMetaData", databaseMetaDataCt);
+        }
         return this.connectionGen.generate(classPool, DataSource.class, child);
     }
 
@@ -115,6 +123,10 @@ public final class JavassistProxyClasses {
         return null;
     }
 
+    private CtClass createDatabaseMetaData() {
+        return this.databaseMetaDataGen.generate(classPool, Connection.class, new HashMap<>());
+    }
+
     private CtClass createIfPresent(Class<?> iface, Supplier<CtClass> classCt) {
         if (iface2ClassMap.containsKey(iface)) {
             return classCt.get();
@@ -129,6 +141,7 @@ public final class JavassistProxyClasses {
         putIfPresent(interfaceToClassMap, CallableStatement.class, this.callableStatementCt, valueFunction);
         putIfPresent(interfaceToClassMap, PreparedStatement.class, this.preparedStatementCt, valueFunction);
         putIfPresent(interfaceToClassMap, Statement.class, this.statementCt, valueFunction);
+        putIfPresent(interfaceToClassMap, DatabaseMetaData.class, this.databaseMetaDataCt, valueFunction);
         putIfPresent(interfaceToClassMap, Connection.class, this.connectionCt, valueFunction);
         putIfPresent(interfaceToClassMap, DataSource.class, this.dataSourceCt, valueFunction);
         putIfPresent(interfaceToClassMap, XAResource.class, this.xaResourceCt, valueFunction);
@@ -202,7 +215,8 @@ public final class JavassistProxyClasses {
         this.callableStatementCt = createIfPresent(CallableStatement.class, () -> createCallableStatement(resultSetCt));
         this.preparedStatementCt = createIfPresent(PreparedStatement.class, () -> createPreparedStatement(resultSetCt));
         this.statementCt = createIfPresent(Statement.class, () -> createStatement(resultSetCt));
-        this.connectionCt = createIfPresent(Connection.class, () -> createConnection(callableStatementCt, preparedStatementCt, statementCt));
+        this.databaseMetaDataCt = createIfPresent(DatabaseMetaData.class, () -> createDatabaseMetaData());
+        this.connectionCt = createIfPresent(Connection.class, () -> createConnection(callableStatementCt, preparedStatementCt, statementCt, databaseMetaDataCt));
         this.dataSourceCt = createIfPresent(DataSource.class, () -> createDataSource(connectionCt));
         this.xaResourceCt = createIfPresent(XAResource.class, () -> createXAResource());
         this.xaConnectionCt = createIfPresent(XAConnection.class, () -> createXAConnection(connectionCt, xaResourceCt));
@@ -213,6 +227,20 @@ public final class JavassistProxyClasses {
         return createInterfaceToClassMap(valueFunction);
     }
 
+    /**
+     * Liefert den Bytecode einer generierten Javassist-Klasse.
+     *
+     * @param ctClass die generierte Javassist-Klasse.
+     * @return der Bytecode der Klasse.
+     */
+    static byte[] toBytecode(final CtClass ctClass) {
+        try {
+            return ctClass.toBytecode();
+        } catch (CannotCompileException | IOException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
     private void putIfPresent(final Map<Class<?>, Object> interfaceToClassMap, Class<?> iface, CtClass classCt, final Function<CtClass, Object> valueFunction) {
         if (iface2ClassMap.containsKey(iface)) {
             interfaceToClassMap.put(iface, valueFunction.apply(classCt));
@@ -2,6 +2,7 @@ package eu.dirk.haase.jdbc.proxy.generate;
 
 import java.io.IOException;
 import java.net.URL;
+import java.security.ProtectionDomain;
 import java.security.SecureClassLoader;
 import java.util.*;
 
@@ -112,6 +113,23 @@ public final class MultipleParentClassLoader extends SecureClassLoader {
         }
     }
 
+    /**
+     * Definiert eine generierte Klasse direkt in diesem ClassLoader.
+     * <p>
+     * Im Gegensatz zu {@code CtClass.toClass(ClassLoader, ProtectionDomain)} wird
+     * dazu kein reflektiver Zugriff auf die gesch&uuml;tzte Methode
+     * {@link ClassLoader#defineClass(String, byte[], int, int, ProtectionDomain)}
+     * ben&ouml;tigt, der ab Java 9 zunehmend eingeschr&auml;nkt ist.
+     *
+     * @param name             der vollqualifizierte Name der Klasse.
+     * @param bytecode         der Bytecode der Klasse.
+     * @param protectionDomain die ProtectionDomain die die Klasse erhalten soll.
+     * @return die geladene Klasse.
+     */
+    Class<?> defineGeneratedClass(final String name, final byte[] bytecode, final ProtectionDomain protectionDomain) {
+        return defineClass(name, bytecode, 0, bytecode.length, protectionDomain);
+    }
+
     @Override
     public URL getResource(String name) {
         for (ClassLoader parent : parentList) {
@@ -26,6 +26,12 @@ public class ObjectMaker implements BiFunction<Object, Object[], Object> {
                 if (isClosed(delegate)) {
                     throw new IllegalStateException("Instance is already closed: " + delegate.getClass());
                 }
+                if (StartupTimings.isFirstObjectConstructionPending()) {
+                    final long startNanos = System.nanoTime();
+                    final Object object = getDeclaredConstructor().newInstance(delegate, parentObject, argumentArray);
+                    StartupTimings.recordFirstObjectConstruction(System.nanoTime() - startNanos);
+                    return object;
+                }
                 return getDeclaredConstructor().newInstance(delegate, parentObject, argumentArray);
             } catch (RuntimeException re) {
                 throw re;
@@ -0,0 +1,357 @@
+package eu.dirk.haase.jdbc.proxy.generate;
+
+import eu.dirk.haase.jdbc.proxy.resultset.RowMapper;
+import eu.dirk.haase.jdbc.proxy.sql.SqlFingerprint;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generiert f&uuml;r eine Ziel-Klasse und die Spalten einer Abfrage einen
+ * spezialisierten {@link RowMapper}.
+ * <p>
+ * Die generierte Klasse ruft die Index-basierten Getter des ResultSets direkt
+ * auf (zum Beispiel {@code getLong(3)} f&uuml;r ein {@code long}-Feld) und setzt
+ * die Felder beziehungsweise ruft die Setter ohne Reflection und ohne Boxing
+ * auf. Eine Spalte wird der Property zugeordnet, deren Name ohne
+ * Ber&uuml;cksichtigung von Gro&szlig;-/Kleinschreibung und Unterstrichen dem
+ * Label der Spalte entspricht ({@code ORDER_ID} wird zu {@code orderId}).
+ * Bevorzugt wird ein &ouml;ffentlicher Setter, sonst ein &ouml;ffentliches,
+ * nicht finales Feld. Gibt es mehrere Setter (&Uuml;berladungen) mit dem
+ * gleichen Namen, dann wird derjenige gew&auml;hlt, dessen Parameter-Typ zum
+ * SQL-Typ der Spalte passt ({@code BIGINT} zu {@code long} oder {@code Long}),
+ * sonst ein direkt unterst&uuml;tzter Typ; bei Gleichstand entscheidet der
+ * Name des Parameter-Typs. Spalten ohne passende Property werden ignoriert.
+ * <p>
+ * Die Ziel-Klasse muss &ouml;ffentlich sein und einen &ouml;ffentlichen
+ * Konstruktor ohne Parameter haben. Generierte Mapper werden pro Ziel-Klasse
+ * und SQL-Fingerabdruck (siehe {@link SqlFingerprint}) gecacht; &auml;ndert
+ * sich die Struktur des Ergebnisses (zum Beispiel nach DDL), dann wird neu
+ * generiert. Alle Mapper eines ClassLoaders der Ziel-Klassen teilen sich
+ * einen {@link ClassPool} und einen {@link MultipleParentClassLoader}.
+ * <p>
+ * Da zur Laufzeit generiert wird, steht der Generator in einem GraalVM
+ * Native-Image nicht zur Verf&uuml;gung.
+ */
+public final class RowMapperGenerator {
+
+    private static final int MAX_MAPPERS_PER_CLASS = 256;
+    private static final String PACKAGE_NAME = RowMapperGenerator.class.getPackage().getName() + ".mapper.";
+    private static final AtomicInteger classCounter = new AtomicInteger();
+    private static final ClassValue<Map<String, Entry>> mapperCache = new ClassValue<Map<String, Entry>>() {
+        @Override
+        protected Map<String, Entry> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final Map<Class<?>, String> GETTER_MAP = new HashMap<>();
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_MAP = new HashMap<>();
+    private static final Map<Integer, Class<?>> SQL_TYPE_MAP = new HashMap<>();
+    // Die Werte werden nur schwach referenziert, da der MultipleParentClassLoader
+    // den Schluessel (ClassLoader der Ziel-Klasse) referenziert. Stark
+    // referenziert werden sie von den gecachten Mappern (Entry):
+    private static final Map<ClassLoader, WeakReference<MapperLoader>> loaderMap = Collections.synchronizedMap(new WeakHashMap<>());
+
+    static {
+        GETTER_MAP.put(boolean.class, "getBoolean");
+        GETTER_MAP.put(byte.class, "getByte");
+        GETTER_MAP.put(short.class, "getShort");
+        GETTER_MAP.put(int.class, "getInt");
+        GETTER_MAP.put(long.class, "getLong");
+        GETTER_MAP.put(float.class, "getFloat");
+        GETTER_MAP.put(double.class, "getDouble");
+        GETTER_MAP.put(String.class, "getString");
+        GETTER_MAP.put(BigDecimal.class, "getBigDecimal");
+        GETTER_MAP.put(byte[].class, "getBytes");
+        GETTER_MAP.put(java.sql.Date.class, "getDate");
+        GETTER_MAP.put(java.sql.Time.class, "getTime");
+        GETTER_MAP.put(java.sql.Timestamp.class, "getTimestamp");
+        GETTER_MAP.put(java.util.Date.class, "getTimestamp");
+        PRIMITIVE_MAP.put(Boolean.class, boolean.class);
+        PRIMITIVE_MAP.put(Byte.class, byte.class);
+        PRIMITIVE_MAP.put(Short.class, short.class);
+        PRIMITIVE_MAP.put(Integer.class, int.class);
+        PRIMITIVE_MAP.put(Long.class, long.class);
+        PRIMITIVE_MAP.put(Float.class, float.class);
+        PRIMITIVE_MAP.put(Double.class, double.class);
+        SQL_TYPE_MAP.put(Types.BIT, boolean.class);
+        SQL_TYPE_MAP.put(Types.BOOLEAN, boolean.class);
+        SQL_TYPE_MAP.put(Types.TINYINT, byte.class);
+        SQL_TYPE_MAP.put(Types.SMALLINT, short.class);
+        SQL_TYPE_MAP.put(Types.INTEGER, int.class);
+        SQL_TYPE_MAP.put(Types.BIGINT, long.class);
+        SQL_TYPE_MAP.put(Types.REAL, float.class);
+        SQL_TYPE_MAP.put(Types.FLOAT, double.class);
+        SQL_TYPE_MAP.put(Types.DOUBLE, double.class);
+        SQL_TYPE_MAP.put(Types.NUMERIC, BigDecimal.class);
+        SQL_TYPE_MAP.put(Types.DECIMAL, BigDecimal.class);
+        SQL_TYPE_MAP.put(Types.CHAR, String.class);
+        SQL_TYPE_MAP.put(Types.VARCHAR, String.class);
+        SQL_TYPE_MAP.put(Types.LONGVARCHAR, String.class);
+        SQL_TYPE_MAP.put(Types.NCHAR, String.class);
+        SQL_TYPE_MAP.put(Types.NVARCHAR, String.class);
+        SQL_TYPE_MAP.put(Types.LONGNVARCHAR, String.class);
+        SQL_TYPE_MAP.put(Types.CLOB, String.class);
+        SQL_TYPE_MAP.put(Types.BINARY, byte[].class);
+        SQL_TYPE_MAP.put(Types.VARBINARY, byte[].class);
+        SQL_TYPE_MAP.put(Types.LONGVARBINARY, byte[].class);
+        SQL_TYPE_MAP.put(Types.BLOB, byte[].class);
+        SQL_TYPE_MAP.put(Types.DATE, java.sql.Date.class);
+        SQL_TYPE_MAP.put(Types.TIME, java.sql.Time.class);
+        SQL_TYPE_MAP.put(Types.TIMESTAMP, java.sql.Timestamp.class);
+    }
+
+    private RowMapperGenerator() {
+    }
+
+    /**
+     * Erzeugt den Java-Quelltext (f&uuml;r Javassist) der die Spalte einer
+     * Property zuweist.
+     *
+     * @param column   der Index der Spalte.
+     * @param type     der Typ der Property.
+     * @param assignTo die Zuweisung mit {@code %s} als Platzhalter f&uuml;r den
+     *                 Wert, zum Beispiel {@code "t.id = %s;"}.
+     * @return der Quelltext oder ein Leerstring wenn der Typ nicht
+     * unterst&uuml;tzt wird.
+     */
+    private static String assignment(final int column, final Class<?> type, final String assignTo) {
+        final Class<?> primitiveType = PRIMITIVE_MAP.get(type);
+        if (primitiveType != null) {
+            // Der Wrapper bleibt bei NULL unveraendert (null):
+            final String local = "v" + column;
+            return "{ " + primitiveType.getName() + " " + local + " = rs." + GETTER_MAP.get(primitiveType) + "(" + column + "); "
+                    + "if (!rs.wasNull()) { " + String.format(assignTo, type.getName() + ".valueOf(" + local + ")") + " } }";
+        }
+        final String getter = GETTER_MAP.get(type);
+        if (getter != null) {
+            return String.format(assignTo, "rs." + getter + "(" + column + ")");
+        } else if (type.isArray()) {
+            return "";
+        }
+        return String.format(assignTo, "(" + type.getName() + ") rs.getObject(" + column + ", " + type.getName() + ".class)");
+    }
+
+    private static Map<String, List<Field>> fieldMap(final Class<?> type) {
+        final Map<String, List<Field>> fieldMap = new HashMap<>();
+        for (final Field field : type.getFields()) {
+            final int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+                fieldMap.computeIfAbsent(normalize(field.getName()), k -> new ArrayList<>()).add(field);
+            }
+        }
+        return fieldMap;
+    }
+
+    private static MapperLoader mapperLoader(final ClassLoader targetLoader) {
+        synchronized (loaderMap) {
+            final WeakReference<MapperLoader> reference = loaderMap.get(targetLoader);
+            MapperLoader mapperLoader = (reference != null ? reference.get() : null);
+            if (mapperLoader == null) {
+                mapperLoader = new MapperLoader(targetLoader);
+                loaderMap.put(targetLoader, new WeakReference<>(mapperLoader));
+            }
+            return mapperLoader;
+        }
+    }
+
+    /**
+     * Generiert den Rumpf der Methode {@link RowMapper#map(java.sql.ResultSet)}.
+     *
+     * @param type     die Ziel-Klasse.
+     * @param metaData die Metadaten des Ergebnisses.
+     * @return der Rumpf der Methode.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht gelesen
+     *                      werden k&ouml;nnen.
+     */
+    private static String mapMethodBody(final Class<?> type, final ResultSetMetaData metaData) throws SQLException {
+        final Map<String, List<Method>> setterMap = setterMap(type);
+        final Map<String, List<Field>> fieldMap = fieldMap(type);
+        final StringBuilder body = new StringBuilder();
+        body.append("{ ").append(type.getName()).append(" t = new ").append(type.getName()).append("(); ");
+        final int columnCount = metaData.getColumnCount();
+        for (int column = 1; columnCount >= column; ++column) {
+            final String name = normalize(metaData.getColumnLabel(column));
+            final int sqlType = metaData.getColumnType(column);
+            final List<Method> setters = setterMap.remove(name);
+            final List<Field> fields = fieldMap.remove(name);
+            final Method setter = (setters != null ? Collections.min(setters, Comparator
+                    .comparingInt((Method m) -> rank(m.getParameterTypes()[0], sqlType))
+                    .thenComparing(m -> m.getParameterTypes()[0].getName())) : null);
+            final Field field = (fields != null ? Collections.min(fields, Comparator
+                    .comparingInt((Field f) -> rank(f.getType(), sqlType))
+                    .thenComparing(Field::getName)) : null);
+            if (setter != null) {
+                body.append(assignment(column, setter.getParameterTypes()[0], "t." + setter.getName() + "(%s);"));
+            } else if (field != null) {
+                body.append(assignment(column, field.getType(), "t." + field.getName() + " = %s;"));
+            }
+            body.append(' ');
+        }
+        return body.append("return t; }").toString();
+    }
+
+    private static String normalize(final String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Bewertet wie gut ein Property-Typ zu einem SQL-Typ passt.
+     *
+     * @param type    der Typ der Property.
+     * @param sqlType der SQL-Typ der Spalte (siehe {@link Types}).
+     * @return {@code 0} wenn der Typ dem SQL-Typ entspricht, {@code 1} wenn er
+     * direkt unterst&uuml;tzt wird, {@code 2} wenn er &uuml;ber
+     * {@code getObject} gelesen wird und {@code 3} wenn er nicht
+     * unterst&uuml;tzt wird.
+     */
+    private static int rank(final Class<?> type, final int sqlType) {
+        final Class<?> primitiveType = PRIMITIVE_MAP.getOrDefault(type, type);
+        if (primitiveType == SQL_TYPE_MAP.get(sqlType)) {
+            return 0;
+        } else if (GETTER_MAP.containsKey(primitiveType)) {
+            return 1;
+        }
+        return (type.isArray() ? 3 : 2);
+    }
+
+    /**
+     * Liefert den (gegebenenfalls gecachten) Mapper f&uuml;r eine Ziel-Klasse
+     * und das Ergebnis einer Abfrage.
+     *
+     * @param type     die Ziel-Klasse.
+     * @param sql      die SQL-Anweisung des Ergebnisses oder {@code null} wenn
+     *                 sie nicht bekannt ist.
+     * @param metaData die Metadaten des Ergebnisses.
+     * @param <T>      der Typ der Ziel-Klasse.
+     * @return der Mapper.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht gelesen
+     *                      werden k&ouml;nnen.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> rowMapper(final Class<T> type, final String sql, final ResultSetMetaData metaData) throws SQLException {
+        if (!Modifier.isPublic(type.getModifiers()) || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Type must be a public concrete class: " + type.getName());
+        }
+        try {
+            type.getConstructor();
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalArgumentException("Type must have a public no-arg constructor: " + type.getName(), ex);
+        }
+        final String shape = shapeOf(metaData);
+        final String key = (sql != null ? SqlFingerprint.of(sql).getFingerprint() : shape);
+        final Map<String, Entry> entryMap = mapperCache.get(type);
+        final Entry entry = entryMap.get(key);
+        if ((entry != null) && entry.shape.equals(shape)) {
+            return (RowMapper<T>) entry.rowMapper;
+        }
+        final MapperLoader mapperLoader = mapperLoader(type.getClassLoader());
+        final Class<?> mapperClass = mapperLoader.defineClass(type, mapMethodBody(type, metaData));
+        final RowMapper<T> rowMapper;
+        try {
+            rowMapper = (RowMapper<T>) mapperClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+        if (entryMap.size() >= MAX_MAPPERS_PER_CLASS) {
+            entryMap.clear();
+        }
+        entryMap.put(key, new Entry(shape, rowMapper, mapperLoader));
+        return rowMapper;
+    }
+
+    private static Map<String, List<Method>> setterMap(final Class<?> type) {
+        final Map<String, List<Method>> setterMap = new HashMap<>();
+        for (final Method method : type.getMethods()) {
+            final String name = method.getName();
+            if (name.startsWith("set") && (name.length() > 3) && (method.getParameterCount() == 1)
+                    && !Modifier.isStatic(method.getModifiers())) {
+                setterMap.computeIfAbsent(normalize(name.substring(3)), k -> new ArrayList<>()).add(method);
+            }
+        }
+        return setterMap;
+    }
+
+    private static String shapeOf(final ResultSetMetaData metaData) throws SQLException {
+        final StringBuilder shape = new StringBuilder();
+        final int columnCount = metaData.getColumnCount();
+        for (int column = 1; columnCount >= column; ++column) {
+            shape.append(metaData.getColumnLabel(column)).append(':').append(metaData.getColumnType(column)).append(',');
+        }
+        return shape.toString();
+    }
+
+    private static final class Entry {
+
+        final MapperLoader mapperLoader;
+        final RowMapper<?> rowMapper;
+        final String shape;
+
+        Entry(final String shape, final RowMapper<?> rowMapper, final MapperLoader mapperLoader) {
+            this.shape = shape;
+            this.rowMapper = rowMapper;
+            this.mapperLoader = mapperLoader;
+        }
+
+    }
+
+    /**
+     * Der {@link ClassPool} und {@link MultipleParentClassLoader} f&uuml;r die
+     * Mapper aller Ziel-Klassen eines ClassLoaders.
+     */
+    private static final class MapperLoader {
+
+        final MultipleParentClassLoader classLoader;
+        final ClassPool classPool;
+
+        MapperLoader(final ClassLoader targetLoader) {
+            this.classPool = new ClassPool();
+            this.classPool.appendClassPath(new LoaderClassPath(RowMapperGenerator.class.getClassLoader()));
+            if (targetLoader != null) {
+                this.classPool.appendClassPath(new LoaderClassPath(targetLoader));
+            }
+            this.classLoader = new MultipleParentClassLoader(targetLoader);
+        }
+
+        // Der ClassPool ist nicht thread-sicher:
+        synchronized Class<?> defineClass(final Class<?> type, final String body) {
+            final String className = PACKAGE_NAME + type.getSimpleName() + "RowMapper" + classCounter.incrementAndGet();
+            try {
+                final CtClass mapperCt = classPool.makeClass(className);
+                mapperCt.addInterface(classPool.get(RowMapper.class.getName()));
+                final CtMethod mapMethod = CtNewMethod.make("public Object map(java.sql.ResultSet rs) throws java.sql.SQLException " + body, mapperCt);
+                mapperCt.addMethod(mapMethod);
+                final byte[] bytecode = JavassistProxyClasses.toBytecode(mapperCt);
+                mapperCt.detach();
+                return classLoader.defineGeneratedClass(className, bytecode, RowMapperGenerator.class.getProtectionDomain());
+            } catch (CannotCompileException | NotFoundException ex) {
+                throw new IllegalStateException(ex.toString(), ex);
+            }
+        }
+
+    }
+
+}
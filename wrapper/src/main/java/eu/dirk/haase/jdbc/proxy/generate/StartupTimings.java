@@ -0,0 +1,109 @@
+package eu.dirk.haase.jdbc.proxy.generate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Erfasst die Zeit, die beim Start einer Anwendung in den einzelnen Phasen der
+ * Generierung der JDBC-Wrapper Klassen verbracht wird.
+ * <p>
+ * Die Phasen sind ineinander geschachtelt: der statische Initialisierer von
+ * {@link GeneratorJavassist} generiert die Standard-Klassen mit
+ * {@link JavassistProxyClasses#generate(java.util.function.Function)}, was
+ * wiederum jede Klasse per {@link ClassDefiner} definiert. Die Zeiten einer
+ * Phase enthalten also die Zeiten der darin geschachtelten Phasen.
+ * <p>
+ * Die Erfassung kostet nur w&auml;hrend der Generierung und bei der ersten
+ * Konstruktion eines JDBC-Wrappers Zeit und ist daher immer aktiv (siehe
+ * Modul {@code startup-benchmark}).
+ */
+public final class StartupTimings {
+
+    private static final AtomicLongArray countArray = new AtomicLongArray(Phase.values().length);
+    private static final AtomicBoolean isFirstObjectConstructionPending = new AtomicBoolean(true);
+    private static final AtomicLongArray nanosArray = new AtomicLongArray(Phase.values().length);
+
+    private StartupTimings() {
+    }
+
+    /**
+     * Liefert wie oft eine Phase durchlaufen wurde.
+     *
+     * @param phase die Phase.
+     * @return die Anzahl der Durchl&auml;ufe.
+     */
+    public static long getCount(final Phase phase) {
+        return countArray.get(phase.ordinal());
+    }
+
+    /**
+     * Liefert die gesamte Zeit die in einer Phase verbracht wurde.
+     *
+     * @param phase die Phase.
+     * @return die Zeit in Nanosekunden.
+     */
+    public static long getNanos(final Phase phase) {
+        return nanosArray.get(phase.ordinal());
+    }
+
+    static boolean isFirstObjectConstructionPending() {
+        return isFirstObjectConstructionPending.get();
+    }
+
+    static void record(final Phase phase, final long nanos) {
+        nanosArray.addAndGet(phase.ordinal(), nanos);
+        countArray.incrementAndGet(phase.ordinal());
+    }
+
+    static void recordFirstObjectConstruction(final long nanos) {
+        if (isFirstObjectConstructionPending.compareAndSet(true, false)) {
+            record(Phase.FIRST_OBJECT_CONSTRUCTION, nanos);
+        }
+    }
+
+    /**
+     * Liefert die Zeiten aller Phasen.
+     *
+     * @return eine Map mit den Zeiten in Nanosekunden.
+     */
+    public static Map<Phase, Long> snapshot() {
+        final Map<Phase, Long> phase2NanosMap = new EnumMap<>(Phase.class);
+        for (final Phase phase : Phase.values()) {
+            phase2NanosMap.put(phase, getNanos(phase));
+        }
+        return phase2NanosMap;
+    }
+
+    /**
+     * Die erfassten Phasen.
+     */
+    public enum Phase {
+
+        /**
+         * Der statische Initialisierer von {@link GeneratorJavassist}, der die
+         * Standard-Klassen generiert (einschlie&szlig;lich {@link #JAVASSIST_GENERATE}
+         * und {@link #CLASS_DEFINITION}).
+         */
+        GENERATOR_STATIC_INIT,
+        /**
+         * {@link JavassistProxyClasses#generate(java.util.function.Function)}:
+         * Bytecode-Generierung mit Javassist (einschlie&szlig;lich
+         * {@link #CLASS_DEFINITION}).
+         */
+        JAVASSIST_GENERATE,
+        /**
+         * Die Definition der generierten Klassen per {@link ClassDefiner}.
+         */
+        CLASS_DEFINITION,
+        /**
+         * Die erste reflektive Konstruktion eines JDBC-Wrappers durch
+         * {@link ObjectMaker}, einschlie&szlig;lich der Initialisierung der
+         * generierten Klasse.
+         */
+        FIRST_OBJECT_CONSTRUCTION
+
+    }
+
+}
@@ -0,0 +1,133 @@
+package eu.dirk.haase.jdbc.proxy.intercept;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link Interceptor} der mehrere Interceptoren nacheinander aufruft.
+ * <p>
+ * Die {@code before}-Methoden werden in der Reihenfolge der Interceptoren
+ * aufgerufen, die {@code after}-Methoden in umgekehrter Reihenfolge.
+ * <p>
+ * Da ein Interceptor nur einen {@code long}-Wert weiterreichen kann, werden
+ * die Werte der einzelnen Interceptoren in einem Stack pro Thread abgelegt.
+ * Der weitergereichte Wert ist die Position im Stack.
+ *
+ * @see Interceptors#add(Interceptor)
+ */
+public final class CompositeInterceptor implements Interceptor {
+
+    private final Interceptor[] interceptorArray;
+    private final ThreadLocal<TokenStack> tokenStackThreadLocal;
+
+    /**
+     * Erzeugt einen Interceptor der die angegebenen Interceptoren aufruft.
+     *
+     * @param interceptorList die Interceptoren.
+     */
+    public CompositeInterceptor(final List<Interceptor> interceptorList) {
+        this.interceptorArray = interceptorList.toArray(new Interceptor[0]);
+        this.tokenStackThreadLocal = ThreadLocal.withInitial(TokenStack::new);
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result) {
+        afterReturning(proxy, methodId, token, result, null);
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result, final String sql) {
+        final TokenStack tokenStack = tokenStackThreadLocal.get();
+        final int base = (int) token;
+        for (int i = interceptorArray.length - 1; 0 <= i; --i) {
+            if (sql == null) {
+                interceptorArray[i].afterReturning(proxy, methodId, tokenStack.tokenArray[base + i], result);
+            } else {
+                interceptorArray[i].afterReturning(proxy, methodId, tokenStack.tokenArray[base + i], result, sql);
+            }
+        }
+        tokenStack.depth = base;
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex) {
+        afterThrowing(proxy, methodId, token, ex, null);
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex, final String sql) {
+        final TokenStack tokenStack = tokenStackThreadLocal.get();
+        final int base = (int) token;
+        for (int i = interceptorArray.length - 1; 0 <= i; --i) {
+            if (sql == null) {
+                interceptorArray[i].afterThrowing(proxy, methodId, tokenStack.tokenArray[base + i], ex);
+            } else {
+                interceptorArray[i].afterThrowing(proxy, methodId, tokenStack.tokenArray[base + i], ex, sql);
+            }
+        }
+        tokenStack.depth = base;
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId) {
+        return before(proxy, methodId, null);
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId, final String sql) {
+        final TokenStack tokenStack = tokenStackThreadLocal.get();
+        final int base = tokenStack.reserve(interceptorArray.length);
+        for (int i = 0; interceptorArray.length > i; ++i) {
+            if (sql == null) {
+                tokenStack.tokenArray[base + i] = interceptorArray[i].before(proxy, methodId);
+            } else {
+                tokenStack.tokenArray[base + i] = interceptorArray[i].before(proxy, methodId, sql);
+            }
+        }
+        return base;
+    }
+
+    /**
+     * Liefert {@code true} wenn der angegebene Interceptor enthalten ist.
+     *
+     * @param interceptor der gesuchte Interceptor.
+     * @return {@code true} wenn der Interceptor enthalten ist.
+     */
+    public boolean contains(final Interceptor interceptor) {
+        for (final Interceptor element : interceptorArray) {
+            if (element == interceptor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Liefert die enthaltenen Interceptoren.
+     *
+     * @return die enthaltenen Interceptoren in der Reihenfolge ihres Aufrufs.
+     */
+    public List<Interceptor> interceptors() {
+        return Arrays.asList(interceptorArray.clone());
+    }
+
+    /**
+     * Stack mit den Werten der Interceptoren eines Threads.
+     */
+    static final class TokenStack {
+
+        private int depth;
+        private long[] tokenArray = new long[16];
+
+        int reserve(final int count) {
+            final int base = depth;
+            if ((base + count) > tokenArray.length) {
+                tokenArray = Arrays.copyOf(tokenArray, Math.max(base + count, tokenArray.length * 2));
+            }
+            depth = base + count;
+            return base;
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package eu.dirk.haase.jdbc.proxy.intercept;
+
+/**
+ * Interceptor der in die generierten JDBC-Wrapper Klassen um jede delegierte
+ * Methode herum eingewoben wird.
+ * <p>
+ * Jede delegierte Methode ruft genau einmal {@link #before(Object, int)} (bzw.
+ * {@link #before(Object, int, String)}) auf und
+ * danach genau einmal entweder {@link #afterReturning(Object, int, long, Object)}
+ * oder {@link #afterThrowing(Object, int, long, Throwable)}.
+ * <p>
+ * Die Methoden-Id ist eine kleine, fortlaufende Ganzzahl die &uuml;ber
+ * {@link Interceptors#methodName(int)} aufgel&ouml;st werden kann. Sie eignet sich
+ * daher als Index in Arrays.
+ * <p>
+ * Implementationen m&uuml;ssen thread-sicher sein und sollten keine Exceptions
+ * ausl&ouml;sen.
+ *
+ * @see Interceptors
+ */
+public interface Interceptor {
+
+    /**
+     * Wird vor dem Aufruf der delegierten Methode aufgerufen.
+     *
+     * @param proxy    das Wrapper-Objekt dessen Methode aufgerufen wird.
+     * @param methodId die Id der aufgerufenen Methode.
+     * @return ein beliebiger Wert (zum Beispiel ein Zeitstempel) der an
+     * {@link #afterReturning(Object, int, long, Object)} oder
+     * {@link #afterThrowing(Object, int, long, Throwable)} weitergereicht wird.
+     */
+    long before(Object proxy, int methodId);
+
+    /**
+     * Wird anstelle von {@link #before(Object, int)} vor dem Aufruf einer
+     * {@code execute}-Methode (oder {@code addBatch}) eines Statements aufgerufen,
+     * deren erster Parameter die SQL-Anweisung ist.
+     * <p>
+     * Die Default-Implementation ignoriert die SQL-Anweisung und ruft
+     * {@link #before(Object, int)} auf.
+     *
+     * @param proxy    das Wrapper-Objekt dessen Methode aufgerufen wird.
+     * @param methodId die Id der aufgerufenen Methode.
+     * @param sql      die SQL-Anweisung die ausgef&uuml;hrt werden soll.
+     * @return ein beliebiger Wert (zum Beispiel ein Zeitstempel) der an
+     * {@link #afterReturning(Object, int, long, Object)} oder
+     * {@link #afterThrowing(Object, int, long, Throwable)} weitergereicht wird.
+     */
+    default long before(final Object proxy, final int methodId, final String sql) {
+        return before(proxy, methodId);
+    }
+
+    /**
+     * Wird nach dem erfolgreichen Aufruf der delegierten Methode aufgerufen.
+     *
+     * @param proxy    das Wrapper-Objekt dessen Methode aufgerufen wurde.
+     * @param methodId die Id der aufgerufenen Methode.
+     * @param token    der Wert der von {@link #before(Object, int)} geliefert wurde.
+     * @param result   das Ergebnis der Methode (primitive Werte werden eingepackt),
+     *                 {@code null} bei {@code void}-Methoden.
+     */
+    void afterReturning(Object proxy, int methodId, long token, Object result);
+
+    /**
+     * Wird anstelle von {@link #afterReturning(Object, int, long, Object)} nach dem
+     * erfolgreichen Aufruf einer Methode aufgerufen, deren SQL-Anweisung zuvor an
+     * {@link #before(Object, int, String)} &uuml;bergeben wurde.
+     * <p>
+     * Die Default-Implementation ignoriert die SQL-Anweisung.
+     *
+     * @param proxy    das Wrapper-Objekt dessen Methode aufgerufen wurde.
+     * @param methodId die Id der aufgerufenen Methode.
+     * @param token    der Wert der von {@link #before(Object, int, String)} geliefert wurde.
+     * @param result   das Ergebnis der Methode (primitive Werte werden eingepackt),
+     *                 {@code null} bei {@code void}-Methoden.
+     * @param sql      die SQL-Anweisung die ausgef&uuml;hrt wurde.
+     */
+    default void afterReturning(final Object proxy, final int methodId, final long token, final Object result, final String sql) {
+        afterReturning(proxy, methodId, token, result);
+    }
+
+    /**
+     * Wird aufgerufen wenn die delegierte Methode eine Exception ausgel&ouml;st hat.
+     *
+     * @param proxy    das Wrapper-Objekt dessen Methode aufgerufen wurde.
+     * @param methodId die Id der aufgerufenen Methode.
+     * @param token    der Wert der von {@link #before(Object, int)} geliefert wurde.
+     * @param ex       die ausgel&ouml;ste Exception.
+     */
+    void afterThrowing(Object proxy, int methodId, long token, Throwable ex);
+
+    /**
+     * Wird anstelle von {@link #afterThrowing(Object, int, long, Throwable)} aufgerufen
+     * wenn eine Methode, deren SQL-Anweisung zuvor an {@link #before(Object, int, String)}
+     * &uuml;bergeben wurde, eine Exception ausgel&ouml;st hat.
+     * <p>
+     * Die Default-Implementation ignoriert die SQL-Anweisung.
+     *
+     * @param proxy    das Wrapper-Objekt dessen Methode aufgerufen wurde.
+     * @param methodId die Id der aufgerufenen Methode.
+     * @param token    der Wert der von {@link #before(Object, int, String)} geliefert wurde.
+     * @param ex       die ausgel&ouml;ste Exception.
+     * @param sql      die SQL-Anweisung die ausgef&uuml;hrt werden sollte.
+     */
+    default void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex, final String sql) {
+        afterThrowing(proxy, methodId, token, ex);
+    }
+
+}
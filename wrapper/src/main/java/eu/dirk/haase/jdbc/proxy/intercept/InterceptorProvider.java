@@ -0,0 +1,23 @@
+package eu.dirk.haase.jdbc.proxy.intercept;
+
+/**
+ * Service-Provider &uuml;ber den ein Feature seinen {@link Interceptor} bei der
+ * Initialisierung von {@link Interceptors} hinzuf&uuml;gt.
+ * <p>
+ * Die Provider werden &uuml;ber den {@link java.util.ServiceLoader}
+ * ({@code META-INF/services/eu.dirk.haase.jdbc.proxy.intercept.InterceptorProvider})
+ * in der Reihenfolge ihrer Eintr&auml;ge geladen. So h&auml;ngt {@link Interceptors}
+ * nicht von den einzelnen Features ab.
+ */
+public interface InterceptorProvider {
+
+    /**
+     * Liefert den Interceptor der beim Start hinzugef&uuml;gt werden soll
+     * (siehe {@link Interceptors#add(Interceptor)}).
+     *
+     * @return der Interceptor oder {@code null} wenn das Feature nicht
+     * eingeschaltet ist.
+     */
+    Interceptor startupInterceptor();
+
+}
@@ -0,0 +1,318 @@
+package eu.dirk.haase.jdbc.proxy.intercept;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry f&uuml;r den {@link Interceptor} und f&uuml;r die Methoden-Ids der
+ * generierten JDBC-Wrapper Klassen.
+ * <p>
+ * Ob ein Interceptor eingewoben wird, entscheidet sich beim <b>Generieren</b>
+ * einer Wrapper-Klasse:
+ * <ul>
+ * <li>Ist kein Interceptor registriert, dann enthalten die generierten Klassen
+ * keinerlei Interceptor-Code.</li>
+ * <li>Ist ein Interceptor registriert, dann erh&auml;lt die generierte Klasse ein
+ * {@code private static final} Feld mit dem Interceptor, das bei der
+ * Initialisierung der Klasse einmalig gesetzt wird. Da statische finale Felder
+ * f&uuml;r den JIT-Compiler Konstanten sind, kann der Aufruf vollst&auml;ndig
+ * inlined werden.</li>
+ * </ul>
+ * Ein Interceptor muss daher registriert werden <b>bevor</b> die Wrapper-Klassen
+ * generiert werden. Das geschieht entweder &uuml;ber den {@link ServiceLoader}
+ * ({@code META-INF/services/eu.dirk.haase.jdbc.proxy.intercept.Interceptor}),
+ * der bereits bei der Initialisierung dieser Klasse abgefragt wird, oder
+ * programmatisch &uuml;ber {@link #register(Interceptor)}. Zus&auml;tzlich f&uuml;gen
+ * die Features ihre Interceptoren &uuml;ber einen {@link InterceptorProvider}
+ * hinzu, zum Beispiel die Metriken mit der System-Property
+ * {@code eu.dirk.haase.jdbc.proxy.metrics=true}.
+ * <p>
+ * Sollen mehrere Interceptoren eingewoben werden, dann werden sie mit
+ * {@link #add(Interceptor)} zu einem {@link CompositeInterceptor}
+ * zusammengefasst.
+ * <p>
+ * Jeder registrierte Interceptor belegt einen Index. Ein Index der von
+ * einer generierten Klasse verwendet wird (siehe {@link #currentIndex()}),
+ * bleibt belegt. Alle anderen Indizes werden wiederverwendet, so dass
+ * wiederholtes Hinzuf&uuml;gen und Entfernen die Liste nicht unbegrenzt
+ * wachsen l&auml;sst.
+ * <p>
+ * Vorab generierte Klassen (siehe {@code JavassistProxyClassWriter}) enthalten
+ * keinen Interceptor-Code.
+ */
+public final class Interceptors {
+
+    private static final List<Interceptor> interceptorList = new ArrayList<>();
+    private static final List<String> methodNameList = new ArrayList<>();
+    private static final BitSet referencedIndexSet = new BitSet();
+    private static final ConcurrentHashMap<String, Integer> signature2IdMap = new ConcurrentHashMap<>();
+    private static volatile int currentIndex = -1;
+    private static volatile boolean[] executionArray = new boolean[0];
+
+    static {
+        final Interceptor service = loadService();
+        if (service != null) {
+            register(service);
+        }
+        for (final InterceptorProvider provider : ServiceLoader.load(InterceptorProvider.class, Interceptors.class.getClassLoader())) {
+            final Interceptor interceptor = provider.startupInterceptor();
+            if (interceptor != null) {
+                add(interceptor);
+            }
+        }
+    }
+
+    private Interceptors() {
+    }
+
+    /**
+     * F&uuml;gt einen Interceptor f&uuml;r alle danach generierten Wrapper-Klassen
+     * zu dem aktuell registrierten Interceptor hinzu.
+     * <p>
+     * Ist bereits ein anderer Interceptor registriert, dann werden beide zu einem
+     * {@link CompositeInterceptor} zusammengefasst. Ist der Interceptor bereits
+     * enthalten, dann hat der Aufruf keine Wirkung.
+     *
+     * @param interceptor der Interceptor.
+     */
+    public static void add(final Interceptor interceptor) {
+        if (interceptor == null) {
+            throw new IllegalArgumentException("Interceptor must not be null.");
+        }
+        synchronized (interceptorList) {
+            final List<Interceptor> currentList = currentInterceptors();
+            if (!currentList.contains(interceptor)) {
+                currentList.add(interceptor);
+                register(currentList.size() == 1 ? interceptor : new CompositeInterceptor(currentList));
+            }
+        }
+    }
+
+    /**
+     * Liefert {@code true} wenn der angegebene Interceptor aktuell registriert
+     * ist, entweder direkt oder als Teil eines {@link CompositeInterceptor}.
+     *
+     * @param interceptor der gesuchte Interceptor.
+     * @return {@code true} wenn der Interceptor aktuell registriert ist.
+     */
+    public static boolean contains(final Interceptor interceptor) {
+        final Interceptor current = current();
+        if (current instanceof CompositeInterceptor) {
+            return ((CompositeInterceptor) current).contains(interceptor);
+        }
+        return (current != null) && (current == interceptor);
+    }
+
+    /**
+     * Liefert den aktuell registrierten Interceptor.
+     *
+     * @return der aktuell registrierte Interceptor oder {@code null} wenn
+     * keiner registriert ist.
+     */
+    public static Interceptor current() {
+        final int index = currentIndex;
+        return (index < 0 ? null : interceptor(index));
+    }
+
+    /**
+     * Liefert den Index des aktuell registrierten Interceptors.
+     * <p>
+     * Wird beim Generieren einer Wrapper-Klasse abgefragt, damit die generierte
+     * Klasse genau den Interceptor erh&auml;lt der beim Generieren registriert war
+     * (siehe {@link #interceptor(int)}). Der Index bleibt danach dauerhaft
+     * belegt.
+     *
+     * @return der Index des aktuell registrierten Interceptors oder {@code -1}
+     * wenn keiner registriert ist.
+     */
+    public static int currentIndex() {
+        synchronized (interceptorList) {
+            final int index = currentIndex;
+            if (index >= 0) {
+                referencedIndexSet.set(index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Liefert den Interceptor zu einem Index.
+     * <p>
+     * Wird von den generierten Klassen bei ihrer Initialisierung aufgerufen.
+     *
+     * @param index der Index des Interceptors (siehe {@link #currentIndex()}).
+     * @return der Interceptor.
+     */
+    public static Interceptor interceptor(final int index) {
+        synchronized (interceptorList) {
+            return interceptorList.get(index);
+        }
+    }
+
+    private static List<Interceptor> currentInterceptors() {
+        final Interceptor current = current();
+        if (current instanceof CompositeInterceptor) {
+            return new ArrayList<>(((CompositeInterceptor) current).interceptors());
+        }
+        final List<Interceptor> currentList = new ArrayList<>();
+        if (current != null) {
+            currentList.add(current);
+        }
+        return currentList;
+    }
+
+    private static Interceptor loadService() {
+        final Iterator<Interceptor> iterator = ServiceLoader.load(Interceptor.class, Interceptors.class.getClassLoader()).iterator();
+        return (iterator.hasNext() ? iterator.next() : null);
+    }
+
+    /**
+     * Liefert {@code true} wenn die Methode eine SQL-Anweisung ausf&uuml;hrt, also
+     * eine {@code execute}-Methode eines {@link Statement}s ist (zum Beispiel
+     * {@code Statement.executeQuery} oder {@code PreparedStatement.executeUpdate}).
+     *
+     * @param methodId die Methoden-Id.
+     * @return {@code true} wenn die Methode eine SQL-Anweisung ausf&uuml;hrt.
+     */
+    public static boolean isStatementExecution(final int methodId) {
+        final boolean[] executions = executionArray;
+        return (methodId < executions.length) && executions[methodId];
+    }
+
+    /**
+     * Liefert die Anzahl der bisher vergebenen Methoden-Ids.
+     * <p>
+     * Alle Methoden-Ids liegen im Bereich {@code 0} bis {@code methodCount() - 1}.
+     *
+     * @return die Anzahl der bisher vergebenen Methoden-Ids.
+     */
+    public static int methodCount() {
+        synchronized (methodNameList) {
+            return methodNameList.size();
+        }
+    }
+
+    /**
+     * Liefert die Methoden-Id f&uuml;r eine Interface-Methode.
+     * <p>
+     * Die gleiche Methode des gleichen Interfaces erh&auml;lt stets die gleiche Id,
+     * auch wenn sie in verschiedenen generierten Klassen eingewoben wird.
+     *
+     * @param ifaceClass das JDBC-Interface der generierten Klasse.
+     * @param methodName der Name der Methode.
+     * @param descriptor der JVM-Deskriptor der Methode (Parameter- und R&uuml;ckgabe-Typen).
+     * @return die Methoden-Id.
+     */
+    public static int methodId(final Class<?> ifaceClass, final String methodName, final String descriptor) {
+        final String signature = ifaceClass.getSimpleName() + "." + methodName + descriptor;
+        return signature2IdMap.computeIfAbsent(signature, (s) -> {
+            synchronized (methodNameList) {
+                methodNameList.add(ifaceClass.getSimpleName() + "." + methodName);
+                final int methodId = methodNameList.size() - 1;
+                final boolean[] newExecutionArray = Arrays.copyOf(executionArray, methodId + 1);
+                newExecutionArray[methodId] = Statement.class.isAssignableFrom(ifaceClass) && methodName.startsWith("execute");
+                executionArray = newExecutionArray;
+                return methodId;
+            }
+        });
+    }
+
+    /**
+     * Liefert den Namen der Methode zu einer Methoden-Id, zum Beispiel
+     * {@code "Connection.commit"}.
+     * <p>
+     * &Uuml;berladene Methoden haben verschiedene Methoden-Ids aber den
+     * gleichen Namen.
+     *
+     * @param methodId die Methoden-Id.
+     * @return der Name der Methode.
+     */
+    public static String methodName(final int methodId) {
+        synchronized (methodNameList) {
+            return methodNameList.get(methodId);
+        }
+    }
+
+    /**
+     * Registriert einen Interceptor f&uuml;r alle danach generierten Wrapper-Klassen.
+     * <p>
+     * Bereits generierte Wrapper-Klassen sind davon nicht betroffen.
+     *
+     * @param interceptor der Interceptor.
+     */
+    public static void register(final Interceptor interceptor) {
+        if (interceptor == null) {
+            throw new IllegalArgumentException("Interceptor must not be null.");
+        }
+        synchronized (interceptorList) {
+            int index = -1;
+            for (int i = 0; (interceptorList.size() > i) && (index < 0); ++i) {
+                if (isSame(interceptorList.get(i), interceptor)) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                index = referencedIndexSet.nextClearBit(0);
+                if (index < interceptorList.size()) {
+                    interceptorList.set(index, interceptor);
+                } else {
+                    interceptorList.add(interceptor);
+                    index = interceptorList.size() - 1;
+                }
+            }
+            currentIndex = index;
+        }
+    }
+
+    /**
+     * Liefert {@code true} wenn beide Interceptoren gleich sind: entweder
+     * identisch oder zwei {@link CompositeInterceptor} mit den gleichen
+     * Interceptoren in der gleichen Reihenfolge.
+     */
+    private static boolean isSame(final Interceptor registered, final Interceptor interceptor) {
+        if (registered == interceptor) {
+            return true;
+        }
+        return (registered instanceof CompositeInterceptor) && (interceptor instanceof CompositeInterceptor)
+                && ((CompositeInterceptor) registered).interceptors().equals(((CompositeInterceptor) interceptor).interceptors());
+    }
+
+    /**
+     * Entfernt einen Interceptor aus dem aktuell registrierten Interceptor
+     * (siehe {@link #add(Interceptor)}).
+     * <p>
+     * Alle danach generierten Wrapper-Klassen enthalten diesen Interceptor nicht
+     * mehr. Bereits generierte Wrapper-Klassen sind davon nicht betroffen.
+     *
+     * @param interceptor der Interceptor.
+     */
+    public static void remove(final Interceptor interceptor) {
+        synchronized (interceptorList) {
+            final List<Interceptor> currentList = currentInterceptors();
+            if (currentList.remove(interceptor)) {
+                if (currentList.isEmpty()) {
+                    unregister();
+                } else {
+                    register(currentList.size() == 1 ? currentList.get(0) : new CompositeInterceptor(currentList));
+                }
+            }
+        }
+    }
+
+    /**
+     * Entfernt den aktuell registrierten Interceptor.
+     * <p>
+     * Alle danach generierten Wrapper-Klassen enthalten keinen Interceptor-Code.
+     * Bereits generierte Wrapper-Klassen sind davon nicht betroffen.
+     */
+    public static void unregister() {
+        currentIndex = -1;
+    }
+
+}
@@ -0,0 +1,16 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Eine Transaktion wurde festgeschrieben.
+ */
+@Name("eu.dirk.haase.jdbc.Commit")
+@Label("Commit")
+@Description("Commit of a Connection or XAResource")
+@Threshold("10 ms")
+final class CommitEvent extends JdbcEvent {
+}
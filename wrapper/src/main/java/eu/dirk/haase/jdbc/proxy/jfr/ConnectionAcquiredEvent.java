@@ -0,0 +1,21 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Eine Connection wurde von einer DataSource angefordert. Die Dauer des
+ * Events ist die Wartezeit bis zum Erhalt der Connection.
+ */
+@Name("eu.dirk.haase.jdbc.ConnectionAcquired")
+@Label("Connection Acquired")
+@Description("Wait time for a connection from a wrapped DataSource")
+@Threshold("10 ms")
+final class ConnectionAcquiredEvent extends JdbcEvent {
+
+    @Label("Data Source")
+    String dataSource;
+
+}
@@ -0,0 +1,31 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Der Zustand einer DataSource mit Health-Check hat sich ge&auml;ndert.
+ */
+@Name("eu.dirk.haase.jdbc.HealthStateChanged")
+@Label("Health State Changed")
+@Description("A health checked DataSource went down or came up again")
+@Category({"Database", "JDBC"})
+@Enabled(false)
+@StackTrace(false)
+final class HealthStateChangedEvent extends Event {
+
+    @Label("Data Source")
+    String dataSource;
+
+    @Label("Failure")
+    String failure;
+
+    @Label("Up")
+    boolean up;
+
+}
@@ -0,0 +1,27 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Gemeinsame Basis-Klasse der JFR-Events der JDBC-Wrapper.
+ * <p>
+ * Alle Events sind standardm&auml;&szlig;ig ausgeschaltet und werden &uuml;ber
+ * das JFR-Settings-Profil {@code tiny-pool.jfc} (siehe
+ * {@link JdbcFlightRecorder#SETTINGS_RESOURCE}) eingeschaltet.
+ */
+@Category({"Database", "JDBC"})
+@Enabled(false)
+@StackTrace(false)
+abstract class JdbcEvent extends Event {
+
+    @Label("Exception")
+    String exception;
+
+    @Label("Method")
+    String method;
+
+}
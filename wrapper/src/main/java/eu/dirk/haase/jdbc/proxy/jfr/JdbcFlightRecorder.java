@@ -0,0 +1,153 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.InterceptorProvider;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+
+/**
+ * Java Flight Recorder (JFR) Events f&uuml;r die generierten JDBC-Wrapper Klassen.
+ * <p>
+ * Folgende Events werden erzeugt:
+ * <ul>
+ * <li>{@code eu.dirk.haase.jdbc.ConnectionAcquired}: die Wartezeit beim Anfordern
+ * einer Connection (Schwellwert 10 ms)</li>
+ * <li>{@code eu.dirk.haase.jdbc.StatementExecuted}: SQL-Anweisung, Dauer und
+ * Anzahl der ge&auml;nderten Zeilen (Schwellwert 20 ms)</li>
+ * <li>{@code eu.dirk.haase.jdbc.Commit} (Schwellwert 10 ms) und
+ * {@code eu.dirk.haase.jdbc.Rollback}</li>
+ * <li>{@code eu.dirk.haase.jdbc.HealthStateChanged}: Zustandswechsel einer
+ * DataSource mit Health-Check</li>
+ * </ul>
+ * Die Events werden &uuml;ber einen {@link Interceptor} erzeugt, der beim Generieren
+ * in die Wrapper-Klassen eingewoben wird. Sie m&uuml;ssen daher eingeschaltet werden
+ * <b>bevor</b> die Wrapper-Klassen generiert werden, entweder mit der System-Property
+ * <pre><code>
+ * -Deu.dirk.haase.jdbc.proxy.jfr=true
+ * </code></pre>
+ * oder programmatisch mit {@link #enable()}. Ohne diesen Schalter enthalten die
+ * generierten Klassen keinerlei JFR-Code.
+ * <p>
+ * Alle Events sind standardm&auml;&szlig;ig ausgeschaltet. Eingeschaltet werden sie
+ * mit dem Settings-Profil {@link #SETTINGS_RESOURCE}, zum Beispiel:
+ * <pre><code>
+ * java -Deu.dirk.haase.jdbc.proxy.jfr=true -XX:StartFlightRecording=settings=tiny-pool.jfc ...
+ * </code></pre>
+ */
+public final class JdbcFlightRecorder {
+
+    /**
+     * Name der System-Property mit der die JFR-Events eingeschaltet werden.
+     */
+    public static final String ENABLED_PROPERTY = "eu.dirk.haase.jdbc.proxy.jfr";
+
+    /**
+     * Classpath-Resource mit dem JFR-Settings-Profil das alle Events dieses
+     * Moduls mit ihren Schwellwerten einschaltet.
+     */
+    public static final String SETTINGS_RESOURCE = "/eu/dirk/haase/jdbc/proxy/jfr/tiny-pool.jfc";
+
+    private static final boolean isAvailable = checkAvailable();
+
+    private JdbcFlightRecorder() {
+    }
+
+    private static boolean checkAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, JdbcFlightRecorder.class.getClassLoader());
+            return JfrEvents.isAvailable();
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Schaltet die JFR-Events f&uuml;r alle danach generierten Wrapper-Klassen aus.
+     * <p>
+     * Bereits generierte Wrapper-Klassen erzeugen weiterhin Events.
+     */
+    public static void disable() {
+        if (isAvailable) {
+            Interceptors.remove(InterceptorHolder.interceptor);
+        }
+    }
+
+    /**
+     * Schaltet die JFR-Events f&uuml;r alle danach generierten Wrapper-Klassen ein.
+     *
+     * @throws IllegalStateException wird ausgel&ouml;st wenn die JVM keinen
+     *                               Flight Recorder enth&auml;lt.
+     */
+    public static void enable() {
+        Interceptors.add(interceptor());
+    }
+
+    /**
+     * Meldet einen Zustandswechsel einer DataSource mit Health-Check.
+     * <p>
+     * Enth&auml;lt die JVM keinen Flight Recorder, dann hat der Aufruf keine Wirkung.
+     *
+     * @param dataSource die DataSource deren Zustand sich ge&auml;ndert hat.
+     * @param isUp       {@code true} wenn die DataSource wieder verf&uuml;gbar ist.
+     * @param failure    der Fehler der zum Ausfall gef&uuml;hrt hat oder {@code null}.
+     */
+    public static void healthStateChanged(final Object dataSource, final boolean isUp, final Throwable failure) {
+        if (isAvailable) {
+            JfrEvents.healthStateChanged(String.valueOf(dataSource), isUp, failure);
+        }
+    }
+
+    /**
+     * Liefert den {@link Interceptor} der die JFR-Events erzeugt.
+     *
+     * @return der Interceptor.
+     * @throws IllegalStateException wird ausgel&ouml;st wenn die JVM keinen
+     *                               Flight Recorder enth&auml;lt.
+     */
+    public static Interceptor interceptor() {
+        if (!isAvailable) {
+            throw new IllegalStateException("Java Flight Recorder is not available in this JVM.");
+        }
+        return InterceptorHolder.interceptor;
+    }
+
+    /**
+     * Liefert {@code true} wenn die JVM einen Flight Recorder enth&auml;lt.
+     *
+     * @return {@code true} wenn die JFR-Events erzeugt werden k&ouml;nnen.
+     */
+    public static boolean isAvailable() {
+        return isAvailable;
+    }
+
+    /**
+     * Liefert {@code true} wenn die JFR-Events f&uuml;r neu generierte
+     * Wrapper-Klassen eingeschaltet sind.
+     *
+     * @return {@code true} wenn die JFR-Events eingeschaltet sind.
+     */
+    public static boolean isEnabled() {
+        return isAvailable && Interceptors.contains(InterceptorHolder.interceptor);
+    }
+
+    /**
+     * L&auml;dt den {@link JfrInterceptor} (und damit die JFR-API) erst beim
+     * ersten Zugriff.
+     */
+    private static final class InterceptorHolder {
+        static final Interceptor interceptor = new JfrInterceptor();
+    }
+
+    /**
+     * F&uuml;gt den Interceptor beim Start hinzu, wenn die System-Property
+     * {@value #ENABLED_PROPERTY} gesetzt ist (siehe {@link InterceptorProvider}).
+     */
+    public static final class Provider implements InterceptorProvider {
+
+        @Override
+        public Interceptor startupInterceptor() {
+            return (Boolean.getBoolean(ENABLED_PROPERTY) && isAvailable ? interceptor() : null);
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Kapselt alle direkten Zugriffe auf die JFR-API, damit die Klasse
+ * {@link JdbcFlightRecorder} auch in einer JVM ohne JFR geladen werden kann.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    static void healthStateChanged(final String dataSource, final boolean isUp, final Throwable failure) {
+        final HealthStateChangedEvent event = new HealthStateChangedEvent();
+        if (event.isEnabled()) {
+            event.dataSource = dataSource;
+            event.up = isUp;
+            event.failure = (failure != null ? failure.toString() : null);
+            event.commit();
+        }
+    }
+
+    static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+}
@@ -0,0 +1,212 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import eu.dirk.haase.jdbc.proxy.base.PreparedSql;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+import eu.dirk.haase.jdbc.proxy.sql.SqlFingerprint;
+
+/**
+ * {@link Interceptor} der JFR-Events f&uuml;r Connection-Anforderungen,
+ * SQL-Anweisungen, Commits und Rollbacks erzeugt.
+ * <p>
+ * Ist ein Event ausgeschaltet (oder l&auml;uft keine Aufzeichnung), dann liefert
+ * {@link #before(Object, int)} den Wert {@code 0} und die beiden
+ * {@code after}-Methoden kehren unmittelbar zur&uuml;ck.
+ * <p>
+ * Da ein Interceptor nur einen {@code long}-Wert weiterreichen kann, werden die
+ * begonnenen Events in einem Stack pro Thread abgelegt. Der Wert ist die Tiefe
+ * des Events im Stack.
+ */
+final class JfrInterceptor implements Interceptor {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte NONE = 1;
+    private static final byte CONNECTION = 2;
+    private static final byte STATEMENT = 3;
+    private static final byte COMMIT = 4;
+    private static final byte ROLLBACK = 5;
+
+    private final ThreadLocal<EventStack> eventStackThreadLocal;
+    private volatile byte[] kindArray;
+
+    JfrInterceptor() {
+        this.eventStackThreadLocal = ThreadLocal.withInitial(EventStack::new);
+        this.kindArray = new byte[256];
+    }
+
+    private static byte computeKind(final String methodName) {
+        switch (methodName) {
+            case "DataSource.getConnection":
+            case "XADataSource.getXAConnection":
+            case "ConnectionPoolDataSource.getPooledConnection":
+            case "PooledConnection.getConnection":
+            case "XAConnection.getConnection":
+                return CONNECTION;
+            case "Connection.commit":
+            case "XAResource.commit":
+                return COMMIT;
+            case "Connection.rollback":
+            case "XAResource.rollback":
+                return ROLLBACK;
+            default:
+                final boolean isStatement = methodName.startsWith("Statement.")
+                        || methodName.startsWith("PreparedStatement.")
+                        || methodName.startsWith("CallableStatement.");
+                return (isStatement && methodName.contains(".execute") ? STATEMENT : NONE);
+        }
+    }
+
+    private static long rows(final Object result) {
+        if ((result instanceof Integer) || (result instanceof Long)) {
+            return ((Number) result).longValue();
+        } else if (result instanceof int[]) {
+            long rows = 0;
+            for (final int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        } else if (result instanceof long[]) {
+            long rows = 0;
+            for (final long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        return -1;
+    }
+
+    private static String sqlOf(final Object proxy) {
+        return (proxy instanceof PreparedSql ? ((PreparedSql) proxy).getSql() : null);
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result) {
+        if (token != 0) {
+            final JdbcEvent event = eventStackThreadLocal.get().pop(token);
+            if (event instanceof StatementExecutedEvent) {
+                ((StatementExecutedEvent) event).rows = rows(result);
+            }
+            commit(event);
+        }
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex) {
+        if (token != 0) {
+            final JdbcEvent event = eventStackThreadLocal.get().pop(token);
+            event.exception = ex.toString();
+            if (event instanceof StatementExecutedEvent) {
+                ((StatementExecutedEvent) event).rows = -1;
+            }
+            commit(event);
+        }
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId) {
+        return begin(proxy, methodId, null);
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId, final String sql) {
+        return begin(proxy, methodId, sql);
+    }
+
+    private long begin(final Object proxy, final int methodId, final String sql) {
+        final JdbcEvent event;
+        switch (kind(methodId)) {
+            case CONNECTION:
+                final ConnectionAcquiredEvent connectionEvent = new ConnectionAcquiredEvent();
+                if (!connectionEvent.isEnabled()) {
+                    return 0;
+                }
+                connectionEvent.dataSource = String.valueOf(proxy);
+                event = connectionEvent;
+                break;
+            case STATEMENT:
+                final StatementExecutedEvent statementEvent = new StatementExecutedEvent();
+                if (!statementEvent.isEnabled()) {
+                    return 0;
+                }
+                statementEvent.sql = (sql != null ? sql : sqlOf(proxy));
+                if (statementEvent.sql != null) {
+                    final SqlFingerprint sqlFingerprint = SqlFingerprint.of(statementEvent.sql);
+                    statementEvent.fingerprint = sqlFingerprint.getFingerprint();
+                    statementEvent.fingerprintHash = sqlFingerprint.getHash();
+                }
+                event = statementEvent;
+                break;
+            case COMMIT:
+                event = new CommitEvent();
+                break;
+            case ROLLBACK:
+                event = new RollbackEvent();
+                break;
+            default:
+                return 0;
+        }
+        if (!event.isEnabled()) {
+            return 0;
+        }
+        event.method = Interceptors.methodName(methodId);
+        event.begin();
+        return eventStackThreadLocal.get().push(event);
+    }
+
+    private void commit(final JdbcEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    private byte kind(final int methodId) {
+        final byte[] kinds = this.kindArray;
+        if ((methodId < kinds.length) && (kinds[methodId] != UNKNOWN)) {
+            return kinds[methodId];
+        }
+        return computeAndCacheKind(methodId);
+    }
+
+    private synchronized byte computeAndCacheKind(final int methodId) {
+        byte[] kinds = this.kindArray;
+        if (methodId >= kinds.length) {
+            final byte[] newKinds = new byte[Math.max(methodId + 1, kinds.length * 2)];
+            System.arraycopy(kinds, 0, newKinds, 0, kinds.length);
+            kinds = newKinds;
+        }
+        final byte kind = computeKind(Interceptors.methodName(methodId));
+        kinds[methodId] = kind;
+        this.kindArray = kinds;
+        return kind;
+    }
+
+    /**
+     * Stack der begonnenen Events eines Threads.
+     */
+    static final class EventStack {
+
+        private int depth;
+        private JdbcEvent[] eventArray = new JdbcEvent[4];
+
+        JdbcEvent pop(final long token) {
+            final int index = (int) token - 1;
+            final JdbcEvent event = eventArray[index];
+            eventArray[index] = null;
+            depth = index;
+            return event;
+        }
+
+        long push(final JdbcEvent event) {
+            if (depth == eventArray.length) {
+                final JdbcEvent[] newEventArray = new JdbcEvent[depth * 2];
+                System.arraycopy(eventArray, 0, newEventArray, 0, depth);
+                eventArray = newEventArray;
+            }
+            eventArray[depth++] = event;
+            return depth;
+        }
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Eine Transaktion wurde zur&uuml;ckgerollt.
+ */
+@Name("eu.dirk.haase.jdbc.Rollback")
+@Label("Rollback")
+@Description("Rollback of a Connection or XAResource")
+@Threshold("0 ms")
+final class RollbackEvent extends JdbcEvent {
+}
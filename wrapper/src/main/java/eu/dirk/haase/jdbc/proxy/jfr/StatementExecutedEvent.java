@@ -0,0 +1,32 @@
+package eu.dirk.haase.jdbc.proxy.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Eine SQL-Anweisung wurde &uuml;ber ein Statement ausgef&uuml;hrt.
+ */
+@Name("eu.dirk.haase.jdbc.StatementExecuted")
+@Label("Statement Executed")
+@Description("Execution of a SQL statement through a wrapped Statement")
+@Threshold("20 ms")
+final class StatementExecutedEvent extends JdbcEvent {
+
+    @Label("Rows")
+    @Description("Number of affected rows or -1 if unknown (for example for queries)")
+    long rows;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Fingerprint")
+    @Description("Normalized SQL statement without literals")
+    String fingerprint;
+
+    @Label("Fingerprint Hash")
+    @Description("64-bit hash of the normalized SQL statement")
+    long fingerprintHash;
+
+}
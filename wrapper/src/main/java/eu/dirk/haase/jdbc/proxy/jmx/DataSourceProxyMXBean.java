@@ -0,0 +1,77 @@
+package eu.dirk.haase.jdbc.proxy.jmx;
+
+/**
+ * MXBean einer eingepackten DataSource (bzw. XADataSource oder
+ * ConnectionPoolDataSource).
+ * <p>
+ * Gibt Auskunft &uuml;ber den Identity-Cache der Wrapper-Objekte, &uuml;ber die
+ * {@link java.util.concurrent.locks.StampedLock}-Sperre die den Cache sch&uuml;tzt
+ * und, sofern die DataSource einen Health-Check hat, &uuml;ber ihren Zustand.
+ */
+public interface DataSourceProxyMXBean {
+
+    /**
+     * @return der Zustand des Schutzschalters: {@code CLOSED} (verf&uuml;gbar),
+     * {@code OPEN} (nicht verf&uuml;gbar) oder {@code NONE} wenn die DataSource
+     * keinen Health-Check hat.
+     */
+    String getBreakerState();
+
+    /**
+     * @return die Anzahl der lebenden Wrapper-Objekte im Identity-Cache.
+     */
+    int getCachedChildCount();
+
+    /**
+     * @return die eingepackte DataSource.
+     */
+    String getDataSource();
+
+    /**
+     * @return der letzte schwerwiegende Fehler oder {@code null}.
+     */
+    String getLastFailure();
+
+    /**
+     * @return der Zeitpunkt des letzten schwerwiegenden Fehlers in Millisekunden
+     * seit 1970 oder {@code 0}.
+     */
+    long getLastFailureTimeMillis();
+
+    /**
+     * @return die Anzahl der Sperr-Anforderungen die wegen Zeit&uuml;berschreitung
+     * gescheitert sind.
+     */
+    long getLockTimeoutCount();
+
+    /**
+     * @return die Anzahl der Sperr-Anforderungen bei denen gewartet werden musste.
+     */
+    long getLockWaitCount();
+
+    /**
+     * @return die Summe aller Wartezeiten auf die Sperre in Millisekunden.
+     */
+    long getLockWaitTimeMillis();
+
+    /**
+     * @return die Anzahl der Eintr&auml;ge die bisher aus dem Identity-Cache
+     * entfernt wurden, weil sie vom Garbage-Collector freigegeben wurden.
+     */
+    int getReclaimedEntryCount();
+
+    /**
+     * Entfernt alle vom Garbage-Collector freigegebenen Eintr&auml;ge aus dem
+     * Identity-Cache.
+     *
+     * @return die Anzahl der bisher insgesamt freigegebenen Eintr&auml;ge.
+     */
+    int purge();
+
+    /**
+     * Verkleinert die interne Tabelle des Identity-Caches auf die aktuell
+     * ben&ouml;tigte Gr&ouml;&szlig;e.
+     */
+    void trimToSize();
+
+}
@@ -0,0 +1,132 @@
+package eu.dirk.haase.jdbc.proxy.jmx;
+
+import eu.dirk.haase.jdbc.proxy.base.ConcurrentFactoryJdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.HealthState;
+import eu.dirk.haase.jdbc.proxy.common.ConcurrentMapFunktions;
+
+import java.lang.ref.WeakReference;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation des {@link DataSourceProxyMXBean}.
+ * <p>
+ * Die DataSource wird nur schwach referenziert, damit sie trotz registriertem
+ * MBean vom Garbage-Collector freigegeben werden kann.
+ */
+final class DataSourceProxyStatistics implements DataSourceProxyMXBean {
+
+    private final String dataSource;
+    private final WeakReference<ConcurrentFactoryJdbcProxy<?, ?>> proxyRef;
+
+    DataSourceProxyStatistics(final ConcurrentFactoryJdbcProxy<?, ?> proxy) {
+        this.dataSource = String.valueOf(proxy);
+        this.proxyRef = new WeakReference<>(proxy);
+    }
+
+    @Override
+    public String getBreakerState() {
+        final Object proxy = proxyRef.get();
+        if (proxy instanceof HealthState) {
+            return (((HealthState) proxy).isUp() ? "CLOSED" : "OPEN");
+        }
+        return "NONE";
+    }
+
+    @Override
+    public int getCachedChildCount() {
+        final ConcurrentFactoryJdbcProxy<?, ?> proxy = proxyRef.get();
+        try {
+            return (proxy != null ? proxy.cacheSize() : 0);
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    @Override
+    public String getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public String getLastFailure() {
+        final Object proxy = proxyRef.get();
+        if (proxy instanceof HealthState) {
+            final Throwable lastFailure = ((HealthState) proxy).getLastFailure();
+            return (lastFailure != null ? lastFailure.toString() : null);
+        }
+        return null;
+    }
+
+    @Override
+    public long getLastFailureTimeMillis() {
+        final Object proxy = proxyRef.get();
+        return (proxy instanceof HealthState ? ((HealthState) proxy).getLastFailureTimeMillis() : 0L);
+    }
+
+    @Override
+    public long getLockTimeoutCount() {
+        final ConcurrentMapFunktions<?, ?, ?> funktions = concurrentMapFunktions();
+        return (funktions != null ? funktions.getLockTimeoutCount() : 0L);
+    }
+
+    @Override
+    public long getLockWaitCount() {
+        final ConcurrentMapFunktions<?, ?, ?> funktions = concurrentMapFunktions();
+        return (funktions != null ? funktions.getLockWaitCount() : 0L);
+    }
+
+    @Override
+    public long getLockWaitTimeMillis() {
+        final ConcurrentMapFunktions<?, ?, ?> funktions = concurrentMapFunktions();
+        return (funktions != null ? TimeUnit.NANOSECONDS.toMillis(funktions.getLockWaitNanos()) : 0L);
+    }
+
+    @Override
+    public int getReclaimedEntryCount() {
+        final ConcurrentFactoryJdbcProxy<?, ?> proxy = proxyRef.get();
+        try {
+            return (proxy != null ? proxy.reclaimedCacheEntryCount() : 0);
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    /**
+     * Liefert {@code true} wenn die DataSource bereits vom Garbage-Collector
+     * freigegeben wurde.
+     *
+     * @return {@code true} wenn die DataSource freigegeben wurde.
+     */
+    boolean isReclaimed() {
+        return proxyRef.get() == null;
+    }
+
+    @Override
+    public int purge() {
+        final ConcurrentFactoryJdbcProxy<?, ?> proxy = proxyRef.get();
+        try {
+            return (proxy != null ? proxy.purgeCache() : 0);
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    @Override
+    public void trimToSize() {
+        final ConcurrentFactoryJdbcProxy<?, ?> proxy = proxyRef.get();
+        try {
+            if (proxy != null) {
+                proxy.trimCacheToSize();
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    private ConcurrentMapFunktions<?, ?, ?> concurrentMapFunktions() {
+        final ConcurrentFactoryJdbcProxy<?, ?> proxy = proxyRef.get();
+        return (proxy != null ? proxy.concurrentMapFunktions() : null);
+    }
+
+}
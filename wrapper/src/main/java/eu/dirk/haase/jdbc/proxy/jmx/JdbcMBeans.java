@@ -0,0 +1,155 @@
+package eu.dirk.haase.jdbc.proxy.jmx;
+
+import eu.dirk.haase.jdbc.proxy.base.ConcurrentFactoryJdbcProxy;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registriert die MBeans der eingepackten DataSources beim Platform-MBeanServer.
+ * <p>
+ * Pro eingepackter DataSource wird ein {@link DataSourceProxyMXBean} unter dem Namen
+ * <pre><code>
+ * eu.dirk.haase.jdbc:type=DataSourceProxy,name="&lt;Proxy-Klasse&gt;@&lt;Identity-Hash&gt;"
+ * </code></pre>
+ * registriert, zus&auml;tzlich einmalig das {@link JdbcMetricsMXBean} unter
+ * {@code eu.dirk.haase.jdbc:type=JdbcMetrics} und das {@link TopSqlMXBean} unter
+ * {@code eu.dirk.haase.jdbc:type=TopSql}.
+ * <p>
+ * Mit der System-Property
+ * <pre><code>
+ * -Deu.dirk.haase.jdbc.proxy.jmx=true
+ * </code></pre>
+ * registriert die {@code DataSourceWrapperFactory} jede DataSource die sie einpackt
+ * automatisch. MBeans von DataSources die inzwischen vom Garbage-Collector
+ * freigegeben wurden, werden bei der n&auml;chsten Registrierung entfernt.
+ */
+public final class JdbcMBeans {
+
+    /**
+     * Die JMX-Domain aller MBeans.
+     */
+    public static final String DOMAIN = "eu.dirk.haase.jdbc";
+
+    /**
+     * Name der System-Property mit der die automatische Registrierung
+     * eingeschaltet wird.
+     */
+    public static final String ENABLED_PROPERTY = "eu.dirk.haase.jdbc.proxy.jmx";
+
+    private static final Map<ObjectName, DataSourceProxyStatistics> registeredMap = new ConcurrentHashMap<>();
+
+    private JdbcMBeans() {
+    }
+
+    private static void expungeReclaimed(final MBeanServer mBeanServer) throws JMException {
+        final Iterator<Map.Entry<ObjectName, DataSourceProxyStatistics>> iterator = registeredMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<ObjectName, DataSourceProxyStatistics> entry = iterator.next();
+            if (entry.getValue().isReclaimed()) {
+                iterator.remove();
+                unregisterQuietly(mBeanServer, entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Liefert {@code true} wenn die automatische Registrierung mit der
+     * System-Property {@value #ENABLED_PROPERTY} eingeschaltet ist.
+     *
+     * @return {@code true} wenn die automatische Registrierung eingeschaltet ist.
+     */
+    public static boolean isAutoRegistration() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Liefert den Namen unter dem das MBean einer DataSource registriert wird.
+     *
+     * @param proxy die eingepackte DataSource.
+     * @return der Name des MBeans.
+     */
+    public static ObjectName objectName(final ConcurrentFactoryJdbcProxy<?, ?> proxy) {
+        final String name = proxy.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        return objectName("type=DataSourceProxy,name=" + ObjectName.quote(name));
+    }
+
+    private static ObjectName objectName(final String properties) {
+        try {
+            return new ObjectName(DOMAIN + ":" + properties);
+        } catch (JMException ex) {
+            throw new IllegalArgumentException(ex.toString(), ex);
+        }
+    }
+
+    /**
+     * Registriert das MBean einer eingepackten DataSource (und einmalig das
+     * MBean der Latenz-Metriken).
+     *
+     * @param proxy die eingepackte DataSource.
+     * @return der Name unter dem das MBean registriert wurde.
+     * @throws IllegalStateException wird ausgel&ouml;st wenn das MBean nicht
+     *                               registriert werden kann.
+     */
+    public static ObjectName register(final ConcurrentFactoryJdbcProxy<?, ?> proxy) {
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = objectName(proxy);
+        try {
+            expungeReclaimed(mBeanServer);
+            registerMetrics(mBeanServer);
+            final DataSourceProxyStatistics statistics = new DataSourceProxyStatistics(proxy);
+            mBeanServer.registerMBean(statistics, objectName);
+            registeredMap.put(objectName, statistics);
+            return objectName;
+        } catch (JMException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    private static void registerMetrics(final MBeanServer mBeanServer) throws JMException {
+        registerSingleton(mBeanServer, objectName("type=JdbcMetrics"), JdbcMetricsStatistics::new);
+        registerSingleton(mBeanServer, objectName("type=TopSql"), TopSqlStatistics::new);
+    }
+
+    private static void registerSingleton(final MBeanServer mBeanServer, final ObjectName objectName, final Supplier<Object> mBeanSupplier) throws JMException {
+        if (!mBeanServer.isRegistered(objectName)) {
+            try {
+                mBeanServer.registerMBean(mBeanSupplier.get(), objectName);
+            } catch (InstanceAlreadyExistsException ignore) {
+                // Nebenlaeufig von einem anderen Thread registriert
+            }
+        }
+    }
+
+    /**
+     * Entfernt das MBean einer eingepackten DataSource.
+     *
+     * @param proxy die eingepackte DataSource.
+     */
+    public static void unregister(final ConcurrentFactoryJdbcProxy<?, ?> proxy) {
+        final ObjectName objectName = objectName(proxy);
+        registeredMap.remove(objectName);
+        try {
+            unregisterQuietly(ManagementFactory.getPlatformMBeanServer(), objectName);
+        } catch (JMException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    private static void unregisterQuietly(final MBeanServer mBeanServer, final ObjectName objectName) throws JMException {
+        try {
+            mBeanServer.unregisterMBean(objectName);
+        } catch (InstanceNotFoundException ignore) {
+            // Bereits entfernt
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package eu.dirk.haase.jdbc.proxy.jmx;
+
+import java.util.Map;
+
+/**
+ * MXBean der Latenz-Metriken aller generierten JDBC-Wrapper Klassen (siehe
+ * {@link eu.dirk.haase.jdbc.proxy.metrics.JdbcMetrics}).
+ * <p>
+ * Die Metriken werden pro Methode gef&uuml;hrt (zum Beispiel
+ * {@code "Statement.executeQuery"}) und nicht pro DataSource.
+ */
+public interface JdbcMetricsMXBean {
+
+    /**
+     * @return die Anzahl der Aufrufe pro Methode.
+     */
+    Map<String, Long> getMethodCallCounts();
+
+    /**
+     * @return die Aufrufe pro Sekunde pro Methode seit der letzten Abfrage
+     * dieses Attributes (bzw. seit der Registrierung oder dem letzten
+     * {@link #reset()}).
+     */
+    Map<String, Double> getMethodCallRates();
+
+    /**
+     * @return das 99. Perzentil der Latenz pro Methode in Mikrosekunden.
+     */
+    Map<String, Long> getMethodP99Micros();
+
+    /**
+     * @return {@code true} wenn die Metriken f&uuml;r neu generierte
+     * Wrapper-Klassen eingeschaltet sind.
+     */
+    boolean isEnabled();
+
+    /**
+     * Setzt alle Metriken zur&uuml;ck.
+     */
+    void reset();
+
+}
@@ -0,0 +1,69 @@
+package eu.dirk.haase.jdbc.proxy.jmx;
+
+import eu.dirk.haase.jdbc.proxy.metrics.JdbcMetrics;
+import eu.dirk.haase.jdbc.proxy.metrics.LatencySnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation des {@link JdbcMetricsMXBean}.
+ */
+final class JdbcMetricsStatistics implements JdbcMetricsMXBean {
+
+    private Map<String, Long> lastCallCountMap;
+    private long lastRateNanos;
+
+    JdbcMetricsStatistics() {
+        this.lastCallCountMap = new HashMap<>();
+        this.lastRateNanos = System.nanoTime();
+    }
+
+    @Override
+    public Map<String, Long> getMethodCallCounts() {
+        final Map<String, Long> callCountMap = new TreeMap<>();
+        for (final Map.Entry<String, LatencySnapshot> entry : JdbcMetrics.snapshot().entrySet()) {
+            callCountMap.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return callCountMap;
+    }
+
+    @Override
+    public synchronized Map<String, Double> getMethodCallRates() {
+        final long nowNanos = System.nanoTime();
+        final double elapsedSeconds = Math.max(1L, nowNanos - lastRateNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        final Map<String, Long> callCountMap = getMethodCallCounts();
+        final Map<String, Double> callRateMap = new TreeMap<>();
+        for (final Map.Entry<String, Long> entry : callCountMap.entrySet()) {
+            final long lastCallCount = lastCallCountMap.getOrDefault(entry.getKey(), 0L);
+            callRateMap.put(entry.getKey(), Math.max(0L, entry.getValue() - lastCallCount) / elapsedSeconds);
+        }
+        this.lastCallCountMap = callCountMap;
+        this.lastRateNanos = nowNanos;
+        return callRateMap;
+    }
+
+    @Override
+    public Map<String, Long> getMethodP99Micros() {
+        final Map<String, Long> p99Map = new TreeMap<>();
+        for (final Map.Entry<String, LatencySnapshot> entry : JdbcMetrics.snapshot().entrySet()) {
+            p99Map.put(entry.getKey(), TimeUnit.NANOSECONDS.toMicros(entry.getValue().percentile(99.0)));
+        }
+        return p99Map;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return JdbcMetrics.isEnabled();
+    }
+
+    @Override
+    public synchronized void reset() {
+        JdbcMetrics.reset();
+        this.lastCallCountMap = new HashMap<>();
+        this.lastRateNanos = System.nanoTime();
+    }
+
+}
@@ -0,0 +1,39 @@
+package eu.dirk.haase.jdbc.proxy.jmx;
+
+import eu.dirk.haase.jdbc.proxy.metrics.SqlStatistics;
+
+import java.util.List;
+
+/**
+ * MXBean der Rangliste der teuersten SQL-Anweisungen (siehe
+ * {@link eu.dirk.haase.jdbc.proxy.metrics.TopSqlTracker}).
+ */
+public interface TopSqlMXBean {
+
+    /**
+     * @return die 20 SQL-Anweisungen mit den meisten Ausf&uuml;hrungen.
+     */
+    List<SqlStatistics> getTopByCount();
+
+    /**
+     * @return die 20 SQL-Anweisungen mit dem gr&ouml;&szlig;ten 99. Perzentil.
+     */
+    List<SqlStatistics> getTopByP99();
+
+    /**
+     * @return die 20 SQL-Anweisungen mit der gr&ouml;&szlig;ten Gesamtzeit.
+     */
+    List<SqlStatistics> getTopByTotalTime();
+
+    /**
+     * @return {@code true} wenn die Rangliste f&uuml;r neu generierte
+     * Wrapper-Klassen eingeschaltet ist.
+     */
+    boolean isEnabled();
+
+    /**
+     * Setzt die Rangliste zur&uuml;ck.
+     */
+    void reset();
+
+}
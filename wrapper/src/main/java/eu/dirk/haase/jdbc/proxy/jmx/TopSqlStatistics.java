@@ -0,0 +1,40 @@
+package eu.dirk.haase.jdbc.proxy.jmx;
+
+import eu.dirk.haase.jdbc.proxy.metrics.SqlStatistics;
+import eu.dirk.haase.jdbc.proxy.metrics.TopSqlTracker;
+
+import java.util.List;
+
+/**
+ * Implementation des {@link TopSqlMXBean}.
+ */
+final class TopSqlStatistics implements TopSqlMXBean {
+
+    private static final int LIMIT = 20;
+
+    @Override
+    public List<SqlStatistics> getTopByCount() {
+        return TopSqlTracker.top(LIMIT, SqlStatistics.BY_COUNT);
+    }
+
+    @Override
+    public List<SqlStatistics> getTopByP99() {
+        return TopSqlTracker.top(LIMIT, SqlStatistics.BY_P99);
+    }
+
+    @Override
+    public List<SqlStatistics> getTopByTotalTime() {
+        return TopSqlTracker.top(LIMIT, SqlStatistics.BY_TOTAL_TIME);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return TopSqlTracker.isEnabled();
+    }
+
+    @Override
+    public void reset() {
+        TopSqlTracker.reset();
+    }
+
+}
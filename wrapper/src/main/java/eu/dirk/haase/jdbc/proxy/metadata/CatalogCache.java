@@ -0,0 +1,201 @@
+package eu.dirk.haase.jdbc.proxy.metadata;
+
+import eu.dirk.haase.jdbc.proxy.AbstractConnectionProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractDataSourceProxy;
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnarTable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Cache der Katalog-Abfragen von {@link java.sql.DatabaseMetaData} (zum
+ * Beispiel {@code getTables}, {@code getColumns} oder {@code getPrimaryKeys}).
+ * <p>
+ * Werkzeuge wie eine Schema-Validierung stellen diese Abfragen oft
+ * wiederholt. Das Ergebnis einer Abfrage wird daher einmalig vollst&auml;ndig
+ * gelesen (als {@link ColumnarTable}) und f&uuml;r die Dauer der
+ * Time-To-Live (TTL) wiederverwendet. Jeder Treffer liefert eine eigene Sicht
+ * mit eigenem Cursor auf die gemeinsamen Zeilen. Der Speicher eines
+ * verdr&auml;ngten Eintrags wird freigegeben, sobald auch das letzte seiner
+ * ResultSets geschlossen ist.
+ * <p>
+ * Jedes DataSource-Proxy-Objekt besitzt einen eigenen Cache, den sich alle
+ * Connections dieser DataSource teilen. Die TTL ist mit der System-Property
+ * {@code eu.dirk.haase.jdbc.proxy.catalog.ttl} (in Millisekunden, Standard
+ * {@code 60000}) einstellbar, der Wert {@code 0} schaltet den Cache ab.
+ * Nach einer &Auml;nderung des Schemas (DDL) sollte der Cache mit
+ * {@link #invalidate()} geleert werden.
+ */
+public final class CatalogCache {
+
+    /**
+     * System-Property mit der die Time-To-Live in Millisekunden eingestellt
+     * werden kann.
+     */
+    public static final String PROPERTY = "eu.dirk.haase.jdbc.proxy.catalog.ttl";
+
+    private static final int MAX_SIZE = 1024;
+    private static final long DEFAULT_TTL_MILLIS = Long.getLong(PROPERTY, 60_000L);
+
+    private final Map<List<Object>, Entry> cacheMap;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private volatile long ttlNanos;
+
+    /**
+     * Erzeugt einen leeren Cache mit der Standard-TTL.
+     */
+    public CatalogCache() {
+        this.cacheMap = new ConcurrentHashMap<>();
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Liefert den Cache der DataSource, die die angegebene Connection erzeugt
+     * hat.
+     *
+     * @param connection die Connection, wahrscheinlich ein Proxy-Objekt.
+     * @return der Cache oder {@code null} wenn die Connection nicht von einem
+     * DataSource-Proxy-Objekt erzeugt wurde.
+     */
+    public static CatalogCache of(final Connection connection) {
+        if (connection instanceof AbstractConnectionProxy) {
+            final DataSource dataSource = ((AbstractConnectionProxy) connection).getDataSourceProxy();
+            if (dataSource instanceof AbstractDataSourceProxy) {
+                return ((AbstractDataSourceProxy) dataSource).getCatalogCache();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Liefert das Ergebnis einer Katalog-Abfrage aus dem Cache oder stellt die
+     * Abfrage an den Treiber.
+     *
+     * @param key      der Schl&uuml;ssel der Abfrage (Methoden-Name und alle
+     *                 Argumente, gegebenenfalls auch der aktuelle Katalog und
+     *                 das aktuelle Schema der Connection).
+     * @param supplier stellt die Abfrage an den Treiber.
+     * @return ein ResultSet mit eigenem Cursor auf das (gegebenenfalls
+     * gecachte) Ergebnis.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die Abfrage
+     *                      nicht beantworten kann.
+     */
+    public ResultSet get(final List<Object> key, final MetaDataCache.MetaDataSupplier<ResultSet> supplier) throws SQLException {
+        final long currTtlNanos = this.ttlNanos;
+        if (currTtlNanos <= 0) {
+            return supplier.get();
+        }
+        final long now = System.nanoTime();
+        final Entry cached = cacheMap.get(key);
+        if ((cached != null) && (cached.expiresAtNanos - now > 0)) {
+            // null wenn der Eintrag gleichzeitig verdraengt wurde:
+            final ResultSet view = cached.view();
+            if (view != null) {
+                hitCount.increment();
+                return view;
+            }
+        }
+        missCount.increment();
+        final ColumnarTable table;
+        try (ResultSet resultSet = supplier.get()) {
+            table = ColumnarTable.materialize(resultSet);
+        }
+        if (cacheMap.size() >= MAX_SIZE) {
+            evictExpired(now);
+        }
+        final Entry entry = new Entry(table, now + currTtlNanos);
+        // Vor dem Einfuegen, denn der Eintrag kann sofort wieder verdraengt
+        // (und seine Tabelle freigegeben) werden:
+        final ResultSet view = table.newResultSet();
+        final Entry replaced = cacheMap.put(key, entry);
+        if (replaced != null) {
+            replaced.table.close();
+        }
+        return view;
+    }
+
+    private void evictExpired(final long now) {
+        removeIf((e) -> e.expiresAtNanos - now <= 0);
+        if (cacheMap.size() >= MAX_SIZE) {
+            removeIf((e) -> true);
+        }
+    }
+
+    private void removeIf(final Predicate<Entry> predicate) {
+        final Iterator<Entry> entryIterator = cacheMap.values().iterator();
+        while (entryIterator.hasNext()) {
+            final Entry entry = entryIterator.next();
+            if (predicate.test(entry)) {
+                entryIterator.remove();
+                // Geoeffnete ResultSets bleiben lesbar:
+                entry.table.close();
+            }
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der Treffer.
+     *
+     * @return die Anzahl der Treffer.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Liefert die Anzahl der Fehlversuche (bei denen der Treiber gefragt wurde).
+     *
+     * @return die Anzahl der Fehlversuche.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Verwirft alle Eintr&auml;ge des Caches.
+     */
+    public void invalidate() {
+        removeIf((e) -> true);
+    }
+
+    /**
+     * Setzt die Time-To-Live der Eintr&auml;ge. Der Wert {@code 0} schaltet den
+     * Cache ab.
+     *
+     * @param ttl  die Time-To-Live.
+     * @param unit die Einheit der Time-To-Live.
+     */
+    public void setTimeToLive(final long ttl, final TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+        invalidate();
+    }
+
+    private static final class Entry {
+
+        final long expiresAtNanos;
+        final ColumnarTable table;
+
+        Entry(final ColumnarTable table, final long expiresAtNanos) {
+            this.table = table;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        ResultSet view() {
+            return table.newResultSetIfOpen(null);
+        }
+
+    }
+
+}
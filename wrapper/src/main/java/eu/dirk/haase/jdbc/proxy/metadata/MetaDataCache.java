@@ -0,0 +1,255 @@
+package eu.dirk.haase.jdbc.proxy.metadata;
+
+import eu.dirk.haase.jdbc.proxy.AbstractCallableStatementProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractConnectionProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractDataSourceProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractPreparedStatementProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractStatementProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache der unver&auml;nderlichen {@link ResultSetMetaData} und
+ * {@link ParameterMetaData} pro SQL-Anweisung.
+ * <p>
+ * Jedes DataSource-Proxy-Objekt besitzt einen eigenen Cache, den sich alle
+ * Connections dieser DataSource teilen. Bei einem Treffer wird der Treiber
+ * nicht mehr gefragt (bei Oracle spart das unter Umst&auml;nden einen
+ * zus&auml;tzlichen Describe-Roundtrip), sondern es wird ein zuvor erstellter
+ * {@link ResultSetMetaDataSnapshot} beziehungsweise
+ * {@link ParameterMetaDataSnapshot} geliefert.
+ * <p>
+ * Der Cache ist direkt adressiert (wie bei {@link eu.dirk.haase.jdbc.proxy.resultset.ColumnLabelCache}):
+ * ein Array fester Gr&ouml;&szlig;e, dessen Index aus dem Hash der SQL-Anweisung
+ * gebildet wird. Kollisionen verdr&auml;ngen einfach den vorherigen Eintrag, der
+ * Speicherbedarf ist damit begrenzt.
+ * <p>
+ * Die {@link ResultSetMetaData} eines ausgef&uuml;hrten ResultSets werden
+ * gegen die Metadaten des Treibers gepr&uuml;ft (siehe
+ * {@link #resultSetMetaData(String, ResultSetMetaData)}): &auml;ndert sich die
+ * Struktur einer Tabelle (DDL), dann wird der Eintrag ersetzt. Bis dahin
+ * liefert {@link java.sql.PreparedStatement#getMetaData()} unter
+ * Umst&auml;nden noch die alten Metadaten; mit {@link #clear()} kann der Cache
+ * auch vollst&auml;ndig geleert werden. Mit der System-Property
+ * {@code eu.dirk.haase.jdbc.proxy.metadata.cache=false} wird der Cache
+ * abgeschaltet.
+ */
+public final class MetaDataCache {
+
+    /**
+     * System-Property mit der der Cache abgeschaltet werden kann.
+     */
+    public static final String PROPERTY = "eu.dirk.haase.jdbc.proxy.metadata.cache";
+
+    private static final int CACHE_SIZE = 256;
+    private static final boolean isEnabled = !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    private final AtomicReferenceArray<Entry> cacheArray;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+
+    /**
+     * Erzeugt einen leeren Cache.
+     */
+    public MetaDataCache() {
+        this.cacheArray = new AtomicReferenceArray<>(CACHE_SIZE);
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+    }
+
+    private static int cacheIndex(final String sql) {
+        final int h = sql.hashCode();
+        return (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+    }
+
+    /**
+     * Liefert den Cache der DataSource, die die angegebene Connection erzeugt
+     * hat.
+     *
+     * @param connection die Connection, wahrscheinlich ein Proxy-Objekt.
+     * @return der Cache oder {@code null} wenn die Connection nicht von einem
+     * DataSource-Proxy-Objekt erzeugt wurde oder der Cache abgeschaltet ist.
+     */
+    public static MetaDataCache of(final Connection connection) {
+        if (isEnabled && (connection instanceof AbstractConnectionProxy)) {
+            final DataSource dataSource = ((AbstractConnectionProxy) connection).getDataSourceProxy();
+            if (dataSource instanceof AbstractDataSourceProxy) {
+                return ((AbstractDataSourceProxy) dataSource).getMetaDataCache();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Liefert den Cache der DataSource, deren Connection das angegebene
+     * Statement erzeugt hat.
+     *
+     * @param statement das Statement, wahrscheinlich ein Proxy-Objekt.
+     * @return der Cache oder {@code null} wenn das Statement nicht von einem
+     * Connection-Proxy-Objekt erzeugt wurde oder der Cache abgeschaltet ist.
+     */
+    public static MetaDataCache of(final Statement statement) {
+        if (statement instanceof AbstractPreparedStatementProxy) {
+            return of(((AbstractPreparedStatementProxy) statement).getConnectionProxy());
+        } else if (statement instanceof AbstractCallableStatementProxy) {
+            return of(((AbstractCallableStatementProxy) statement).getConnectionProxy());
+        } else if (statement instanceof AbstractStatementProxy) {
+            return of(((AbstractStatementProxy) statement).getConnectionProxy());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Verwirft alle Eintr&auml;ge des Caches.
+     */
+    public void clear() {
+        for (int i = 0; CACHE_SIZE > i; ++i) {
+            cacheArray.set(i, null);
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der Treffer.
+     *
+     * @return die Anzahl der Treffer.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Liefert die Anzahl der Fehlversuche (bei denen der Treiber gefragt wurde).
+     *
+     * @return die Anzahl der Fehlversuche.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Liefert die {@link ParameterMetaData} einer SQL-Anweisung aus dem Cache
+     * oder fragt den Treiber.
+     *
+     * @param sql      die SQL-Anweisung.
+     * @param supplier fragt den Treiber nach den {@link ParameterMetaData}.
+     * @return die {@link ParameterMetaData} (gegebenenfalls aus dem Cache).
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die
+     *                      {@link ParameterMetaData} nicht liefern kann.
+     */
+    public ParameterMetaData parameterMetaData(final String sql, final MetaDataSupplier<ParameterMetaData> supplier) throws SQLException {
+        final int index = cacheIndex(sql);
+        final Entry cached = cacheArray.get(index);
+        if ((cached != null) && (cached.parameterMetaData != null) && sql.equals(cached.sql)) {
+            hitCount.increment();
+            return cached.parameterMetaData;
+        }
+        missCount.increment();
+        final ParameterMetaData parameterMetaData = supplier.get();
+        final ParameterMetaDataSnapshot snapshot = ParameterMetaDataSnapshot.of(parameterMetaData);
+        if (snapshot == null) {
+            return parameterMetaData;
+        }
+        final Entry current = cacheArray.get(index);
+        final ResultSetMetaDataSnapshot resultSetMetaData = ((current != null) && sql.equals(current.sql) ? current.resultSetMetaData : null);
+        cacheArray.set(index, new Entry(sql, resultSetMetaData, snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Liefert die {@link ResultSetMetaData} einer SQL-Anweisung aus dem Cache
+     * oder fragt den Treiber.
+     *
+     * @param sql      die SQL-Anweisung.
+     * @param supplier fragt den Treiber nach den {@link ResultSetMetaData}.
+     * @return die {@link ResultSetMetaData} (gegebenenfalls aus dem Cache) oder
+     * {@code null} wenn der Treiber {@code null} liefert.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die
+     *                      {@link ResultSetMetaData} nicht liefern kann.
+     */
+    public ResultSetMetaData resultSetMetaData(final String sql, final MetaDataSupplier<ResultSetMetaData> supplier) throws SQLException {
+        final int index = cacheIndex(sql);
+        final Entry cached = cacheArray.get(index);
+        if ((cached != null) && (cached.resultSetMetaData != null) && sql.equals(cached.sql)) {
+            hitCount.increment();
+            return cached.resultSetMetaData;
+        }
+        missCount.increment();
+        final ResultSetMetaData resultSetMetaData = supplier.get();
+        final ResultSetMetaDataSnapshot snapshot = ResultSetMetaDataSnapshot.of(resultSetMetaData);
+        if (snapshot == null) {
+            return resultSetMetaData;
+        }
+        final Entry current = cacheArray.get(index);
+        final ParameterMetaDataSnapshot parameterMetaData = ((current != null) && sql.equals(current.sql) ? current.parameterMetaData : null);
+        cacheArray.set(index, new Entry(sql, snapshot, parameterMetaData));
+        return snapshot;
+    }
+
+    /**
+     * Liefert die {@link ResultSetMetaData} eines ausgef&uuml;hrten ResultSets
+     * aus dem Cache, sofern die gecachten Metadaten die gleiche Form haben wie
+     * die Metadaten des Treibers (siehe {@link ResultSetMetaDataSnapshot#hasSameShape(ResultSetMetaData)}).
+     * Andernfalls (zum Beispiel nach einer DDL) wird der Eintrag ersetzt.
+     *
+     * @param sql            die SQL-Anweisung.
+     * @param driverMetaData die Metadaten des Treibers.
+     * @return die {@link ResultSetMetaData} (gegebenenfalls aus dem Cache) oder
+     * {@code null} wenn {@code driverMetaData} {@code null} ist.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die
+     *                      {@link ResultSetMetaData} nicht liefern kann.
+     */
+    public ResultSetMetaData resultSetMetaData(final String sql, final ResultSetMetaData driverMetaData) throws SQLException {
+        final int index = cacheIndex(sql);
+        final Entry cached = cacheArray.get(index);
+        final boolean isSameSql = (cached != null) && sql.equals(cached.sql);
+        if (isSameSql && (cached.resultSetMetaData != null) && cached.resultSetMetaData.hasSameShape(driverMetaData)) {
+            hitCount.increment();
+            return cached.resultSetMetaData;
+        }
+        missCount.increment();
+        final ResultSetMetaDataSnapshot snapshot = ResultSetMetaDataSnapshot.of(driverMetaData);
+        if (snapshot == null) {
+            return driverMetaData;
+        }
+        // Nach einer DDL (abweichende Form) werden auch
+        // die ParameterMetaData verworfen:
+        final ParameterMetaDataSnapshot parameterMetaData = (isSameSql && (cached.resultSetMetaData == null) ? cached.parameterMetaData : null);
+        cacheArray.set(index, new Entry(sql, snapshot, parameterMetaData));
+        return snapshot;
+    }
+
+    /**
+     * Fragt den Treiber nach den Metadaten.
+     *
+     * @param <T> der Typ der Metadaten.
+     */
+    @FunctionalInterface
+    public interface MetaDataSupplier<T> {
+
+        T get() throws SQLException;
+
+    }
+
+    private static final class Entry {
+
+        final ParameterMetaDataSnapshot parameterMetaData;
+        final ResultSetMetaDataSnapshot resultSetMetaData;
+        final String sql;
+
+        Entry(final String sql, final ResultSetMetaDataSnapshot resultSetMetaData, final ParameterMetaDataSnapshot parameterMetaData) {
+            this.sql = sql;
+            this.resultSetMetaData = resultSetMetaData;
+            this.parameterMetaData = parameterMetaData;
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package eu.dirk.haase.jdbc.proxy.metadata;
+
+import java.sql.ParameterMetaData;
+import java.sql.SQLException;
+
+/**
+ * Eine unver&auml;nderliche Kopie von {@link ParameterMetaData}.
+ * <p>
+ * Alle Antworten werden beim Erzeugen einmalig vom Treiber gelesen, danach
+ * wird der Treiber nicht mehr gefragt. Die Kopie kann daher unabh&auml;ngig
+ * vom Statement (und auch &uuml;ber Connections hinweg) verwendet werden.
+ */
+public final class ParameterMetaDataSnapshot implements ParameterMetaData {
+
+    private final boolean[] signed;
+    private final int[] nullable;
+    private final int parameterCount;
+    private final String[] parameterClassName;
+    private final int[] parameterMode;
+    private final int[] parameterType;
+    private final String[] parameterTypeName;
+    private final int[] precision;
+    private final int[] scale;
+
+    private ParameterMetaDataSnapshot(final ParameterMetaData metaData) throws SQLException {
+        this.parameterCount = metaData.getParameterCount();
+        this.signed = new boolean[parameterCount];
+        this.nullable = new int[parameterCount];
+        this.parameterClassName = new String[parameterCount];
+        this.parameterMode = new int[parameterCount];
+        this.parameterType = new int[parameterCount];
+        this.parameterTypeName = new String[parameterCount];
+        this.precision = new int[parameterCount];
+        this.scale = new int[parameterCount];
+        for (int i = 0; parameterCount > i; ++i) {
+            final int param = i + 1;
+            signed[i] = metaData.isSigned(param);
+            nullable[i] = metaData.isNullable(param);
+            parameterClassName[i] = metaData.getParameterClassName(param);
+            parameterMode[i] = metaData.getParameterMode(param);
+            parameterType[i] = metaData.getParameterType(param);
+            parameterTypeName[i] = metaData.getParameterTypeName(param);
+            precision[i] = metaData.getPrecision(param);
+            scale[i] = metaData.getScale(param);
+        }
+    }
+
+    /**
+     * Erzeugt eine unver&auml;nderliche Kopie.
+     *
+     * @param metaData die Metadaten des Treibers.
+     * @return die Kopie oder {@code null} wenn keine Metadaten vorhanden sind
+     * oder der Treiber nicht alle Antworten liefern kann.
+     */
+    public static ParameterMetaDataSnapshot of(final ParameterMetaData metaData) {
+        if (metaData == null) {
+            return null;
+        } else if (metaData instanceof ParameterMetaDataSnapshot) {
+            return (ParameterMetaDataSnapshot) metaData;
+        }
+        try {
+            return new ParameterMetaDataSnapshot(metaData);
+        } catch (SQLException | RuntimeException ex) {
+            // Der Treiber unterstuetzt nicht
+            // alle Methoden: nicht cachen
+            return null;
+        }
+    }
+
+    private int index(final int param) throws SQLException {
+        if ((param < 1) || (param > parameterCount)) {
+            throw new SQLException("Invalid parameter index: " + param, "07009");
+        }
+        return param - 1;
+    }
+
+    @Override
+    public String getParameterClassName(final int param) throws SQLException {
+        return parameterClassName[index(param)];
+    }
+
+    @Override
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    @Override
+    public int getParameterMode(final int param) throws SQLException {
+        return parameterMode[index(param)];
+    }
+
+    @Override
+    public int getParameterType(final int param) throws SQLException {
+        return parameterType[index(param)];
+    }
+
+    @Override
+    public String getParameterTypeName(final int param) throws SQLException {
+        return parameterTypeName[index(param)];
+    }
+
+    @Override
+    public int getPrecision(final int param) throws SQLException {
+        return precision[index(param)];
+    }
+
+    @Override
+    public int getScale(final int param) throws SQLException {
+        return scale[index(param)];
+    }
+
+    @Override
+    public int isNullable(final int param) throws SQLException {
+        return nullable[index(param)];
+    }
+
+    @Override
+    public boolean isSigned(final int param) throws SQLException {
+        return signed[index(param)];
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface);
+    }
+
+}
@@ -0,0 +1,263 @@
+package eu.dirk.haase.jdbc.proxy.metadata;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Eine unver&auml;nderliche Kopie von {@link ResultSetMetaData}.
+ * <p>
+ * Alle Antworten werden beim Erzeugen einmalig vom Treiber gelesen, danach
+ * wird der Treiber nicht mehr gefragt. Die Kopie kann daher unabh&auml;ngig
+ * vom ResultSet oder Statement (und auch &uuml;ber Connections hinweg)
+ * verwendet werden.
+ */
+public final class ResultSetMetaDataSnapshot implements ResultSetMetaData {
+
+    private static final int AUTO_INCREMENT = 1;
+    private static final int CASE_SENSITIVE = 1 << 1;
+    private static final int SEARCHABLE = 1 << 2;
+    private static final int CURRENCY = 1 << 3;
+    private static final int SIGNED = 1 << 4;
+    private static final int READ_ONLY = 1 << 5;
+    private static final int WRITABLE = 1 << 6;
+    private static final int DEFINITELY_WRITABLE = 1 << 7;
+
+    private final String[] catalogName;
+    private final String[] columnClassName;
+    private final int columnCount;
+    private final int[] columnDisplaySize;
+    private final String[] columnLabel;
+    private final String[] columnName;
+    private final int[] columnType;
+    private final String[] columnTypeName;
+    private final int[] flags;
+    private final int[] nullable;
+    private final int[] precision;
+    private final int[] scale;
+    private final String[] schemaName;
+    private final String[] tableName;
+
+    private ResultSetMetaDataSnapshot(final ResultSetMetaData metaData) throws SQLException {
+        this.columnCount = metaData.getColumnCount();
+        this.catalogName = new String[columnCount];
+        this.columnClassName = new String[columnCount];
+        this.columnDisplaySize = new int[columnCount];
+        this.columnLabel = new String[columnCount];
+        this.columnName = new String[columnCount];
+        this.columnType = new int[columnCount];
+        this.columnTypeName = new String[columnCount];
+        this.flags = new int[columnCount];
+        this.nullable = new int[columnCount];
+        this.precision = new int[columnCount];
+        this.scale = new int[columnCount];
+        this.schemaName = new String[columnCount];
+        this.tableName = new String[columnCount];
+        for (int i = 0; columnCount > i; ++i) {
+            final int column = i + 1;
+            catalogName[i] = metaData.getCatalogName(column);
+            columnClassName[i] = metaData.getColumnClassName(column);
+            columnDisplaySize[i] = metaData.getColumnDisplaySize(column);
+            columnLabel[i] = metaData.getColumnLabel(column);
+            columnName[i] = metaData.getColumnName(column);
+            columnType[i] = metaData.getColumnType(column);
+            columnTypeName[i] = metaData.getColumnTypeName(column);
+            nullable[i] = metaData.isNullable(column);
+            precision[i] = metaData.getPrecision(column);
+            scale[i] = metaData.getScale(column);
+            schemaName[i] = metaData.getSchemaName(column);
+            tableName[i] = metaData.getTableName(column);
+            int flag = 0;
+            flag |= (metaData.isAutoIncrement(column) ? AUTO_INCREMENT : 0);
+            flag |= (metaData.isCaseSensitive(column) ? CASE_SENSITIVE : 0);
+            flag |= (metaData.isSearchable(column) ? SEARCHABLE : 0);
+            flag |= (metaData.isCurrency(column) ? CURRENCY : 0);
+            flag |= (metaData.isSigned(column) ? SIGNED : 0);
+            flag |= (metaData.isReadOnly(column) ? READ_ONLY : 0);
+            flag |= (metaData.isWritable(column) ? WRITABLE : 0);
+            flag |= (metaData.isDefinitelyWritable(column) ? DEFINITELY_WRITABLE : 0);
+            flags[i] = flag;
+        }
+    }
+
+    /**
+     * Erzeugt eine unver&auml;nderliche Kopie.
+     *
+     * @param metaData die Metadaten des Treibers.
+     * @return die Kopie oder {@code null} wenn keine Metadaten vorhanden sind
+     * oder der Treiber nicht alle Antworten liefern kann.
+     */
+    public static ResultSetMetaDataSnapshot of(final ResultSetMetaData metaData) {
+        if (metaData == null) {
+            return null;
+        } else if (metaData instanceof ResultSetMetaDataSnapshot) {
+            return (ResultSetMetaDataSnapshot) metaData;
+        }
+        try {
+            return new ResultSetMetaDataSnapshot(metaData);
+        } catch (SQLException | RuntimeException ex) {
+            // Der Treiber unterstuetzt nicht
+            // alle Methoden: nicht cachen
+            return null;
+        }
+    }
+
+    /**
+     * Pr&uuml;ft ob die angegebenen Metadaten die gleiche Form haben wie diese
+     * Kopie: gleiche Anzahl Spalten und pro Spalte gleiches Label, gleicher
+     * Typ, gleiche Pr&auml;zision und gleiche Skalierung.
+     *
+     * @param metaData die Metadaten des Treibers.
+     * @return {@code true} wenn die Form gleich ist.
+     * @throws SQLException wird ausgel&ouml;st wenn der Treiber die Metadaten
+     *                      nicht liefern kann.
+     */
+    public boolean hasSameShape(final ResultSetMetaData metaData) throws SQLException {
+        if (metaData == this) {
+            return true;
+        } else if ((metaData == null) || (metaData.getColumnCount() != columnCount)) {
+            return false;
+        }
+        for (int i = 0; columnCount > i; ++i) {
+            final int column = i + 1;
+            if (!Objects.equals(columnLabel[i], metaData.getColumnLabel(column))
+                    || (columnType[i] != metaData.getColumnType(column))
+                    || !Objects.equals(columnTypeName[i], metaData.getColumnTypeName(column))
+                    || (precision[i] != metaData.getPrecision(column))
+                    || (scale[i] != metaData.getScale(column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int index(final int column) throws SQLException {
+        if ((column < 1) || (column > columnCount)) {
+            throw new SQLException("Invalid column index: " + column, "07009");
+        }
+        return column - 1;
+    }
+
+    private boolean isFlag(final int column, final int flag) throws SQLException {
+        return (flags[index(column)] & flag) != 0;
+    }
+
+    @Override
+    public String getCatalogName(final int column) throws SQLException {
+        return catalogName[index(column)];
+    }
+
+    @Override
+    public String getColumnClassName(final int column) throws SQLException {
+        return columnClassName[index(column)];
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public int getColumnDisplaySize(final int column) throws SQLException {
+        return columnDisplaySize[index(column)];
+    }
+
+    @Override
+    public String getColumnLabel(final int column) throws SQLException {
+        return columnLabel[index(column)];
+    }
+
+    @Override
+    public String getColumnName(final int column) throws SQLException {
+        return columnName[index(column)];
+    }
+
+    @Override
+    public int getColumnType(final int column) throws SQLException {
+        return columnType[index(column)];
+    }
+
+    @Override
+    public String getColumnTypeName(final int column) throws SQLException {
+        return columnTypeName[index(column)];
+    }
+
+    @Override
+    public int getPrecision(final int column) throws SQLException {
+        return precision[index(column)];
+    }
+
+    @Override
+    public int getScale(final int column) throws SQLException {
+        return scale[index(column)];
+    }
+
+    @Override
+    public String getSchemaName(final int column) throws SQLException {
+        return schemaName[index(column)];
+    }
+
+    @Override
+    public String getTableName(final int column) throws SQLException {
+        return tableName[index(column)];
+    }
+
+    @Override
+    public boolean isAutoIncrement(final int column) throws SQLException {
+        return isFlag(column, AUTO_INCREMENT);
+    }
+
+    @Override
+    public boolean isCaseSensitive(final int column) throws SQLException {
+        return isFlag(column, CASE_SENSITIVE);
+    }
+
+    @Override
+    public boolean isCurrency(final int column) throws SQLException {
+        return isFlag(column, CURRENCY);
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(final int column) throws SQLException {
+        return isFlag(column, DEFINITELY_WRITABLE);
+    }
+
+    @Override
+    public int isNullable(final int column) throws SQLException {
+        return nullable[index(column)];
+    }
+
+    @Override
+    public boolean isReadOnly(final int column) throws SQLException {
+        return isFlag(column, READ_ONLY);
+    }
+
+    @Override
+    public boolean isSearchable(final int column) throws SQLException {
+        return isFlag(column, SEARCHABLE);
+    }
+
+    @Override
+    public boolean isSigned(final int column) throws SQLException {
+        return isFlag(column, SIGNED);
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public boolean isWritable(final int column) throws SQLException {
+        return isFlag(column, WRITABLE);
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface);
+    }
+
+}
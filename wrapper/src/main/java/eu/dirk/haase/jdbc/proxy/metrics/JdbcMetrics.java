@@ -0,0 +1,127 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.InterceptorProvider;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latenz-Metriken f&uuml;r alle Methoden der generierten JDBC-Wrapper Klassen
+ * (zum Beispiel {@code Statement.executeQuery}, {@code Connection.commit} oder
+ * {@code DataSource.getConnection}).
+ * <p>
+ * Die Metriken werden &uuml;ber einen {@link Interceptor} erfasst, der beim
+ * Generieren in die Wrapper-Klassen eingewoben wird. Sie m&uuml;ssen daher
+ * eingeschaltet werden <b>bevor</b> die Wrapper-Klassen generiert werden,
+ * entweder mit der System-Property
+ * <pre><code>
+ * -Deu.dirk.haase.jdbc.proxy.metrics=true
+ * </code></pre>
+ * oder programmatisch mit {@link #enable()}. Danach erfasst jede DataSource die
+ * von der {@code DataSourceWrapperFactory} erzeugt wird die Latenzen ihrer
+ * Connections, Statements und ResultSets.
+ * <p>
+ * Pro Methode wird ein {@link LatencyHistogram} gef&uuml;hrt. &Uuml;berladene
+ * Methoden werden in der Momentaufnahme unter ihrem gemeinsamen Namen
+ * zusammengefasst.
+ */
+public final class JdbcMetrics {
+
+    /**
+     * Name der System-Property mit der die Metriken eingeschaltet werden.
+     */
+    public static final String ENABLED_PROPERTY = "eu.dirk.haase.jdbc.proxy.metrics";
+
+    private static final LatencyInterceptor latencyInterceptor = new LatencyInterceptor();
+
+    private JdbcMetrics() {
+    }
+
+    /**
+     * Schaltet die Metriken f&uuml;r alle danach generierten Wrapper-Klassen aus.
+     * <p>
+     * Bereits generierte Wrapper-Klassen erfassen weiterhin ihre Latenzen.
+     */
+    public static void disable() {
+        Interceptors.remove(latencyInterceptor);
+    }
+
+    /**
+     * Schaltet die Metriken f&uuml;r alle danach generierten Wrapper-Klassen ein.
+     */
+    public static void enable() {
+        Interceptors.add(latencyInterceptor);
+    }
+
+    /**
+     * Liefert den {@link Interceptor} der die Latenzen erfasst.
+     *
+     * @return der Interceptor.
+     */
+    public static Interceptor interceptor() {
+        return latencyInterceptor;
+    }
+
+    /**
+     * Liefert {@code true} wenn die Metriken f&uuml;r neu generierte
+     * Wrapper-Klassen eingeschaltet sind.
+     *
+     * @return {@code true} wenn die Metriken eingeschaltet sind.
+     */
+    public static boolean isEnabled() {
+        return Interceptors.contains(latencyInterceptor);
+    }
+
+    /**
+     * Setzt alle Histogramme zur&uuml;ck.
+     */
+    public static void reset() {
+        latencyInterceptor.reset();
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Latenzen aller bisher aufgerufenen Methoden.
+     *
+     * @return eine nach Methoden-Namen (zum Beispiel {@code "Connection.commit"})
+     * sortierte Map mit den Momentaufnahmen.
+     */
+    public static Map<String, LatencySnapshot> snapshot() {
+        final Map<String, LatencySnapshot> snapshotMap = new TreeMap<>();
+        final int methodCount = Interceptors.methodCount();
+        for (int methodId = 0; methodCount > methodId; ++methodId) {
+            final LatencyHistogram histogram = latencyInterceptor.getHistogram(methodId);
+            if (histogram != null) {
+                snapshotMap.merge(Interceptors.methodName(methodId), histogram.snapshot(), LatencySnapshot::merge);
+            }
+        }
+        return Collections.unmodifiableMap(snapshotMap);
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Latenzen einer Methode.
+     *
+     * @param methodName der Name der Methode, zum Beispiel {@code "Statement.executeQuery"}.
+     * @return die Momentaufnahme oder {@code null} wenn die Methode bisher
+     * nicht aufgerufen wurde.
+     */
+    public static LatencySnapshot snapshot(final String methodName) {
+        return snapshot().get(methodName);
+    }
+
+    /**
+     * F&uuml;gt den Interceptor beim Start hinzu, wenn die System-Property
+     * {@value #ENABLED_PROPERTY} gesetzt ist (siehe {@link InterceptorProvider}).
+     */
+    public static final class Provider implements InterceptorProvider {
+
+        @Override
+        public Interceptor startupInterceptor() {
+            return (Boolean.getBoolean(ENABLED_PROPERTY) ? interceptor() : null);
+        }
+
+    }
+
+}
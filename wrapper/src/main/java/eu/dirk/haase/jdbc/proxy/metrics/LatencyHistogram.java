@@ -0,0 +1,186 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-lineares Histogramm f&uuml;r Latenzen in Nanosekunden mit fester
+ * Speichergr&ouml;&szlig;e, das ohne Sperren nebenl&auml;ufig beschrieben werden kann.
+ * <p>
+ * Jede Zweierpotenz wird in {@value #SUB_BUCKET_COUNT} lineare Unter-Buckets
+ * aufgeteilt, daher betr&auml;gt der relative Fehler eines Wertes h&ouml;chstens
+ * 1/{@value #SUB_BUCKET_COUNT}. Werte oberhalb von 2<sup>{@value #MAX_EXPONENT}</sup>
+ * Nanosekunden (ca. 68 Sekunden) werden im letzten Bucket gez&auml;hlt.
+ * <p>
+ * Um Konflikte zwischen Threads zu vermeiden, besteht das Histogramm aus mehreren
+ * Streifen (Stripes). Jeder Thread schreibt, abh&auml;ngig von seiner Thread-Id,
+ * in einen eigenen Streifen. Erst beim {@link #snapshot()} werden alle Streifen
+ * zusammengef&uuml;hrt.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 36;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    // Position der Zusatzwerte hinter den Buckets in jedem Streifen:
+    private static final int COUNT = BUCKET_COUNT;
+    private static final int SUM = BUCKET_COUNT + 1;
+    private static final int MIN = BUCKET_COUNT + 2;
+    private static final int MAX = BUCKET_COUNT + 3;
+    private static final int STRIPE_LENGTH = BUCKET_COUNT + 4;
+
+    private final int stripeMask;
+    private final AtomicLongArray[] stripeArray;
+
+    /**
+     * Erzeugt ein Histogramm mit so vielen Streifen wie Prozessoren (maximal 8).
+     */
+    public LatencyHistogram() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Erzeugt ein Histogramm.
+     *
+     * @param stripeCount die gew&uuml;nschte Anzahl der Streifen; wird auf die
+     *                    n&auml;chste Zweierpotenz (maximal 8) aufgerundet.
+     */
+    public LatencyHistogram(final int stripeCount) {
+        int stripes = 1;
+        while ((stripes < stripeCount) && (stripes < 8)) {
+            stripes <<= 1;
+        }
+        this.stripeMask = stripes - 1;
+        this.stripeArray = new AtomicLongArray[stripes];
+        for (int i = 0; stripes > i; ++i) {
+            this.stripeArray[i] = newStripe();
+        }
+    }
+
+    /**
+     * Liefert den Index des Buckets f&uuml;r einen Wert.
+     *
+     * @param value der Wert in Nanosekunden.
+     * @return der Index des Buckets.
+     */
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (value < 0 ? 0 : (int) value);
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Liefert den kleinsten Wert der in einem Bucket gez&auml;hlt wird.
+     *
+     * @param bucketIndex der Index des Buckets.
+     * @return der kleinste Wert in Nanosekunden.
+     */
+    static long bucketLowerBound(final int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        final int shift = (bucketIndex >>> SUB_BUCKET_BITS) - 1;
+        final long subBucket = bucketIndex & (SUB_BUCKET_COUNT - 1);
+        return (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+
+    /**
+     * Liefert den gr&ouml;&szlig;ten Wert der in einem Bucket gez&auml;hlt wird.
+     *
+     * @param bucketIndex der Index des Buckets.
+     * @return der gr&ouml;&szlig;te Wert in Nanosekunden.
+     */
+    static long bucketUpperBound(final int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        final int shift = (bucketIndex >>> SUB_BUCKET_BITS) - 1;
+        return bucketLowerBound(bucketIndex) + (1L << shift) - 1;
+    }
+
+    private static AtomicLongArray newStripe() {
+        final AtomicLongArray stripe = new AtomicLongArray(STRIPE_LENGTH);
+        stripe.set(MIN, Long.MAX_VALUE);
+        return stripe;
+    }
+
+    private static void updateMax(final AtomicLongArray stripe, final long value) {
+        long current;
+        while (value > (current = stripe.get(MAX))) {
+            if (stripe.compareAndSet(MAX, current, value)) {
+                return;
+            }
+        }
+    }
+
+    private static void updateMin(final AtomicLongArray stripe, final long value) {
+        long current;
+        while (value < (current = stripe.get(MIN))) {
+            if (stripe.compareAndSet(MIN, current, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Z&auml;hlt einen Wert.
+     *
+     * @param nanos der Wert in Nanosekunden.
+     */
+    public void record(final long nanos) {
+        final long value = (nanos < 0 ? 0 : nanos);
+        final AtomicLongArray stripe = stripeArray[(int) Thread.currentThread().getId() & stripeMask];
+        stripe.incrementAndGet(bucketIndex(value));
+        stripe.incrementAndGet(COUNT);
+        stripe.addAndGet(SUM, value);
+        updateMin(stripe, value);
+        updateMax(stripe, value);
+    }
+
+    /**
+     * Setzt alle Streifen zur&uuml;ck.
+     * <p>
+     * Werte die w&auml;hrend des Zur&uuml;cksetzens gez&auml;hlt werden, k&ouml;nnen
+     * teilweise verloren gehen.
+     */
+    public void reset() {
+        for (int i = 0; stripeArray.length > i; ++i) {
+            stripeArray[i] = newStripe();
+        }
+    }
+
+    /**
+     * Liefert eine Momentaufnahme aller Streifen.
+     * <p>
+     * Die Momentaufnahme ist nicht atomar: Werte die w&auml;hrend der
+     * Momentaufnahme gez&auml;hlt werden, sind eventuell nur teilweise enthalten.
+     *
+     * @return die Momentaufnahme.
+     */
+    public LatencySnapshot snapshot() {
+        final long[] bucketCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (final AtomicLongArray stripe : stripeArray) {
+            for (int i = 0; BUCKET_COUNT > i; ++i) {
+                bucketCounts[i] += stripe.get(i);
+            }
+            count += stripe.get(COUNT);
+            sum += stripe.get(SUM);
+            min = Math.min(min, stripe.get(MIN));
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return new LatencySnapshot(bucketCounts, count, sum, (count == 0 ? 0 : min), max);
+    }
+
+}
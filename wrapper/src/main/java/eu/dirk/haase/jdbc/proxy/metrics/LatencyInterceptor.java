@@ -0,0 +1,106 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link Interceptor} der die Latenz jeder delegierten Methode in einem
+ * {@link LatencyHistogram} pro Methoden-Id z&auml;hlt.
+ * <p>
+ * Die Histogramme werden erst beim ersten Aufruf einer Methode angelegt.
+ * <p>
+ * Reicht das Array f&uuml;r eine Methoden-Id nicht aus, dann wird es
+ * vergr&ouml;&szlig;ert. Dabei wird jeder Eintrag des alten Arrays atomar durch
+ * die Markierung {@link #MOVED} ersetzt, so dass kein Thread danach noch ein
+ * neues Histogramm in das alte Array einsetzen kann. Ein Thread der die
+ * Markierung liest, wiederholt den Zugriff auf dem neuen Array.
+ */
+final class LatencyInterceptor implements Interceptor {
+
+    private static final LatencyHistogram MOVED = new LatencyHistogram();
+
+    private volatile AtomicReferenceArray<LatencyHistogram> histogramArray;
+
+    LatencyInterceptor() {
+        this.histogramArray = new AtomicReferenceArray<>(256);
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result) {
+        histogram(methodId).record(System.nanoTime() - token);
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex) {
+        histogram(methodId).record(System.nanoTime() - token);
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId) {
+        return System.nanoTime();
+    }
+
+    /**
+     * Liefert das Histogramm einer Methode, sofern die Methode bereits
+     * aufgerufen wurde.
+     *
+     * @param methodId die Methoden-Id.
+     * @return das Histogramm oder {@code null}.
+     */
+    LatencyHistogram getHistogram(final int methodId) {
+        AtomicReferenceArray<LatencyHistogram> histograms = this.histogramArray;
+        while (methodId < histograms.length()) {
+            final LatencyHistogram histogram = histograms.get(methodId);
+            if (histogram != MOVED) {
+                return histogram;
+            }
+            histograms = grow(methodId);
+        }
+        return null;
+    }
+
+    private LatencyHistogram histogram(final int methodId) {
+        AtomicReferenceArray<LatencyHistogram> histograms = this.histogramArray;
+        while (true) {
+            if (methodId >= histograms.length()) {
+                histograms = grow(methodId);
+            }
+            LatencyHistogram histogram = histograms.get(methodId);
+            if (histogram == null) {
+                histograms.compareAndSet(methodId, null, new LatencyHistogram());
+                histogram = histograms.get(methodId);
+            }
+            if (histogram != MOVED) {
+                return histogram;
+            }
+            // Das Array wird gerade vergroessert: grow() wartet
+            // bis das neue Array vollstaendig ist
+            histograms = grow(methodId);
+        }
+    }
+
+    private synchronized AtomicReferenceArray<LatencyHistogram> grow(final int methodId) {
+        final AtomicReferenceArray<LatencyHistogram> histograms = this.histogramArray;
+        if (methodId < histograms.length()) {
+            return histograms;
+        }
+        final AtomicReferenceArray<LatencyHistogram> newHistograms = new AtomicReferenceArray<>(Math.max(methodId + 1, histograms.length() * 2));
+        for (int i = 0; histograms.length() > i; ++i) {
+            newHistograms.set(i, histograms.getAndSet(i, MOVED));
+        }
+        this.histogramArray = newHistograms;
+        return newHistograms;
+    }
+
+    synchronized void reset() {
+        final AtomicReferenceArray<LatencyHistogram> histograms = this.histogramArray;
+        for (int i = 0; histograms.length() > i; ++i) {
+            final LatencyHistogram histogram = histograms.get(i);
+            if (histogram != null) {
+                histogram.reset();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+/**
+ * Unver&auml;nderliche Momentaufnahme eines {@link LatencyHistogram}.
+ * <p>
+ * Alle Werte sind in Nanosekunden.
+ */
+public final class LatencySnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long max;
+    private final long min;
+    private final long sum;
+
+    LatencySnapshot(final long[] bucketCounts, final long count, final long sum, final long min, final long max) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return (count == 0 ? 0.0 : (double) sum / count);
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * F&uuml;hrt zwei Momentaufnahmen zusammen.
+     *
+     * @param other die andere Momentaufnahme.
+     * @return die zusammengef&uuml;hrte Momentaufnahme.
+     */
+    LatencySnapshot merge(final LatencySnapshot other) {
+        final long[] mergedCounts = bucketCounts.clone();
+        for (int i = 0; mergedCounts.length > i; ++i) {
+            mergedCounts[i] += other.bucketCounts[i];
+        }
+        final long mergedMin;
+        if (count == 0) {
+            mergedMin = other.min;
+        } else if (other.count == 0) {
+            mergedMin = min;
+        } else {
+            mergedMin = Math.min(min, other.min);
+        }
+        return new LatencySnapshot(mergedCounts, count + other.count, sum + other.sum, mergedMin, Math.max(max, other.max));
+    }
+
+    /**
+     * Liefert das angegebene Perzentil.
+     * <p>
+     * Geliefert wird die obere Grenze des Buckets in dem das Perzentil liegt,
+     * h&ouml;chstens jedoch der gr&ouml;&szlig;te gez&auml;hlte Wert.
+     *
+     * @param percentile das Perzentil zwischen {@code 0.0} und {@code 100.0}.
+     * @return der Wert des Perzentils oder {@code 0} wenn keine Werte gez&auml;hlt wurden.
+     */
+    public long percentile(final double percentile) {
+        if ((percentile < 0.0) || (percentile > 100.0)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil((percentile / 100.0) * count));
+        long cumulated = 0;
+        for (int i = 0; bucketCounts.length > i; ++i) {
+            cumulated += bucketCounts[i];
+            if (cumulated >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{" +
+                "count=" + count +
+                ", min=" + min +
+                ", mean=" + (long) getMean() +
+                ", p50=" + percentile(50.0) +
+                ", p99=" + percentile(99.0) +
+                ", max=" + max +
+                '}';
+    }
+
+}
@@ -0,0 +1,168 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rangliste der teuersten Schl&uuml;ssel (zum Beispiel SQL-Fingerabdr&uuml;cke)
+ * nach ihrer Gesamtzeit mit fester Speichergr&ouml;&szlig;e.
+ * <p>
+ * Implementiert den gewichteten <i>Space-Saving</i> Algorithmus: es werden
+ * h&ouml;chstens {@link #capacity()} Z&auml;hler gef&uuml;hrt. Ist kein Z&auml;hler
+ * mehr frei, dann verdr&auml;ngt ein neuer Schl&uuml;ssel den Z&auml;hler mit der
+ * kleinsten Gesamtzeit und erbt dessen Gesamtzeit als Fehler. Jeder Schl&uuml;ssel
+ * dessen tats&auml;chliche Gesamtzeit gr&ouml;&szlig;er ist als die Summe aller Zeiten
+ * geteilt durch die Anzahl der Z&auml;hler, ist garantiert in der Rangliste enthalten.
+ * <p>
+ * Der Speicherbedarf ist unabh&auml;ngig von der Anzahl der verschiedenen
+ * Schl&uuml;ssel. Um Konflikte zwischen Threads zu vermeiden, sind die Z&auml;hler
+ * anhand des Hash-Codes der Schl&uuml;ssel auf mehrere unabh&auml;ngig gesperrte
+ * Segmente verteilt.
+ */
+public final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final int segmentMask;
+    private final Segment[] segmentArray;
+
+    /**
+     * Erzeugt eine Rangliste.
+     *
+     * @param capacity die maximale Anzahl der Z&auml;hler.
+     */
+    public SpaceSavingSketch(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int segments = 1;
+        while ((segments < 16) && ((segments * 2 * 8) <= capacity)) {
+            segments <<= 1;
+        }
+        this.segmentMask = segments - 1;
+        this.segmentArray = new Segment[segments];
+        final int segmentCapacity = (capacity + segments - 1) / segments;
+        for (int i = 0; segments > i; ++i) {
+            this.segmentArray[i] = new Segment(segmentCapacity);
+        }
+        this.capacity = segmentCapacity * segments;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Liefert die maximale Anzahl der Z&auml;hler.
+     *
+     * @return die maximale Anzahl der Z&auml;hler.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Z&auml;hlt eine Ausf&uuml;hrung.
+     *
+     * @param key   der Schl&uuml;ssel.
+     * @param nanos die Dauer der Ausf&uuml;hrung in Nanosekunden.
+     */
+    public void record(final String key, final long nanos) {
+        segmentArray[spread(key.hashCode()) & segmentMask].record(key, Math.max(0, nanos));
+    }
+
+    /**
+     * Setzt alle Z&auml;hler zur&uuml;ck.
+     */
+    public void reset() {
+        for (final Segment segment : segmentArray) {
+            segment.reset();
+        }
+    }
+
+    /**
+     * Liefert eine Momentaufnahme aller Z&auml;hler (unsortiert).
+     *
+     * @return die Momentaufnahme.
+     */
+    public List<SqlStatistics> snapshot() {
+        final List<SqlStatistics> statisticsList = new ArrayList<>(capacity);
+        for (final Segment segment : segmentArray) {
+            segment.snapshot(statisticsList);
+        }
+        return statisticsList;
+    }
+
+    static final class Counter {
+
+        private final LatencyHistogram histogram = new LatencyHistogram(1);
+        private long errorNanos;
+        private String key;
+        private long totalNanos;
+
+    }
+
+    static final class Segment {
+
+        private final Counter[] counterArray;
+        private final Map<String, Counter> counterMap;
+        private int size;
+
+        Segment(final int capacity) {
+            this.counterArray = new Counter[capacity];
+            for (int i = 0; capacity > i; ++i) {
+                this.counterArray[i] = new Counter();
+            }
+            this.counterMap = new HashMap<>(capacity * 2);
+        }
+
+        private Counter minCounter() {
+            Counter minCounter = counterArray[0];
+            for (int i = 1; size > i; ++i) {
+                if (counterArray[i].totalNanos < minCounter.totalNanos) {
+                    minCounter = counterArray[i];
+                }
+            }
+            return minCounter;
+        }
+
+        synchronized void record(final String key, final long nanos) {
+            Counter counter = counterMap.get(key);
+            if (counter == null) {
+                if (size < counterArray.length) {
+                    counter = counterArray[size++];
+                    counter.errorNanos = 0;
+                    counter.totalNanos = 0;
+                } else {
+                    counter = minCounter();
+                    counterMap.remove(counter.key);
+                    counter.errorNanos = counter.totalNanos;
+                    counter.histogram.reset();
+                }
+                counter.key = key;
+                counterMap.put(key, counter);
+            }
+            counter.totalNanos += nanos;
+            counter.histogram.record(nanos);
+        }
+
+        synchronized void reset() {
+            for (int i = 0; size > i; ++i) {
+                counterArray[i].key = null;
+                counterArray[i].histogram.reset();
+            }
+            counterMap.clear();
+            size = 0;
+        }
+
+        synchronized void snapshot(final List<SqlStatistics> statisticsList) {
+            for (int i = 0; size > i; ++i) {
+                final Counter counter = counterArray[i];
+                statisticsList.add(new SqlStatistics(counter.key, counter.totalNanos, counter.errorNanos, counter.histogram.snapshot()));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+import java.util.Comparator;
+
+/**
+ * Unver&auml;nderliche Statistik eines SQL-Fingerabdrucks aus dem
+ * {@link SpaceSavingSketch}.
+ * <p>
+ * Die Gesamtzeit ist eine obere Schranke: sie enth&auml;lt die Gesamtzeit des
+ * verdr&auml;ngten Eintrags, die der Eintrag bei seiner Aufnahme geerbt hat.
+ * Die tats&auml;chliche Gesamtzeit liegt zwischen {@code getTotalNanos() - getErrorNanos()}
+ * und {@code getTotalNanos()}. Anzahl, Maximum und Perzentile beziehen sich
+ * ausschlie&szlig;lich auf die Ausf&uuml;hrungen seit der Aufnahme.
+ * <p>
+ * Alle Zeiten sind in Nanosekunden.
+ */
+public final class SqlStatistics {
+
+    /**
+     * Sortiert absteigend nach der Anzahl der Ausf&uuml;hrungen.
+     */
+    public static final Comparator<SqlStatistics> BY_COUNT = Comparator.comparingLong(SqlStatistics::getCount).reversed();
+
+    /**
+     * Sortiert absteigend nach dem 99. Perzentil der Ausf&uuml;hrungszeit.
+     */
+    public static final Comparator<SqlStatistics> BY_P99 = Comparator.comparingLong(SqlStatistics::getP99Nanos).reversed();
+
+    /**
+     * Sortiert absteigend nach der Gesamtzeit.
+     */
+    public static final Comparator<SqlStatistics> BY_TOTAL_TIME = Comparator.comparingLong(SqlStatistics::getTotalNanos).reversed();
+
+    private final long count;
+    private final long errorNanos;
+    private final String fingerprint;
+    private final long maxNanos;
+    private final long p99Nanos;
+    private final long totalNanos;
+
+    SqlStatistics(final String fingerprint, final long totalNanos, final long errorNanos, final LatencySnapshot snapshot) {
+        this.fingerprint = fingerprint;
+        this.totalNanos = totalNanos;
+        this.errorNanos = errorNanos;
+        this.count = snapshot.getCount();
+        this.maxNanos = snapshot.getMax();
+        this.p99Nanos = snapshot.percentile(99.0);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrorNanos() {
+        return errorNanos;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getMeanNanos() {
+        return (count == 0 ? 0 : (totalNanos - errorNanos) / count);
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlStatistics{" +
+                "fingerprint='" + fingerprint + '\'' +
+                ", count=" + count +
+                ", totalNanos=" + totalNanos +
+                ", errorNanos=" + errorNanos +
+                ", p99Nanos=" + p99Nanos +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+
+}
@@ -0,0 +1,63 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+import eu.dirk.haase.jdbc.proxy.base.PreparedSql;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+import eu.dirk.haase.jdbc.proxy.sql.SqlFingerprint;
+
+/**
+ * {@link Interceptor} der die Ausf&uuml;hrungszeit jeder SQL-Anweisung unter
+ * ihrem Fingerabdruck in einem {@link SpaceSavingSketch} z&auml;hlt.
+ * <p>
+ * Die SQL-Anweisung stammt entweder aus dem Parameter einer {@code execute}-Methode
+ * oder, bei vorbereiteten Statements, aus {@link PreparedSql#getSql()}.
+ */
+final class TopSqlInterceptor implements Interceptor {
+
+    private final SpaceSavingSketch sketch;
+
+    TopSqlInterceptor(final SpaceSavingSketch sketch) {
+        this.sketch = sketch;
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result) {
+        record(methodId, token, sqlOf(proxy));
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result, final String sql) {
+        record(methodId, token, sql);
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex) {
+        record(methodId, token, sqlOf(proxy));
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex, final String sql) {
+        record(methodId, token, sql);
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId) {
+        return (Interceptors.isStatementExecution(methodId) ? System.nanoTime() : 0L);
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId, final String sql) {
+        return before(proxy, methodId);
+    }
+
+    private void record(final int methodId, final long token, final String sql) {
+        if ((sql != null) && Interceptors.isStatementExecution(methodId)) {
+            sketch.record(SqlFingerprint.of(sql).getFingerprint(), System.nanoTime() - token);
+        }
+    }
+
+    private String sqlOf(final Object proxy) {
+        return (proxy instanceof PreparedSql ? ((PreparedSql) proxy).getSql() : null);
+    }
+
+}
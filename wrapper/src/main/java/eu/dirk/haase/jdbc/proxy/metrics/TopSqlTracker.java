@@ -0,0 +1,124 @@
+package eu.dirk.haase.jdbc.proxy.metrics;
+
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.InterceptorProvider;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Rangliste der teuersten SQL-Anweisungen mit fester Speichergr&ouml;&szlig;e.
+ * <p>
+ * Jede Ausf&uuml;hrung einer SQL-Anweisung &uuml;ber die generierten Wrapper-Klassen
+ * wird unter dem Fingerabdruck der SQL-Anweisung (siehe
+ * {@link eu.dirk.haase.jdbc.proxy.sql.SqlFingerprint}) in einem
+ * {@link SpaceSavingSketch} gez&auml;hlt. Der Speicherbedarf ist daher
+ * unabh&auml;ngig davon wie viele verschiedene SQL-Anweisungen die Anwendung
+ * erzeugt.
+ * <p>
+ * Wie die {@link JdbcMetrics} wird auch die Rangliste &uuml;ber einen
+ * {@link Interceptor} erfasst und muss daher eingeschaltet werden <b>bevor</b>
+ * die Wrapper-Klassen generiert werden, entweder mit der System-Property
+ * <pre><code>
+ * -Deu.dirk.haase.jdbc.proxy.topsql=true
+ * </code></pre>
+ * oder programmatisch mit {@link #enable()}. Die Anzahl der Z&auml;hler
+ * (Standard: 128) kann mit der System-Property
+ * {@code eu.dirk.haase.jdbc.proxy.topsql.capacity} ge&auml;ndert werden.
+ */
+public final class TopSqlTracker {
+
+    /**
+     * Name der System-Property mit der die Anzahl der Z&auml;hler festgelegt wird.
+     */
+    public static final String CAPACITY_PROPERTY = "eu.dirk.haase.jdbc.proxy.topsql.capacity";
+
+    /**
+     * Name der System-Property mit der die Rangliste eingeschaltet wird.
+     */
+    public static final String ENABLED_PROPERTY = "eu.dirk.haase.jdbc.proxy.topsql";
+
+    private static final SpaceSavingSketch sketch = new SpaceSavingSketch(Integer.getInteger(CAPACITY_PROPERTY, 128));
+    private static final TopSqlInterceptor topSqlInterceptor = new TopSqlInterceptor(sketch);
+
+    private TopSqlTracker() {
+    }
+
+    /**
+     * Schaltet die Rangliste f&uuml;r alle danach generierten Wrapper-Klassen aus.
+     */
+    public static void disable() {
+        Interceptors.remove(topSqlInterceptor);
+    }
+
+    /**
+     * Schaltet die Rangliste f&uuml;r alle danach generierten Wrapper-Klassen ein.
+     */
+    public static void enable() {
+        Interceptors.add(topSqlInterceptor);
+    }
+
+    /**
+     * Liefert den {@link Interceptor} der die Ausf&uuml;hrungszeiten erfasst.
+     *
+     * @return der Interceptor.
+     */
+    public static Interceptor interceptor() {
+        return topSqlInterceptor;
+    }
+
+    /**
+     * Liefert {@code true} wenn die Rangliste f&uuml;r neu generierte
+     * Wrapper-Klassen eingeschaltet ist.
+     *
+     * @return {@code true} wenn die Rangliste eingeschaltet ist.
+     */
+    public static boolean isEnabled() {
+        return Interceptors.contains(topSqlInterceptor);
+    }
+
+    /**
+     * Setzt die Rangliste zur&uuml;ck.
+     */
+    public static void reset() {
+        sketch.reset();
+    }
+
+    /**
+     * Liefert die teuersten SQL-Anweisungen nach ihrer Gesamtzeit.
+     *
+     * @param limit die maximale Anzahl der SQL-Anweisungen.
+     * @return die nach Gesamtzeit absteigend sortierten SQL-Anweisungen.
+     */
+    public static List<SqlStatistics> top(final int limit) {
+        return top(limit, SqlStatistics.BY_TOTAL_TIME);
+    }
+
+    /**
+     * Liefert die teuersten SQL-Anweisungen in der angegebenen Sortierung.
+     *
+     * @param limit      die maximale Anzahl der SQL-Anweisungen.
+     * @param comparator die Sortierung, zum Beispiel {@link SqlStatistics#BY_COUNT}
+     *                   oder {@link SqlStatistics#BY_P99}.
+     * @return die sortierten SQL-Anweisungen.
+     */
+    public static List<SqlStatistics> top(final int limit, final Comparator<SqlStatistics> comparator) {
+        return sketch.snapshot().stream().sorted(comparator).limit(limit).collect(Collectors.toList());
+    }
+
+    /**
+     * F&uuml;gt den Interceptor beim Start hinzu, wenn die System-Property
+     * {@value #ENABLED_PROPERTY} gesetzt ist (siehe {@link InterceptorProvider}).
+     */
+    public static final class Provider implements InterceptorProvider {
+
+        @Override
+        public Interceptor startupInterceptor() {
+            return (Boolean.getBoolean(ENABLED_PROPERTY) ? interceptor() : null);
+        }
+
+    }
+
+}
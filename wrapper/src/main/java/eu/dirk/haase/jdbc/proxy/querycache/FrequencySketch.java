@@ -0,0 +1,90 @@
+package eu.dirk.haase.jdbc.proxy.querycache;
+
+/**
+ * Gesch&auml;tzte Zugriffsh&auml;ufigkeit von Schl&uuml;sseln f&uuml;r die
+ * Zulassungs-Entscheidung von W-TinyLFU.
+ * <p>
+ * Ein Count-Min Sketch mit vier 4-Bit Z&auml;hlern pro Schl&uuml;ssel
+ * (16 Z&auml;hler pro {@code long}). Nach einer festen Anzahl von
+ * Inkrementen werden alle Z&auml;hler halbiert, so dass alte Zugriffe an
+ * Gewicht verlieren (Aging).
+ * <p>
+ * Diese Klasse ist nicht thread-sicher, der Aufrufer muss synchronisieren.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int[] SEEDS = {0x97cb3127, 0xb5e0e9b1, 0x6c8e9cf5, 0xc2b2ae35};
+
+    private final int counterMask;
+    private final int sampleSize;
+    private final long[] table;
+    private int additions;
+
+    /**
+     * Erzeugt einen Sketch.
+     *
+     * @param expectedKeys die erwartete Anzahl verschiedener Schl&uuml;ssel.
+     */
+    FrequencySketch(final int expectedKeys) {
+        int counters = 64;
+        while ((counters < (1 << 24)) && (counters < expectedKeys * 4)) {
+            counters <<= 1;
+        }
+        this.table = new long[counters >>> 4];
+        this.counterMask = counters - 1;
+        this.sampleSize = counters * 2;
+    }
+
+    private static int spread(final int hash, final int seed) {
+        int h = hash * seed;
+        h ^= (h >>> 17);
+        h *= 0xed5ad4bb;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Liefert die gesch&auml;tzte H&auml;ufigkeit eines Schl&uuml;ssels.
+     *
+     * @param hash der Hash-Code des Schl&uuml;ssels.
+     * @return die gesch&auml;tzte H&auml;ufigkeit (h&ouml;chstens {@code 15}).
+     */
+    int frequency(final int hash) {
+        int frequency = 15;
+        for (final int seed : SEEDS) {
+            final int index = spread(hash, seed) & counterMask;
+            final int count = (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Z&auml;hlt einen Zugriff auf einen Schl&uuml;ssel.
+     *
+     * @param hash der Hash-Code des Schl&uuml;ssels.
+     */
+    void increment(final int hash) {
+        boolean isAdded = false;
+        for (final int seed : SEEDS) {
+            final int index = spread(hash, seed) & counterMask;
+            final int shift = (index & 15) << 2;
+            final long mask = 0xfL << shift;
+            if ((table[index >>> 4] & mask) != mask) {
+                table[index >>> 4] += (1L << shift);
+                isAdded = true;
+            }
+        }
+        if (isAdded && (++additions == sampleSize)) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; table.length > i; ++i) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions >>> 1);
+    }
+
+}
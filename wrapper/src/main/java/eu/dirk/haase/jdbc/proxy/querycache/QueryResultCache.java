@@ -0,0 +1,579 @@
+package eu.dirk.haase.jdbc.proxy.querycache;
+
+import eu.dirk.haase.jdbc.proxy.AbstractConnectionProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractDataSourceProxy;
+import eu.dirk.haase.jdbc.proxy.base.BindParameters;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnarTable;
+import eu.dirk.haase.jdbc.proxy.sql.SqlTables;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in Cache f&uuml;r die Ergebnisse von Abfragen auf Stammdaten
+ * (Referenzdaten) &uuml;ber {@link java.sql.PreparedStatement#executeQuery()}.
+ * <p>
+ * Jedes DataSource-Proxy-Objekt besitzt einen eigenen Cache, den sich alle
+ * Connections dieser DataSource teilen. Der Cache ist solange ausgeschaltet,
+ * bis mit {@link #addCacheableTable(String)} mindestens eine Tabelle
+ * freigegeben wurde. Gecacht werden nur Abfragen, die ausschlie&szlig;lich
+ * freigegebene Tabellen lesen (siehe {@link SqlTables}).
+ * <p>
+ * Der Schl&uuml;ssel ist die SQL-Anweisung zusammen mit einer Kopie der Werte
+ * der Bind-Parameter (siehe {@link BindParameters#toKeyArray()}). Wurden
+ * Bind-Parameter mit weiteren Argumenten gesetzt (zum Beispiel
+ * {@code setTimestamp(int, Timestamp, Calendar)}) oder sind Streams oder LOBs
+ * gebunden, dann wird die Abfrage am Cache vorbei ausgef&uuml;hrt. Der Wert ist das vollst&auml;ndig gelesene, von der
+ * Datenbank getrennte Ergebnis (eine {@link ColumnarTable} au&szlig;erhalb des
+ * Java-Heaps); jeder Treffer liefert ein eigenes ResultSet mit eigenem Cursor.
+ * Der Speicher eines verdr&auml;ngten oder verworfenen Eintrags wird
+ * freigegeben, sobald auch das letzte seiner ResultSets geschlossen ist.
+ * <p>
+ * Der Cache ist durch das Gewicht (den Speicherbedarf au&szlig;erhalb des
+ * Java-Heaps) der Ergebnisse begrenzt. Die Verdr&auml;ngung folgt W-TinyLFU: neue Eintr&auml;ge
+ * kommen in ein kleines LRU-Fenster (1% des Gewichts), aus dem sie nur dann
+ * in den segmentierten LRU-Hauptbereich &uuml;bernommen werden, wenn sie nach
+ * dem {@link FrequencySketch} h&auml;ufiger verwendet wurden als das Opfer,
+ * das sie verdr&auml;ngen w&uuml;rden.
+ * <p>
+ * Treffer werden ohne Sperre in einer {@link ConcurrentHashMap} gesucht.
+ * Nur die Verwaltung der Verdr&auml;ngung (LRU-Reihenfolge und
+ * {@link FrequencySketch}) ist durch eine Sperre gesch&uuml;tzt; ist sie bei
+ * einem Treffer gerade belegt, dann wird der Treffer f&uuml;r die
+ * Verdr&auml;ngung nicht mitgez&auml;hlt, statt auf die Sperre zu warten.
+ * <p>
+ * Schreibt eine Connection dieser DataSource (&uuml;ber {@code executeUpdate},
+ * {@code executeBatch} oder {@code execute}) in eine freigegebene Tabelle,
+ * dann werden alle Eintr&auml;ge dieser Tabelle verworfen. Bis zum Ende der
+ * Transaktion ({@code commit}, {@code rollback} oder {@code close}) wird
+ * die Tabelle weder aus dem Cache gelesen noch in den Cache geschrieben,
+ * beim Ende der Transaktion werden die Eintr&auml;ge nochmals verworfen.
+ * &Auml;nderungen an der Datenbank vorbei (andere Anwendungen, XA-Commit)
+ * bemerkt der Cache nicht, hierf&uuml;r gibt es {@link #invalidate(String)}.
+ * <p>
+ * Das maximale Gewicht in Bytes ist mit der System-Property
+ * {@code eu.dirk.haase.jdbc.proxy.querycache.maxWeight} (Standard 32 MB)
+ * einstellbar.
+ */
+public final class QueryResultCache {
+
+    /**
+     * System-Property mit der das maximale Gewicht in Bytes eingestellt werden kann.
+     */
+    public static final String PROPERTY = "eu.dirk.haase.jdbc.proxy.querycache.maxWeight";
+
+    private static final long DEFAULT_MAX_WEIGHT = Long.getLong(PROPERTY, 32L * 1024 * 1024);
+    private static final int MAX_PARSED_SQL = 1024;
+
+    private final Set<String> cacheableTableSet;
+    private final LongAdder evictionCount;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final Map<QueryKey, Node> nodeMap;
+    private final ReentrantLock policyLock;
+    private final LinkedHashMap<QueryKey, Node> probationMap;
+    private final LinkedHashMap<QueryKey, Node> protectedMap;
+    private final FrequencySketch sketch;
+    private final Map<String, SqlTables> sqlTablesMap;
+    private final LinkedHashMap<QueryKey, Node> windowMap;
+    private final Map<String, Integer> writingTransactionMap;
+    private volatile long maxWeight;
+    private long probationWeight;
+    private long protectedWeight;
+    private long windowWeight;
+    private long writeStamp;
+
+    /**
+     * Erzeugt einen leeren (ausgeschalteten) Cache mit dem Standard-Gewicht.
+     */
+    public QueryResultCache() {
+        this.cacheableTableSet = ConcurrentHashMap.newKeySet();
+        this.evictionCount = new LongAdder();
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.nodeMap = new ConcurrentHashMap<>();
+        this.policyLock = new ReentrantLock();
+        this.probationMap = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedMap = new LinkedHashMap<>(16, 0.75f, true);
+        this.windowMap = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = new FrequencySketch(4096);
+        this.sqlTablesMap = new ConcurrentHashMap<>();
+        this.writingTransactionMap = new ConcurrentHashMap<>();
+        this.maxWeight = DEFAULT_MAX_WEIGHT;
+    }
+
+    /**
+     * Liefert den Cache der DataSource, die die angegebene Connection erzeugt
+     * hat.
+     *
+     * @param connection die Connection, wahrscheinlich ein Proxy-Objekt.
+     * @return der Cache oder {@code null} wenn die Connection nicht von einem
+     * DataSource-Proxy-Objekt erzeugt wurde.
+     */
+    public static QueryResultCache of(final Connection connection) {
+        if (connection instanceof AbstractConnectionProxy) {
+            return of(((AbstractConnectionProxy) connection).getDataSourceProxy());
+        }
+        return null;
+    }
+
+    /**
+     * Liefert den Cache einer DataSource.
+     *
+     * @param dataSource die DataSource, wahrscheinlich ein Proxy-Objekt.
+     * @return der Cache oder {@code null} wenn die DataSource kein
+     * DataSource-Proxy-Objekt ist.
+     */
+    public static QueryResultCache of(final DataSource dataSource) {
+        if (dataSource instanceof AbstractDataSourceProxy) {
+            return ((AbstractDataSourceProxy) dataSource).getQueryResultCache();
+        }
+        return null;
+    }
+
+    /**
+     * Gibt eine Tabelle f&uuml;r den Cache frei und schaltet den Cache damit ein.
+     *
+     * @param tableName der Name der Tabelle (ohne Schema-Pr&auml;fix, ohne
+     *                  R&uuml;cksicht auf Gro&szlig;-/Kleinschreibung).
+     */
+    public void addCacheableTable(final String tableName) {
+        cacheableTableSet.add(tableName.toLowerCase(Locale.ROOT));
+        BindParameters.requestCapture(this, true);
+    }
+
+    /**
+     * Liefert die freigegebenen Tabellen, die die angegebene SQL-Anweisung
+     * schreibt. Kann nicht erkannt werden welche Tabellen geschrieben werden,
+     * dann sind es alle freigegebenen Tabellen.
+     *
+     * @param sql die SQL-Anweisung.
+     * @return die geschriebenen freigegebenen Tabellen.
+     */
+    public Set<String> cacheableTablesWrittenBy(final String sql) {
+        if (cacheableTableSet.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final SqlTables sqlTables = sqlTables(sql);
+        if (sqlTables.isQuery()) {
+            return Collections.emptySet();
+        } else if (sqlTables.isUnknownWrite()) {
+            return new HashSet<>(cacheableTableSet);
+        }
+        final Set<String> tableSet = new HashSet<>(sqlTables.getTables());
+        tableSet.retainAll(cacheableTableSet);
+        return tableSet;
+    }
+
+    /**
+     * Meldet den Beginn einer Transaktion die in eine freigegebene Tabelle
+     * schreibt. Alle Eintr&auml;ge der Tabelle werden verworfen und bis zum
+     * Ende der Transaktion wird der Cache f&uuml;r diese Tabelle umgangen.
+     *
+     * @param tableName die freigegebene Tabelle.
+     */
+    public void beginWrite(final String tableName) {
+        policyLock.lock();
+        try {
+            writingTransactionMap.merge(tableName, 1, Integer::sum);
+            removeTables(Collections.singleton(tableName));
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Meldet das Ende einer Transaktion die in freigegebene Tabellen
+     * geschrieben hat.
+     *
+     * @param tableNames die freigegebenen Tabellen, die jeweils mit
+     *                   {@link #beginWrite(String)} gemeldet wurden.
+     */
+    public void endWrite(final Collection<String> tableNames) {
+        policyLock.lock();
+        try {
+            for (final String tableName : tableNames) {
+                writingTransactionMap.computeIfPresent(tableName, (t, c) -> (c > 1 ? c - 1 : null));
+            }
+            removeTables(tableNames);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * F&uuml;hrt eine Abfrage &uuml;ber den Cache aus.
+     *
+     * @param sql        die SQL-Anweisung.
+     * @param bindValues die Werte der Bind-Parameter.
+     * @param statement  das Statement das {@link ResultSet#getStatement()}
+     *                   liefern soll.
+     * @param supplier   f&uuml;hrt die Abfrage auf der Datenbank aus.
+     * @return ein ResultSet mit eigenem Cursor auf das (gegebenenfalls gecachte)
+     * Ergebnis.
+     * @throws SQLException wird ausgel&ouml;st wenn die Abfrage fehlschl&auml;gt.
+     */
+    public ResultSet executeQuery(final String sql, final Object[] bindValues, final Statement statement, final MetaDataCache.MetaDataSupplier<ResultSet> supplier) throws SQLException {
+        final QueryKey key = new QueryKey(sql, bindValues);
+        final Node cached = nodeMap.get(key);
+        // null wenn der Eintrag gleichzeitig verdraengt wurde:
+        final ResultSet cachedResultSet = (cached != null ? cached.view(statement) : null);
+        if (cachedResultSet != null) {
+            hitCount.increment();
+            if (policyLock.tryLock()) {
+                try {
+                    sketch.increment(key.hash);
+                    lookup(key);
+                } finally {
+                    policyLock.unlock();
+                }
+            }
+            return cachedResultSet;
+        }
+        final long stamp;
+        policyLock.lock();
+        try {
+            sketch.increment(key.hash);
+            stamp = writeStamp;
+        } finally {
+            policyLock.unlock();
+        }
+        missCount.increment();
+        final ColumnarTable table;
+        try (ResultSet resultSet = supplier.get()) {
+            table = ColumnarTable.materialize(resultSet);
+        }
+        final Node node = new Node(key, table, sqlTables(sql).getTables());
+        // Vor dem Einfuegen, denn der Eintrag kann sofort wieder verdraengt
+        // (und seine Tabelle freigegeben) werden:
+        final ResultSet resultSet = node.view(statement);
+        policyLock.lock();
+        try {
+            // Nur cachen wenn zwischenzeitlich keine freigegebene
+            // Tabelle geschrieben wurde:
+            if ((stamp == writeStamp) && !nodeMap.containsKey(key)) {
+                insert(node);
+            } else {
+                node.close();
+            }
+        } finally {
+            policyLock.unlock();
+        }
+        return resultSet;
+    }
+
+    /**
+     * Liefert die Anzahl der Eintr&auml;ge die wegen des Gewichts verdr&auml;ngt
+     * oder nicht zugelassen wurden.
+     *
+     * @return die Anzahl der verdr&auml;ngten Eintr&auml;ge.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Liefert die Anzahl der Treffer.
+     *
+     * @return die Anzahl der Treffer.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Liefert die Anzahl der Fehlversuche (bei denen die Datenbank gefragt wurde).
+     *
+     * @return die Anzahl der Fehlversuche.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Liefert das gesch&auml;tzte Gewicht aller Eintr&auml;ge in Bytes.
+     *
+     * @return das Gewicht aller Eintr&auml;ge.
+     */
+    public long getWeight() {
+        policyLock.lock();
+        try {
+            return windowWeight + probationWeight + protectedWeight;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void insert(final Node node) {
+        final long mainMaxWeight = maxWeight - windowMaxWeight();
+        if (node.weight > mainMaxWeight) {
+            evictionCount.increment();
+            node.close();
+            return;
+        }
+        windowMap.put(node.key, node);
+        nodeMap.put(node.key, node);
+        windowWeight += node.weight;
+        while ((windowWeight > windowMaxWeight()) && !windowMap.isEmpty()) {
+            final Node candidate = windowMap.values().iterator().next();
+            windowMap.remove(candidate.key);
+            windowWeight -= candidate.weight;
+            admit(candidate, mainMaxWeight);
+        }
+    }
+
+    private void admit(final Node candidate, final long mainMaxWeight) {
+        while (probationWeight + protectedWeight + candidate.weight > mainMaxWeight) {
+            final LinkedHashMap<QueryKey, Node> victimMap = (probationMap.isEmpty() ? protectedMap : probationMap);
+            final Node victim = victimMap.values().iterator().next();
+            evictionCount.increment();
+            if (sketch.frequency(candidate.key.hash) <= sketch.frequency(victim.key.hash)) {
+                // Der Kandidat wird nicht zugelassen
+                nodeMap.remove(candidate.key);
+                candidate.close();
+                return;
+            }
+            victimMap.remove(victim.key);
+            nodeMap.remove(victim.key);
+            victim.close();
+            if (victimMap == probationMap) {
+                probationWeight -= victim.weight;
+            } else {
+                protectedWeight -= victim.weight;
+            }
+        }
+        probationMap.put(candidate.key, candidate);
+        probationWeight += candidate.weight;
+    }
+
+    /**
+     * Verwirft alle Eintr&auml;ge.
+     */
+    public void invalidate() {
+        policyLock.lock();
+        try {
+            ++writeStamp;
+            nodeMap.clear();
+            for (final Map<QueryKey, Node> lruMap : Arrays.asList(windowMap, probationMap, protectedMap)) {
+                lruMap.values().forEach(Node::close);
+                lruMap.clear();
+            }
+            windowWeight = 0;
+            probationWeight = 0;
+            protectedWeight = 0;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Verwirft alle Eintr&auml;ge die die angegebene Tabelle lesen, zum
+     * Beispiel nach einer &Auml;nderung an der Anwendung vorbei.
+     *
+     * @param tableName der Name der Tabelle.
+     */
+    public void invalidate(final String tableName) {
+        policyLock.lock();
+        try {
+            removeTables(Collections.singleton(tableName.toLowerCase(Locale.ROOT)));
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Liefert {@code true} wenn das Ergebnis der SQL-Anweisung gecacht werden
+     * kann: es ist eine reine Abfrage, die nur freigegebene Tabellen liest, in
+     * die gerade keine Transaktion schreibt.
+     *
+     * @param sql die SQL-Anweisung.
+     * @return {@code true} wenn das Ergebnis gecacht werden kann.
+     */
+    public boolean isCacheable(final String sql) {
+        if ((sql == null) || cacheableTableSet.isEmpty() || (maxWeight <= 0)) {
+            return false;
+        }
+        final SqlTables sqlTables = sqlTables(sql);
+        if (!sqlTables.isQuery() || sqlTables.getTables().isEmpty()) {
+            return false;
+        }
+        for (final String tableName : sqlTables.getTables()) {
+            if (!cacheableTableSet.contains(tableName) || writingTransactionMap.containsKey(tableName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Liefert {@code true} wenn mindestens eine Tabelle freigegeben ist.
+     *
+     * @return {@code true} wenn der Cache eingeschaltet ist.
+     */
+    public boolean isEnabled() {
+        return !cacheableTableSet.isEmpty();
+    }
+
+    private Node lookup(final QueryKey key) {
+        Node node = windowMap.get(key);
+        if (node != null) {
+            return node;
+        }
+        node = protectedMap.get(key);
+        if (node != null) {
+            return node;
+        }
+        node = probationMap.remove(key);
+        if (node != null) {
+            // in den geschuetzten Bereich befoerdern:
+            probationWeight -= node.weight;
+            protectedMap.put(key, node);
+            protectedWeight += node.weight;
+            final long protectedMaxWeight = (maxWeight - windowMaxWeight()) * 4 / 5;
+            while (protectedWeight > protectedMaxWeight) {
+                final Node demoted = protectedMap.values().iterator().next();
+                protectedMap.remove(demoted.key);
+                protectedWeight -= demoted.weight;
+                probationMap.put(demoted.key, demoted);
+                probationWeight += demoted.weight;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Entfernt eine Tabelle aus der Freigabe. Ist keine Tabelle mehr
+     * freigegeben, dann ist der Cache ausgeschaltet.
+     *
+     * @param tableName der Name der Tabelle.
+     */
+    public void removeCacheableTable(final String tableName) {
+        cacheableTableSet.remove(tableName.toLowerCase(Locale.ROOT));
+        if (cacheableTableSet.isEmpty()) {
+            BindParameters.requestCapture(this, false);
+        }
+        invalidate(tableName);
+    }
+
+    private void removeTables(final Collection<String> tableNames) {
+        ++writeStamp;
+        windowWeight -= removeTables(windowMap, tableNames);
+        probationWeight -= removeTables(probationMap, tableNames);
+        protectedWeight -= removeTables(protectedMap, tableNames);
+    }
+
+    private long removeTables(final Map<QueryKey, Node> lruMap, final Collection<String> tableNames) {
+        long removedWeight = 0;
+        final Iterator<Node> nodeIterator = lruMap.values().iterator();
+        while (nodeIterator.hasNext()) {
+            final Node node = nodeIterator.next();
+            if (!Collections.disjoint(node.tableSet, tableNames)) {
+                nodeIterator.remove();
+                nodeMap.remove(node.key);
+                node.close();
+                removedWeight += node.weight;
+            }
+        }
+        return removedWeight;
+    }
+
+    /**
+     * Setzt das maximale Gewicht aller Eintr&auml;ge in Bytes. Alle
+     * Eintr&auml;ge werden dabei verworfen.
+     *
+     * @param maxWeight das maximale Gewicht in Bytes, {@code 0} schaltet den
+     *                  Cache ab.
+     */
+    public void setMaximumWeight(final long maxWeight) {
+        policyLock.lock();
+        try {
+            this.maxWeight = maxWeight;
+            invalidate();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private SqlTables sqlTables(final String sql) {
+        SqlTables sqlTables = sqlTablesMap.get(sql);
+        if (sqlTables == null) {
+            if (sqlTablesMap.size() >= MAX_PARSED_SQL) {
+                sqlTablesMap.clear();
+            }
+            sqlTables = SqlTables.of(sql);
+            sqlTablesMap.put(sql, sqlTables);
+        }
+        return sqlTables;
+    }
+
+    private long windowMaxWeight() {
+        return Math.max(1, maxWeight / 100);
+    }
+
+    private static final class Node {
+
+        final QueryKey key;
+        final ColumnarTable table;
+        final Set<String> tableSet;
+        final long weight;
+
+        Node(final QueryKey key, final ColumnarTable table, final Set<String> tableSet) {
+            this.key = key;
+            this.table = table;
+            this.weight = 256 + table.getOffHeapBytes();
+            this.tableSet = tableSet;
+        }
+
+        /**
+         * Gibt die Referenz des Caches frei; ge&ouml;ffnete ResultSets bleiben
+         * lesbar.
+         */
+        void close() {
+            table.close();
+        }
+
+        ResultSet view(final Statement statement) {
+            return table.newResultSetIfOpen(statement);
+        }
+
+    }
+
+    private static final class QueryKey {
+
+        final Object[] bindValues;
+        final int hash;
+        final String sql;
+
+        QueryKey(final String sql, final Object[] bindValues) {
+            this.sql = sql;
+            this.bindValues = bindValues;
+            this.hash = 31 * sql.hashCode() + Arrays.deepHashCode(bindValues);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            } else if (!(other instanceof QueryKey)) {
+                return false;
+            }
+            final QueryKey otherKey = (QueryKey) other;
+            return (hash == otherKey.hash) && sql.equals(otherKey.sql) && Arrays.deepEquals(bindValues, otherKey.bindValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
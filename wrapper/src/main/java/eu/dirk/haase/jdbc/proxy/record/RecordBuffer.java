@@ -0,0 +1,131 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+import java.math.BigDecimal;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wiederverwendbarer Puffer (einer pro Thread) in dem ein Datensatz
+ * zusammengestellt wird, bevor er in einem St&uuml;ck in die Trace-Datei
+ * kopiert wird.
+ */
+final class RecordBuffer {
+
+    private static final int MAX_BYTES_LENGTH = 4096;
+    private static final int MAX_STRING_LENGTH = 64 * 1024;
+
+    private ByteBuffer buffer;
+
+    RecordBuffer() {
+        this.buffer = ByteBuffer.allocate(1024);
+    }
+
+    RecordBuffer begin(final byte type, final int threadId, final long startNanos, final long elapsedNanos) {
+        // Die Buffer-Methoden werden ueber Buffer aufgerufen, da ByteBuffer sie
+        // erst ab Java 9 kovariant ueberschreibt (NoSuchMethodError unter Java 8):
+        ((Buffer) buffer).clear();
+        putByte(type).putInt(threadId).putLong(startNanos).putLong(elapsedNanos);
+        return this;
+    }
+
+    /**
+     * Liefert den zusammengestellten Datensatz zum Lesen.
+     *
+     * @return der Datensatz.
+     */
+    ByteBuffer flip() {
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    private void ensureCapacity(final int length) {
+        if (buffer.remaining() < length) {
+            final ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+            ((Buffer) buffer).flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+
+    RecordBuffer putByte(final byte value) {
+        ensureCapacity(1);
+        buffer.put(value);
+        return this;
+    }
+
+    RecordBuffer putBytes(final byte[] value, final int length) {
+        ensureCapacity(4 + length);
+        buffer.putInt(length);
+        buffer.put(value, 0, length);
+        return this;
+    }
+
+    RecordBuffer putInt(final int value) {
+        ensureCapacity(4);
+        buffer.putInt(value);
+        return this;
+    }
+
+    RecordBuffer putLong(final long value) {
+        ensureCapacity(8);
+        buffer.putLong(value);
+        return this;
+    }
+
+    RecordBuffer putParameters(final Object[] parameters) {
+        if (parameters == null) {
+            return putShort((short) -1);
+        }
+        putShort((short) Math.min(parameters.length, Short.MAX_VALUE));
+        for (int i = 0; (parameters.length > i) && (Short.MAX_VALUE > i); ++i) {
+            putParameter(parameters[i]);
+        }
+        return this;
+    }
+
+    private void putParameter(final Object value) {
+        if (value == null) {
+            putByte(TraceFormat.PARAMETER_NULL);
+        } else if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+            putByte(TraceFormat.PARAMETER_LONG).putLong(((Number) value).longValue());
+        } else if ((value instanceof Double) || (value instanceof Float)) {
+            putByte(TraceFormat.PARAMETER_DOUBLE).putLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof BigDecimal) {
+            putByte(TraceFormat.PARAMETER_DECIMAL).putString(value.toString());
+        } else if (value instanceof Boolean) {
+            putByte(TraceFormat.PARAMETER_BOOLEAN).putByte((byte) ((Boolean) value ? 1 : 0));
+        } else if ((value instanceof CharSequence) || (value instanceof Character)) {
+            putByte(TraceFormat.PARAMETER_STRING).putString(value.toString());
+        } else if (value instanceof byte[]) {
+            final byte[] bytes = (byte[]) value;
+            putByte(TraceFormat.PARAMETER_BYTES).putBytes(bytes, Math.min(bytes.length, MAX_BYTES_LENGTH));
+        } else if (value instanceof java.sql.Timestamp) {
+            final java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+            putByte(TraceFormat.PARAMETER_TIMESTAMP).putLong(timestamp.getTime()).putInt(timestamp.getNanos());
+        } else if (value instanceof java.sql.Date) {
+            putByte(TraceFormat.PARAMETER_DATE).putLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof java.sql.Time) {
+            putByte(TraceFormat.PARAMETER_TIME).putLong(((java.sql.Time) value).getTime());
+        } else {
+            putByte(TraceFormat.PARAMETER_UNSUPPORTED).putString(value.getClass().getName());
+        }
+    }
+
+    RecordBuffer putShort(final short value) {
+        ensureCapacity(2);
+        buffer.putShort(value);
+        return this;
+    }
+
+    RecordBuffer putString(final String value) {
+        if (value == null) {
+            return putInt(-1);
+        }
+        final String string = (value.length() > MAX_STRING_LENGTH ? value.substring(0, MAX_STRING_LENGTH) : value);
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        return putBytes(bytes, bytes.length);
+    }
+
+}
@@ -0,0 +1,239 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+import eu.dirk.haase.jdbc.proxy.AbstractResultSetProxy;
+import eu.dirk.haase.jdbc.proxy.base.JdbcProxy;
+import eu.dirk.haase.jdbc.proxy.base.ParameterCapture;
+import eu.dirk.haase.jdbc.proxy.base.PreparedSql;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * {@link Interceptor} der den JDBC-Verkehr der generierten Wrapper-Klassen in
+ * einen {@link TraceWriter} schreibt.
+ * <p>
+ * L&auml;uft keine Aufzeichnung, dann liefert {@link #before(Object, int)} den
+ * Wert {@code 0} und die {@code after}-Methoden kehren nach einer Feld-Abfrage
+ * zur&uuml;ck.
+ */
+final class RecordingInterceptor implements Interceptor {
+
+    private static final int UNKNOWN = 0;
+    private static final int NONE = 0xFF;
+    private static final int NEXT = 0xFE;
+
+    private final ThreadLocal<Map<Object, long[]>> fetchCountThreadLocal;
+    private volatile int[] codeArray;
+    private volatile TraceWriter traceWriter;
+
+    RecordingInterceptor() {
+        this.fetchCountThreadLocal = ThreadLocal.withInitial(IdentityHashMap::new);
+        this.codeArray = new int[256];
+    }
+
+    private static int code(final byte type, final byte kind) {
+        return (type & 0xFF) | ((kind & 0xFF) << 8);
+    }
+
+    private static int computeCode(final String methodName) {
+        switch (methodName) {
+            case "DataSource.getConnection":
+            case "PooledConnection.getConnection":
+            case "XAConnection.getConnection":
+                return code(TraceFormat.CONNECTION_ACQUIRE, (byte) 0);
+            case "Connection.close":
+                return code(TraceFormat.CONNECTION_RELEASE, (byte) 0);
+            case "Connection.createStatement":
+                return code(TraceFormat.PREPARE, TraceFormat.STATEMENT);
+            case "Connection.prepareStatement":
+                return code(TraceFormat.PREPARE, TraceFormat.PREPARED_STATEMENT);
+            case "Connection.prepareCall":
+                return code(TraceFormat.PREPARE, TraceFormat.CALLABLE_STATEMENT);
+            case "Connection.commit":
+                return code(TraceFormat.COMMIT, (byte) 0);
+            case "Connection.rollback":
+                return code(TraceFormat.ROLLBACK, (byte) 0);
+            case "ResultSet.next":
+                return NEXT;
+            case "ResultSet.close":
+                return code(TraceFormat.FETCH, (byte) 0);
+            default:
+                final int dot = methodName.indexOf('.');
+                final String ifaceName = methodName.substring(0, dot);
+                final String name = methodName.substring(dot + 1);
+                if (!ifaceName.equals("Statement") && !ifaceName.equals("PreparedStatement") && !ifaceName.equals("CallableStatement")) {
+                    return NONE;
+                } else if (name.startsWith("execute")) {
+                    return code(TraceFormat.EXECUTE, TraceFormat.executeKind(name));
+                } else if (name.equals("addBatch")) {
+                    return code(TraceFormat.ADD_BATCH, (byte) 0);
+                } else if (name.equals("close")) {
+                    return code(TraceFormat.STATEMENT_CLOSE, (byte) 0);
+                }
+                return NONE;
+        }
+    }
+
+    /**
+     * Liefert die Id eines JDBC-Objektes. Da zum Beispiel ein ResultSet sein
+     * Statement nur als internes Objekt kennt, wird stets der Identity-Hash-Code
+     * des internen Objektes verwendet.
+     */
+    private static int id(final Object object) {
+        return System.identityHashCode(object instanceof JdbcProxy ? ((JdbcProxy<?>) object).getDelegate() : object);
+    }
+
+    private static long rows(final Object result) {
+        if ((result instanceof Integer) || (result instanceof Long)) {
+            return ((Number) result).longValue();
+        } else if (result instanceof int[]) {
+            long rows = 0;
+            for (final int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        } else if (result instanceof long[]) {
+            long rows = 0;
+            for (final long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        return -1;
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result) {
+        afterReturning(proxy, methodId, token, result, null);
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result, final String sql) {
+        final TraceWriter writer = this.traceWriter;
+        if (writer != null) {
+            if (token != 0) {
+                record(writer, proxy, code(methodId), token, result, sql);
+            } else if ((code(methodId) == NEXT) && Boolean.TRUE.equals(result)) {
+                final Map<Object, long[]> fetchCountMap = fetchCountThreadLocal.get();
+                final long[] fetchCount = fetchCountMap.get(proxy);
+                if (fetchCount != null) {
+                    ++fetchCount[0];
+                } else {
+                    fetchCountMap.put(proxy, new long[]{1});
+                }
+            }
+        }
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex) {
+        afterThrowing(proxy, methodId, token, ex, null);
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex, final String sql) {
+        final TraceWriter writer = this.traceWriter;
+        if ((writer != null) && (token != 0)) {
+            record(writer, proxy, code(methodId), token, null, sql);
+        }
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId) {
+        if (traceWriter == null) {
+            return 0;
+        }
+        final int code = code(methodId);
+        return ((code == NONE) || (code == NEXT) ? 0 : System.nanoTime() | 1L);
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId, final String sql) {
+        return before(proxy, methodId);
+    }
+
+    private int code(final int methodId) {
+        final int[] codes = this.codeArray;
+        if ((methodId < codes.length) && (codes[methodId] != UNKNOWN)) {
+            return codes[methodId];
+        }
+        return computeAndCacheCode(methodId);
+    }
+
+    private synchronized int computeAndCacheCode(final int methodId) {
+        int[] codes = this.codeArray;
+        if (methodId >= codes.length) {
+            final int[] newCodes = new int[Math.max(methodId + 1, codes.length * 2)];
+            System.arraycopy(codes, 0, newCodes, 0, codes.length);
+            codes = newCodes;
+        }
+        final int code = computeCode(Interceptors.methodName(methodId));
+        codes[methodId] = code;
+        this.codeArray = codes;
+        return code;
+    }
+
+    private void record(final TraceWriter writer, final Object proxy, final int code, final long startNanos, final Object result, final String sql) {
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final byte type = (byte) (code & 0xFF);
+        final byte kind = (byte) (code >>> 8);
+        switch (type) {
+            case TraceFormat.CONNECTION_ACQUIRE:
+                if (result != null) {
+                    writer.commit(writer.begin(type, startNanos, elapsedNanos).putInt(id(result)));
+                }
+                break;
+            case TraceFormat.CONNECTION_RELEASE:
+            case TraceFormat.COMMIT:
+            case TraceFormat.ROLLBACK:
+                writer.commit(writer.begin(type, startNanos, elapsedNanos).putInt(id(proxy)));
+                break;
+            case TraceFormat.PREPARE:
+                if (result != null) {
+                    final int sqlId = writer.sqlId(result instanceof PreparedSql ? ((PreparedSql) result).getSql() : null);
+                    writer.commit(writer.begin(type, startNanos, elapsedNanos)
+                            .putInt(id(proxy)).putInt(id(result)).putByte(kind).putInt(sqlId));
+                }
+                break;
+            case TraceFormat.EXECUTE:
+                final int executeSqlId = writer.sqlId(sql);
+                writer.commit(writer.begin(type, startNanos, elapsedNanos)
+                        .putInt(id(proxy)).putByte(kind).putInt(executeSqlId)
+                        .putParameters(sql == null ? parametersOf(proxy) : null).putLong(rows(result)));
+                break;
+            case TraceFormat.ADD_BATCH:
+                final int batchSqlId = writer.sqlId(sql);
+                writer.commit(writer.begin(type, startNanos, elapsedNanos)
+                        .putInt(id(proxy)).putInt(batchSqlId).putParameters(sql == null ? parametersOf(proxy) : null));
+                break;
+            case TraceFormat.FETCH:
+                final long[] fetchCount = fetchCountThreadLocal.get().remove(proxy);
+                final Object statement = (proxy instanceof AbstractResultSetProxy ? ((AbstractResultSetProxy) proxy).getStatementProxy() : null);
+                if (statement != null) {
+                    writer.commit(writer.begin(type, startNanos, elapsedNanos)
+                            .putInt(id(statement)).putLong(fetchCount != null ? fetchCount[0] : 0));
+                }
+                break;
+            case TraceFormat.STATEMENT_CLOSE:
+                writer.commit(writer.begin(type, startNanos, elapsedNanos).putInt(id(proxy)));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Object[] parametersOf(final Object proxy) {
+        return (proxy instanceof ParameterCapture ? ((ParameterCapture) proxy).capturedParameterValues() : null);
+    }
+
+    TraceWriter traceWriter() {
+        return traceWriter;
+    }
+
+    void traceWriter(final TraceWriter traceWriter) {
+        this.traceWriter = traceWriter;
+    }
+
+}
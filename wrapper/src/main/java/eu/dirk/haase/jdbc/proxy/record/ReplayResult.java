@@ -0,0 +1,82 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+/**
+ * Ergebnis eines Abspielens mit dem {@link WorkloadReplayer}.
+ */
+public final class ReplayResult {
+
+    private final long elapsedNanos;
+    private final long errorCount;
+    private final long eventCount;
+    private final long skippedCount;
+    private final int threadCount;
+
+    ReplayResult(final long eventCount, final long errorCount, final long skippedCount, final int threadCount, final long elapsedNanos) {
+        this.eventCount = eventCount;
+        this.errorCount = errorCount;
+        this.skippedCount = skippedCount;
+        this.threadCount = threadCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Liefert die Gesamtdauer des Abspielens in Nanosekunden.
+     *
+     * @return die Gesamtdauer in Nanosekunden.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Liefert die Anzahl der Datens&auml;tze deren Ausf&uuml;hrung mit einer
+     * {@link java.sql.SQLException} (oder einer anderen Exception) endete.
+     *
+     * @return die Anzahl der fehlgeschlagenen Datens&auml;tze.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Liefert die Anzahl der abgespielten Datens&auml;tze.
+     *
+     * @return die Anzahl der abgespielten Datens&auml;tze.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Liefert die Anzahl der Datens&auml;tze die &uuml;bersprungen wurden, weil die
+     * Connection oder das Statement nicht (mehr) bekannt war, zum Beispiel
+     * wenn die Aufzeichnung w&auml;hrend einer Transaktion gestartet wurde.
+     *
+     * @return die Anzahl der &uuml;bersprungenen Datens&auml;tze.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Liefert die Anzahl der Threads mit denen abgespielt wurde (entspricht der
+     * Anzahl der aufgezeichneten Threads).
+     *
+     * @return die Anzahl der Threads.
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayResult{" +
+                "eventCount=" + eventCount +
+                ", errorCount=" + errorCount +
+                ", skippedCount=" + skippedCount +
+                ", threadCount=" + threadCount +
+                ", elapsedMillis=" + (elapsedNanos / 1_000_000L) +
+                '}';
+    }
+
+}
@@ -0,0 +1,19 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+/**
+ * Ein gelesener Datensatz einer Trace-Datei (siehe {@link TraceFormat}).
+ */
+final class TraceEvent {
+
+    int connectionId;
+    long elapsedNanos;
+    byte kind;
+    Object[] parameters;
+    long rows;
+    String sql;
+    long startNanos;
+    int statementId;
+    int threadId;
+    byte type;
+
+}
@@ -0,0 +1,123 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+/**
+ * Konstanten des bin&auml;ren Trace-Formats.
+ * <p>
+ * Eine Trace-Datei beginnt mit einem Kopf
+ * <pre><code>
+ * int  MAGIC
+ * short VERSION
+ * long Startzeitpunkt (Millisekunden seit 1970)
+ * </code></pre>
+ * gefolgt von Datens&auml;tzen der Form
+ * <pre><code>
+ * byte Typ
+ * int  Thread-Id
+ * long Start (Nanosekunden seit Beginn der Aufzeichnung)
+ * long Dauer (Nanosekunden)
+ * ...  Nutzdaten (abh&auml;ngig vom Typ)
+ * </code></pre>
+ * Ein Typ {@code 0} markiert das Ende der Datens&auml;tze. SQL-Anweisungen werden
+ * nur einmal als {@link #SQL_DEFINE} geschrieben und danach &uuml;ber ihre Id
+ * referenziert. Connections und Statements werden &uuml;ber den
+ * Identity-Hash-Code ihres internen (nicht eingepackten) Objektes identifiziert.
+ */
+final class TraceFormat {
+
+    static final int MAGIC = 0x54505754; // "TPWT"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 8;
+    static final int RECORD_HEADER_SIZE = 1 + 4 + 8 + 8;
+
+    static final byte END = 0;
+    /**
+     * {@code int sqlId, string sql}
+     */
+    static final byte SQL_DEFINE = 1;
+    /**
+     * {@code int connectionId}
+     */
+    static final byte CONNECTION_ACQUIRE = 2;
+    /**
+     * {@code int connectionId}
+     */
+    static final byte CONNECTION_RELEASE = 3;
+    /**
+     * {@code int connectionId, int statementId, byte statementKind, int sqlId}
+     */
+    static final byte PREPARE = 4;
+    /**
+     * {@code int statementId, byte executeKind, int sqlId, parameters, long rows}
+     */
+    static final byte EXECUTE = 5;
+    /**
+     * {@code int statementId, int sqlId, parameters}
+     */
+    static final byte ADD_BATCH = 6;
+    /**
+     * {@code int statementId, long rows}
+     */
+    static final byte FETCH = 7;
+    /**
+     * {@code int connectionId}
+     */
+    static final byte COMMIT = 8;
+    /**
+     * {@code int connectionId}
+     */
+    static final byte ROLLBACK = 9;
+    /**
+     * {@code int statementId}
+     */
+    static final byte STATEMENT_CLOSE = 10;
+
+    static final byte STATEMENT = 0;
+    static final byte PREPARED_STATEMENT = 1;
+    static final byte CALLABLE_STATEMENT = 2;
+
+    static final byte EXECUTE_ANY = 0;
+    static final byte EXECUTE_QUERY = 1;
+    static final byte EXECUTE_UPDATE = 2;
+    static final byte EXECUTE_LARGE_UPDATE = 3;
+    static final byte EXECUTE_BATCH = 4;
+    static final byte EXECUTE_LARGE_BATCH = 5;
+
+    static final byte PARAMETER_NULL = 0;
+    static final byte PARAMETER_LONG = 1;
+    static final byte PARAMETER_DOUBLE = 2;
+    static final byte PARAMETER_STRING = 3;
+    static final byte PARAMETER_BOOLEAN = 4;
+    static final byte PARAMETER_BYTES = 5;
+    static final byte PARAMETER_TIMESTAMP = 6;
+    static final byte PARAMETER_DATE = 7;
+    static final byte PARAMETER_TIME = 8;
+    static final byte PARAMETER_DECIMAL = 9;
+    /**
+     * Nicht unterst&uuml;tzter Typ (zum Beispiel Streams), wird beim Abspielen als
+     * {@code null} gebunden.
+     */
+    static final byte PARAMETER_UNSUPPORTED = 10;
+
+    static final int NO_SQL = -1;
+
+    private TraceFormat() {
+    }
+
+    static byte executeKind(final String methodName) {
+        switch (methodName) {
+            case "executeQuery":
+                return EXECUTE_QUERY;
+            case "executeUpdate":
+                return EXECUTE_UPDATE;
+            case "executeLargeUpdate":
+                return EXECUTE_LARGE_UPDATE;
+            case "executeBatch":
+                return EXECUTE_BATCH;
+            case "executeLargeBatch":
+                return EXECUTE_LARGE_BATCH;
+            default:
+                return EXECUTE_ANY;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Liest eine Trace-Datei (siehe {@link TraceFormat}).
+ * <p>
+ * Die SQL-Definitionen werden aufgel&ouml;st, so dass jeder gelesene
+ * {@link TraceEvent} seine SQL-Anweisung direkt enth&auml;lt.
+ */
+final class TraceReader {
+
+    private final ByteBuffer buffer;
+    private final Map<Integer, String> id2SqlMap;
+
+    private TraceReader(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.id2SqlMap = new HashMap<>();
+    }
+
+    /**
+     * Liest alle Datens&auml;tze einer Trace-Datei.
+     *
+     * @param file die Trace-Datei.
+     * @return die Datens&auml;tze in der Reihenfolge der Datei (ohne
+     * SQL-Definitionen).
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder keine
+     *                     Trace-Datei ist.
+     */
+    static List<TraceEvent> read(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if ((buffer.remaining() < TraceFormat.HEADER_SIZE) || (buffer.getInt() != TraceFormat.MAGIC)) {
+                throw new IOException("Not a JDBC workload trace: " + file);
+            }
+            final short version = buffer.getShort();
+            if (version != TraceFormat.VERSION) {
+                throw new IOException("Unsupported trace version " + version + ": " + file);
+            }
+            buffer.getLong();
+            return new TraceReader(buffer).readEvents();
+        }
+    }
+
+    private Object readParameter() {
+        final byte type = buffer.get();
+        switch (type) {
+            case TraceFormat.PARAMETER_LONG:
+                return buffer.getLong();
+            case TraceFormat.PARAMETER_DOUBLE:
+                return Double.longBitsToDouble(buffer.getLong());
+            case TraceFormat.PARAMETER_STRING:
+                return readString();
+            case TraceFormat.PARAMETER_BOOLEAN:
+                return (buffer.get() != 0);
+            case TraceFormat.PARAMETER_BYTES:
+                final byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return bytes;
+            case TraceFormat.PARAMETER_TIMESTAMP:
+                final java.sql.Timestamp timestamp = new java.sql.Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                return timestamp;
+            case TraceFormat.PARAMETER_DATE:
+                return new java.sql.Date(buffer.getLong());
+            case TraceFormat.PARAMETER_TIME:
+                return new java.sql.Time(buffer.getLong());
+            case TraceFormat.PARAMETER_DECIMAL:
+                return new BigDecimal(readString());
+            case TraceFormat.PARAMETER_UNSUPPORTED:
+                readString();
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private Object[] readParameters() {
+        final short count = buffer.getShort();
+        if (count < 0) {
+            return null;
+        }
+        final Object[] parameters = new Object[count];
+        for (int i = 0; count > i; ++i) {
+            parameters[i] = readParameter();
+        }
+        return parameters;
+    }
+
+    private List<TraceEvent> readEvents() {
+        final List<TraceEvent> eventList = new ArrayList<>();
+        while (buffer.remaining() >= TraceFormat.RECORD_HEADER_SIZE) {
+            final byte type = buffer.get();
+            if (type == TraceFormat.END) {
+                break;
+            }
+            final TraceEvent event = new TraceEvent();
+            event.type = type;
+            event.threadId = buffer.getInt();
+            event.startNanos = buffer.getLong();
+            event.elapsedNanos = buffer.getLong();
+            switch (type) {
+                case TraceFormat.SQL_DEFINE:
+                    final int sqlId = buffer.getInt();
+                    id2SqlMap.put(sqlId, readString());
+                    continue;
+                case TraceFormat.CONNECTION_ACQUIRE:
+                case TraceFormat.CONNECTION_RELEASE:
+                case TraceFormat.COMMIT:
+                case TraceFormat.ROLLBACK:
+                    event.connectionId = buffer.getInt();
+                    break;
+                case TraceFormat.PREPARE:
+                    event.connectionId = buffer.getInt();
+                    event.statementId = buffer.getInt();
+                    event.kind = buffer.get();
+                    event.sql = id2SqlMap.get(buffer.getInt());
+                    break;
+                case TraceFormat.EXECUTE:
+                    event.statementId = buffer.getInt();
+                    event.kind = buffer.get();
+                    event.sql = id2SqlMap.get(buffer.getInt());
+                    event.parameters = readParameters();
+                    event.rows = buffer.getLong();
+                    break;
+                case TraceFormat.ADD_BATCH:
+                    event.statementId = buffer.getInt();
+                    event.sql = id2SqlMap.get(buffer.getInt());
+                    event.parameters = readParameters();
+                    break;
+                case TraceFormat.FETCH:
+                    event.statementId = buffer.getInt();
+                    event.rows = buffer.getLong();
+                    break;
+                case TraceFormat.STATEMENT_CLOSE:
+                    event.statementId = buffer.getInt();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown record type " + type + " at position " + (buffer.position() - TraceFormat.RECORD_HEADER_SIZE));
+            }
+            eventList.add(event);
+        }
+        return eventList;
+    }
+
+    private String readString() {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
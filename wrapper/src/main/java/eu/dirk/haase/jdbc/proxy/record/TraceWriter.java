@@ -0,0 +1,138 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Schreibt Datens&auml;tze in eine Trace-Datei fester Gr&ouml;&szlig;e, die per
+ * {@link MappedByteBuffer} in den Speicher abgebildet ist.
+ * <p>
+ * Jeder Thread stellt seinen Datensatz zun&auml;chst in einem eigenen
+ * {@link RecordBuffer} zusammen, reserviert dann mit einem einzigen atomaren
+ * Additions-Befehl den Platz in der Datei und kopiert den Datensatz dorthin.
+ * Es gibt daher keine Sperren und keine System-Aufrufe pro Datensatz. Ist die
+ * Datei voll, dann werden weitere Datens&auml;tze verworfen und gez&auml;hlt.
+ */
+final class TraceWriter implements Closeable {
+
+    private final MappedByteBuffer buffer;
+    private final FileChannel channel;
+    private final LongAdder droppedCount;
+    private final AtomicInteger nextSqlId;
+    private final AtomicInteger position;
+    private final ThreadLocal<RecordBuffer> recordBufferThreadLocal;
+    private final ConcurrentHashMap<String, Integer> sql2IdMap;
+    private final long startNanos;
+    private volatile boolean isClosed;
+
+    TraceWriter(final Path file, final int capacity) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.startNanos = System.nanoTime();
+        this.buffer.putInt(TraceFormat.MAGIC);
+        this.buffer.putShort(TraceFormat.VERSION);
+        this.buffer.putLong(System.currentTimeMillis());
+        this.position = new AtomicInteger(TraceFormat.HEADER_SIZE);
+        this.droppedCount = new LongAdder();
+        this.nextSqlId = new AtomicInteger();
+        this.sql2IdMap = new ConcurrentHashMap<>();
+        this.recordBufferThreadLocal = ThreadLocal.withInitial(RecordBuffer::new);
+    }
+
+    /**
+     * Beginnt einen Datensatz im Puffer des aktuellen Threads.
+     *
+     * @param type         der Typ des Datensatzes.
+     * @param startNanos   der Start als Wert von {@link System#nanoTime()}.
+     * @param elapsedNanos die Dauer in Nanosekunden.
+     * @return der Puffer f&uuml;r die Nutzdaten.
+     */
+    RecordBuffer begin(final byte type, final long startNanos, final long elapsedNanos) {
+        final int threadId = (int) Thread.currentThread().getId();
+        return recordBufferThreadLocal.get().begin(type, threadId, startNanos - this.startNanos, elapsedNanos);
+    }
+
+    /**
+     * Schlie&szlig;t die Aufzeichnung ab und schreibt die Datei auf das
+     * Speichermedium. Die Datei beh&auml;lt ihre Gr&ouml;&szlig;e; das Ende der
+     * Datens&auml;tze ist durch {@link TraceFormat#END} markiert.
+     *
+     * @throws IOException wenn die Datei nicht geschrieben werden kann.
+     */
+    @Override
+    public void close() throws IOException {
+        isClosed = true;
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Schreibt einen im Puffer des aktuellen Threads zusammengestellten Datensatz
+     * in die Datei.
+     *
+     * @param recordBuffer der Puffer.
+     */
+    void commit(final RecordBuffer recordBuffer) {
+        final ByteBuffer record = recordBuffer.flip();
+        final int length = record.remaining();
+        if (isClosed || (position.get() >= buffer.capacity())) {
+            droppedCount.increment();
+            return;
+        }
+        final int offset = position.getAndAdd(length);
+        if ((offset < 0) || ((long) offset + length >= buffer.capacity())) {
+            // Mindestens ein Byte bleibt als END-Markierung frei:
+            droppedCount.increment();
+            return;
+        }
+        final ByteBuffer target = buffer.duplicate();
+        ((Buffer) target).position(offset);
+        target.put(record);
+    }
+
+    long droppedCount() {
+        return droppedCount.sum();
+    }
+
+    int size() {
+        return Math.min(position.get(), buffer.capacity());
+    }
+
+    /**
+     * Liefert die Id einer SQL-Anweisung. Beim ersten Auftreten wird die
+     * SQL-Anweisung als {@link TraceFormat#SQL_DEFINE} geschrieben, so dass die
+     * Definition in der Datei stets vor ihrer ersten Verwendung steht.
+     * <p>
+     * Da dabei der Puffer des aktuellen Threads verwendet wird, muss diese
+     * Methode vor {@link #begin(byte, long, long)} aufgerufen werden.
+     *
+     * @param sql die SQL-Anweisung.
+     * @return die Id oder {@link TraceFormat#NO_SQL} wenn {@code sql} {@code null} ist.
+     */
+    int sqlId(final String sql) {
+        if (sql == null) {
+            return TraceFormat.NO_SQL;
+        }
+        final Integer sqlId = sql2IdMap.get(sql);
+        if (sqlId != null) {
+            return sqlId;
+        }
+        return sql2IdMap.computeIfAbsent(sql, (s) -> {
+            final int newSqlId = nextSqlId.getAndIncrement();
+            final long now = System.nanoTime();
+            commit(begin(TraceFormat.SQL_DEFINE, now, 0).putInt(newSqlId).putString(s));
+            return newSqlId;
+        });
+    }
+
+}
@@ -0,0 +1,192 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+import eu.dirk.haase.jdbc.proxy.base.BindParameters;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.InterceptorProvider;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Zeichnet den JDBC-Verkehr der generierten Wrapper-Klassen in einer kompakten
+ * bin&auml;ren Trace-Datei auf, die mit dem {@link WorkloadReplayer} gegen eine
+ * beliebige {@link javax.sql.DataSource} abgespielt werden kann.
+ * <p>
+ * Aufgezeichnet werden mit Zeitpunkt, Dauer und Thread:
+ * <ul>
+ * <li>das Anfordern und Freigeben von Connections,</li>
+ * <li>das Erzeugen und Schlie&szlig;en von Statements,</li>
+ * <li>jede Ausf&uuml;hrung mit ihren Bind-Parametern (siehe
+ * {@link BindParameters}) und der Anzahl der betroffenen Zeilen,</li>
+ * <li>die Anzahl der gelesenen Zeilen pro ResultSet sowie</li>
+ * <li>Commits und Rollbacks.</li>
+ * </ul>
+ * Die Datei hat eine feste Gr&ouml;&szlig;e und wird per Memory-Mapping
+ * geschrieben (siehe {@link TraceWriter}); die aufzeichnenden Threads
+ * f&uuml;hren daher keine System-Aufrufe aus.
+ * <p>
+ * Wie die {@link eu.dirk.haase.jdbc.proxy.metrics.JdbcMetrics} wird der
+ * Verkehr &uuml;ber einen {@link Interceptor} erfasst, der eingeschaltet werden
+ * muss <b>bevor</b> die Wrapper-Klassen generiert werden. Die Aufzeichnung
+ * selbst kann danach beliebig mit {@link #start(Path, int)} und {@link #stop()}
+ * gestartet und beendet werden. Mit den System-Properties
+ * <pre><code>
+ * -Deu.dirk.haase.jdbc.proxy.record=true
+ * -Deu.dirk.haase.jdbc.proxy.record.file=/tmp/workload.trc
+ * -Deu.dirk.haase.jdbc.proxy.record.size=256
+ * </code></pre>
+ * wird der Interceptor eingeschaltet und die Aufzeichnung sofort gestartet
+ * (Gr&ouml;&szlig;e in MiB, Standard: 64).
+ */
+public final class WorkloadRecorder {
+
+    /**
+     * Name der System-Property mit der die Aufzeichnung eingeschaltet wird.
+     */
+    public static final String ENABLED_PROPERTY = "eu.dirk.haase.jdbc.proxy.record";
+
+    /**
+     * Name der System-Property mit dem Pfad der Trace-Datei.
+     */
+    public static final String FILE_PROPERTY = "eu.dirk.haase.jdbc.proxy.record.file";
+
+    /**
+     * Name der System-Property mit der Gr&ouml;&szlig;e der Trace-Datei in MiB.
+     */
+    public static final String SIZE_PROPERTY = "eu.dirk.haase.jdbc.proxy.record.size";
+
+    private static final RecordingInterceptor recordingInterceptor = new RecordingInterceptor();
+    private static TraceWriter lastTraceWriter;
+
+    static {
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            BindParameters.requestCapture(WorkloadRecorder.class, true);
+            final String fileName = System.getProperty(FILE_PROPERTY);
+            final Path file = (fileName != null ? Paths.get(fileName) : Paths.get(System.getProperty("java.io.tmpdir"), "tiny-pool-workload.trc"));
+            start(file, Integer.getInteger(SIZE_PROPERTY, 64) * 1024 * 1024);
+        }
+    }
+
+    private WorkloadRecorder() {
+    }
+
+    /**
+     * Schaltet den Interceptor f&uuml;r alle danach generierten Wrapper-Klassen
+     * aus. Eine laufende Aufzeichnung wird dadurch nicht beendet.
+     */
+    public static void disable() {
+        BindParameters.requestCapture(WorkloadRecorder.class, false);
+        Interceptors.remove(recordingInterceptor);
+    }
+
+    /**
+     * Liefert die Anzahl der Datens&auml;tze die verworfen wurden, weil die
+     * Trace-Datei voll war.
+     *
+     * @return die Anzahl der verworfenen Datens&auml;tze der laufenden oder
+     * zuletzt beendeten Aufzeichnung.
+     */
+    public static synchronized long droppedCount() {
+        return (lastTraceWriter != null ? lastTraceWriter.droppedCount() : 0);
+    }
+
+    /**
+     * Schaltet den Interceptor f&uuml;r alle danach generierten Wrapper-Klassen
+     * ein. Danach erzeugte Statements schreiben ihre Bind-Parameter mit.
+     */
+    public static void enable() {
+        BindParameters.requestCapture(WorkloadRecorder.class, true);
+        Interceptors.add(recordingInterceptor);
+    }
+
+    /**
+     * Liefert den {@link Interceptor} der den JDBC-Verkehr aufzeichnet.
+     *
+     * @return der Interceptor.
+     */
+    public static Interceptor interceptor() {
+        return recordingInterceptor;
+    }
+
+    /**
+     * Liefert {@code true} wenn der Interceptor f&uuml;r neu generierte
+     * Wrapper-Klassen eingeschaltet ist.
+     *
+     * @return {@code true} wenn der Interceptor eingeschaltet ist.
+     */
+    public static boolean isEnabled() {
+        return Interceptors.contains(recordingInterceptor);
+    }
+
+    /**
+     * Liefert {@code true} wenn gerade aufgezeichnet wird.
+     *
+     * @return {@code true} wenn gerade aufgezeichnet wird.
+     */
+    public static boolean isRecording() {
+        return (recordingInterceptor.traceWriter() != null);
+    }
+
+    /**
+     * Startet eine Aufzeichnung.
+     *
+     * @param file     die Trace-Datei, eine vorhandene Datei wird &uuml;berschrieben.
+     * @param capacity die Gr&ouml;&szlig;e der Trace-Datei in Bytes.
+     * @throws IllegalStateException wenn bereits aufgezeichnet wird oder die
+     *                               Datei nicht angelegt werden kann.
+     */
+    public static synchronized void start(final Path file, final int capacity) {
+        if (isRecording()) {
+            throw new IllegalStateException("Workload recording is already running.");
+        }
+        if (capacity <= TraceFormat.HEADER_SIZE) {
+            throw new IllegalArgumentException("Capacity is too small: " + capacity);
+        }
+        try {
+            lastTraceWriter = new TraceWriter(file, capacity);
+            recordingInterceptor.traceWriter(lastTraceWriter);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    /**
+     * Beendet die laufende Aufzeichnung und schreibt die Trace-Datei auf das
+     * Speichermedium.
+     * <p>
+     * Datens&auml;tze die von anderen Threads genau in diesem Moment geschrieben
+     * werden, k&ouml;nnen dabei verloren gehen.
+     *
+     * @return die Anzahl der geschriebenen Bytes oder {@code 0} wenn keine
+     * Aufzeichnung lief.
+     */
+    public static synchronized long stop() {
+        final TraceWriter traceWriter = recordingInterceptor.traceWriter();
+        if (traceWriter == null) {
+            return 0;
+        }
+        recordingInterceptor.traceWriter(null);
+        try {
+            traceWriter.close();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+        return traceWriter.size();
+    }
+
+    /**
+     * F&uuml;gt den Interceptor beim Start hinzu, wenn die System-Property
+     * {@value #ENABLED_PROPERTY} gesetzt ist (siehe {@link InterceptorProvider}).
+     */
+    public static final class Provider implements InterceptorProvider {
+
+        @Override
+        public Interceptor startupInterceptor() {
+            return (Boolean.getBoolean(ENABLED_PROPERTY) ? interceptor() : null);
+        }
+
+    }
+
+}
@@ -0,0 +1,412 @@
+package eu.dirk.haase.jdbc.proxy.record;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Spielt eine mit dem {@link WorkloadRecorder} aufgezeichnete Trace-Datei gegen
+ * eine beliebige {@link DataSource} ab, zum Beispiel gegen eine lokale
+ * H2-Datenbank.
+ * <p>
+ * F&uuml;r jeden aufgezeichneten Thread wird ein eigener Thread gestartet, der
+ * die Datens&auml;tze dieses Threads in der aufgezeichneten Reihenfolge und zu
+ * den aufgezeichneten Zeitpunkten (geteilt durch den Geschwindigkeits-Faktor)
+ * ausf&uuml;hrt. Die Nebenl&auml;ufigkeit und das Tempo des Original-Systems
+ * bleiben so erhalten.
+ * <p>
+ * Aufruf als Werkzeug:
+ * <pre><code>
+ * java eu.dirk.haase.jdbc.proxy.record.WorkloadReplayer workload.trc jdbc:h2:mem:test [speed]
+ * </code></pre>
+ */
+public final class WorkloadReplayer {
+
+    private final List<TraceEvent> eventList;
+
+    /**
+     * Liest eine Trace-Datei.
+     *
+     * @param file die Trace-Datei.
+     * @throws IOException wenn die Datei nicht gelesen werden kann.
+     */
+    public WorkloadReplayer(final Path file) throws IOException {
+        this.eventList = TraceReader.read(file);
+    }
+
+    public static void main(final String... args) throws Exception {
+        if ((args.length < 2) || (args.length > 3)) {
+            throw new IllegalArgumentException("Usage: WorkloadReplayer <trace-file> <jdbc-url> [speed]");
+        }
+        final double speed = (args.length == 3 ? Double.parseDouble(args[2]) : 1.0);
+        final ReplayResult replayResult = new WorkloadReplayer(Paths.get(args[0])).replay(new DriverManagerDataSource(args[1]), speed);
+        System.out.println(replayResult);
+    }
+
+    /**
+     * Liefert die Anzahl der gelesenen Datens&auml;tze.
+     *
+     * @return die Anzahl der Datens&auml;tze.
+     */
+    public int eventCount() {
+        return eventList.size();
+    }
+
+    /**
+     * Liefert die Summe der gelesenen Zeilen aller ResultSets.
+     *
+     * @return die Anzahl der gelesenen Zeilen.
+     */
+    public long fetchRowCount() {
+        long rowCount = 0;
+        for (final TraceEvent event : eventList) {
+            if (event.type == TraceFormat.FETCH) {
+                rowCount += Math.max(0, event.rows);
+            }
+        }
+        return rowCount;
+    }
+
+    /**
+     * Spielt die Trace-Datei ab und wartet bis alle Threads beendet sind.
+     *
+     * @param dataSource die DataSource gegen die abgespielt wird.
+     * @param speed      der Geschwindigkeits-Faktor: {@code 1.0} spielt im
+     *                   Original-Tempo ab, {@code 2.0} doppelt so schnell und
+     *                   {@code 0} (oder kleiner) so schnell wie m&ouml;glich.
+     * @return das Ergebnis.
+     * @throws InterruptedException wenn der aufrufende Thread unterbrochen wird.
+     */
+    public ReplayResult replay(final DataSource dataSource, final double speed) throws InterruptedException {
+        final Map<Integer, List<TraceEvent>> thread2EventsMap = new LinkedHashMap<>();
+        for (final TraceEvent event : eventList) {
+            thread2EventsMap.computeIfAbsent(event.threadId, (t) -> new ArrayList<>()).add(event);
+        }
+        final Session session = new Session(dataSource, speed);
+        final List<Thread> threadList = new ArrayList<>(thread2EventsMap.size());
+        for (final Map.Entry<Integer, List<TraceEvent>> entry : thread2EventsMap.entrySet()) {
+            final Thread thread = new Thread(() -> session.replay(entry.getValue()), "workload-replay-" + entry.getKey());
+            thread.setDaemon(true);
+            threadList.add(thread);
+        }
+        session.startNanos = System.nanoTime();
+        for (final Thread thread : threadList) {
+            thread.start();
+        }
+        for (final Thread thread : threadList) {
+            thread.join();
+        }
+        session.closeAll();
+        final long elapsedNanos = System.nanoTime() - session.startNanos;
+        return new ReplayResult(session.eventCount.sum(), session.errorCount.sum(), session.skippedCount.sum(), threadList.size(), elapsedNanos);
+    }
+
+    /**
+     * Zustand eines Abspielens: die Zuordnung der aufgezeichneten Ids zu den
+     * neu erzeugten Connections, Statements und ResultSets.
+     */
+    static final class Session {
+
+        final Map<Integer, Connection> connectionMap = new ConcurrentHashMap<>();
+        final DataSource dataSource;
+        final LongAdder errorCount = new LongAdder();
+        final LongAdder eventCount = new LongAdder();
+        final Map<Integer, ResultSet> resultSetMap = new ConcurrentHashMap<>();
+        final LongAdder skippedCount = new LongAdder();
+        final double speed;
+        final Map<Integer, Statement> statementMap = new ConcurrentHashMap<>();
+        volatile long startNanos;
+
+        Session(final DataSource dataSource, final double speed) {
+            this.dataSource = dataSource;
+            this.speed = speed;
+        }
+
+        private static void bind(final PreparedStatement preparedStatement, final Object[] parameters) throws SQLException {
+            if (parameters == null) {
+                return;
+            }
+            for (int i = 0; parameters.length > i; ++i) {
+                final int index = i + 1;
+                final Object value = parameters[i];
+                if (value instanceof Long) {
+                    preparedStatement.setLong(index, (Long) value);
+                } else if (value instanceof Double) {
+                    preparedStatement.setDouble(index, (Double) value);
+                } else if (value instanceof String) {
+                    preparedStatement.setString(index, (String) value);
+                } else if (value instanceof Boolean) {
+                    preparedStatement.setBoolean(index, (Boolean) value);
+                } else if (value instanceof byte[]) {
+                    preparedStatement.setBytes(index, (byte[]) value);
+                } else if (value instanceof Timestamp) {
+                    preparedStatement.setTimestamp(index, (Timestamp) value);
+                } else if (value instanceof java.sql.Date) {
+                    preparedStatement.setDate(index, (java.sql.Date) value);
+                } else if (value instanceof Time) {
+                    preparedStatement.setTime(index, (Time) value);
+                } else if (value instanceof BigDecimal) {
+                    preparedStatement.setBigDecimal(index, (BigDecimal) value);
+                } else {
+                    preparedStatement.setNull(index, Types.NULL);
+                }
+            }
+        }
+
+        private static void close(final AutoCloseable closeable) {
+            if (closeable != null) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    // Beim Aufraeumen nicht relevant
+                }
+            }
+        }
+
+        private void awaitStart(final TraceEvent event) {
+            if (speed <= 0) {
+                return;
+            }
+            final long dueNanos = startNanos + (long) (event.startNanos / speed);
+            long waitNanos;
+            while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+
+        void closeAll() {
+            resultSetMap.values().forEach(Session::close);
+            statementMap.values().forEach(Session::close);
+            connectionMap.values().forEach(Session::close);
+        }
+
+        private void execute(final TraceEvent event) throws SQLException {
+            switch (event.type) {
+                case TraceFormat.CONNECTION_ACQUIRE:
+                    connectionMap.put(event.connectionId, dataSource.getConnection());
+                    break;
+                case TraceFormat.CONNECTION_RELEASE:
+                    final Connection closedConnection = connectionMap.remove(event.connectionId);
+                    if (closedConnection == null) {
+                        skippedCount.increment();
+                    } else {
+                        closedConnection.close();
+                    }
+                    break;
+                case TraceFormat.COMMIT:
+                case TraceFormat.ROLLBACK:
+                    final Connection connection = connectionMap.get(event.connectionId);
+                    if (connection == null) {
+                        skippedCount.increment();
+                    } else if (event.type == TraceFormat.COMMIT) {
+                        connection.commit();
+                    } else {
+                        connection.rollback();
+                    }
+                    break;
+                case TraceFormat.PREPARE:
+                    prepare(event);
+                    break;
+                case TraceFormat.EXECUTE:
+                    executeStatement(event);
+                    break;
+                case TraceFormat.ADD_BATCH:
+                    final Statement batchStatement = statementMap.get(event.statementId);
+                    if (batchStatement == null) {
+                        skippedCount.increment();
+                    } else if (event.sql != null) {
+                        batchStatement.addBatch(event.sql);
+                    } else if (batchStatement instanceof PreparedStatement) {
+                        bind((PreparedStatement) batchStatement, event.parameters);
+                        ((PreparedStatement) batchStatement).addBatch();
+                    }
+                    break;
+                case TraceFormat.FETCH:
+                    fetch(event);
+                    break;
+                case TraceFormat.STATEMENT_CLOSE:
+                    close(resultSetMap.remove(event.statementId));
+                    final Statement closedStatement = statementMap.remove(event.statementId);
+                    if (closedStatement == null) {
+                        skippedCount.increment();
+                    } else {
+                        closedStatement.close();
+                    }
+                    break;
+                default:
+                    skippedCount.increment();
+                    break;
+            }
+        }
+
+        private void executeStatement(final TraceEvent event) throws SQLException {
+            final Statement statement = statementMap.get(event.statementId);
+            if (statement == null) {
+                skippedCount.increment();
+                return;
+            }
+            close(resultSetMap.remove(event.statementId));
+            final boolean isPrepared = (event.sql == null) && (statement instanceof PreparedStatement);
+            if (isPrepared) {
+                bind((PreparedStatement) statement, event.parameters);
+            }
+            final PreparedStatement preparedStatement = (isPrepared ? (PreparedStatement) statement : null);
+            ResultSet resultSet = null;
+            switch (event.kind) {
+                case TraceFormat.EXECUTE_QUERY:
+                    resultSet = (isPrepared ? preparedStatement.executeQuery() : statement.executeQuery(event.sql));
+                    break;
+                case TraceFormat.EXECUTE_UPDATE:
+                    if (isPrepared) {
+                        preparedStatement.executeUpdate();
+                    } else {
+                        statement.executeUpdate(event.sql);
+                    }
+                    break;
+                case TraceFormat.EXECUTE_LARGE_UPDATE:
+                    if (isPrepared) {
+                        preparedStatement.executeLargeUpdate();
+                    } else {
+                        statement.executeLargeUpdate(event.sql);
+                    }
+                    break;
+                case TraceFormat.EXECUTE_BATCH:
+                    statement.executeBatch();
+                    break;
+                case TraceFormat.EXECUTE_LARGE_BATCH:
+                    statement.executeLargeBatch();
+                    break;
+                default:
+                    final boolean hasResultSet = (isPrepared ? preparedStatement.execute() : statement.execute(event.sql));
+                    resultSet = (hasResultSet ? statement.getResultSet() : null);
+                    break;
+            }
+            if (resultSet != null) {
+                resultSetMap.put(event.statementId, resultSet);
+            }
+        }
+
+        private void fetch(final TraceEvent event) throws SQLException {
+            final ResultSet resultSet = resultSetMap.remove(event.statementId);
+            if (resultSet == null) {
+                skippedCount.increment();
+                return;
+            }
+            try {
+                for (long row = 0; (event.rows > row) && resultSet.next(); ++row) {
+                    // Die Zeilen werden nur gelesen
+                }
+            } finally {
+                resultSet.close();
+            }
+        }
+
+        private void prepare(final TraceEvent event) throws SQLException {
+            final Connection connection = connectionMap.get(event.connectionId);
+            if (connection == null) {
+                skippedCount.increment();
+                return;
+            }
+            final Statement statement;
+            switch (event.kind) {
+                case TraceFormat.PREPARED_STATEMENT:
+                    statement = connection.prepareStatement(event.sql);
+                    break;
+                case TraceFormat.CALLABLE_STATEMENT:
+                    statement = connection.prepareCall(event.sql);
+                    break;
+                default:
+                    statement = connection.createStatement();
+                    break;
+            }
+            statementMap.put(event.statementId, statement);
+        }
+
+        void replay(final List<TraceEvent> threadEventList) {
+            for (final TraceEvent event : threadEventList) {
+                awaitStart(event);
+                eventCount.increment();
+                try {
+                    execute(event);
+                } catch (Exception ex) {
+                    errorCount.increment();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Minimale {@link DataSource} f&uuml;r den Aufruf als Werkzeug, die
+     * Connections &uuml;ber den {@link DriverManager} erzeugt.
+     */
+    static final class DriverManagerDataSource implements DataSource {
+
+        private final String url;
+        private int loginTimeout;
+        private PrintWriter logWriter;
+
+        DriverManagerDataSource(final String url) {
+            this.url = url;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return DriverManager.getConnection(url);
+        }
+
+        @Override
+        public Connection getConnection(final String username, final String password) throws SQLException {
+            return DriverManager.getConnection(url, username, password);
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return loginTimeout;
+        }
+
+        @Override
+        public void setLoginTimeout(final int seconds) {
+            this.loginTimeout = seconds;
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return logWriter;
+        }
+
+        @Override
+        public void setLogWriter(final PrintWriter out) {
+            this.logWriter = out;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public boolean isWrapperFor(final Class<?> iface) {
+            return iface.isInstance(this);
+        }
+
+        @Override
+        public <T> T unwrap(final Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            throw new SQLException("Not a wrapper for " + iface);
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cache der {@link ColumnLabels} pro SQL-Anweisung, &uuml;ber alle
+ * Ausf&uuml;hrungen hinweg.
+ * <p>
+ * Der Cache ist direkt adressiert (wie bei {@link eu.dirk.haase.jdbc.proxy.sql.SqlFingerprint}):
+ * ein Array fester Gr&ouml;&szlig;e, dessen Index aus dem Hash der SQL-Anweisung
+ * gebildet wird. Kollisionen verdr&auml;ngen einfach den vorherigen Eintrag, der
+ * Speicherbedarf ist damit begrenzt.
+ * <p>
+ * Da sich die Form des Ergebnisses einer SQL-Anweisung (zum Beispiel
+ * {@code select * ...} nach einem {@code ALTER TABLE}) &auml;ndern kann, werden
+ * pro ResultSet einmalig alle Spaltennamen mit den Metadaten des Treibers
+ * verglichen und bei einer Abweichung wird die Zuordnung neu gelesen.
+ * <p>
+ * Der Cache kann mit der System-Property
+ * {@code eu.dirk.haase.jdbc.proxy.columnlabel.cache=false} abgeschaltet werden,
+ * dann werden die Spaltennamen pro ResultSet (statt pro SQL-Anweisung)
+ * aufgel&ouml;st.
+ */
+public final class ColumnLabelCache {
+
+    /**
+     * System-Property mit der der Cache abgeschaltet werden kann.
+     */
+    public static final String PROPERTY = "eu.dirk.haase.jdbc.proxy.columnlabel.cache";
+
+    private static final int CACHE_SIZE = 1024;
+    private static final AtomicReferenceArray<Entry> cacheArray = new AtomicReferenceArray<>(CACHE_SIZE);
+    private static final boolean isEnabled = !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    private ColumnLabelCache() {
+    }
+
+    private static int cacheIndex(final String sql) {
+        final int h = sql.hashCode();
+        return (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+    }
+
+    /**
+     * Verwirft alle Eintr&auml;ge des Caches.
+     */
+    public static void clear() {
+        for (int i = 0; CACHE_SIZE > i; ++i) {
+            cacheArray.set(i, null);
+        }
+    }
+
+    /**
+     * Liefert die Zuordnung der Spaltennamen zu den Spalten-Indizes f&uuml;r das
+     * Ergebnis einer SQL-Anweisung.
+     *
+     * @param sql      die SQL-Anweisung oder {@code null} wenn sie nicht bekannt ist.
+     * @param metaData die Metadaten des aktuellen ResultSets vom Treiber (und
+     *                 nicht aus einem Cache), gegen die ein gecachter Eintrag
+     *                 gepr&uuml;ft wird.
+     * @return die Zuordnung der Spaltennamen.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht gelesen
+     *                      werden k&ouml;nnen.
+     */
+    public static ColumnLabels get(final String sql, final ResultSetMetaData metaData) throws SQLException {
+        if ((sql == null) || !isEnabled) {
+            return ColumnLabels.of(metaData);
+        }
+        final int index = cacheIndex(sql);
+        final Entry cached = cacheArray.get(index);
+        if ((cached != null) && sql.equals(cached.sql) && cached.columnLabels.matches(metaData)) {
+            return cached.columnLabels;
+        }
+        final ColumnLabels columnLabels = ColumnLabels.of(metaData);
+        cacheArray.set(index, new Entry(sql, columnLabels));
+        return columnLabels;
+    }
+
+    /**
+     * Liefert {@code true} wenn der Cache eingeschaltet ist.
+     *
+     * @return {@code true} wenn der Cache eingeschaltet ist.
+     */
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    private static final class Entry {
+
+        final ColumnLabels columnLabels;
+        final String sql;
+
+        Entry(final String sql, final ColumnLabels columnLabels) {
+            this.sql = sql;
+            this.columnLabels = columnLabels;
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Die Zuordnung der Spaltennamen (Labels) zu den Spalten-Indizes f&uuml;r eine
+ * bestimmte Form (Shape) eines ResultSets.
+ * <p>
+ * Wie von JDBC gefordert wird ein Spaltenname ohne R&uuml;cksicht auf
+ * Gro&szlig;-/Kleinschreibung gesucht und bei mehreren gleichnamigen Spalten
+ * gilt die erste. Jede tats&auml;chlich verwendete Schreibweise wird nach der
+ * ersten Suche direkt zugeordnet, so dass sp&auml;tere Aufrufe nur noch einen
+ * einzigen Map-Zugriff kosten.
+ */
+public final class ColumnLabels {
+
+    private final int columnCount;
+    private final String[] labels;
+    private final Map<String, Integer> label2IndexMap;
+
+    private ColumnLabels(final int columnCount) {
+        this.columnCount = columnCount;
+        this.labels = new String[columnCount];
+        this.label2IndexMap = new ConcurrentHashMap<>(columnCount * 4);
+    }
+
+    /**
+     * Liest die Spaltennamen aus den Metadaten eines ResultSets.
+     *
+     * @param metaData die Metadaten des ResultSets.
+     * @return die Zuordnung der Spaltennamen zu den Spalten-Indizes.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht gelesen
+     *                      werden k&ouml;nnen.
+     */
+    public static ColumnLabels of(final ResultSetMetaData metaData) throws SQLException {
+        final int columnCount = metaData.getColumnCount();
+        final ColumnLabels columnLabels = new ColumnLabels(columnCount);
+        for (int columnIndex = 1; columnCount >= columnIndex; ++columnIndex) {
+            final String label = metaData.getColumnLabel(columnIndex);
+            columnLabels.labels[columnIndex - 1] = label;
+            if (label != null) {
+                columnLabels.label2IndexMap.putIfAbsent(label, columnIndex);
+                columnLabels.label2IndexMap.putIfAbsent(label.toUpperCase(Locale.ROOT), columnIndex);
+            }
+        }
+        return columnLabels;
+    }
+
+    /**
+     * Liefert die Anzahl der Spalten.
+     *
+     * @return die Anzahl der Spalten.
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Liefert {@code true} wenn die Metadaten genau die gleichen Spaltennamen
+     * in der gleichen Reihenfolge haben, diese Zuordnung also f&uuml;r das
+     * ResultSet gilt.
+     *
+     * @param metaData die Metadaten des ResultSets.
+     * @return {@code true} wenn die Spaltennamen &uuml;bereinstimmen.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht gelesen
+     *                      werden k&ouml;nnen.
+     */
+    public boolean matches(final ResultSetMetaData metaData) throws SQLException {
+        if (metaData.getColumnCount() != columnCount) {
+            return false;
+        }
+        for (int columnIndex = 1; columnCount >= columnIndex; ++columnIndex) {
+            final String label = metaData.getColumnLabel(columnIndex);
+            if ((label == null) ? (labels[columnIndex - 1] != null) : !label.equals(labels[columnIndex - 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Liefert den Index der Spalte mit dem angegebenen Namen.
+     *
+     * @param columnLabel der Name (Label) der Spalte.
+     * @return der Index der Spalte (beginnend mit 1) oder {@code 0} wenn es
+     * keine Spalte mit diesem Namen gibt.
+     */
+    public int indexOf(final String columnLabel) {
+        final Integer columnIndex = label2IndexMap.get(columnLabel);
+        if (columnIndex != null) {
+            return columnIndex;
+        }
+        final Integer upperCaseIndex = label2IndexMap.get(columnLabel.toUpperCase(Locale.ROOT));
+        if (upperCaseIndex != null) {
+            // Diese Schreibweise direkt zuordnen:
+            label2IndexMap.putIfAbsent(columnLabel, upperCaseIndex);
+            return upperCaseIndex;
+        }
+        return 0;
+    }
+
+}
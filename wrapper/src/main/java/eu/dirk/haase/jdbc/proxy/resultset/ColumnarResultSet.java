@@ -0,0 +1,1194 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * Ein nur lesbares, scrollbares ResultSet auf eine {@link ColumnarTable}.
+ * <p>
+ * Jedes ResultSet hat einen eigenen Cursor, die Werte selbst werden bei
+ * jedem Zugriff direkt aus den Spalten der Tabelle gelesen. Primitive Getter
+ * wie {@link #getLong(int)} oder {@link #getDouble(int)} kommen dabei ohne
+ * Boxing aus.
+ * <p>
+ * Wird das ResultSet von einem {@link ResultSetPrefetcher} gespeist, dann ist
+ * es nur vorw&auml;rts lesbar: sobald die Zeilen eines Blocks gelesen sind,
+ * wird der n&auml;chste vorausgelesene Block &uuml;bernommen.
+ * <p>
+ * Alle &auml;ndernden Methoden ({@code update*}, {@code insertRow()} usw.)
+ * l&ouml;sen eine {@link SQLFeatureNotSupportedException} aus.
+ */
+final class ColumnarResultSet implements ResultSet {
+
+    private final ResultSetPrefetcher prefetcher;
+    private final Statement statement;
+    private boolean isClosed;
+    private int fetchSize;
+    private int row;
+    private long rowOffset;
+    private ColumnarTable table;
+    private boolean wasNull;
+
+    ColumnarResultSet(final ColumnarTable table, final Statement statement) {
+        this.table = table;
+        this.statement = statement;
+        this.prefetcher = null;
+        this.row = -1;
+    }
+
+    ColumnarResultSet(final ResultSetPrefetcher prefetcher, final Statement statement) throws SQLException {
+        this.table = ColumnarTable.empty(prefetcher.getMetaData());
+        this.statement = statement;
+        this.prefetcher = prefetcher;
+        this.row = -1;
+    }
+
+    private static SQLException readOnly() {
+        return new SQLFeatureNotSupportedException("ResultSet is read only");
+    }
+
+    private static SQLException notSupported(final String typeName) {
+        return new SQLFeatureNotSupportedException(typeName + " is not supported");
+    }
+
+    @Override
+    public boolean absolute(final int row) throws SQLException {
+        checkScrollable();
+        final int rowCount = table.getRowCount();
+        if (row >= 0) {
+            this.row = Math.min(row, rowCount + 1) - 1;
+        } else {
+            this.row = Math.max(rowCount + row, -1);
+        }
+        return isOnRow();
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        checkScrollable();
+        this.row = table.getRowCount();
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        checkScrollable();
+        this.row = -1;
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        throw readOnly();
+    }
+
+    private void checkOpen() throws SQLException {
+        if (isClosed) {
+            throw new SQLException("ResultSet is closed");
+        }
+    }
+
+    private void checkScrollable() throws SQLException {
+        checkOpen();
+        if (prefetcher != null) {
+            throw new SQLException("ResultSet is forward only");
+        }
+    }
+
+    @Override
+    public void clearWarnings() {
+    }
+
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        if (prefetcher != null) {
+            prefetcher.close();
+        } else {
+            // Die Referenz aus ColumnarTable.newResultSet():
+            table.release();
+        }
+    }
+
+    /**
+     * Liefert die Spalte f&uuml;r den Wert in der aktuellen Zeile und setzt
+     * {@link #wasNull()}.
+     *
+     * @param columnIndex der Index der Spalte (beginnend mit 1).
+     * @return die Spalte oder {@code null} wenn der Wert {@code NULL} ist.
+     * @throws SQLException wird ausgel&ouml;st wenn das ResultSet geschlossen ist,
+     *                      der Cursor nicht auf einer Zeile steht oder es die Spalte
+     *                      nicht gibt.
+     */
+    private ColumnarTable.Column column(final int columnIndex) throws SQLException {
+        checkOpen();
+        if (!isOnRow()) {
+            throw new SQLException("ResultSet is not positioned on a row");
+        }
+        if ((columnIndex < 1) || (columnIndex > table.getColumnCount())) {
+            throw new SQLException("Invalid column index: " + columnIndex, "07009");
+        }
+        final ColumnarTable.Column column = table.column(columnIndex);
+        wasNull = column.isNull(row);
+        return (wasNull ? null : column);
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public int findColumn(final String columnLabel) throws SQLException {
+        checkOpen();
+        final int columnIndex = table.columnIndex(columnLabel);
+        if (columnIndex < 1) {
+            throw new SQLException("Column not found: " + columnLabel, "42S22");
+        }
+        return columnIndex;
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        return absolute(1);
+    }
+
+    @Override
+    public Array getArray(final int columnIndex) throws SQLException {
+        return getObject(columnIndex, Array.class);
+    }
+
+    @Override
+    public Array getArray(final String columnLabel) throws SQLException {
+        return getArray(findColumn(columnLabel));
+    }
+
+    @Override
+    public InputStream getAsciiStream(final int columnIndex) throws SQLException {
+        final String value = getString(columnIndex);
+        return (value != null ? new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII)) : null);
+    }
+
+    @Override
+    public InputStream getAsciiStream(final String columnLabel) throws SQLException {
+        return getAsciiStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? ColumnarTable.Column.toBigDecimal(column.getObject(row)) : null);
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+        final BigDecimal value = getBigDecimal(columnIndex);
+        return (value != null ? value.setScale(scale, RoundingMode.HALF_UP) : null);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final String columnLabel) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(final String columnLabel, final int scale) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel), scale);
+    }
+
+    @Override
+    public InputStream getBinaryStream(final int columnIndex) throws SQLException {
+        final byte[] value = getBytes(columnIndex);
+        return (value != null ? new ByteArrayInputStream(value) : null);
+    }
+
+    @Override
+    public InputStream getBinaryStream(final String columnLabel) throws SQLException {
+        return getBinaryStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public Blob getBlob(final int columnIndex) throws SQLException {
+        final byte[] value = getBytes(columnIndex);
+        return (value != null ? new SerialBlob(value) : null);
+    }
+
+    @Override
+    public Blob getBlob(final String columnLabel) throws SQLException {
+        return getBlob(findColumn(columnLabel));
+    }
+
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null) && column.getBoolean(row);
+    }
+
+    @Override
+    public boolean getBoolean(final String columnLabel) throws SQLException {
+        return getBoolean(findColumn(columnLabel));
+    }
+
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        return (byte) getLong(columnIndex);
+    }
+
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        return getByte(findColumn(columnLabel));
+    }
+
+    @Override
+    public byte[] getBytes(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? column.getBytes(row) : null);
+    }
+
+    @Override
+    public byte[] getBytes(final String columnLabel) throws SQLException {
+        return getBytes(findColumn(columnLabel));
+    }
+
+    @Override
+    public Reader getCharacterStream(final int columnIndex) throws SQLException {
+        final String value = getString(columnIndex);
+        return (value != null ? new StringReader(value) : null);
+    }
+
+    @Override
+    public Reader getCharacterStream(final String columnLabel) throws SQLException {
+        return getCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public Clob getClob(final int columnIndex) throws SQLException {
+        final String value = getString(columnIndex);
+        return (value != null ? new SerialClob(value.toCharArray()) : null);
+    }
+
+    @Override
+    public Clob getClob(final String columnLabel) throws SQLException {
+        return getClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getConcurrency() {
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        throw notSupported("Cursor name");
+    }
+
+    @Override
+    public Date getDate(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? new Date(column.getMillis(row)) : null);
+    }
+
+    @Override
+    public Date getDate(final int columnIndex, final Calendar cal) throws SQLException {
+        return getDate(columnIndex);
+    }
+
+    @Override
+    public Date getDate(final String columnLabel) throws SQLException {
+        return getDate(findColumn(columnLabel));
+    }
+
+    @Override
+    public Date getDate(final String columnLabel, final Calendar cal) throws SQLException {
+        return getDate(findColumn(columnLabel));
+    }
+
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? column.getDouble(row) : 0.0);
+    }
+
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getFetchDirection() {
+        return FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchDirection(final int direction) throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public void setFetchSize(final int rows) throws SQLException {
+        checkOpen();
+        this.fetchSize = rows;
+    }
+
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        return (float) getDouble(columnIndex);
+    }
+
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        return getFloat(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getHoldability() {
+        return HOLD_CURSORS_OVER_COMMIT;
+    }
+
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        return (int) getLong(columnIndex);
+    }
+
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? column.getLong(row) : 0L);
+    }
+
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return table.getMetaData();
+    }
+
+    @Override
+    public Reader getNCharacterStream(final int columnIndex) throws SQLException {
+        return getCharacterStream(columnIndex);
+    }
+
+    @Override
+    public Reader getNCharacterStream(final String columnLabel) throws SQLException {
+        return getCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public NClob getNClob(final int columnIndex) throws SQLException {
+        return getObject(columnIndex, NClob.class);
+    }
+
+    @Override
+    public NClob getNClob(final String columnLabel) throws SQLException {
+        return getNClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getNString(final int columnIndex) throws SQLException {
+        return getString(columnIndex);
+    }
+
+    @Override
+    public String getNString(final String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public Object getObject(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? column.getObject(row) : null);
+    }
+
+    @Override
+    public <T> T getObject(final int columnIndex, final Class<T> type) throws SQLException {
+        if (type == null) {
+            throw new SQLException("Type is null");
+        }
+        final Object value;
+        if (type == String.class) {
+            value = getString(columnIndex);
+        } else if (type == Long.class) {
+            value = getLong(columnIndex);
+        } else if (type == Integer.class) {
+            value = getInt(columnIndex);
+        } else if (type == Short.class) {
+            value = getShort(columnIndex);
+        } else if (type == Byte.class) {
+            value = getByte(columnIndex);
+        } else if (type == Double.class) {
+            value = getDouble(columnIndex);
+        } else if (type == Float.class) {
+            value = getFloat(columnIndex);
+        } else if (type == Boolean.class) {
+            value = getBoolean(columnIndex);
+        } else if (type == BigDecimal.class) {
+            value = getBigDecimal(columnIndex);
+        } else if (type == byte[].class) {
+            value = getBytes(columnIndex);
+        } else if (type == Date.class) {
+            value = getDate(columnIndex);
+        } else if (type == Time.class) {
+            value = getTime(columnIndex);
+        } else if (type == Timestamp.class) {
+            value = getTimestamp(columnIndex);
+        } else {
+            value = getObject(columnIndex);
+        }
+        if (wasNull) {
+            return null;
+        } else if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        throw ColumnarTable.Column.conversionException(value, type.getName());
+    }
+
+    @Override
+    public Object getObject(final int columnIndex, final Map<String, Class<?>> map) throws SQLException {
+        return getObject(columnIndex);
+    }
+
+    @Override
+    public Object getObject(final String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public <T> T getObject(final String columnLabel, final Class<T> type) throws SQLException {
+        return getObject(findColumn(columnLabel), type);
+    }
+
+    @Override
+    public Object getObject(final String columnLabel, final Map<String, Class<?>> map) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public Ref getRef(final int columnIndex) throws SQLException {
+        return getObject(columnIndex, Ref.class);
+    }
+
+    @Override
+    public Ref getRef(final String columnLabel) throws SQLException {
+        return getRef(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        checkOpen();
+        return (isOnRow() ? (int) (rowOffset + row + 1) : 0);
+    }
+
+    @Override
+    public RowId getRowId(final int columnIndex) throws SQLException {
+        return getObject(columnIndex, RowId.class);
+    }
+
+    @Override
+    public RowId getRowId(final String columnLabel) throws SQLException {
+        return getRowId(findColumn(columnLabel));
+    }
+
+    @Override
+    public SQLXML getSQLXML(final int columnIndex) throws SQLException {
+        return getObject(columnIndex, SQLXML.class);
+    }
+
+    @Override
+    public SQLXML getSQLXML(final String columnLabel) throws SQLException {
+        return getSQLXML(findColumn(columnLabel));
+    }
+
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        return (short) getLong(columnIndex);
+    }
+
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        return getShort(findColumn(columnLabel));
+    }
+
+    @Override
+    public Statement getStatement() {
+        return statement;
+    }
+
+    @Override
+    public String getString(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? column.getString(row) : null);
+    }
+
+    @Override
+    public String getString(final String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public Time getTime(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        return (column != null ? new Time(column.getMillis(row)) : null);
+    }
+
+    @Override
+    public Time getTime(final int columnIndex, final Calendar cal) throws SQLException {
+        return getTime(columnIndex);
+    }
+
+    @Override
+    public Time getTime(final String columnLabel) throws SQLException {
+        return getTime(findColumn(columnLabel));
+    }
+
+    @Override
+    public Time getTime(final String columnLabel, final Calendar cal) throws SQLException {
+        return getTime(findColumn(columnLabel));
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex) throws SQLException {
+        final ColumnarTable.Column column = column(columnIndex);
+        if (column == null) {
+            return null;
+        }
+        final Timestamp timestamp = new Timestamp(column.getMillis(row));
+        timestamp.setNanos(column.getNanos(row));
+        return timestamp;
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex, final Calendar cal) throws SQLException {
+        return getTimestamp(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String columnLabel) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String columnLabel, final Calendar cal) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getType() {
+        return (prefetcher != null ? TYPE_FORWARD_ONLY : TYPE_SCROLL_INSENSITIVE);
+    }
+
+    @Override
+    public URL getURL(final int columnIndex) throws SQLException {
+        return getObject(columnIndex, URL.class);
+    }
+
+    @Override
+    public URL getURL(final String columnLabel) throws SQLException {
+        return getURL(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(final int columnIndex) throws SQLException {
+        throw notSupported("Unicode stream");
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(final String columnLabel) throws SQLException {
+        throw notSupported("Unicode stream");
+    }
+
+    @Override
+    public SQLWarning getWarnings() {
+        return null;
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        checkOpen();
+        return (rowOffset + table.getRowCount() > 0) && (row >= table.getRowCount());
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        checkScrollable();
+        return (table.getRowCount() > 0) && (row < 0);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        checkOpen();
+        return (rowOffset == 0) && (row == 0) && isOnRow();
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        checkScrollable();
+        return (row == table.getRowCount() - 1) && isOnRow();
+    }
+
+    private boolean isOnRow() {
+        return (row >= 0) && (row < table.getRowCount());
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        return absolute(-1);
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        checkOpen();
+        if ((prefetcher != null) && (row + 1 >= table.getRowCount())) {
+            final ColumnarTable chunk = prefetcher.nextChunk();
+            if (chunk != null) {
+                rowOffset += table.getRowCount();
+                table = chunk;
+                row = -1;
+            }
+        }
+        if (row < table.getRowCount()) {
+            ++row;
+        }
+        return isOnRow();
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        checkScrollable();
+        if (row >= 0) {
+            --row;
+        }
+        return isOnRow();
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        throw notSupported("Refresh row");
+    }
+
+    @Override
+    public boolean relative(final int rows) throws SQLException {
+        checkScrollable();
+        final long target = (long) row + rows;
+        this.row = (int) Math.max(-1, Math.min(target, table.getRowCount()));
+        return isOnRow();
+    }
+
+    @Override
+    public boolean rowDeleted() {
+        return false;
+    }
+
+    @Override
+    public boolean rowInserted() {
+        return false;
+    }
+
+    @Override
+    public boolean rowUpdated() {
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public void updateArray(final String columnLabel, final Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateArray(final int columnIndex, final Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream inputStream, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream inputStream, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream inputStream, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream inputStream, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(final String columnLabel, final BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(final int columnIndex, final BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream inputStream, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream inputStream, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream inputStream, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream inputStream, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final InputStream inputStream, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final InputStream inputStream, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(final String columnLabel, final boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(final int columnIndex, final boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(final String columnLabel, final byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(final int columnIndex, final byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(final String columnLabel, final byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(final int columnIndex, final byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader reader, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(final String columnLabel, final Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(final int columnIndex, final Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(final String columnLabel, final double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(final int columnIndex, final double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(final String columnLabel, final float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(final int columnIndex, final float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(final String columnLabel, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(final int columnIndex, final int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(final String columnLabel, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(final int columnIndex, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(final String columnLabel, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final NClob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final NClob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNString(final String columnLabel, final String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNString(final int columnIndex, final String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNull(final String columnLabel) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNull(final int columnIndex) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final String columnLabel, final Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final String columnLabel, final Object x, final SQLType targetSqlType) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final String columnLabel, final Object x, final SQLType targetSqlType, final int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final String columnLabel, final Object x, final int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x, final SQLType targetSqlType) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x, final SQLType targetSqlType, final int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x, final int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRef(final String columnLabel, final Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRef(final int columnIndex, final Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRowId(final String columnLabel, final RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRowId(final int columnIndex, final RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSQLXML(final String columnLabel, final SQLXML x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSQLXML(final int columnIndex, final SQLXML x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(final String columnLabel, final short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(final int columnIndex, final short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(final String columnLabel, final String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(final int columnIndex, final String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(final String columnLabel, final Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(final int columnIndex, final Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(final String columnLabel, final Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(final int columnIndex, final Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean wasNull() {
+        return wasNull;
+    }
+
+}
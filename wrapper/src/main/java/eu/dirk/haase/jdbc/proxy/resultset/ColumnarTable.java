@@ -0,0 +1,870 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import eu.dirk.haase.jdbc.proxy.metadata.ResultSetMetaDataSnapshot;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ein vollst&auml;ndig gelesenes (materialisiertes) Ergebnis einer Abfrage,
+ * spaltenweise au&szlig;erhalb des Java-Heaps abgelegt.
+ * <p>
+ * Jede Spalte wird je nach SQL-Typ kompakt gespeichert:
+ * <ul>
+ * <li>ganze Zahlen und Wahrheitswerte gepackt als {@code long},</li>
+ * <li>Gleitkommazahlen gepackt als {@code double},</li>
+ * <li>Datum und Zeit als Millisekunden (Zeitstempel zus&auml;tzlich mit den
+ * Nanosekunden),</li>
+ * <li>Zeichenketten und Dezimalzahlen w&ouml;rterbuchcodiert: jeder
+ * verschiedene Wert wird nur einmal (als UTF-8) abgelegt, jede Zeile
+ * enth&auml;lt nur den Index im W&ouml;rterbuch,</li>
+ * <li>Bin&auml;rdaten hintereinander mit ihren Offsets.</li>
+ * </ul>
+ * {@code NULL}-Werte werden in einer Bitmap pro Spalte vermerkt. Nur Spalten
+ * mit anderen Typen (zum Beispiel {@code ARRAY} oder {@code STRUCT}) bleiben
+ * als Objekte auf dem Heap. Nur die kurzlebigen Bl&ouml;cke eines
+ * {@link ResultSetPrefetcher} liegen vollst&auml;ndig auf dem Heap.
+ * <p>
+ * Die Tabelle ist nach dem Materialisieren unver&auml;nderlich und kann von
+ * beliebig vielen Threads gleichzeitig &uuml;ber jeweils eigene
+ * {@link ColumnarResultSet}-Objekte (siehe {@link #newResultSet()}) gelesen
+ * werden. Jedes dieser ResultSets h&auml;lt eine Referenz auf die Tabelle,
+ * der Speicher wird erst freigegeben wenn die Tabelle (siehe
+ * {@link #close()}) und alle ResultSets geschlossen sind.
+ */
+public final class ColumnarTable implements AutoCloseable {
+
+    private static final int BYTES_CHECK_ROWS = 64;
+
+    private final ColumnLabels columnLabels;
+    private final Column[] columns;
+    private final boolean hasMoreRows;
+    private final boolean isDirect;
+    private final AtomicBoolean isClosed;
+    private final ResultSetMetaDataSnapshot metaData;
+    private final AtomicInteger referenceCount;
+    private final int rowCount;
+
+    private ColumnarTable(final ResultSetMetaDataSnapshot metaData, final Column[] columns, final int rowCount, final boolean hasMoreRows, final boolean isDirect) throws SQLException {
+        this.metaData = metaData;
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.hasMoreRows = hasMoreRows;
+        this.isDirect = isDirect;
+        this.isClosed = new AtomicBoolean();
+        this.referenceCount = new AtomicInteger(1);
+        this.columnLabels = ColumnLabels.of(metaData);
+    }
+
+    /**
+     * Liest alle (verbleibenden) Zeilen eines ResultSets. Das ResultSet wird
+     * dabei nicht geschlossen.
+     *
+     * @param resultSet das ResultSet.
+     * @return die materialisierte Tabelle.
+     * @throws SQLException wird ausgel&ouml;st wenn das ResultSet nicht gelesen
+     *                      werden kann.
+     */
+    public static ColumnarTable materialize(final ResultSet resultSet) throws SQLException {
+        return materialize(resultSet, metaDataOf(resultSet), Integer.MAX_VALUE, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Liest einen Block der verbleibenden Zeilen eines ResultSets, h&ouml;chstens
+     * {@code maxRows} Zeilen und ungef&auml;hr {@code maxBytes} Bytes. Das
+     * ResultSet wird dabei nicht geschlossen.
+     * <p>
+     * Ein Block ist nur kurzlebig: seine Spalten liegen auf dem Java-Heap und
+     * werden nicht gek&uuml;rzt, damit der Garbage-Collector sie wie jedes
+     * andere Array einsammelt.
+     *
+     * @param resultSet das ResultSet.
+     * @param metaData  die Metadaten des ResultSets.
+     * @param maxRows   die maximale Anzahl der Zeilen.
+     * @param maxBytes  die ungef&auml;hre maximale Gr&ouml;&szlig;e in Bytes; sie
+     *                  wird nur alle {@value #BYTES_CHECK_ROWS} Zeilen
+     *                  gepr&uuml;ft.
+     * @return der Block; siehe {@link #hasMoreRows()}.
+     * @throws SQLException wird ausgel&ouml;st wenn das ResultSet nicht gelesen
+     *                      werden kann.
+     */
+    static ColumnarTable materializeChunk(final ResultSet resultSet, final ResultSetMetaDataSnapshot metaData, final int maxRows, final long maxBytes) throws SQLException {
+        return materialize(resultSet, metaData, maxRows, maxBytes, false);
+    }
+
+    private static ColumnarTable materialize(final ResultSet resultSet, final ResultSetMetaDataSnapshot metaData, final int maxRows, final long maxBytes, final boolean isDirect) throws SQLException {
+        final int columnCount = metaData.getColumnCount();
+        final Column[] columns = new Column[columnCount];
+        for (int i = 0; columnCount > i; ++i) {
+            columns[i] = Column.of(metaData.getColumnType(i + 1), isDirect);
+        }
+        int row = 0;
+        boolean hasMoreRows = true;
+        while ((maxRows > row) && !isFull(columns, row, maxBytes)) {
+            if (!resultSet.next()) {
+                hasMoreRows = false;
+                break;
+            }
+            for (int i = 0; columnCount > i; ++i) {
+                columns[i].read(resultSet, i + 1, row);
+            }
+            ++row;
+        }
+        for (final Column column : columns) {
+            column.trim();
+        }
+        return new ColumnarTable(metaData, columns, row, hasMoreRows, isDirect);
+    }
+
+    private static boolean isFull(final Column[] columns, final int row, final long maxBytes) {
+        // Die Groesse wird nur alle BYTES_CHECK_ROWS Zeilen summiert:
+        if ((row == 0) || ((row % BYTES_CHECK_ROWS) != 0) || (maxBytes == Long.MAX_VALUE)) {
+            return false;
+        }
+        long bytes = 0;
+        for (final Column column : columns) {
+            bytes += column.writtenBytes();
+        }
+        return bytes >= maxBytes;
+    }
+
+    static ColumnarTable empty(final ResultSetMetaDataSnapshot metaData) throws SQLException {
+        // Ohne Zeilen wird das ResultSet nicht gelesen:
+        return materialize(null, metaData, 0, Long.MAX_VALUE, false);
+    }
+
+    static ResultSetMetaDataSnapshot metaDataOf(final ResultSet resultSet) throws SQLException {
+        final ResultSetMetaDataSnapshot metaData = ResultSetMetaDataSnapshot.of(resultSet.getMetaData());
+        if (metaData == null) {
+            throw new SQLFeatureNotSupportedException("ResultSetMetaData of " + resultSet.getClass().getName() + " is not supported");
+        }
+        return metaData;
+    }
+
+    /**
+     * Gibt die Tabelle frei. Der Speicher au&szlig;erhalb des Java-Heaps wird
+     * sofort freigegeben, sobald auch alle mit {@link #newResultSet()}
+     * gelieferten ResultSets geschlossen sind. Weitere Aufrufe haben keine
+     * Wirkung.
+     * <p>
+     * Wird eine Tabelle nie geschlossen, dann gibt erst der
+     * Garbage-Collector ihren Speicher frei.
+     */
+    @Override
+    public void close() {
+        if (isClosed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    /**
+     * Liefert ob das ResultSet beim Materialisieren noch weitere Zeilen hatte,
+     * weil die maximale Anzahl der Zeilen oder Bytes erreicht wurde.
+     *
+     * @return {@code false} wenn das ResultSet vollst&auml;ndig gelesen ist.
+     */
+    boolean hasMoreRows() {
+        return hasMoreRows;
+    }
+
+    Column column(final int columnIndex) {
+        return columns[columnIndex - 1];
+    }
+
+    int columnIndex(final String columnLabel) {
+        return columnLabels.indexOf(columnLabel);
+    }
+
+    /**
+     * Liefert die Anzahl der Spalten.
+     *
+     * @return die Anzahl der Spalten.
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Liefert die Metadaten der Tabelle.
+     *
+     * @return die Metadaten.
+     */
+    public ResultSetMetaData getMetaData() {
+        return metaData;
+    }
+
+    /**
+     * Liefert den Speicherbedarf au&szlig;erhalb des Java-Heaps in Bytes.
+     *
+     * @return der Speicherbedarf in Bytes.
+     */
+    public long getOffHeapBytes() {
+        if (!isDirect) {
+            return 0;
+        }
+        long bytes = 0;
+        for (final Column column : columns) {
+            bytes += column.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Liefert die Anzahl der Zeilen.
+     *
+     * @return die Anzahl der Zeilen.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Liefert ein neues, nur lesbares ResultSet mit eigenem Cursor (vor der
+     * ersten Zeile) auf diese Tabelle.
+     *
+     * @return ein neues ResultSet.
+     */
+    public ResultSet newResultSet() {
+        return newResultSet(null);
+    }
+
+    /**
+     * Liefert ein neues, nur lesbares ResultSet mit eigenem Cursor (vor der
+     * ersten Zeile) auf diese Tabelle.
+     *
+     * @param statement das Statement das {@link ResultSet#getStatement()}
+     *                  liefern soll.
+     * @return ein neues ResultSet.
+     * @throws IllegalStateException wird ausgel&ouml;st wenn die Tabelle
+     *                               bereits freigegeben ist.
+     */
+    public ResultSet newResultSet(final Statement statement) {
+        final ResultSet resultSet = newResultSetIfOpen(statement);
+        if (resultSet == null) {
+            throw new IllegalStateException("ColumnarTable is closed");
+        }
+        return resultSet;
+    }
+
+    /**
+     * Wie {@link #newResultSet(Statement)}, liefert aber {@code null} wenn die
+     * Tabelle bereits freigegeben ist, zum Beispiel weil ein Cache sie
+     * gleichzeitig verdr&auml;ngt hat.
+     *
+     * @param statement das Statement das {@link ResultSet#getStatement()}
+     *                  liefern soll.
+     * @return ein neues ResultSet oder {@code null}.
+     */
+    public ResultSet newResultSetIfOpen(final Statement statement) {
+        int count;
+        do {
+            count = referenceCount.get();
+            if (count == 0) {
+                return null;
+            }
+        } while (!referenceCount.compareAndSet(count, count + 1));
+        return new ColumnarResultSet(this, statement);
+    }
+
+    /**
+     * Gibt eine Referenz (des Erzeugers oder eines ResultSets) frei; mit der
+     * letzten Referenz wird der Speicher der Spalten freigegeben.
+     */
+    void release() {
+        if (referenceCount.decrementAndGet() == 0) {
+            for (final Column column : columns) {
+                column.free();
+            }
+        }
+    }
+
+    /**
+     * Eine Spalte der Tabelle. Die Methoden zum Lesen werden nur f&uuml;r
+     * Zeilen aufgerufen deren Wert nicht {@code NULL} ist.
+     */
+    abstract static class Column {
+
+        private final boolean isDirect;
+        private final OffHeapBuffer nulls;
+
+        Column(final boolean isDirect) {
+            this.isDirect = isDirect;
+            this.nulls = newBuffer(16);
+        }
+
+        static Column of(final int sqlType, final boolean isDirect) {
+            switch (sqlType) {
+                case Types.BIT:
+                case Types.BOOLEAN:
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    return new LongColumn(sqlType, isDirect);
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return new DoubleColumn(sqlType, isDirect);
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGNVARCHAR:
+                case Types.CLOB:
+                case Types.NCLOB:
+                    return new DictionaryColumn(sqlType, isDirect);
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                case Types.BLOB:
+                    return new BytesColumn(isDirect);
+                case Types.DATE:
+                case Types.TIME:
+                case Types.TIMESTAMP:
+                    return new TemporalColumn(sqlType, isDirect);
+                default:
+                    return new ObjectColumn(isDirect);
+            }
+        }
+
+        static SQLException conversionException(final Object value, final String targetType) {
+            return new SQLException("Cannot convert " + value.getClass().getName() + " to " + targetType, "22018");
+        }
+
+        static BigDecimal toBigDecimal(final Object value) throws SQLException {
+            if (value instanceof BigDecimal) {
+                return (BigDecimal) value;
+            } else if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            } else if (value instanceof Number) {
+                return BigDecimal.valueOf(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                return ((Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO);
+            } else if (value instanceof String) {
+                try {
+                    return new BigDecimal(((String) value).trim());
+                } catch (NumberFormatException ex) {
+                    throw conversionException(value, "BigDecimal");
+                }
+            }
+            throw conversionException(value, "BigDecimal");
+        }
+
+        boolean getBoolean(final int row) throws SQLException {
+            final Object value = getObject(row);
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            } else if (value instanceof String) {
+                final String text = ((String) value).trim();
+                return "1".equals(text) || "true".equalsIgnoreCase(text) || "y".equalsIgnoreCase(text);
+            }
+            return toBigDecimal(value).signum() != 0;
+        }
+
+        byte[] getBytes(final int row) throws SQLException {
+            final Object value = getObject(row);
+            if (value instanceof byte[]) {
+                return (byte[]) value;
+            } else if (value instanceof String) {
+                return ((String) value).getBytes(StandardCharsets.UTF_8);
+            }
+            throw conversionException(value, "byte[]");
+        }
+
+        double getDouble(final int row) throws SQLException {
+            final Object value = getObject(row);
+            return (value instanceof Number ? ((Number) value).doubleValue() : toBigDecimal(value).doubleValue());
+        }
+
+        long getLong(final int row) throws SQLException {
+            final Object value = getObject(row);
+            if ((value instanceof Long) || (value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+                return ((Number) value).longValue();
+            }
+            return toBigDecimal(value).longValue();
+        }
+
+        long getMillis(final int row) throws SQLException {
+            final Object value = getObject(row);
+            if (value instanceof java.util.Date) {
+                return ((java.util.Date) value).getTime();
+            }
+            throw conversionException(value, "java.util.Date");
+        }
+
+        int getNanos(final int row) throws SQLException {
+            final Object value = getObject(row);
+            return (value instanceof Timestamp ? ((Timestamp) value).getNanos() : (int) ((getMillis(row) % 1000) * 1_000_000));
+        }
+
+        abstract Object getObject(int row) throws SQLException;
+
+        String getString(final int row) throws SQLException {
+            final Object value = getObject(row);
+            if (value instanceof byte[]) {
+                throw conversionException(value, "String");
+            }
+            return String.valueOf(value);
+        }
+
+        final boolean isNull(final int row) {
+            return (nulls.getByte(row >>> 3) & (1 << (row & 7))) != 0;
+        }
+
+        /**
+         * Gibt den Speicher der Spalte frei; danach darf sie nicht mehr
+         * gelesen werden.
+         */
+        void free() {
+            nulls.free();
+        }
+
+        final OffHeapBuffer newBuffer(final int initialCapacity) {
+            return new OffHeapBuffer(initialCapacity, isDirect);
+        }
+
+        long offHeapBytes() {
+            return nulls.capacity();
+        }
+
+        /**
+         * H&auml;ngt den Wert der Spalte aus der aktuellen Zeile des ResultSets an.
+         *
+         * @param resultSet das ResultSet.
+         * @param column    der Index der Spalte im ResultSet.
+         * @param row       der Index der Zeile in dieser Spalte (beginnend mit 0).
+         * @throws SQLException wird ausgel&ouml;st wenn der Wert nicht gelesen
+         *                      werden kann.
+         */
+        abstract void read(ResultSet resultSet, int column, int row) throws SQLException;
+
+        final void readNull(final int row, final boolean isNull) {
+            if ((row & 7) == 0) {
+                nulls.putByte((byte) 0);
+            }
+            if (isNull) {
+                final int index = row >>> 3;
+                nulls.setByte(index, (byte) (nulls.getByte(index) | (1 << (row & 7))));
+            }
+        }
+
+        void trim() {
+            nulls.trim();
+        }
+
+        /**
+         * Liefert die Anzahl der bisher geschriebenen Bytes.
+         *
+         * @return die Anzahl der Bytes.
+         */
+        long writtenBytes() {
+            return nulls.position();
+        }
+
+    }
+
+    private static final class BytesColumn extends Column {
+
+        private final OffHeapBuffer data = newBuffer(256);
+        private final OffHeapBuffer offsets = newBuffer(256);
+
+        BytesColumn(final boolean isDirect) {
+            super(isDirect);
+            offsets.putInt(0);
+        }
+
+        @Override
+        byte[] getBytes(final int row) {
+            final int start = offsets.getInt(row << 2);
+            final byte[] value = new byte[offsets.getInt((row + 1) << 2) - start];
+            data.get(start, value);
+            return value;
+        }
+
+        @Override
+        Object getObject(final int row) {
+            return getBytes(row);
+        }
+
+        @Override
+        long offHeapBytes() {
+            return super.offHeapBytes() + data.capacity() + offsets.capacity();
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int column, final int row) throws SQLException {
+            final byte[] value = resultSet.getBytes(column);
+            readNull(row, value == null);
+            if (value != null) {
+                data.put(value);
+            }
+            offsets.putInt(data.position());
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            data.trim();
+            offsets.trim();
+        }
+
+        @Override
+        void free() {
+            super.free();
+            data.free();
+            offsets.free();
+        }
+
+        @Override
+        long writtenBytes() {
+            return super.writtenBytes() + data.position() + offsets.position();
+        }
+
+    }
+
+    private static final class DictionaryColumn extends Column {
+
+        private final OffHeapBuffer codes = newBuffer(256);
+        private final OffHeapBuffer data = newBuffer(256);
+        private final OffHeapBuffer offsets = newBuffer(256);
+        private final int sqlType;
+        private Map<String, Integer> dictionary = new HashMap<>();
+
+        DictionaryColumn(final int sqlType, final boolean isDirect) {
+            super(isDirect);
+            this.sqlType = sqlType;
+            offsets.putInt(0);
+        }
+
+        private boolean isDecimal() {
+            return (sqlType == Types.NUMERIC) || (sqlType == Types.DECIMAL);
+        }
+
+        @Override
+        Object getObject(final int row) throws SQLException {
+            final String value = getString(row);
+            return (isDecimal() ? toBigDecimal(value) : value);
+        }
+
+        @Override
+        String getString(final int row) {
+            final int code = codes.getInt(row << 2);
+            final int start = offsets.getInt(code << 2);
+            final byte[] value = new byte[offsets.getInt((code + 1) << 2) - start];
+            data.get(start, value);
+            return new String(value, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        long offHeapBytes() {
+            return super.offHeapBytes() + codes.capacity() + data.capacity() + offsets.capacity();
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int column, final int row) throws SQLException {
+            final String value;
+            if (isDecimal()) {
+                final BigDecimal decimal = resultSet.getBigDecimal(column);
+                value = (decimal != null ? decimal.toString() : null);
+            } else {
+                value = resultSet.getString(column);
+            }
+            readNull(row, value == null);
+            if (value == null) {
+                codes.putInt(0);
+                return;
+            }
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.put(value, code);
+                data.put(value.getBytes(StandardCharsets.UTF_8));
+                offsets.putInt(data.position());
+            }
+            codes.putInt(code);
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            codes.trim();
+            data.trim();
+            offsets.trim();
+            // Das Woerterbuch wird nur beim Materialisieren benoetigt:
+            dictionary = null;
+        }
+
+        @Override
+        void free() {
+            super.free();
+            codes.free();
+            data.free();
+            offsets.free();
+        }
+
+        @Override
+        long writtenBytes() {
+            return super.writtenBytes() + codes.position() + data.position() + offsets.position();
+        }
+
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private final int sqlType;
+        private final OffHeapBuffer values = newBuffer(256);
+
+        DoubleColumn(final int sqlType, final boolean isDirect) {
+            super(isDirect);
+            this.sqlType = sqlType;
+        }
+
+        @Override
+        double getDouble(final int row) {
+            return values.getDouble(row << 3);
+        }
+
+        @Override
+        long getLong(final int row) {
+            return (long) getDouble(row);
+        }
+
+        @Override
+        Object getObject(final int row) {
+            return (sqlType == Types.REAL ? (Object) (float) getDouble(row) : (Object) getDouble(row));
+        }
+
+        @Override
+        long offHeapBytes() {
+            return super.offHeapBytes() + values.capacity();
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int column, final int row) throws SQLException {
+            final double value = resultSet.getDouble(column);
+            readNull(row, resultSet.wasNull());
+            values.putDouble(value);
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            values.trim();
+        }
+
+        @Override
+        void free() {
+            super.free();
+            values.free();
+        }
+
+        @Override
+        long writtenBytes() {
+            return super.writtenBytes() + values.position();
+        }
+
+    }
+
+    private static final class LongColumn extends Column {
+
+        private final int sqlType;
+        private final OffHeapBuffer values = newBuffer(256);
+
+        LongColumn(final int sqlType, final boolean isDirect) {
+            super(isDirect);
+            this.sqlType = sqlType;
+        }
+
+        private boolean isBoolean() {
+            return (sqlType == Types.BIT) || (sqlType == Types.BOOLEAN);
+        }
+
+        @Override
+        boolean getBoolean(final int row) {
+            return getLong(row) != 0;
+        }
+
+        @Override
+        double getDouble(final int row) {
+            return getLong(row);
+        }
+
+        @Override
+        long getLong(final int row) {
+            return values.getLong(row << 3);
+        }
+
+        @Override
+        Object getObject(final int row) {
+            final long value = getLong(row);
+            if (isBoolean()) {
+                return (value != 0);
+            } else if (sqlType == Types.BIGINT) {
+                return value;
+            }
+            return (int) value;
+        }
+
+        @Override
+        String getString(final int row) {
+            return (isBoolean() ? String.valueOf(getLong(row) != 0) : String.valueOf(getLong(row)));
+        }
+
+        @Override
+        long offHeapBytes() {
+            return super.offHeapBytes() + values.capacity();
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int column, final int row) throws SQLException {
+            final long value = (isBoolean() ? (resultSet.getBoolean(column) ? 1L : 0L) : resultSet.getLong(column));
+            readNull(row, resultSet.wasNull());
+            values.putLong(value);
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            values.trim();
+        }
+
+        @Override
+        void free() {
+            super.free();
+            values.free();
+        }
+
+        @Override
+        long writtenBytes() {
+            return super.writtenBytes() + values.position();
+        }
+
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        private Object[] values = new Object[16];
+
+        ObjectColumn(final boolean isDirect) {
+            super(isDirect);
+        }
+
+        @Override
+        void free() {
+            super.free();
+            values = null;
+        }
+
+        @Override
+        Object getObject(final int row) {
+            return values[row];
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int column, final int row) throws SQLException {
+            final Object value = resultSet.getObject(column);
+            readNull(row, value == null);
+            if (row >= values.length) {
+                values = java.util.Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = value;
+        }
+
+    }
+
+    private static final class TemporalColumn extends Column {
+
+        private final OffHeapBuffer millis = newBuffer(256);
+        private final OffHeapBuffer nanos;
+        private final int sqlType;
+
+        TemporalColumn(final int sqlType, final boolean isDirect) {
+            super(isDirect);
+            this.sqlType = sqlType;
+            this.nanos = (sqlType == Types.TIMESTAMP ? newBuffer(128) : null);
+        }
+
+        @Override
+        long getMillis(final int row) {
+            return millis.getLong(row << 3);
+        }
+
+        @Override
+        int getNanos(final int row) {
+            return (nanos != null ? nanos.getInt(row << 2) : (int) (Math.floorMod(getMillis(row), 1000L) * 1_000_000));
+        }
+
+        @Override
+        Object getObject(final int row) {
+            switch (sqlType) {
+                case Types.DATE:
+                    return new Date(getMillis(row));
+                case Types.TIME:
+                    return new Time(getMillis(row));
+                default:
+                    final Timestamp timestamp = new Timestamp(getMillis(row));
+                    timestamp.setNanos(getNanos(row));
+                    return timestamp;
+            }
+        }
+
+        @Override
+        long offHeapBytes() {
+            return super.offHeapBytes() + millis.capacity() + (nanos != null ? nanos.capacity() : 0);
+        }
+
+        @Override
+        void read(final ResultSet resultSet, final int column, final int row) throws SQLException {
+            final java.util.Date value;
+            switch (sqlType) {
+                case Types.DATE:
+                    value = resultSet.getDate(column);
+                    break;
+                case Types.TIME:
+                    value = resultSet.getTime(column);
+                    break;
+                default:
+                    value = resultSet.getTimestamp(column);
+                    break;
+            }
+            readNull(row, value == null);
+            millis.putLong(value != null ? value.getTime() : 0L);
+            if (nanos != null) {
+                nanos.putInt(value != null ? ((Timestamp) value).getNanos() : 0);
+            }
+        }
+
+        @Override
+        void trim() {
+            super.trim();
+            millis.trim();
+            if (nanos != null) {
+                nanos.trim();
+            }
+        }
+
+        @Override
+        void free() {
+            super.free();
+            millis.free();
+            if (nanos != null) {
+                nanos.free();
+            }
+        }
+
+        @Override
+        long writtenBytes() {
+            return super.writtenBytes() + millis.position() + (nanos != null ? nanos.position() : 0);
+        }
+
+    }
+
+}
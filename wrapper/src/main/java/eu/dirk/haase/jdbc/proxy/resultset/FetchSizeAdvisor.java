@@ -0,0 +1,216 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import eu.dirk.haase.jdbc.proxy.AbstractCallableStatementProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractConnectionProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractDataSourceProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractPreparedStatementProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractStatementProxy;
+import eu.dirk.haase.jdbc.proxy.sql.SqlFingerprint;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lernt pro SQL-Fingerabdruck (siehe {@link SqlFingerprint}) die typische
+ * Anzahl der gelesenen Zeilen und schl&auml;gt daraus eine Fetch-Size vor.
+ * <p>
+ * Die Standard-Fetch-Size der Treiber (bei Oracle zum Beispiel 10 Zeilen)
+ * f&uuml;hrt bei gro&szlig;en Abfragen zu sehr vielen Roundtrips, eine
+ * durchgehend gro&szlig;e Fetch-Size verschwendet dagegen bei kleinen Abfragen
+ * Speicher. Jedes vollst&auml;ndig gelesene ResultSet meldet daher seine
+ * Zeilenzahl (siehe {@link #recordRows(String, long, ResultSetMetaData)}),
+ * vor der n&auml;chsten Ausf&uuml;hrung derselben Abfrage setzt das Statement
+ * die vorgeschlagene Fetch-Size (siehe {@link #fetchSize(String)}) &ndash;
+ * au&szlig;er die Anwendung hat selbst eine Fetch-Size gesetzt.
+ * <p>
+ * Die vorgeschlagene Fetch-Size ist die gleitend gemittelte Zeilenzahl plus
+ * eins (damit kleine Abfragen mit einem Roundtrip auskommen), begrenzt durch
+ * {@code eu.dirk.haase.jdbc.proxy.fetchsize.max} (Standard {@code 5000}
+ * Zeilen) und durch {@code eu.dirk.haase.jdbc.proxy.fetchsize.maxBytes}
+ * (Standard 4 MB) geteilt durch die aus den Metadaten gesch&auml;tzte Breite
+ * einer Zeile. Mit der System-Property
+ * {@code eu.dirk.haase.jdbc.proxy.fetchsize.tuning=false} wird das Tuning
+ * abgeschaltet.
+ * <p>
+ * Wie der {@link eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache} ist der
+ * Speicher direkt adressiert und damit begrenzt; Kollisionen verdr&auml;ngen
+ * einfach den vorherigen Eintrag.
+ */
+public final class FetchSizeAdvisor {
+
+    /**
+     * System-Property mit der das Tuning abgeschaltet werden kann.
+     */
+    public static final String PROPERTY = "eu.dirk.haase.jdbc.proxy.fetchsize.tuning";
+    /**
+     * System-Property mit der gr&ouml;&szlig;ten Fetch-Size in Zeilen.
+     */
+    public static final String MAX_ROWS_PROPERTY = "eu.dirk.haase.jdbc.proxy.fetchsize.max";
+    /**
+     * System-Property mit dem gr&ouml;&szlig;ten gesch&auml;tzten Speicherbedarf
+     * eines Fetches in Bytes.
+     */
+    public static final String MAX_BYTES_PROPERTY = "eu.dirk.haase.jdbc.proxy.fetchsize.maxBytes";
+
+    private static final int CACHE_SIZE = 256;
+    private static final int MAX_COLUMN_BYTES = 4000;
+    private static final int MIN_FETCH_SIZE = 10;
+    private static final boolean isEnabled = !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    private final AtomicReferenceArray<Entry> cacheArray;
+    private volatile long maxBytes;
+    private volatile int maxRows;
+
+    /**
+     * Erzeugt einen Advisor ohne gelernte Abfragen.
+     */
+    public FetchSizeAdvisor() {
+        this.cacheArray = new AtomicReferenceArray<>(CACHE_SIZE);
+        this.maxRows = Integer.getInteger(MAX_ROWS_PROPERTY, 5000);
+        this.maxBytes = Long.getLong(MAX_BYTES_PROPERTY, 4L * 1024 * 1024);
+    }
+
+    private static int cacheIndex(final long hash) {
+        return (int) (hash ^ (hash >>> 32)) & (CACHE_SIZE - 1);
+    }
+
+    /**
+     * Liefert den Advisor der DataSource, die die angegebene Connection
+     * erzeugt hat.
+     *
+     * @param connection die Connection, wahrscheinlich ein Proxy-Objekt.
+     * @return der Advisor oder {@code null} wenn die Connection nicht von einem
+     * DataSource-Proxy-Objekt erzeugt wurde oder das Tuning abgeschaltet ist.
+     */
+    public static FetchSizeAdvisor of(final Connection connection) {
+        if (isEnabled && (connection instanceof AbstractConnectionProxy)) {
+            final DataSource dataSource = ((AbstractConnectionProxy) connection).getDataSourceProxy();
+            if (dataSource instanceof AbstractDataSourceProxy) {
+                return ((AbstractDataSourceProxy) dataSource).getFetchSizeAdvisor();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Liefert den Advisor der DataSource, deren Connection das angegebene
+     * Statement erzeugt hat.
+     *
+     * @param statement das Statement, wahrscheinlich ein Proxy-Objekt.
+     * @return der Advisor oder {@code null} wenn das Statement nicht von einem
+     * Connection-Proxy-Objekt erzeugt wurde oder das Tuning abgeschaltet ist.
+     */
+    public static FetchSizeAdvisor of(final Statement statement) {
+        if (statement instanceof AbstractPreparedStatementProxy) {
+            return of(((AbstractPreparedStatementProxy) statement).getConnectionProxy());
+        } else if (statement instanceof AbstractCallableStatementProxy) {
+            return of(((AbstractCallableStatementProxy) statement).getConnectionProxy());
+        } else if (statement instanceof AbstractStatementProxy) {
+            return of(((AbstractStatementProxy) statement).getConnectionProxy());
+        } else {
+            return null;
+        }
+    }
+
+    private static int rowBytesOf(final ResultSetMetaData metaData) throws SQLException {
+        final int columnCount = metaData.getColumnCount();
+        int rowBytes = 16;
+        for (int column = 1; columnCount >= column; ++column) {
+            final int displaySize = metaData.getColumnDisplaySize(column);
+            rowBytes += (displaySize > 0 ? Math.min(displaySize, MAX_COLUMN_BYTES) : MAX_COLUMN_BYTES);
+        }
+        return rowBytes;
+    }
+
+    /**
+     * Verwirft alle gelernten Abfragen.
+     */
+    public void clear() {
+        for (int i = 0; CACHE_SIZE > i; ++i) {
+            cacheArray.set(i, null);
+        }
+    }
+
+    /**
+     * Liefert die vorgeschlagene Fetch-Size f&uuml;r eine SQL-Anweisung.
+     *
+     * @param sql die SQL-Anweisung.
+     * @return die vorgeschlagene Fetch-Size oder {@code 0} wenn f&uuml;r die
+     * Anweisung noch nichts gelernt wurde.
+     */
+    public int fetchSize(final String sql) {
+        final long hash = SqlFingerprint.of(sql).getHash();
+        final Entry entry = cacheArray.get(cacheIndex(hash));
+        if ((entry == null) || (entry.hash != hash)) {
+            return 0;
+        }
+        final long byteBound = Math.max(1, maxBytes / entry.rowBytes);
+        final long fetchSize = Math.min(Math.min((long) entry.averageRows + 1, maxRows), byteBound);
+        return (int) Math.max(Math.min(MIN_FETCH_SIZE, byteBound), fetchSize);
+    }
+
+    /**
+     * Meldet die Anzahl der Zeilen eines vollst&auml;ndig gelesenen ResultSets.
+     *
+     * @param sql      die SQL-Anweisung die das ResultSet erzeugt hat.
+     * @param rowCount die Anzahl der gelesenen Zeilen.
+     * @param metaData die Metadaten des ResultSets, aus denen die Breite einer
+     *                 Zeile gesch&auml;tzt wird.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht gelesen
+     *                      werden k&ouml;nnen.
+     */
+    public void recordRows(final String sql, final long rowCount, final ResultSetMetaData metaData) throws SQLException {
+        final long hash = SqlFingerprint.of(sql).getHash();
+        final int index = cacheIndex(hash);
+        final Entry entry = cacheArray.get(index);
+        if ((entry != null) && (entry.hash == hash)) {
+            // Gleitender Mittelwert, neue Ausfuehrungen zaehlen ein Viertel:
+            cacheArray.lazySet(index, new Entry(hash, entry.averageRows + (rowCount - entry.averageRows) / 4, entry.rowBytes));
+        } else {
+            cacheArray.lazySet(index, new Entry(hash, rowCount, rowBytesOf(metaData)));
+        }
+    }
+
+    /**
+     * Setzt den gr&ouml;&szlig;ten gesch&auml;tzten Speicherbedarf eines Fetches.
+     *
+     * @param maxBytes der Speicherbedarf in Bytes.
+     */
+    public void setMaxBytes(final long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Max bytes must be greater than 0: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Setzt die gr&ouml;&szlig;te Fetch-Size in Zeilen.
+     *
+     * @param maxRows die gr&ouml;&szlig;te Fetch-Size.
+     */
+    public void setMaxRows(final int maxRows) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("Max rows must be greater than 0: " + maxRows);
+        }
+        this.maxRows = maxRows;
+    }
+
+    private static final class Entry {
+
+        final double averageRows;
+        final long hash;
+        final int rowBytes;
+
+        Entry(final long hash, final double averageRows, final int rowBytes) {
+            this.hash = hash;
+            this.averageRows = averageRows;
+            this.rowBytes = rowBytes;
+        }
+
+    }
+
+}
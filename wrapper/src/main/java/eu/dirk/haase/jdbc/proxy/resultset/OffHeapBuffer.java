@@ -0,0 +1,190 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Consumer;
+
+/**
+ * Ein wachsender Puffer au&szlig;erhalb des Java-Heaps (Direct-Buffer) oder,
+ * f&uuml;r kurzlebige Tabellen, auf dem Heap.
+ * <p>
+ * W&auml;hrend des Materialisierens wird nur angeh&auml;ngt, danach wird der
+ * Puffer mit {@link #trim()} auf die tats&auml;chliche Gr&ouml;&szlig;e
+ * gek&uuml;rzt und nur noch &uuml;ber absolute Positionen gelesen (das ist
+ * thread-sicher, da sich die Position des Puffers nicht mehr &auml;ndert).
+ * <p>
+ * Den Speicher eines Direct-Buffers gibt {@link #free()} sofort frei (&uuml;ber
+ * den Cleaner des JDK); ohne diesen Aufruf erst der Garbage-Collector, wenn er
+ * den Puffer einsammelt.
+ */
+final class OffHeapBuffer {
+
+    private static final Consumer<ByteBuffer> CLEANER = cleaner();
+    private static final ByteBuffer FREED = ByteBuffer.allocate(0);
+
+    private final boolean isDirect;
+    private ByteBuffer buffer;
+
+    OffHeapBuffer(final int initialCapacity, final boolean isDirect) {
+        this.isDirect = isDirect;
+        this.buffer = allocate(Math.max(16, initialCapacity));
+    }
+
+    /**
+     * Liefert die Funktion, die den Speicher eines Direct-Buffers sofort
+     * freigibt: ab Java 9 {@code sun.misc.Unsafe.invokeCleaner(ByteBuffer)},
+     * unter Java 8 {@code ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()}.
+     * Beide werden &uuml;ber Reflection aufgerufen, damit dieselbe Klasse unter
+     * allen Java-Versionen l&auml;uft. Fehlen beide, dann gibt erst der
+     * Garbage-Collector den Speicher frei.
+     *
+     * @return die Funktion die den Speicher freigibt.
+     */
+    private static Consumer<ByteBuffer> cleaner() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return (b) -> invoke(invokeCleaner, unsafe, b);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // Java 8: Unsafe.invokeCleaner() gibt es noch nicht
+        }
+        try {
+            final Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return (b) -> {
+                final Object cleaner = invoke(cleanerMethod, b);
+                if (cleaner != null) {
+                    invoke(cleanMethod, cleaner);
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return (b) -> {
+                // Den Speicher gibt der Garbage-Collector frei
+            };
+        }
+    }
+
+    private static Object invoke(final Method method, final Object target, final Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException(ex.getCause().toString(), ex.getCause());
+        }
+    }
+
+    private ByteBuffer allocate(final int capacity) {
+        final ByteBuffer newBuffer = (isDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+        return newBuffer.order(ByteOrder.nativeOrder());
+    }
+
+    private void ensureRemaining(final int length) {
+        if (buffer.remaining() < length) {
+            final long required = (long) buffer.position() + length;
+            final long grown = Math.max(required, 2L * buffer.capacity());
+            if (grown > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Off-heap buffer too large: " + grown);
+            }
+            final ByteBuffer newBuffer = allocate((int) grown);
+            // Aufruf ueber Buffer, da ByteBuffer.flip() erst ab Java 9
+            // existiert und unter Java 8 zu einem NoSuchMethodError fuehrt:
+            ((Buffer) buffer).flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    void get(final int index, final byte[] target) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        ((Buffer) duplicate).position(index);
+        duplicate.get(target);
+    }
+
+    double getDouble(final int index) {
+        return buffer.getDouble(index);
+    }
+
+    int getInt(final int index) {
+        return buffer.getInt(index);
+    }
+
+    long getLong(final int index) {
+        return buffer.getLong(index);
+    }
+
+    byte getByte(final int index) {
+        return buffer.get(index);
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    void put(final byte[] value) {
+        ensureRemaining(value.length);
+        buffer.put(value);
+    }
+
+    void putByte(final byte value) {
+        ensureRemaining(1);
+        buffer.put(value);
+    }
+
+    void putDouble(final double value) {
+        ensureRemaining(8);
+        buffer.putDouble(value);
+    }
+
+    void putInt(final int value) {
+        ensureRemaining(4);
+        buffer.putInt(value);
+    }
+
+    void putLong(final long value) {
+        ensureRemaining(8);
+        buffer.putLong(value);
+    }
+
+    void setByte(final int index, final byte value) {
+        buffer.put(index, value);
+    }
+
+    /**
+     * Gibt den Speicher des Puffers frei; danach darf er nicht mehr gelesen
+     * werden.
+     */
+    void free() {
+        final ByteBuffer freed = buffer;
+        buffer = FREED;
+        if (isDirect && (freed != FREED)) {
+            CLEANER.accept(freed);
+        }
+    }
+
+    /**
+     * K&uuml;rzt einen Direct-Buffer auf die tats&auml;chlich geschriebene
+     * Gr&ouml;&szlig;e. Ein Puffer auf dem Heap wird nicht kopiert, er lebt
+     * ohnehin nur kurz.
+     */
+    void trim() {
+        if (isDirect && (buffer.remaining() > 0)) {
+            final ByteBuffer newBuffer = allocate(Math.max(1, buffer.position()));
+            ((Buffer) buffer).flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+
+}
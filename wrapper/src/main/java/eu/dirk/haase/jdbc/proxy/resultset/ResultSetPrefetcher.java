@@ -0,0 +1,207 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import eu.dirk.haase.jdbc.proxy.metadata.ResultSetMetaDataSnapshot;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Liest ein ResultSet in einem eigenen Thread voraus (Read-Ahead).
+ * <p>
+ * W&auml;hrend die Anwendung die Zeilen eines Blocks verarbeitet, liest der
+ * Prefetch-Thread bereits die n&auml;chsten Bl&ouml;cke vom Treiber und legt sie
+ * als {@link ColumnarTable} in einem begrenzten Puffer ab. Warten auf das
+ * Netzwerk und Verarbeiten der Zeilen &uuml;berlappen sich so, statt sich
+ * abzuwechseln.
+ * <p>
+ * Die Gr&ouml;&szlig;e eines Blocks h&auml;ngt nicht von der Fetch-Size des
+ * Treibers ab (bei Oracle zum Beispiel nur 10 Zeilen), sondern ist durch
+ * {@value #CHUNK_BYTES} Bytes und eine maximale Anzahl von Zeilen begrenzt.
+ * Die Bl&ouml;cke liegen auf dem Java-Heap, da sie nur so lange leben, bis
+ * die Anwendung ihre Zeilen gelesen hat.
+ * <p>
+ * Die meisten JDBC-Treiber erlauben keinen gleichzeitigen Zugriff aus
+ * mehreren Threads. Ab dem Start geh&ouml;ren daher s&auml;mtliche Aufrufe auf
+ * das zugrundeliegende ResultSet dem Prefetch-Thread, einschlie&szlig;lich
+ * {@code close()}. Die Anwendung liest nur noch &uuml;ber das ResultSet aus
+ * {@link #start(ResultSet, Statement)}.
+ */
+public final class ResultSetPrefetcher implements Runnable {
+
+    /**
+     * Anzahl der Bl&ouml;cke die h&ouml;chstens im Voraus gelesen werden.
+     */
+    private static final int BUFFERED_CHUNKS = 2;
+    /**
+     * Ungef&auml;hre maximale Gr&ouml;&szlig;e eines Blocks in Bytes.
+     */
+    private static final long CHUNK_BYTES = 2L * 1024 * 1024;
+    /**
+     * Maximale Anzahl der Zeilen eines Blocks, wenn der Aufrufer keine angibt.
+     */
+    private static final int DEFAULT_CHUNK_ROWS = 8192;
+    private static final Object END = new Object();
+
+    private final int chunkRows;
+    private final ResultSet delegate;
+    private final ResultSetMetaDataSnapshot metaData;
+    private final BlockingQueue<Object> queue;
+    private volatile boolean isClosed;
+    private boolean isExhausted;
+    private Thread thread;
+
+    private ResultSetPrefetcher(final ResultSet delegate, final ResultSetMetaDataSnapshot metaData, final int chunkRows) {
+        this.delegate = delegate;
+        this.metaData = metaData;
+        this.chunkRows = chunkRows;
+        this.queue = new ArrayBlockingQueue<>(BUFFERED_CHUNKS);
+    }
+
+    /**
+     * Startet den Prefetch-Thread f&uuml;r ein ResultSet. Ein Block hat
+     * h&ouml;chstens {@value #DEFAULT_CHUNK_ROWS} Zeilen.
+     *
+     * @param delegate  das ResultSet das vorausgelesen werden soll; es darf
+     *                  danach nicht mehr direkt verwendet werden.
+     * @param statement das Statement das {@link ResultSet#getStatement()}
+     *                  liefern soll.
+     * @return ein nur lesbares, vorw&auml;rts gerichtetes ResultSet.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht
+     *                      gelesen werden k&ouml;nnen.
+     */
+    public static ResultSet start(final ResultSet delegate, final Statement statement) throws SQLException {
+        return start(delegate, statement, DEFAULT_CHUNK_ROWS);
+    }
+
+    /**
+     * Startet den Prefetch-Thread f&uuml;r ein ResultSet.
+     *
+     * @param delegate  das ResultSet das vorausgelesen werden soll; es darf
+     *                  danach nicht mehr direkt verwendet werden.
+     * @param statement das Statement das {@link ResultSet#getStatement()}
+     *                  liefern soll.
+     * @param chunkRows die maximale Anzahl der Zeilen pro Block; unabh&auml;ngig
+     *                  davon ist ein Block auf {@value #CHUNK_BYTES} Bytes
+     *                  begrenzt.
+     * @return ein nur lesbares, vorw&auml;rts gerichtetes ResultSet.
+     * @throws SQLException wird ausgel&ouml;st wenn die Metadaten nicht
+     *                      gelesen werden k&ouml;nnen.
+     */
+    public static ResultSet start(final ResultSet delegate, final Statement statement, final int chunkRows) throws SQLException {
+        if (chunkRows < 1) {
+            throw new IllegalArgumentException("Chunk rows must be greater than 0: " + chunkRows);
+        }
+        final ResultSetPrefetcher prefetcher = new ResultSetPrefetcher(delegate, ColumnarTable.metaDataOf(delegate), chunkRows);
+        final Thread thread = new Thread(prefetcher, "tiny-pool-result-set-prefetch");
+        thread.setDaemon(true);
+        prefetcher.thread = thread;
+        thread.start();
+        return new ColumnarResultSet(prefetcher, statement);
+    }
+
+    /**
+     * Beendet das Vorauslesen und schlie&szlig;t (im Prefetch-Thread) das
+     * zugrundeliegende ResultSet. Wartet bis der Prefetch-Thread beendet ist,
+     * damit der Treiber danach wieder exklusiv dem Aufrufer geh&ouml;rt.
+     * <p>
+     * Der Prefetch-Thread wird nicht unterbrochen: manche Treiber schlie&szlig;en
+     * bei einem Interrupt ihren NIO-Kanal und damit die ganze Connection. Er
+     * liest h&ouml;chstens den laufenden Block zu Ende.
+     */
+    void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        // Ein wartender Prefetch-Thread soll nicht am vollen Puffer haengen;
+        // danach passen der laufende Block und END in den leeren Puffer:
+        queue.clear();
+        boolean isInterrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                isInterrupted = true;
+            }
+        }
+        queue.clear();
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ResultSetMetaDataSnapshot getMetaData() {
+        return metaData;
+    }
+
+    /**
+     * Liefert den n&auml;chsten Block; wartet gegebenenfalls bis der
+     * Prefetch-Thread ihn gelesen hat.
+     *
+     * @return der n&auml;chste Block oder {@code null} wenn das ResultSet
+     * vollst&auml;ndig gelesen ist.
+     * @throws SQLException wird ausgel&ouml;st wenn der Prefetch-Thread das
+     *                      ResultSet nicht lesen konnte.
+     */
+    ColumnarTable nextChunk() throws SQLException {
+        if (isExhausted || isClosed) {
+            return null;
+        }
+        final Object chunk;
+        try {
+            chunk = queue.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for prefetched rows", ex);
+        }
+        if (chunk instanceof ColumnarTable) {
+            return (ColumnarTable) chunk;
+        }
+        isExhausted = true;
+        if (chunk instanceof SQLException) {
+            throw new SQLException("Prefetching rows failed", (SQLException) chunk);
+        }
+        return null;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!isClosed) {
+                final ColumnarTable chunk = ColumnarTable.materializeChunk(delegate, metaData, chunkRows, CHUNK_BYTES);
+                if (chunk.getRowCount() > 0) {
+                    queue.put(chunk);
+                }
+                if (!chunk.hasMoreRows()) {
+                    break;
+                }
+            }
+            queue.put(END);
+        } catch (SQLException ex) {
+            offer(ex);
+        } catch (InterruptedException ex) {
+            // Der Prefetch-Thread wurde von aussen unterbrochen
+            offer(new SQLException("Interrupted while prefetching rows", ex));
+        } catch (RuntimeException ex) {
+            offer(new SQLException(ex));
+        } finally {
+            try {
+                delegate.close();
+            } catch (SQLException ignore) {
+                // Das ResultSet wird nicht mehr gelesen
+            }
+        }
+    }
+
+    private void offer(final SQLException ex) {
+        try {
+            queue.put(ex);
+        } catch (InterruptedException ignore) {
+            // Der Prefetch-Thread wurde von aussen unterbrochen
+        }
+    }
+
+}
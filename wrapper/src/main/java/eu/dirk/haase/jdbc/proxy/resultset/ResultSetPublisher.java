@@ -0,0 +1,289 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import eu.dirk.haase.jdbc.proxy.base.FetchSizeTuning;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Liefert die Zeilen einer Abfrage gesteuert durch die Nachfrage (Backpressure)
+ * an einen {@link RowSubscriber}, ohne das Ergebnis vorher in einer Liste zu
+ * sammeln.
+ * <p>
+ * Die Abfrage wird erst beim Abonnieren ausgef&uuml;hrt, jeder Publisher kann
+ * nur einmal abonniert werden. Der Cursor wird ausschlie&szlig;lich in Tasks
+ * auf dem angegebenen {@link Executor} bewegt, von denen h&ouml;chstens einer
+ * gleichzeitig l&auml;uft. Ein Task liefert nur so viele Zeilen wie angefordert
+ * wurden und gibt seinen Thread danach wieder frei; ohne Nachfrage belegt ein
+ * Abonnement also keinen Thread.
+ * <p>
+ * Die Nachfrage wird auf die Fetch-Size abgebildet: vor der Abfrage und
+ * immer wenn sich die offene Nachfrage &auml;ndert, wird die Fetch-Size auf die
+ * offene Nachfrage gesetzt (h&ouml;chstens {@value #MAX_FETCH_SIZE} Zeilen).
+ * Bei den Wrapper-Klassen geschieht das &uuml;ber
+ * {@link FetchSizeTuning#hintFetchSize(int)}, eine gelernte Fetch-Size (siehe
+ * {@link FetchSizeAdvisor}) bleibt also wirksam.
+ * Nach der letzten Zeile wird das ResultSet geschlossen, bei einem Fehler oder
+ * bei {@link RowSubscription#cancel()} das ganze Statement.
+ * <p>
+ * Unter Java 11+ liefert {@code FlowResultSetPublisher} (im Modul
+ * {@code wrapper-flow}) eine Sicht als {@code java.util.concurrent.Flow.Publisher}.
+ *
+ * @param <T> der Typ der abgebildeten Zeilen.
+ */
+public final class ResultSetPublisher<T> {
+
+    private static final int MAX_FETCH_SIZE = 1000;
+    private static final int MAX_QUEUED_TASKS = 1024;
+    private static final RowSubscription CANCELLED = new RowSubscription() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void request(final long n) {
+        }
+    };
+    private static volatile Executor defaultExecutor;
+
+    private final Executor executor;
+    private final MetaDataCache.MetaDataSupplier<ResultSet> query;
+    private final RowMapper<T> rowMapper;
+    private final Statement statement;
+    private final AtomicBoolean isSubscribed;
+
+    private ResultSetPublisher(final Statement statement, final MetaDataCache.MetaDataSupplier<ResultSet> query, final RowMapper<T> rowMapper, final Executor executor) {
+        this.statement = statement;
+        this.query = query;
+        this.rowMapper = rowMapper;
+        this.executor = executor;
+        this.isSubscribed = new AtomicBoolean();
+    }
+
+    /**
+     * Liefert den gemeinsamen Executor mit h&ouml;chstens so vielen Threads wie
+     * Prozessoren; unbenutzte Threads werden nach einer Minute beendet.
+     * H&ouml;chstens {@value #MAX_QUEUED_TASKS} Tasks warten auf einen Thread,
+     * ist die Warteschlange voll, dann l&auml;uft der Task im aufrufenden
+     * Thread (siehe {@link ThreadPoolExecutor.CallerRunsPolicy}).
+     *
+     * @return der gemeinsame Executor.
+     */
+    public static Executor defaultExecutor() {
+        Executor currExecutor = defaultExecutor;
+        if (currExecutor == null) {
+            synchronized (ResultSetPublisher.class) {
+                currExecutor = defaultExecutor;
+                if (currExecutor == null) {
+                    final int threadCount = Runtime.getRuntime().availableProcessors();
+                    final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_TASKS), (r) -> {
+                        final Thread thread = new Thread(r, "tiny-pool-result-set-publisher");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+                    threadPoolExecutor.allowCoreThreadTimeOut(true);
+                    currExecutor = threadPoolExecutor;
+                    defaultExecutor = currExecutor;
+                }
+            }
+        }
+        return currExecutor;
+    }
+
+    /**
+     * Erzeugt einen Publisher f&uuml;r eine Abfrage.
+     *
+     * @param statement das Statement, das die Abfrage ausf&uuml;hrt.
+     * @param query     f&uuml;hrt die Abfrage auf dem Statement aus.
+     * @param rowMapper bildet die Zeilen ab.
+     * @param executor  der Executor, auf dem der Cursor bewegt wird.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return ein neuer Publisher.
+     */
+    public static <T> ResultSetPublisher<T> of(final Statement statement, final MetaDataCache.MetaDataSupplier<ResultSet> query, final RowMapper<T> rowMapper, final Executor executor) {
+        if ((statement == null) || (query == null) || (rowMapper == null) || (executor == null)) {
+            throw new IllegalArgumentException("Statement, query, row mapper and executor must not be null");
+        }
+        return new ResultSetPublisher<>(statement, query, rowMapper, executor);
+    }
+
+    /**
+     * Abonniert die Zeilen der Abfrage.
+     *
+     * @param subscriber der Empf&auml;nger der Zeilen.
+     */
+    public void subscribe(final RowSubscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber is null");
+        }
+        if (isSubscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription<>(this, subscriber));
+        } else {
+            subscriber.onSubscribe(CANCELLED);
+            subscriber.onError(new IllegalStateException("ResultSetPublisher can only be subscribed once"));
+        }
+    }
+
+    private static final class Subscription<T> implements RowSubscription, Runnable {
+
+        private final ResultSetPublisher<T> publisher;
+        private final AtomicLong requested;
+        private final RowSubscriber<? super T> subscriber;
+        private final AtomicInteger wip;
+        private int fetchSize;
+        private volatile IllegalArgumentException invalidRequest;
+        private volatile boolean isCancelled;
+        private boolean isDone;
+        private ResultSet resultSet;
+
+        Subscription(final ResultSetPublisher<T> publisher, final RowSubscriber<? super T> subscriber) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+            this.requested = new AtomicLong();
+            this.wip = new AtomicInteger();
+        }
+
+        private static int fetchSizeOf(final long demand) {
+            return (int) Math.min(demand, MAX_FETCH_SIZE);
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            schedule();
+        }
+
+        private void closeStatement() {
+            try {
+                publisher.statement.close();
+            } catch (SQLException ignore) {
+                // Das Abonnement ist ohnehin beendet
+            }
+        }
+
+        private void complete() {
+            isDone = true;
+            try {
+                resultSet.close();
+            } catch (SQLException ignore) {
+                // Alle Zeilen sind geliefert
+            }
+            subscriber.onComplete();
+        }
+
+        /**
+         * Liefert so viele Zeilen wie angefordert wurden. L&auml;uft nie
+         * gleichzeitig in mehreren Threads (siehe {@link #schedule()}).
+         */
+        private void drain() throws SQLException {
+            if (isCancelled) {
+                isDone = true;
+                closeStatement();
+                return;
+            } else if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+            final long demand = requested.get();
+            if (demand == 0) {
+                return;
+            }
+            if (resultSet == null) {
+                fetchSize = fetchSizeOf(demand);
+                setFetchSize(publisher.statement, fetchSize);
+                resultSet = publisher.query.get();
+            } else if (fetchSize != fetchSizeOf(demand)) {
+                fetchSize = fetchSizeOf(demand);
+                resultSet.setFetchSize(fetchSize);
+            }
+            long emitted = 0;
+            while (emitted != demand) {
+                if (isCancelled) {
+                    isDone = true;
+                    closeStatement();
+                    return;
+                }
+                if (!resultSet.next()) {
+                    complete();
+                    return;
+                }
+                subscriber.onNext(publisher.rowMapper.map(resultSet));
+                ++emitted;
+            }
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+        }
+
+        private void fail(final Throwable throwable) {
+            isDone = true;
+            closeStatement();
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested rows must be greater than 0: " + n);
+            } else {
+                requested.getAndUpdate((r) -> (r + n < 0 ? Long.MAX_VALUE : r + n));
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!isDone) {
+                    try {
+                        drain();
+                    } catch (Throwable ex) {
+                        fail(ex);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Startet einen Task auf dem Executor, falls gerade keiner l&auml;uft.
+         * L&auml;uft bereits einer, dann wiederholt dieser seine Arbeit.
+         */
+        /**
+         * Setzt die Fetch-Size vor der Abfrage. Bei den Wrapper-Klassen ohne
+         * sie als von der Anwendung gesetzt zu markieren, damit die Anpassung
+         * durch den {@link FetchSizeAdvisor} aktiv bleibt.
+         */
+        private void setFetchSize(final Statement statement, final int rows) throws SQLException {
+            if (statement instanceof FetchSizeTuning) {
+                ((FetchSizeTuning) statement).hintFetchSize(rows);
+            } else {
+                statement.setFetchSize(rows);
+            }
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    publisher.executor.execute(this);
+                } catch (RuntimeException ex) {
+                    wip.set(0);
+                    isDone = true;
+                    subscriber.onError(ex);
+                }
+            }
+        }
+
+    }
+
+}
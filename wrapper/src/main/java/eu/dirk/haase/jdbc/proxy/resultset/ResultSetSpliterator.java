@@ -0,0 +1,129 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ein {@link Spliterator} der den Cursor eines ResultSets bewegt und jede
+ * Zeile mit einem {@link RowMapper} abbildet.
+ * <p>
+ * Die Zeilen werden erst gelesen, wenn der Stream sie anfordert; der
+ * Speicherbedarf ist damit (bis auf die Fetch-Size des Treibers) konstant.
+ * Ist eine Blockgr&ouml;&szlig;e angegeben, dann liefert {@link #trySplit()}
+ * jeweils die n&auml;chsten abgebildeten Zeilen als eigenen Block, so dass ein
+ * paralleler Stream die Bl&ouml;cke parallel verarbeiten kann; der Cursor
+ * selbst wird dabei immer nur von einem Thread zur Zeit bewegt.
+ * <p>
+ * Eine {@link SQLException} beim Lesen wird als {@link IllegalStateException}
+ * weitergereicht.
+ *
+ * @param <T> der Typ der abgebildeten Zeilen.
+ */
+public final class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final int batchSize;
+    private final ResultSet resultSet;
+    private final RowMapper<T> rowMapper;
+    private boolean isExhausted;
+
+    private ResultSetSpliterator(final ResultSet resultSet, final RowMapper<T> rowMapper, final int batchSize) {
+        super(Long.MAX_VALUE, ORDERED | NONNULL);
+        this.resultSet = resultSet;
+        this.rowMapper = rowMapper;
+        this.batchSize = batchSize;
+    }
+
+    private static void close(final ResultSet resultSet, final Statement statement) {
+        try {
+            try {
+                resultSet.close();
+            } finally {
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    /**
+     * Liefert einen sequentiellen Stream auf die Zeilen eines ResultSets.
+     * Beim Schlie&szlig;en des Streams werden das ResultSet und das Statement
+     * geschlossen.
+     *
+     * @param resultSet das ResultSet.
+     * @param statement das Statement das beim Schlie&szlig;en des Streams
+     *                  ebenfalls geschlossen wird oder {@code null}.
+     * @param rowMapper bildet die Zeilen ab; darf nicht {@code null} liefern.
+     * @param batchSize die Anzahl der Zeilen pro Block bei einem parallelen
+     *                  Stream oder {@code 0} wenn nicht geteilt werden soll.
+     * @param <T>       der Typ der abgebildeten Zeilen.
+     * @return der Stream auf die Zeilen.
+     */
+    public static <T> Stream<T> stream(final ResultSet resultSet, final Statement statement, final RowMapper<T> rowMapper, final int batchSize) {
+        if (rowMapper == null) {
+            throw new IllegalArgumentException("Row mapper must not be null");
+        }
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("Batch size must not be negative: " + batchSize);
+        }
+        return StreamSupport.stream(new ResultSetSpliterator<>(resultSet, rowMapper, batchSize), false)
+                .onClose(() -> close(resultSet, statement));
+    }
+
+    /**
+     * Bewegt den Cursor zur n&auml;chsten Zeile und bildet sie ab.
+     *
+     * @return die abgebildete Zeile oder {@code null} wenn es keine weitere
+     * Zeile gibt.
+     */
+    private T next() {
+        if (isExhausted) {
+            return null;
+        }
+        try {
+            if (!resultSet.next()) {
+                isExhausted = true;
+                return null;
+            }
+            final T item = rowMapper.map(resultSet);
+            if (item == null) {
+                throw new NullPointerException("Row mapper returned null for row " + resultSet.getRow());
+            }
+            return item;
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        final T item = next();
+        if (item == null) {
+            return false;
+        }
+        action.accept(item);
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (batchSize == 0) {
+            return null;
+        }
+        final Object[] batch = new Object[batchSize];
+        int count = 0;
+        for (T item; (batchSize > count) && ((item = next()) != null); ) {
+            batch[count++] = item;
+        }
+        return (count > 0 ? Spliterators.spliterator(batch, 0, count, ORDERED | NONNULL) : null);
+    }
+
+}
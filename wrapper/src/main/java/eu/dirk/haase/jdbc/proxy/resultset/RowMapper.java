@@ -0,0 +1,24 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Bildet die aktuelle Zeile eines ResultSets auf ein Objekt ab.
+ *
+ * @param <T> der Typ der abgebildeten Objekte.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Bildet die aktuelle Zeile ab. Der Cursor darf dabei nicht bewegt werden.
+     *
+     * @param resultSet das ResultSet, das auf der abzubildenden Zeile steht.
+     * @return das abgebildete Objekt.
+     * @throws SQLException wird ausgel&ouml;st wenn die Zeile nicht gelesen
+     *                      werden kann.
+     */
+    T map(ResultSet resultSet) throws SQLException;
+
+}
@@ -0,0 +1,46 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+/**
+ * Empf&auml;nger der Zeilen eines {@link ResultSetPublisher}.
+ * <p>
+ * Der Vertrag entspricht {@code java.util.concurrent.Flow.Subscriber}
+ * beziehungsweise {@code org.reactivestreams.Subscriber}: nach
+ * {@link #onSubscribe(RowSubscription)} werden h&ouml;chstens so viele Zeilen
+ * mit {@link #onNext(Object)} geliefert, wie &uuml;ber
+ * {@link RowSubscription#request(long)} angefordert wurden, abgeschlossen wird
+ * mit genau einem Aufruf von {@link #onComplete()} oder
+ * {@link #onError(Throwable)}. Alle Aufrufe erfolgen nacheinander, aber nicht
+ * unbedingt im selben Thread.
+ *
+ * @param <T> der Typ der abgebildeten Zeilen.
+ */
+public interface RowSubscriber<T> {
+
+    /**
+     * Alle Zeilen wurden geliefert.
+     */
+    void onComplete();
+
+    /**
+     * Die Abfrage oder das Abbilden einer Zeile ist fehlgeschlagen.
+     *
+     * @param throwable der Fehler.
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Liefert die n&auml;chste Zeile.
+     *
+     * @param item die abgebildete Zeile.
+     */
+    void onNext(T item);
+
+    /**
+     * Wird als erstes aufgerufen.
+     *
+     * @param subscription &uuml;ber die Zeilen angefordert werden oder das
+     *                     Abonnement beendet wird.
+     */
+    void onSubscribe(RowSubscription subscription);
+
+}
@@ -0,0 +1,22 @@
+package eu.dirk.haase.jdbc.proxy.resultset;
+
+/**
+ * Das Abonnement eines {@link RowSubscriber} bei einem {@link ResultSetPublisher}
+ * (entspricht {@code java.util.concurrent.Flow.Subscription}).
+ */
+public interface RowSubscription {
+
+    /**
+     * Beendet das Abonnement; das Statement wird geschlossen.
+     */
+    void cancel();
+
+    /**
+     * Fordert weitere Zeilen an.
+     *
+     * @param n die Anzahl der zus&auml;tzlich angeforderten Zeilen; muss
+     *          gr&ouml;&szlig;er als {@code 0} sein.
+     */
+    void request(long n);
+
+}
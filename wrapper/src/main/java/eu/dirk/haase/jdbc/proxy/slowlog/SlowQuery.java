@@ -0,0 +1,57 @@
+package eu.dirk.haase.jdbc.proxy.slowlog;
+
+import java.time.Instant;
+
+/**
+ * Eine protokollierte langsame Ausf&uuml;hrung einer SQL-Anweisung.
+ */
+final class SlowQuery {
+
+    final long elapsedNanos;
+    final String exception;
+    final String parameters;
+    final String sql;
+    final String threadName;
+    final long timestampMillis;
+
+    SlowQuery(final long timestampMillis, final long elapsedNanos, final String threadName,
+              final String sql, final String parameters, final String exception) {
+        this.timestampMillis = timestampMillis;
+        this.elapsedNanos = elapsedNanos;
+        this.threadName = threadName;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.exception = exception;
+    }
+
+    /**
+     * Schreibt diese Ausf&uuml;hrung als eine Zeile, zum Beispiel:
+     * <pre><code>
+     * 2018-05-01T10:15:30.123Z 1523.412 ms [main] select * from t where id = ? parameters=[42]
+     * </code></pre>
+     *
+     * @param line der Puffer in den die Zeile geschrieben wird.
+     */
+    void appendTo(final StringBuilder line) {
+        line.append(Instant.ofEpochMilli(timestampMillis)).append(' ');
+        final long micros = elapsedNanos / 1_000L;
+        line.append(micros / 1_000L).append('.');
+        final long fraction = micros % 1_000L;
+        if (fraction < 100) {
+            line.append('0');
+        }
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction).append(" ms [").append(threadName).append("] ");
+        line.append(sql.replace('\n', ' ').replace('\r', ' '));
+        if (parameters != null) {
+            line.append(" parameters=").append(parameters);
+        }
+        if (exception != null) {
+            line.append(" exception=").append(exception.replace('\n', ' ').replace('\r', ' '));
+        }
+        line.append('\n');
+    }
+
+}
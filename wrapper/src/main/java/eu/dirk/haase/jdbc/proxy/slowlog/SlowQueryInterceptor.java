@@ -0,0 +1,90 @@
+package eu.dirk.haase.jdbc.proxy.slowlog;
+
+import eu.dirk.haase.jdbc.proxy.base.ParameterCapture;
+import eu.dirk.haase.jdbc.proxy.base.PreparedSql;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+
+/**
+ * {@link Interceptor} der SQL-Anweisungen, deren Ausf&uuml;hrung l&auml;nger als
+ * der Schwellwert dauert, in den {@link SlowQueryRingBuffer} stellt.
+ * <p>
+ * Unterhalb des Schwellwerts kostet eine Ausf&uuml;hrung nur zwei Aufrufe von
+ * {@link System#nanoTime()}. Erst oberhalb werden die Bind-Parameter in lesbare
+ * Form gebracht.
+ */
+final class SlowQueryInterceptor implements Interceptor {
+
+    private final SlowQueryRingBuffer ringBuffer;
+    private final SlowQueryWriter writer;
+    private volatile long thresholdNanos;
+
+    SlowQueryInterceptor(final SlowQueryRingBuffer ringBuffer, final SlowQueryWriter writer, final long thresholdNanos) {
+        this.ringBuffer = ringBuffer;
+        this.writer = writer;
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    private static String sqlOf(final Object proxy) {
+        return (proxy instanceof PreparedSql ? ((PreparedSql) proxy).getSql() : null);
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result) {
+        afterReturning(proxy, methodId, token, result, null);
+    }
+
+    @Override
+    public void afterReturning(final Object proxy, final int methodId, final long token, final Object result, final String sql) {
+        if (token != 0) {
+            publish(proxy, token, sql, null);
+        }
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex) {
+        afterThrowing(proxy, methodId, token, ex, null);
+    }
+
+    @Override
+    public void afterThrowing(final Object proxy, final int methodId, final long token, final Throwable ex, final String sql) {
+        if (token != 0) {
+            publish(proxy, token, sql, ex);
+        }
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId) {
+        // 0 ist der Wert fuer "keine Ausfuehrung", daher
+        // darf nanoTime() hier nicht 0 liefern:
+        return (Interceptors.isStatementExecution(methodId) ? System.nanoTime() | 1L : 0L);
+    }
+
+    @Override
+    public long before(final Object proxy, final int methodId, final String sql) {
+        return before(proxy, methodId);
+    }
+
+    private void publish(final Object proxy, final long token, final String sql, final Throwable ex) {
+        final long elapsedNanos = System.nanoTime() - token;
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        final String statementSql = (sql != null ? sql : sqlOf(proxy));
+        final String parameters = ((sql == null) && (proxy instanceof ParameterCapture) ? ((ParameterCapture) proxy).capturedParameters() : null);
+        final SlowQuery slowQuery = new SlowQuery(System.currentTimeMillis(), elapsedNanos, Thread.currentThread().getName(),
+                String.valueOf(statementSql), parameters, (ex != null ? ex.toString() : null));
+        if (ringBuffer.offer(slowQuery)) {
+            writer.start();
+        }
+    }
+
+    long thresholdNanos() {
+        return thresholdNanos;
+    }
+
+    void thresholdNanos(final long thresholdNanos) {
+        this.thresholdNanos = thresholdNanos;
+    }
+
+}
@@ -0,0 +1,211 @@
+package eu.dirk.haase.jdbc.proxy.slowlog;
+
+import eu.dirk.haase.jdbc.proxy.base.BindParameters;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.InterceptorProvider;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchrones Protokoll langsamer SQL-Anweisungen mit ihren Bind-Parametern.
+ * <p>
+ * Dauert die Ausf&uuml;hrung einer SQL-Anweisung l&auml;nger als der Schwellwert
+ * (Standard: 1000 ms), dann wird sie mit ihren Bind-Parametern in einen
+ * sperrfreien Ring-Puffer gestellt. Ein Hintergrund-Thread schreibt den
+ * Ring-Puffer geb&uuml;ndelt in die Protokoll-Datei. Der aufrufende Thread
+ * wartet daher nie auf I/O; ist der Ring-Puffer voll, dann wird der Eintrag
+ * verworfen (siehe {@link #droppedCount()}).
+ * <p>
+ * Die Bind-Parameter werden von den generierten Wrapper-Klassen f&uuml;r
+ * {@link java.sql.PreparedStatement} und {@link java.sql.CallableStatement} in
+ * einem wiederverwendeten Puffer pro Statement mitgeschrieben, jedoch nur
+ * f&uuml;r Statements die erzeugt werden w&auml;hrend das Protokoll eingeschaltet
+ * ist. Ist das Protokoll ausgeschaltet, dann kostet ein {@code setXxx}-Aufruf
+ * nur eine zus&auml;tzliche Feld-Abfrage.
+ * <p>
+ * Wie die {@link eu.dirk.haase.jdbc.proxy.metrics.JdbcMetrics} wird die
+ * Ausf&uuml;hrungszeit &uuml;ber einen {@link Interceptor} gemessen; das
+ * Protokoll muss daher eingeschaltet werden <b>bevor</b> die Wrapper-Klassen
+ * generiert werden, entweder mit den System-Properties
+ * <pre><code>
+ * -Deu.dirk.haase.jdbc.proxy.slowlog=true
+ * -Deu.dirk.haase.jdbc.proxy.slowlog.threshold=500
+ * -Deu.dirk.haase.jdbc.proxy.slowlog.file=/var/log/app/slow-query.log
+ * </code></pre>
+ * oder programmatisch mit {@link #enable()} beziehungsweise
+ * {@link #enable(Path, long)}.
+ */
+public final class SlowQueryLog {
+
+    /**
+     * Name der System-Property mit der das Protokoll eingeschaltet wird.
+     */
+    public static final String ENABLED_PROPERTY = "eu.dirk.haase.jdbc.proxy.slowlog";
+
+    /**
+     * Name der System-Property mit dem Pfad der Protokoll-Datei.
+     */
+    public static final String FILE_PROPERTY = "eu.dirk.haase.jdbc.proxy.slowlog.file";
+
+    /**
+     * Name der System-Property mit dem Schwellwert in Millisekunden.
+     */
+    public static final String THRESHOLD_PROPERTY = "eu.dirk.haase.jdbc.proxy.slowlog.threshold";
+
+    private static final int RING_BUFFER_CAPACITY = 1024;
+
+    private static final SlowQueryRingBuffer ringBuffer = new SlowQueryRingBuffer(RING_BUFFER_CAPACITY);
+    private static final SlowQueryWriter writer = new SlowQueryWriter(ringBuffer, defaultPath());
+    private static final SlowQueryInterceptor slowQueryInterceptor = new SlowQueryInterceptor(ringBuffer, writer,
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong(THRESHOLD_PROPERTY, 1000L)));
+    private static volatile boolean isCapturingParameters;
+
+    static {
+        if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+            capturingParameters(true);
+        }
+    }
+
+    private SlowQueryLog() {
+    }
+
+    private static void capturingParameters(final boolean isCapture) {
+        isCapturingParameters = isCapture;
+        BindParameters.requestCapture(SlowQueryLog.class, isCapture);
+    }
+
+    private static Path defaultPath() {
+        final String fileName = System.getProperty(FILE_PROPERTY);
+        return (fileName != null ? Paths.get(fileName) : Paths.get(System.getProperty("java.io.tmpdir"), "tiny-pool-slow-query.log"));
+    }
+
+    /**
+     * Schaltet das Protokoll f&uuml;r alle danach generierten Wrapper-Klassen aus.
+     * <p>
+     * Danach erzeugte Statements schreiben ihre Bind-Parameter nicht mehr mit.
+     */
+    public static void disable() {
+        capturingParameters(false);
+        Interceptors.remove(slowQueryInterceptor);
+    }
+
+    /**
+     * Liefert die Anzahl der Eintr&auml;ge die verworfen wurden, weil der
+     * Ring-Puffer voll war.
+     *
+     * @return die Anzahl der verworfenen Eintr&auml;ge.
+     */
+    public static long droppedCount() {
+        return ringBuffer.droppedCount();
+    }
+
+    /**
+     * Schaltet das Protokoll f&uuml;r alle danach generierten Wrapper-Klassen ein.
+     */
+    public static void enable() {
+        capturingParameters(true);
+        Interceptors.add(slowQueryInterceptor);
+    }
+
+    /**
+     * Schaltet das Protokoll f&uuml;r alle danach generierten Wrapper-Klassen ein
+     * und legt die Protokoll-Datei und den Schwellwert fest.
+     *
+     * @param file            die Protokoll-Datei an die die Eintr&auml;ge
+     *                        angeh&auml;ngt werden.
+     * @param thresholdMillis der Schwellwert in Millisekunden.
+     */
+    public static void enable(final Path file, final long thresholdMillis) {
+        if (file == null) {
+            throw new IllegalArgumentException("File must not be null.");
+        }
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + thresholdMillis);
+        }
+        writer.setPath(file);
+        slowQueryInterceptor.thresholdNanos(TimeUnit.MILLISECONDS.toNanos(thresholdMillis));
+        enable();
+    }
+
+    /**
+     * Schreibt alle bereits erfassten Eintr&auml;ge sofort in die
+     * Protokoll-Datei, ohne auf den Hintergrund-Thread zu warten.
+     */
+    public static void flush() {
+        writer.drain();
+    }
+
+    /**
+     * Liefert die Protokoll-Datei.
+     *
+     * @return die Protokoll-Datei.
+     */
+    public static Path getFile() {
+        return writer.getPath();
+    }
+
+    /**
+     * Liefert den Schwellwert in Millisekunden.
+     *
+     * @return der Schwellwert in Millisekunden.
+     */
+    public static long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryInterceptor.thresholdNanos());
+    }
+
+    /**
+     * Liefert den {@link Interceptor} der die Ausf&uuml;hrungszeiten misst.
+     *
+     * @return der Interceptor.
+     */
+    public static Interceptor interceptor() {
+        return slowQueryInterceptor;
+    }
+
+    /**
+     * Liefert {@code true} wenn das Protokoll das Mitschreiben der
+     * Bind-Parameter angefordert hat (siehe {@link BindParameters#requestCapture(Object, boolean)}).
+     *
+     * @return {@code true} wenn Bind-Parameter mitgeschrieben werden sollen.
+     */
+    public static boolean isCapturingParameters() {
+        return isCapturingParameters;
+    }
+
+    /**
+     * Liefert {@code true} wenn das Protokoll f&uuml;r neu generierte
+     * Wrapper-Klassen eingeschaltet ist.
+     *
+     * @return {@code true} wenn das Protokoll eingeschaltet ist.
+     */
+    public static boolean isEnabled() {
+        return Interceptors.contains(slowQueryInterceptor);
+    }
+
+    /**
+     * Liefert die Anzahl der fehlgeschlagenen Schreib-Zugriffe auf die
+     * Protokoll-Datei.
+     *
+     * @return die Anzahl der fehlgeschlagenen Schreib-Zugriffe.
+     */
+    public static long writeErrorCount() {
+        return writer.writeErrorCount();
+    }
+
+    /**
+     * F&uuml;gt den Interceptor beim Start hinzu, wenn die System-Property
+     * {@value #ENABLED_PROPERTY} gesetzt ist (siehe {@link InterceptorProvider}).
+     */
+    public static final class Provider implements InterceptorProvider {
+
+        @Override
+        public Interceptor startupInterceptor() {
+            return (Boolean.getBoolean(ENABLED_PROPERTY) ? interceptor() : null);
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package eu.dirk.haase.jdbc.proxy.slowlog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzter, sperrfreier Ring-Puffer f&uuml;r viele Produzenten und genau einen
+ * Konsumenten.
+ * <p>
+ * Jeder Platz besitzt eine Sequenz-Nummer, die anzeigt ob der Platz frei
+ * ({@code sequence == position}) oder belegt ({@code sequence == position + 1})
+ * ist. Produzenten reservieren einen Platz mit einem einzigen CAS auf die
+ * Schreib-Position. Ist der Puffer voll, dann wird der Eintrag verworfen
+ * (und gez&auml;hlt) anstatt den aufrufenden Thread zu blockieren.
+ */
+final class SlowQueryRingBuffer {
+
+    private final LongAdder droppedCount;
+    private final int mask;
+    private final AtomicLongArray sequenceArray;
+    private final AtomicReferenceArray<SlowQuery> slotArray;
+    private final AtomicLong tail;
+    private long head;
+
+    SlowQueryRingBuffer(final int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.mask = size - 1;
+        this.slotArray = new AtomicReferenceArray<>(size);
+        this.sequenceArray = new AtomicLongArray(size);
+        for (int i = 0; size > i; ++i) {
+            this.sequenceArray.set(i, i);
+        }
+        this.tail = new AtomicLong();
+        this.droppedCount = new LongAdder();
+    }
+
+    long droppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Legt einen Eintrag ab. Darf von beliebig vielen Threads gleichzeitig
+     * aufgerufen werden.
+     *
+     * @param slowQuery der Eintrag.
+     * @return {@code true} wenn der Eintrag abgelegt wurde, {@code false} wenn
+     * der Puffer voll war.
+     */
+    boolean offer(final SlowQuery slowQuery) {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) (position & mask);
+            final long difference = sequenceArray.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slotArray.lazySet(index, slowQuery);
+                    sequenceArray.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                droppedCount.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Entnimmt den &auml;ltesten Eintrag. Darf nur von einem Thread zur Zeit
+     * aufgerufen werden.
+     *
+     * @return der Eintrag oder {@code null} wenn der Puffer leer ist.
+     */
+    SlowQuery poll() {
+        final int index = (int) (head & mask);
+        if (sequenceArray.get(index) != (head + 1)) {
+            return null;
+        }
+        final SlowQuery slowQuery = slotArray.get(index);
+        slotArray.lazySet(index, null);
+        sequenceArray.lazySet(index, head + mask + 1);
+        ++head;
+        return slowQuery;
+    }
+
+}
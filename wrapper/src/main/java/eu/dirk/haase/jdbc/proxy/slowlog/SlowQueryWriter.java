@@ -0,0 +1,121 @@
+package eu.dirk.haase.jdbc.proxy.slowlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hintergrund-Thread der den {@link SlowQueryRingBuffer} leert und die
+ * Eintr&auml;ge geb&uuml;ndelt mit einem {@link FileChannel} an die Protokoll-Datei
+ * anh&auml;ngt.
+ * <p>
+ * Pro Durchlauf werden alle vorhandenen Eintr&auml;ge in einem wiederverwendeten
+ * Puffer gesammelt und mit m&ouml;glichst wenigen Schreib-Zugriffen geschrieben.
+ * Ist der Ring-Puffer leer, dann pausiert der Thread kurz.
+ */
+final class SlowQueryWriter implements Runnable {
+
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+
+    private final StringBuilder batch;
+    private final SlowQueryRingBuffer ringBuffer;
+    private final AtomicBoolean started;
+    private final LongAdder writeErrorCount;
+    private FileChannel channel;
+    private Path channelPath;
+    private volatile Path path;
+
+    SlowQueryWriter(final SlowQueryRingBuffer ringBuffer, final Path path) {
+        this.ringBuffer = ringBuffer;
+        this.path = path;
+        this.batch = new StringBuilder(BATCH_SIZE);
+        this.started = new AtomicBoolean();
+        this.writeErrorCount = new LongAdder();
+    }
+
+    /**
+     * Schreibt alle im Ring-Puffer vorhandenen Eintr&auml;ge in die Datei.
+     *
+     * @return die Anzahl der geschriebenen Eintr&auml;ge.
+     */
+    synchronized int drain() {
+        int count = 0;
+        SlowQuery slowQuery;
+        while ((slowQuery = ringBuffer.poll()) != null) {
+            slowQuery.appendTo(batch);
+            ++count;
+            if (batch.length() >= BATCH_SIZE) {
+                write();
+            }
+        }
+        if (batch.length() > 0) {
+            write();
+        }
+        return count;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    void setPath(final Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Startet den Hintergrund-Thread, sofern er noch nicht l&auml;uft.
+     */
+    void start() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            final Thread thread = new Thread(this, "tiny-pool-slow-query-log");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void write() {
+        try {
+            final Path currentPath = this.path;
+            if ((channel == null) || !currentPath.equals(channelPath)) {
+                if (channel != null) {
+                    channel.close();
+                }
+                channel = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                channelPath = currentPath;
+            }
+            final ByteBuffer byteBuffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(batch));
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+        } catch (IOException ex) {
+            // Das Protokoll darf die Anwendung nicht
+            // beeintraechtigen, der Fehler wird nur gezaehlt:
+            writeErrorCount.increment();
+            channel = null;
+        } finally {
+            batch.setLength(0);
+        }
+    }
+
+    long writeErrorCount() {
+        return writeErrorCount.sum();
+    }
+
+}
@@ -0,0 +1,291 @@
+package eu.dirk.haase.jdbc.proxy.sql;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fingerabdruck einer SQL-Anweisung, der als stabiler Schl&uuml;ssel f&uuml;r
+ * Metriken, Caches oder Routing dienen kann.
+ * <p>
+ * Bei der Normalisierung werden
+ * <ul>
+ * <li>String- und Zahlen-Literale durch {@code ?} ersetzt,</li>
+ * <li>Listen von Platzhaltern in {@code IN (...)} zu einem einzelnen {@code ?}
+ * zusammengefasst,</li>
+ * <li>Schl&uuml;sselw&ouml;rter und nicht maskierte Bezeichner in Kleinbuchstaben
+ * umgewandelt (maskierte Bezeichner in {@code "..."} oder {@code `...`} bleiben
+ * unver&auml;ndert),</li>
+ * <li>Kommentare entfernt und Leerraum zu einem einzelnen Leerzeichen
+ * zusammengefasst.</li>
+ * </ul>
+ * Beispiel:
+ * <pre><code>
+ * SELECT *  FROM t WHERE id IN (1, 2, 3) AND name = 'x' -- Kommentar
+ * </code></pre>
+ * ergibt
+ * <pre><code>
+ * select * from t where id in (?) and name = ?
+ * </code></pre>
+ * Zus&auml;tzlich wird ein 64-Bit Hash (FNV-1a) &uuml;ber den normalisierten Text
+ * berechnet.
+ * <p>
+ * Die Ergebnisse werden in einem kleinen, direkt adressierten Cache abgelegt,
+ * dessen Schl&uuml;ssel die Identit&auml;t des SQL-Strings ist. F&uuml;r
+ * wiederverwendete SQL-Strings (String-Konstanten, vorbereitete Statements)
+ * kostet der Fingerabdruck damit nur einen einzigen Array-Zugriff und keine
+ * Allokation.
+ */
+public final class SqlFingerprint {
+
+    private static final int CACHE_SIZE = 1024;
+    private static final AtomicReferenceArray<SqlFingerprint> cacheArray = new AtomicReferenceArray<>(CACHE_SIZE);
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String fingerprint;
+    private final long hash;
+    private final String sql;
+
+    private SqlFingerprint(final String sql, final String fingerprint) {
+        this.sql = sql;
+        this.fingerprint = fingerprint;
+        this.hash = hash64(fingerprint);
+    }
+
+    private static int cacheIndex(final String sql) {
+        final int h = System.identityHashCode(sql);
+        return (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+    }
+
+    private static void collapseInList(final StringBuilder fingerprint) {
+        // Erwartet wird ein Ende der Form "in (?, ?, ?" (ohne die schliessende Klammer):
+        int i = fingerprint.length() - 1;
+        int placeholderCount = 0;
+        while (i >= 0) {
+            final char ch = fingerprint.charAt(i);
+            if (ch == '?') {
+                ++placeholderCount;
+            } else if ((ch != ',') && (ch != ' ')) {
+                break;
+            }
+            --i;
+        }
+        if ((placeholderCount <= 1) || (i < 0) || (fingerprint.charAt(i) != '(')) {
+            return;
+        }
+        int keywordEnd = i;
+        if ((keywordEnd > 0) && (fingerprint.charAt(keywordEnd - 1) == ' ')) {
+            --keywordEnd;
+        }
+        final boolean isInKeyword = (keywordEnd >= 2)
+                && (fingerprint.charAt(keywordEnd - 2) == 'i')
+                && (fingerprint.charAt(keywordEnd - 1) == 'n')
+                && ((keywordEnd == 2) || !isIdentifierPart(fingerprint.charAt(keywordEnd - 3)));
+        if (isInKeyword) {
+            fingerprint.setLength(i + 1);
+            fingerprint.append('?');
+        }
+    }
+
+    static long hash64(final String text) {
+        long hash = FNV_OFFSET_BASIS;
+        final int length = text.length();
+        for (int i = 0; length > i; ++i) {
+            final char ch = text.charAt(i);
+            hash ^= (ch & 0xff);
+            hash *= FNV_PRIME;
+            hash ^= (ch >>> 8);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static boolean isIdentifierPart(final char ch) {
+        return Character.isLetterOrDigit(ch) || (ch == '_') || (ch == '$');
+    }
+
+    private static boolean isIdentifierStart(final char ch) {
+        return Character.isLetter(ch) || (ch == '_');
+    }
+
+    /**
+     * Normalisiert eine SQL-Anweisung.
+     *
+     * @param sql die SQL-Anweisung.
+     * @return der normalisierte Text der SQL-Anweisung oder {@code null} wenn die
+     * SQL-Anweisung {@code null} ist.
+     */
+    public static String normalize(final String sql) {
+        return (sql == null ? null : of(sql).getFingerprint());
+    }
+
+    /**
+     * Liefert den Fingerabdruck einer SQL-Anweisung.
+     * <p>
+     * Wurde f&uuml;r exakt dieselbe String-Instanz bereits ein Fingerabdruck
+     * berechnet, dann wird dieser aus dem Cache geliefert.
+     *
+     * @param sql die SQL-Anweisung.
+     * @return der Fingerabdruck der SQL-Anweisung.
+     * @throws NullPointerException wenn die SQL-Anweisung {@code null} ist.
+     */
+    public static SqlFingerprint of(final String sql) {
+        final int index = cacheIndex(sql);
+        final SqlFingerprint cached = cacheArray.get(index);
+        if ((cached != null) && (cached.sql == sql)) {
+            return cached;
+        }
+        final SqlFingerprint sqlFingerprint = new SqlFingerprint(sql, parse(sql));
+        cacheArray.lazySet(index, sqlFingerprint);
+        return sqlFingerprint;
+    }
+
+    private static String parse(final String sql) {
+        final int length = sql.length();
+        final StringBuilder fingerprint = new StringBuilder(length);
+        boolean isPendingSpace = false;
+        int i = 0;
+        while (length > i) {
+            final char ch = sql.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                isPendingSpace = (fingerprint.length() > 0);
+                ++i;
+                continue;
+            }
+            if ((ch == '-') && ((i + 1) < length) && (sql.charAt(i + 1) == '-')) {
+                // Zeilen-Kommentar:
+                while ((length > i) && (sql.charAt(i) != '\n')) {
+                    ++i;
+                }
+                isPendingSpace = (fingerprint.length() > 0);
+                continue;
+            }
+            if ((ch == '/') && ((i + 1) < length) && (sql.charAt(i + 1) == '*')) {
+                // Block-Kommentar:
+                final int end = sql.indexOf("*/", i + 2);
+                i = (end < 0 ? length : end + 2);
+                isPendingSpace = (fingerprint.length() > 0);
+                continue;
+            }
+            if (isPendingSpace) {
+                fingerprint.append(' ');
+                isPendingSpace = false;
+            }
+            if (ch == '\'') {
+                // String-Literal, '' ist ein maskiertes Hochkomma:
+                i = skipQuoted(sql, i, '\'');
+                fingerprint.append('?');
+            } else if ((ch == '"') || (ch == '`')) {
+                // Maskierter Bezeichner, bleibt unveraendert:
+                final int end = skipQuoted(sql, i, ch);
+                fingerprint.append(sql, i, Math.min(end, length));
+                i = end;
+            } else if (Character.isDigit(ch) || ((ch == '.') && ((i + 1) < length) && Character.isDigit(sql.charAt(i + 1)))) {
+                // Zahlen-Literal:
+                i = skipNumber(sql, i);
+                fingerprint.append('?');
+            } else if (isIdentifierStart(ch)) {
+                // Schluesselwort oder Bezeichner:
+                while ((length > i) && isIdentifierPart(sql.charAt(i))) {
+                    fingerprint.append(Character.toLowerCase(sql.charAt(i)));
+                    ++i;
+                }
+            } else {
+                if (ch == ')') {
+                    collapseInList(fingerprint);
+                }
+                fingerprint.append(ch);
+                ++i;
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    private static int skipNumber(final String sql, int i) {
+        final int length = sql.length();
+        if ((sql.charAt(i) == '0') && ((i + 1) < length) && ((sql.charAt(i + 1) == 'x') || (sql.charAt(i + 1) == 'X'))) {
+            i += 2;
+            while ((length > i) && (Character.digit(sql.charAt(i), 16) >= 0)) {
+                ++i;
+            }
+            return i;
+        }
+        while (length > i) {
+            final char ch = sql.charAt(i);
+            if (Character.isDigit(ch) || (ch == '.')) {
+                ++i;
+            } else if (((ch == 'e') || (ch == 'E')) && ((i + 1) < length)) {
+                final char next = sql.charAt(i + 1);
+                if (Character.isDigit(next)) {
+                    i += 2;
+                } else if (((next == '+') || (next == '-')) && ((i + 2) < length) && Character.isDigit(sql.charAt(i + 2))) {
+                    i += 3;
+                } else {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int skipQuoted(final String sql, int i, final char quote) {
+        final int length = sql.length();
+        ++i;
+        while (length > i) {
+            if (sql.charAt(i) == quote) {
+                if (((i + 1) < length) && (sql.charAt(i + 1) == quote)) {
+                    i += 2;
+                    continue;
+                }
+                break;
+            }
+            ++i;
+        }
+        return i + 1;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SqlFingerprint)) {
+            return false;
+        }
+        final SqlFingerprint that = (SqlFingerprint) other;
+        return (this.hash == that.hash) && this.fingerprint.equals(that.fingerprint);
+    }
+
+    /**
+     * Liefert den normalisierten Text der SQL-Anweisung.
+     *
+     * @return der normalisierte Text.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Liefert den 64-Bit Hash (FNV-1a) des normalisierten Textes.
+     * <p>
+     * Unterschiedliche SQL-Anweisungen mit gleichem normalisierten Text haben
+     * den gleichen Hash.
+     *
+     * @return der 64-Bit Hash.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint;
+    }
+
+}
@@ -0,0 +1,156 @@
+package eu.dirk.haase.jdbc.proxy.sql;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Die Tabellen die eine SQL-Anweisung liest oder schreibt.
+ * <p>
+ * Die Analyse ist bewusst einfach gehalten und arbeitet auf dem normalisierten
+ * Text (siehe {@link SqlFingerprint#normalize(String)}): als Tabellen gelten
+ * die Bezeichner nach {@code FROM} (einschlie&szlig;lich einer durch Kommata
+ * getrennten Liste), {@code JOIN}, {@code INTO}, {@code UPDATE} und
+ * {@code TABLE}. Ein Schema-Pr&auml;fix und Anf&uuml;hrungszeichen werden
+ * entfernt, die Namen werden in Kleinbuchstaben verglichen.
+ * <p>
+ * Kann bei einer schreibenden Anweisung (zum Beispiel dem Aufruf einer
+ * Stored Procedure) keine Tabelle erkannt werden, dann liefert
+ * {@link #isUnknownWrite()} {@code true}: der Aufrufer muss dann davon
+ * ausgehen, dass jede Tabelle geschrieben wurde.
+ */
+public final class SqlTables {
+
+    private final boolean isQuery;
+    private final boolean isUnknownWrite;
+    private final Set<String> tableSet;
+
+    private SqlTables(final boolean isQuery, final Set<String> tableSet) {
+        this.isQuery = isQuery;
+        this.tableSet = Collections.unmodifiableSet(tableSet);
+        this.isUnknownWrite = !isQuery && tableSet.isEmpty();
+    }
+
+    /**
+     * Analysiert eine SQL-Anweisung.
+     *
+     * @param sql die SQL-Anweisung.
+     * @return die Tabellen der SQL-Anweisung.
+     */
+    public static SqlTables of(final String sql) {
+        final String normalized = SqlFingerprint.normalize(sql);
+        final Set<String> tableSet = new LinkedHashSet<>();
+        final String[] tokens = tokenize(normalized);
+        final Deque<Boolean> fromListStack = new ArrayDeque<>();
+        boolean isFromList = false;
+        boolean isTableExpected = false;
+        for (final String token : tokens) {
+            if (isTableExpected) {
+                isTableExpected = false;
+                if (isIdentifier(token) && !"select".equals(token) && !"lateral".equals(token)) {
+                    tableSet.add(tableName(token));
+                    continue;
+                }
+            }
+            switch (token) {
+                case "from":
+                    isFromList = true;
+                    isTableExpected = true;
+                    break;
+                case "join":
+                case "into":
+                case "update":
+                case "table":
+                    isTableExpected = true;
+                    break;
+                case ",":
+                    isTableExpected = isFromList;
+                    break;
+                case "(":
+                    fromListStack.push(isFromList);
+                    isFromList = false;
+                    break;
+                case ")":
+                    isFromList = (!fromListStack.isEmpty() && fromListStack.pop());
+                    break;
+                case "where":
+                case "group":
+                case "order":
+                case "having":
+                case "union":
+                case "limit":
+                case "set":
+                case "values":
+                    isFromList = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+        final String first = (tokens.length > 0 ? tokens[0] : "");
+        final boolean isQuery = ("select".equals(first) || "with".equals(first) || "values".equals(first))
+                && !normalized.contains(" for update");
+        return new SqlTables(isQuery, tableSet);
+    }
+
+    private static boolean isIdentifier(final String token) {
+        final char ch = token.charAt(0);
+        return Character.isLetter(ch) || (ch == '_') || (ch == '"') || (ch == '`');
+    }
+
+    private static String tableName(final String token) {
+        final int lastDot = token.lastIndexOf('.');
+        String name = (lastDot >= 0 ? token.substring(lastDot + 1) : token);
+        if ((name.length() > 1) && ((name.charAt(0) == '"') || (name.charAt(0) == '`'))) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] tokenize(final String normalized) {
+        final StringBuilder text = new StringBuilder(normalized.length() + 16);
+        for (int i = 0; normalized.length() > i; ++i) {
+            final char ch = normalized.charAt(i);
+            if ((ch == '(') || (ch == ')') || (ch == ',') || (ch == ';')) {
+                text.append(' ').append(ch).append(' ');
+            } else {
+                text.append(ch);
+            }
+        }
+        final String trimmed = text.toString().trim();
+        return (trimmed.isEmpty() ? new String[0] : trimmed.split(" +"));
+    }
+
+    /**
+     * Liefert die erkannten Tabellen (in Kleinbuchstaben, ohne Schema-Pr&auml;fix).
+     *
+     * @return die Tabellen.
+     */
+    public Set<String> getTables() {
+        return tableSet;
+    }
+
+    /**
+     * Liefert {@code true} wenn die SQL-Anweisung eine reine Abfrage ist
+     * (ohne {@code FOR UPDATE}).
+     *
+     * @return {@code true} wenn die SQL-Anweisung nur liest.
+     */
+    public boolean isQuery() {
+        return isQuery;
+    }
+
+    /**
+     * Liefert {@code true} wenn die SQL-Anweisung schreibt, aber keine Tabelle
+     * erkannt werden konnte.
+     *
+     * @return {@code true} wenn unbekannt ist, welche Tabellen geschrieben werden.
+     */
+    public boolean isUnknownWrite() {
+        return isUnknownWrite;
+    }
+
+}
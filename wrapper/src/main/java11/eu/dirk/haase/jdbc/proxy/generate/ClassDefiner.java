@@ -0,0 +1,149 @@
+package eu.dirk.haase.jdbc.proxy.generate;
+
+import eu.dirk.haase.jdbc.proxy.gen.GeneratedProxies;
+
+import java.lang.invoke.MethodHandles;
+import java.security.ProtectionDomain;
+
+/**
+ * Definiert (l&auml;dt) den Bytecode der generierten JDBC-Wrapper Klassen.
+ * <p>
+ * Diese Implementation ist die Java 11 Variante aus dem Multi-Release JAR:
+ * Die generierte Klasse wird per {@link MethodHandles.Lookup#defineClass(byte[])}
+ * im ClassLoader ihrer abstrakten Super-Klasse definiert, wenn es dort eine
+ * Klasse aus dem Package der generierten Klasse gibt:
+ * <ul>
+ * <li>die Super-Klasse selbst, wenn die generierte Klasse im gleichen
+ * Package liegt, oder</li>
+ * <li>die Anker-Klasse {@link GeneratedProxies}, wenn die generierte Klasse
+ * im Standard-Subpackage '{@code gen}' liegt.</li>
+ * </ul>
+ * Da alle Standard JDBC-Wrapper Klassen im Subpackage '{@code gen}' liegen,
+ * wird der gesamte Graph der Standard-Klassen in einem ClassLoader definiert.
+ * <p>
+ * <b>Abw&auml;gung:</b> Eine so definierte Klasse geh&ouml;rt zum ClassLoader
+ * der Super-Klasse und bleibt geladen, solange dieser ClassLoader existiert;
+ * bei den Standard-Klassen also so lange wie die Bibliothek selbst. Sie wird
+ * nicht mit einer DataSource oder einer Generierung entladen (im Gegensatz zu
+ * einer Klasse im {@link MultipleParentClassLoader}, der mit seiner letzten
+ * Klasse eingesammelt werden kann). Das ist vertretbar, weil jeder
+ * Klassen-Name nur einmal generiert und danach von allen DataSources
+ * gemeinsam verwendet wird (siehe {@code GeneratorJavassist#generate}).
+ * <p>
+ * Die Klasse erh&auml;lt dabei die ProtectionDomain der Klasse f&uuml;r den
+ * {@code Lookup}. Dieser Weg wird daher nur gew&auml;hlt, wenn diese
+ * ProtectionDomain dieselben Berechtigungen hat wie die angegebene; nur die
+ * CodeSource unterscheidet sich dann. Andernfalls, und f&uuml;r alle anderen
+ * Klassen (zum Beispiel im Subpackage '{@code gen}' einer
+ * anwendungsspezifischen Klasse), wird die Klasse wie in der Java 8
+ * Basis-Variante mit der angegebenen ProtectionDomain in dem
+ * {@link MultipleParentClassLoader} definiert.
+ * <p>
+ * Ist die Klasse im ClassLoader der Super-Klasse bereits definiert (zum
+ * Beispiel durch eine gleichzeitige Generierung), dann wird die vorhandene
+ * Klasse verwendet, damit der Graph der Klassen in einem ClassLoader bleibt.
+ * <p>
+ * Hinweis: {@code Lookup#defineHiddenClass} ist hier nicht einsetzbar, da sich
+ * die generierten Klassen gegenseitig &uuml;ber ihren Namen referenzieren
+ * (siehe {@link ObjectMaker}).
+ */
+final class ClassDefiner {
+
+    private ClassDefiner() {
+    }
+
+    /**
+     * Definiert eine generierte Klasse.
+     *
+     * @param className        der vollqualifizierte Name der generierten Klasse.
+     * @param bytecode         der Bytecode der generierten Klasse.
+     * @param superClass       die Super-Klasse von der die generierte Klasse abgeleitet ist.
+     * @param classLoader      der ClassLoader in dem die Klasse definiert werden soll.
+     * @param protectionDomain die ProtectionDomain die die Klasse erhalten soll.
+     * @return die geladene Klasse.
+     */
+    static Class<?> defineClass(final String className, final byte[] bytecode, final Class<?> superClass,
+                                final MultipleParentClassLoader classLoader, final ProtectionDomain protectionDomain) {
+        final Class<?> lookupClass = findLookupClass(className, superClass);
+        if ((lookupClass != null) && hasSamePermissions(lookupClass, protectionDomain)) {
+            try {
+                final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(lookupClass, MethodHandles.lookup());
+                return lookup.defineClass(bytecode);
+            } catch (IllegalAccessException | SecurityException ignore) {
+                // Kein Zugriff auf das Package, dann
+                // bleibt nur der MultipleParentClassLoader
+            } catch (LinkageError ex) {
+                final Class<?> existingClass = findExistingClass(className, superClass, lookupClass.getClassLoader());
+                if (existingClass != null) {
+                    return existingClass;
+                }
+                // Zum Beispiel ein VerifyError: der MultipleParentClassLoader
+                // meldet ihn gegebenenfalls erneut
+            }
+        }
+        return classLoader.defineGeneratedClass(className, bytecode, protectionDomain);
+    }
+
+    /**
+     * Liefert eine bereits definierte Klasse, wenn sie von der Super-Klasse
+     * abgeleitet ist.
+     *
+     * @param className   der vollqualifizierte Name der generierten Klasse.
+     * @param superClass  die Super-Klasse von der die generierte Klasse abgeleitet ist.
+     * @param classLoader der ClassLoader der Super-Klasse.
+     * @return die vorhandene Klasse oder {@code null}.
+     */
+    private static Class<?> findExistingClass(final String className, final Class<?> superClass, final ClassLoader classLoader) {
+        try {
+            final Class<?> existingClass = Class.forName(className, false, classLoader);
+            return ((existingClass != superClass) && superClass.isAssignableFrom(existingClass) ? existingClass : null);
+        } catch (ClassNotFoundException | LinkageError ignore) {
+            return null;
+        }
+    }
+
+    /**
+     * Pr&uuml;ft ob die Klasse f&uuml;r den {@code Lookup} (deren ProtectionDomain
+     * die generierte Klasse erhalten w&uuml;rde) dieselben Berechtigungen hat wie
+     * die angegebene ProtectionDomain. Das ist der Fall, wenn beide aus
+     * derselben CodeSource stammen und sich deshalb die Berechtigungen teilen.
+     *
+     * @param lookupClass      die Klasse f&uuml;r den {@code Lookup}.
+     * @param protectionDomain die ProtectionDomain die die Klasse erhalten soll.
+     * @return {@code true} wenn die Berechtigungen gleich sind.
+     */
+    private static boolean hasSamePermissions(final Class<?> lookupClass, final ProtectionDomain protectionDomain) {
+        if (protectionDomain == null) {
+            return true;
+        }
+        try {
+            final ProtectionDomain lookupDomain = lookupClass.getProtectionDomain();
+            return (lookupDomain == protectionDomain) || (lookupDomain.getPermissions() == protectionDomain.getPermissions());
+        } catch (SecurityException ignore) {
+            return false;
+        }
+    }
+
+    /**
+     * Ermittelt eine Klasse aus dem Package der generierten Klasse, die im
+     * gleichen ClassLoader wie die Super-Klasse definiert ist.
+     *
+     * @param className  der vollqualifizierte Name der generierten Klasse.
+     * @param superClass die Super-Klasse von der die generierte Klasse abgeleitet ist.
+     * @return die Klasse f&uuml;r den {@code Lookup} oder {@code null} wenn es
+     * keine passende Klasse gibt.
+     */
+    private static Class<?> findLookupClass(final String className, final Class<?> superClass) {
+        final int lastDot = className.lastIndexOf('.');
+        final String packageName = (lastDot < 0 ? "" : className.substring(0, lastDot));
+        if (packageName.equals(superClass.getPackageName())) {
+            return superClass;
+        }
+        if (packageName.equals(GeneratedProxies.class.getPackageName())
+                && (GeneratedProxies.class.getClassLoader() == superClass.getClassLoader())) {
+            return GeneratedProxies.class;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,65 @@
+package eu.dirk.haase.jdbc.lock;
+
+import eu.dirk.haase.jdbc.proxy.common.ConcurrentMapFunktions;
+import eu.dirk.haase.jdbc.proxy.common.WeakIdentityHashMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.StampedLock;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ConcurrentMapFunktionsTest {
+
+    @Test
+    public void test_concurrent_replace_all() throws Exception {
+        // Given
+        final int threadCount = 4;
+        final int rounds = 50;
+        final WeakIdentityHashMap<Object, Integer> map = new WeakIdentityHashMap<>();
+        final ConcurrentMapFunktions<WeakIdentityHashMap<Object, Integer>, Object, Integer> mapFunktions = new ConcurrentMapFunktions<>(map, 5);
+        final StampedLock stampedLock = new StampedLock();
+        final List<Object> keyList = new ArrayList<>();
+        for (int i = 0; 100 > i; ++i) {
+            final Object key = new Object();
+            keyList.add(key);
+            map.put(key, 0);
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount, (r) -> {
+            final Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Future<?>> futureList = new ArrayList<>();
+        // When
+        for (int t = 0; threadCount > t; ++t) {
+            futureList.add(executorService.submit(() -> {
+                startLatch.await();
+                for (int r = 0; rounds > r; ++r) {
+                    mapFunktions.replaceAll(stampedLock, (k, v) -> v + 1);
+                }
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        try {
+            for (final Future<?> future : futureList) {
+                // Endlosschleife oder ConcurrentModificationException
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        // Then
+        for (final Object key : keyList) {
+            assertThat(map.get(key)).isEqualTo(threadCount * rounds);
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.base.ColumnIndexResolver;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnLabelCache;
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnLabels;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ColumnLabelCacheTest {
+
+    @Test
+    public void test_column_labels_across_executions() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("columnlabel", DataSource.class, Connection.class, Statement.class, PreparedStatement.class, ResultSet.class);
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:columnlabel;DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        final Connection connection = dataSource.getConnection();
+        connection.createStatement().execute("create table person (id bigint, name varchar(20))");
+        connection.createStatement().execute("insert into person values (4711, 'Berlin')");
+        final String sql = "select id, name from person where id = ?";
+        final PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        preparedStatement.setLong(1, 4711L);
+        ColumnLabelCache.clear();
+        // When
+        final ResultSet first = preparedStatement.executeQuery();
+        first.next();
+        final long id = first.getLong("ID");
+        final String firstName = first.getString("name");
+        final ColumnLabels firstColumnLabels = ColumnLabelCache.get(sql, first.getMetaData());
+        final ResultSet second = preparedStatement.executeQuery();
+        second.next();
+        // Then
+        assertThat(first).isInstanceOf(ColumnIndexResolver.class);
+        assertThat(id).isEqualTo(4711L);
+        assertThat(firstName).isEqualTo("Berlin");
+        assertThat(second.getString("Name")).isEqualTo("Berlin");
+        assertThat(second.findColumn("NAME")).isEqualTo(2);
+        try {
+            second.getString("unknown");
+            fail("SQLException expected");
+        } catch (SQLException ex) {
+            assertThat(ex.getMessage()).contains("unknown");
+        }
+        assertThat(ColumnLabelCache.get(sql, second.getMetaData())).isSameAs(firstColumnLabels);
+        connection.createStatement().execute("drop table person");
+    }
+
+    @Test
+    public void test_column_labels_after_ddl() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("columnlabelddl");
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:columnlabel_ddl;DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("create table t (a varchar(10), b varchar(10))");
+            connection.createStatement().execute("insert into t values ('a1', 'b1')");
+            final String sql = "select * from t";
+            final ResultSet before = connection.createStatement().executeQuery(sql);
+            before.next();
+            assertThat(before.getString("A")).isEqualTo("a1");
+            // When
+            connection.createStatement().execute("alter table t drop column a");
+            connection.createStatement().execute("alter table t add column a varchar(10)");
+            connection.createStatement().execute("update t set a = 'a2'");
+            final ResultSet after = connection.createStatement().executeQuery(sql);
+            after.next();
+            // Then
+            assertThat(after.getString("B")).isEqualTo("b1");
+            assertThat(after.getString("A")).isEqualTo("a2");
+            assertThat(after.findColumn("A")).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void test_first_duplicate_label_wins() throws Exception {
+        // Given
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:columnlabel_duplicate");
+        try (Connection connection = h2DataSource.getConnection()) {
+            final ResultSet resultSet = connection.createStatement().executeQuery("select 1 as a, 2 as b, 3 as a");
+            // When
+            final ColumnLabels columnLabels = ColumnLabels.of(resultSet.getMetaData());
+            // Then
+            assertThat(columnLabels.getColumnCount()).isEqualTo(3);
+            assertThat(columnLabels.indexOf("A")).isEqualTo(1);
+            assertThat(columnLabels.indexOf("b")).isEqualTo(2);
+            assertThat(columnLabels.indexOf("c")).isEqualTo(0);
+        }
+    }
+
+}
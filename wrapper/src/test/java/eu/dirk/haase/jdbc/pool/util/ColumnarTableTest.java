@@ -0,0 +1,141 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.resultset.ColumnarTable;
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetPrefetcher;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+import java.sql.*;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ColumnarTableTest {
+
+    private static JdbcDataSource h2DataSource;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:columnar;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2DataSource.getConnection()) {
+            connection.createStatement().execute("create table item (id int primary key, qty bigint, price decimal(10,2), "
+                    + "ratio double, label varchar(20), flag boolean, created timestamp, data varbinary(10))");
+            final PreparedStatement insert = connection.prepareStatement("insert into item values (?, ?, ?, ?, ?, ?, ?, ?)");
+            for (int i = 1; 1000 >= i; ++i) {
+                insert.setInt(1, i);
+                insert.setLong(2, i * 1000L);
+                insert.setBigDecimal(3, new BigDecimal(i + ".25"));
+                insert.setDouble(4, i / 4.0);
+                insert.setString(5, (i % 3 == 0 ? null : "label-" + (i % 10)));
+                insert.setBoolean(6, i % 2 == 0);
+                insert.setTimestamp(7, new Timestamp(1_000_000L * i));
+                insert.setBytes(8, new byte[]{(byte) i, 2, 3});
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    @Test
+    public void test_materialize_and_read() throws Exception {
+        // Given
+        final ColumnarTable table;
+        try (Connection connection = h2DataSource.getConnection()) {
+            // When
+            table = ColumnarTable.materialize(connection.createStatement().executeQuery("select * from item order by id"));
+        }
+        final ResultSet resultSet = table.newResultSet();
+        // Then
+        assertThat(table.getRowCount()).isEqualTo(1000);
+        assertThat(table.getOffHeapBytes()).isGreaterThan(0L);
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getObject(1)).isEqualTo(1);
+        assertThat(resultSet.getLong("QTY")).isEqualTo(1000L);
+        assertThat(resultSet.getBigDecimal("price")).isEqualTo(new BigDecimal("1.25"));
+        assertThat(resultSet.getDouble("ratio")).isEqualTo(0.25);
+        assertThat(resultSet.getString("label")).isEqualTo("label-1");
+        assertThat(resultSet.getBoolean("flag")).isFalse();
+        assertThat(resultSet.getTimestamp("created")).isEqualTo(new Timestamp(1_000_000L));
+        assertThat(resultSet.getBytes("data")).containsExactly(1, 2, 3);
+        assertThat(resultSet.absolute(3)).isTrue();
+        assertThat(resultSet.getString("label")).isNull();
+        assertThat(resultSet.wasNull()).isTrue();
+        assertThat(resultSet.getInt("id")).isEqualTo(3);
+        assertThat(resultSet.wasNull()).isFalse();
+        assertThat(resultSet.last()).isTrue();
+        assertThat(resultSet.getString(1)).isEqualTo("1000");
+        assertThat(resultSet.next()).isFalse();
+        assertThat(resultSet.isAfterLast()).isTrue();
+    }
+
+    @Test
+    public void test_close_frees_after_last_result_set() throws Exception {
+        // Given
+        final ColumnarTable table;
+        try (Connection connection = h2DataSource.getConnection()) {
+            table = ColumnarTable.materialize(connection.createStatement().executeQuery("select * from item order by id"));
+        }
+        final ResultSet resultSet = table.newResultSet();
+        // When
+        table.close();
+        // Then
+        assertThat(table.getOffHeapBytes()).isGreaterThan(0L);
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getString("label")).isEqualTo("label-1");
+        resultSet.close();
+        assertThat(table.getOffHeapBytes()).isEqualTo(0L);
+        assertThat(table.newResultSetIfOpen(null)).isNull();
+    }
+
+    @Test
+    public void test_prefetch_in_chunks() throws Exception {
+        try (Connection connection = h2DataSource.getConnection()) {
+            // Given
+            final ResultSet h2ResultSet = connection.createStatement().executeQuery("select id, label from item order by id");
+            // When
+            final ResultSet resultSet = ResultSetPrefetcher.start(h2ResultSet, null, 64);
+            long idSum = 0;
+            int nullCount = 0;
+            while (resultSet.next()) {
+                idSum += resultSet.getInt("id");
+                nullCount += (resultSet.getString(2) == null ? 1 : 0);
+            }
+            // Then
+            assertThat(resultSet.getType()).isEqualTo(ResultSet.TYPE_FORWARD_ONLY);
+            assertThat(resultSet.isAfterLast()).isTrue();
+            assertThat(idSum).isEqualTo(500500L);
+            assertThat(nullCount).isEqualTo(333);
+            resultSet.close();
+            assertThat(h2ResultSet.isClosed()).isTrue();
+        }
+    }
+
+    @Test
+    public void test_prefetch_more_chunks_than_buffered_with_slow_consumer() throws Exception {
+        try (Connection connection = h2DataSource.getConnection()) {
+            // Given
+            final ResultSet h2ResultSet = connection.createStatement().executeQuery("select id from item order by id");
+            // When
+            final ResultSet resultSet = ResultSetPrefetcher.start(h2ResultSet, null, 50);
+            int expectedId = 1;
+            while (resultSet.next()) {
+                assertThat(resultSet.getInt(1)).isEqualTo(expectedId);
+                if ((expectedId % 50) == 0) {
+                    // Der Prefetch-Thread fuellt derweil den Puffer und wartet:
+                    Thread.sleep(10);
+                }
+                ++expectedId;
+            }
+            // Then
+            assertThat(expectedId - 1).isEqualTo(1000);
+            assertThat(resultSet.next()).isFalse();
+            resultSet.close();
+            assertThat(h2ResultSet.isClosed()).isTrue();
+        }
+    }
+
+}
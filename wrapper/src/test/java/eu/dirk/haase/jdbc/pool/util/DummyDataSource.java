@@ -5,6 +5,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 
@@ -13,6 +14,7 @@ public class DummyDataSource {
     private final boolean singleton;
     private Connection connection;
     private DataSource dataSource;
+    private PreparedStatement preparedStatement;
     private ResultSet resultSet;
     private Statement statement;
 
@@ -36,6 +38,14 @@ public class DummyDataSource {
         return dataSource = (DataSource) Proxy.newProxyInstance(DummyDataSource.class.getClassLoader(), ifaces, new DataSourceHandler());
     }
 
+    public PreparedStatement newPreparedStatement() {
+        if (singleton && (preparedStatement != null)) {
+            return preparedStatement;
+        }
+        Class<?>[] ifaces = {PreparedStatement.class};
+        return preparedStatement = (PreparedStatement) Proxy.newProxyInstance(DummyDataSource.class.getClassLoader(), ifaces, new StatementHandler());
+    }
+
     public ResultSet newResultSet() {
         if (singleton && (resultSet != null)) {
             return resultSet;
@@ -59,6 +69,9 @@ public class DummyDataSource {
             if ("createStatement".equals(method.getName())) {
                 return newStatement();
             }
+            if ("prepareStatement".equals(method.getName())) {
+                return newPreparedStatement();
+            }
             if ("isClosed".equals(method.getName())) {
                 return false;
             }
@@ -0,0 +1,65 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.resultset.FetchSizeAdvisor;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class FetchSizeAdvisorTest {
+
+    private static int scan(final PreparedStatement preparedStatement) throws SQLException {
+        final ResultSet resultSet = preparedStatement.executeQuery();
+        int rows = 0;
+        while (resultSet.next()) {
+            ++rows;
+        }
+        resultSet.close();
+        return rows;
+    }
+
+    @Test
+    public void test_fetch_size_learned_per_fingerprint() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("fetchsize", DataSource.class, Connection.class, Statement.class, PreparedStatement.class, ResultSet.class);
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:fetchsize;DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        final FetchSizeAdvisor fetchSizeAdvisor = ((AbstractDataSourceProxy) dataSource).getFetchSizeAdvisor();
+        fetchSizeAdvisor.setMaxRows(300);
+        final Connection connection = dataSource.getConnection();
+        connection.createStatement().execute("create table event (id int primary key, name varchar(20))");
+        connection.createStatement().execute("insert into event select x, 'event ' || x from system_range(1, 500)");
+        final String sql = "select id, name from event where id <= ?";
+        // When
+        final PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        preparedStatement.setInt(1, 500);
+        final int fetchSizeBefore = preparedStatement.getFetchSize();
+        final int rows = scan(preparedStatement);
+        final int rowsAgain = scan(preparedStatement);
+        final int tunedFetchSize = preparedStatement.getFetchSize();
+        final PreparedStatement explicitStatement = connection.prepareStatement(sql);
+        explicitStatement.setInt(1, 500);
+        explicitStatement.setFetchSize(7);
+        scan(explicitStatement);
+        // Then
+        assertThat(rows).isEqualTo(500);
+        assertThat(rowsAgain).isEqualTo(500);
+        assertThat(fetchSizeBefore).isNotEqualTo(300);
+        assertThat(fetchSizeAdvisor.fetchSize("select id, name from event where id <= 42")).isEqualTo(300);
+        assertThat(tunedFetchSize).isEqualTo(300);
+        assertThat(explicitStatement.getFetchSize()).isEqualTo(7);
+        connection.createStatement().execute("drop table event");
+        connection.close();
+    }
+
+}
@@ -0,0 +1,73 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.jfr.JdbcFlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class FlightRecorderTest {
+
+    private DataSource dataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue(JdbcFlightRecorder.isAvailable());
+        JdbcFlightRecorder.enable();
+        try {
+            final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("jfr");
+            dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(new DummyDataSource(false).newDataSource());
+        } finally {
+            JdbcFlightRecorder.disable();
+        }
+    }
+
+    @Test
+    public void test_events() throws Exception {
+        // Given
+        final Path recordingFile = Files.createTempFile("tiny-pool", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("eu.dirk.haase.jdbc.ConnectionAcquired").withThreshold(Duration.ZERO);
+            recording.enable("eu.dirk.haase.jdbc.StatementExecuted").withThreshold(Duration.ZERO);
+            recording.enable("eu.dirk.haase.jdbc.Commit").withThreshold(Duration.ZERO);
+            recording.start();
+            // When
+            final Connection connection = dataSource.getConnection();
+            connection.createStatement().executeQuery("select 1 from dual");
+            connection.commit();
+            recording.stop();
+            recording.dump(recordingFile);
+            // Then
+            final List<RecordedEvent> eventList = RecordingFile.readAllEvents(recordingFile).stream()
+                    .filter((e) -> e.getEventType().getName().startsWith("eu.dirk.haase.jdbc."))
+                    .collect(Collectors.toList());
+            assertThat(eventList.stream().map((e) -> e.getEventType().getName()).collect(Collectors.toList())).containsExactly(
+                    "eu.dirk.haase.jdbc.ConnectionAcquired", "eu.dirk.haase.jdbc.StatementExecuted", "eu.dirk.haase.jdbc.Commit");
+            assertThat(eventList.get(1).getString("sql")).isEqualTo("select 1 from dual");
+            assertThat(eventList.get(1).getString("method")).isEqualTo("Statement.executeQuery");
+            assertThat(eventList.get(1).getLong("rows")).isEqualTo(-1);
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.AbstractCallableStatementProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractConnectionProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractDataSourceProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractDatabaseMetaDataProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractPreparedStatementProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractResultSetProxy;
+import eu.dirk.haase.jdbc.proxy.AbstractStatementProxy;
+import eu.dirk.haase.jdbc.proxy.generate.Generator;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Erzeugt f&uuml;r die Tests die Wrapper-Klassen der mitgelieferten
+ * abstrakten Proxy-Klassen.
+ * <p>
+ * Damit sich Tests mit unterschiedlichen Einstellungen (zum Beispiel einem
+ * registrierten Interceptor) nicht gegenseitig beeinflussen, werden die
+ * Klassen in einem eigenen Unter-Package generiert.
+ */
+final class GeneratedProxies {
+
+    private static final Map<Class<?>, Class<?>> PROXY_CLASS_MAP = new HashMap<>();
+
+    static {
+        PROXY_CLASS_MAP.put(DataSource.class, AbstractDataSourceProxy.class);
+        PROXY_CLASS_MAP.put(Connection.class, AbstractConnectionProxy.class);
+        PROXY_CLASS_MAP.put(DatabaseMetaData.class, AbstractDatabaseMetaDataProxy.class);
+        PROXY_CLASS_MAP.put(Statement.class, AbstractStatementProxy.class);
+        PROXY_CLASS_MAP.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
+        PROXY_CLASS_MAP.put(CallableStatement.class, AbstractCallableStatementProxy.class);
+        PROXY_CLASS_MAP.put(ResultSet.class, AbstractResultSetProxy.class);
+    }
+
+    private GeneratedProxies() {
+    }
+
+    /**
+     * Generiert die Wrapper-Klassen f&uuml;r {@link DataSource},
+     * {@link Connection}, {@link Statement} und {@link ResultSet}.
+     *
+     * @param packageSuffix das Unter-Package der generierten Klassen.
+     * @return die generierten Klassen je Interface.
+     */
+    static Map<Class<?>, Object> generate(final String packageSuffix) {
+        return generate(packageSuffix, DataSource.class, Connection.class, Statement.class, ResultSet.class);
+    }
+
+    /**
+     * Generiert die Wrapper-Klassen f&uuml;r die angegebenen Interfaces.
+     *
+     * @param packageSuffix das Unter-Package der generierten Klassen.
+     * @param ifaces        die Interfaces.
+     * @return die generierten Klassen je Interface.
+     */
+    static Map<Class<?>, Object> generate(final String packageSuffix, final Class<?>... ifaces) {
+        return Generator.instance().generate(newClassClassMap(ifaces), (cn, iface) -> cn.replaceAll("(.+)\\.(\\w+)", "$1." + packageSuffix + ".$2"));
+    }
+
+    /**
+     * Liefert die abstrakten Proxy-Klassen f&uuml;r {@link DataSource},
+     * {@link Connection}, {@link Statement} und {@link ResultSet}.
+     *
+     * @return die Proxy-Klassen je Interface.
+     */
+    static Map<Class<?>, Class<?>> newClassClassMap() {
+        return newClassClassMap(DataSource.class, Connection.class, Statement.class, ResultSet.class);
+    }
+
+    /**
+     * Liefert die abstrakten Proxy-Klassen f&uuml;r die angegebenen Interfaces.
+     *
+     * @param ifaces die Interfaces.
+     * @return die Proxy-Klassen je Interface.
+     */
+    static Map<Class<?>, Class<?>> newClassClassMap(final Class<?>... ifaces) {
+        final Map<Class<?>, Class<?>> iface2CustomClassMap = new HashMap<>();
+        for (final Class<?> iface : ifaces) {
+            final Class<?> proxyClass = PROXY_CLASS_MAP.get(iface);
+            if (proxyClass == null) {
+                throw new IllegalArgumentException("No proxy class for " + iface.getName());
+            }
+            iface2CustomClassMap.put(iface, proxyClass);
+        }
+        return iface2CustomClassMap;
+    }
+
+}
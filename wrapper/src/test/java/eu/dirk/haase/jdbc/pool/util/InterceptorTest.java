@@ -0,0 +1,134 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.intercept.CompositeInterceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptor;
+import eu.dirk.haase.jdbc.proxy.intercept.Interceptors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.fail;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class InterceptorTest {
+
+    private final List<String> eventList = Collections.synchronizedList(new ArrayList<>());
+    private DataSource dataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        Interceptors.register(new RecordingInterceptor());
+        try {
+            final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("intercepted");
+            dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(new DummyDataSource(false).newDataSource());
+        } finally {
+            Interceptors.unregister();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        Interceptors.unregister();
+    }
+
+    @Test
+    public void test_before_and_after_returning() throws Exception {
+        // Given
+        final Connection connection = dataSource.getConnection();
+        final Statement statement = connection.createStatement();
+        // When
+        final ResultSet resultSet = statement.executeQuery("select 1 from dual");
+        // Then
+        assertThat(resultSet).isInstanceOf(AbstractResultSetProxy.class);
+        assertThat(eventList).containsExactly(
+                "before DataSource.getConnection", "afterReturning DataSource.getConnection",
+                "before Connection.createStatement", "afterReturning Connection.createStatement",
+                "before Statement.executeQuery", "afterReturning Statement.executeQuery");
+    }
+
+    @Test
+    public void test_after_throwing() throws Exception {
+        // Given
+        final Connection connection = dataSource.getConnection();
+        eventList.clear();
+        // When
+        try {
+            // Die DummyDataSource liefert null fuer int-Rueckgabewerte
+            connection.getHoldability();
+            fail("NullPointerException expected");
+        } catch (NullPointerException expected) {
+            // Then
+            assertThat(eventList).containsExactly("before Connection.getHoldability", "afterThrowing Connection.getHoldability");
+        }
+    }
+
+    @Test
+    public void test_not_intercepted_after_unregister() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("notintercepted", DataSource.class, Connection.class);
+        final DataSource plainDataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(new DummyDataSource(false).newDataSource());
+        // When
+        plainDataSource.getConnection().createStatement();
+        // Then
+        assertThat(eventList).isEmpty();
+    }
+
+    @Test
+    public void test_add_and_remove_reuse_unreferenced_indexes() {
+        // Given
+        final Interceptor first = new RecordingInterceptor();
+        final Interceptor second = new RecordingInterceptor();
+        Interceptors.add(first);
+        Interceptors.add(second);
+        final int referencedIndex = Interceptors.currentIndex();
+        // When
+        for (int i = 0; 100 > i; ++i) {
+            Interceptors.remove(second);
+            Interceptors.add(second);
+        }
+        final int compositeIndex = Interceptors.currentIndex();
+        for (int i = 0; 100 > i; ++i) {
+            final Interceptor temporary = new RecordingInterceptor();
+            Interceptors.add(temporary);
+            Interceptors.remove(temporary);
+        }
+        Interceptors.add(new RecordingInterceptor());
+        final int probeIndex = Interceptors.currentIndex();
+        // Then
+        assertThat(compositeIndex).isEqualTo(referencedIndex);
+        assertThat(probeIndex).isLessThanOrEqualTo(referencedIndex + 1);
+        assertThat(Interceptors.interceptor(referencedIndex)).isInstanceOf(CompositeInterceptor.class);
+        assertThat(((CompositeInterceptor) Interceptors.interceptor(referencedIndex)).interceptors()).containsExactly(first, second);
+    }
+
+    class RecordingInterceptor implements Interceptor {
+
+        @Override
+        public long before(Object proxy, int methodId) {
+            eventList.add("before " + Interceptors.methodName(methodId));
+            return System.nanoTime();
+        }
+
+        @Override
+        public void afterReturning(Object proxy, int methodId, long token, Object result) {
+            eventList.add("afterReturning " + Interceptors.methodName(methodId));
+        }
+
+        @Override
+        public void afterThrowing(Object proxy, int methodId, long token, Throwable ex) {
+            eventList.add("afterThrowing " + Interceptors.methodName(methodId));
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.base.ConcurrentFactoryJdbcProxy;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.jmx.JdbcMBeans;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class JdbcMBeansTest {
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private ConcurrentFactoryJdbcProxy<?, ?> dataSourceProxy;
+
+    @Before
+    public void setUp() throws Exception {
+        final DataSource dataSource = DataSourceWrapperFactory.newInstance(GeneratedProxies.newClassClassMap()).wrapDataSource(new DummyDataSource(false).newDataSource());
+        dataSourceProxy = (ConcurrentFactoryJdbcProxy<?, ?>) dataSource;
+    }
+
+    @After
+    public void tearDown() {
+        JdbcMBeans.unregister(dataSourceProxy);
+    }
+
+    @Test
+    public void test_data_source_mbean() throws Exception {
+        // Given
+        final ObjectName objectName = JdbcMBeans.register(dataSourceProxy);
+        // When
+        final Connection connection = ((DataSource) dataSourceProxy).getConnection();
+        // Then
+        assertThat(mBeanServer.isRegistered(new ObjectName(JdbcMBeans.DOMAIN + ":type=JdbcMetrics"))).isTrue();
+        assertThat(mBeanServer.getAttribute(new ObjectName(JdbcMBeans.DOMAIN + ":type=TopSql"), "TopByTotalTime")).isInstanceOf(CompositeData[].class);
+        assertThat(connection).isNotNull();
+        assertThat(mBeanServer.getAttribute(objectName, "CachedChildCount")).isEqualTo(1);
+        assertThat(mBeanServer.getAttribute(objectName, "BreakerState")).isEqualTo("NONE");
+        assertThat(mBeanServer.getAttribute(objectName, "LockTimeoutCount")).isEqualTo(0L);
+        assertThat(mBeanServer.invoke(objectName, "purge", new Object[0], new String[0])).isEqualTo(0);
+        mBeanServer.invoke(objectName, "trimToSize", new Object[0], new String[0]);
+        assertThat(mBeanServer.getAttribute(objectName, "CachedChildCount")).isEqualTo(1);
+    }
+
+    @Test
+    public void test_unregister() throws Exception {
+        // Given
+        final ObjectName objectName = JdbcMBeans.register(dataSourceProxy);
+        // When
+        JdbcMBeans.unregister(dataSourceProxy);
+        // Then
+        assertThat(mBeanServer.isRegistered(objectName)).isFalse();
+    }
+
+}
@@ -0,0 +1,84 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.metrics.JdbcMetrics;
+import eu.dirk.haase.jdbc.proxy.metrics.LatencyHistogram;
+import eu.dirk.haase.jdbc.proxy.metrics.LatencySnapshot;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class LatencyHistogramTest {
+
+    @Test
+    public void test_percentiles() {
+        // Given
+        final LatencyHistogram histogram = new LatencyHistogram(4);
+        // When
+        for (long value = 1; 10_000 >= value; ++value) {
+            histogram.record(value * 1_000);
+        }
+        final LatencySnapshot snapshot = histogram.snapshot();
+        // Then
+        assertThat(snapshot.getCount()).isEqualTo(10_000);
+        assertThat(snapshot.getMin()).isEqualTo(1_000);
+        assertThat(snapshot.getMax()).isEqualTo(10_000_000);
+        assertThat(snapshot.getMean()).isCloseTo(5_000_500.0, within(0.1));
+        assertThat(snapshot.percentile(50.0)).isBetween(5_000_000L, 5_000_000L + 5_000_000L / 16);
+        assertThat(snapshot.percentile(99.0)).isBetween(9_900_000L, 9_900_000L + 9_900_000L / 16);
+        assertThat(snapshot.percentile(100.0)).isEqualTo(10_000_000);
+    }
+
+    @Test
+    public void test_concurrent_record() throws Exception {
+        // Given
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final Thread[] threads = new Thread[8];
+        // When
+        for (int i = 0; threads.length > i; ++i) {
+            threads[i] = new Thread(() -> {
+                for (int n = 0; 100_000 > n; ++n) {
+                    histogram.record(n);
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        // Then
+        assertThat(histogram.snapshot().getCount()).isEqualTo(800_000);
+    }
+
+    @Test
+    public void test_jdbc_metrics() throws Exception {
+        // Given
+        final DataSource dataSource;
+        JdbcMetrics.enable();
+        try {
+            final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("metrics");
+            dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(new DummyDataSource(false).newDataSource());
+        } finally {
+            JdbcMetrics.disable();
+        }
+        JdbcMetrics.reset();
+        // When
+        final Statement statement = dataSource.getConnection().createStatement();
+        statement.executeQuery("select 1 from dual");
+        statement.executeQuery("select 2 from dual");
+        // Then
+        assertThat(JdbcMetrics.isEnabled()).isFalse();
+        assertThat(JdbcMetrics.snapshot("DataSource.getConnection").getCount()).isEqualTo(1);
+        assertThat(JdbcMetrics.snapshot("Statement.executeQuery").getCount()).isEqualTo(2);
+    }
+
+}
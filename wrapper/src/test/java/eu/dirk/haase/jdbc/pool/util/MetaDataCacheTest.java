@@ -0,0 +1,144 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.metadata.CatalogCache;
+import eu.dirk.haase.jdbc.proxy.metadata.MetaDataCache;
+import eu.dirk.haase.jdbc.proxy.metadata.ParameterMetaDataSnapshot;
+import eu.dirk.haase.jdbc.proxy.metadata.ResultSetMetaDataSnapshot;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class MetaDataCacheTest {
+
+    @Test
+    public void test_metadata_shared_across_connections() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("metadata", DataSource.class, Connection.class, Statement.class, PreparedStatement.class, ResultSet.class);
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:metadata;DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        final MetaDataCache metaDataCache = ((AbstractDataSourceProxy) dataSource).getMetaDataCache();
+        final Connection connection1 = dataSource.getConnection();
+        final Connection connection2 = dataSource.getConnection();
+        connection1.createStatement().execute("create table person (id bigint not null, name varchar(20))");
+        final String sql = "select id, name from person where id = ?";
+        // When
+        final PreparedStatement preparedStatement1 = connection1.prepareStatement(sql);
+        final ResultSetMetaData resultSetMetaData1 = preparedStatement1.getMetaData();
+        final ParameterMetaData parameterMetaData1 = preparedStatement1.getParameterMetaData();
+        final PreparedStatement preparedStatement2 = connection2.prepareStatement(sql);
+        preparedStatement2.setLong(1, 4711L);
+        final ResultSetMetaData resultSetMetaData2 = preparedStatement2.executeQuery().getMetaData();
+        final ParameterMetaData parameterMetaData2 = preparedStatement2.getParameterMetaData();
+        // Then
+        assertThat(resultSetMetaData1).isInstanceOf(ResultSetMetaDataSnapshot.class);
+        assertThat(parameterMetaData1).isInstanceOf(ParameterMetaDataSnapshot.class);
+        assertThat(resultSetMetaData2).isSameAs(resultSetMetaData1);
+        assertThat(parameterMetaData2).isSameAs(parameterMetaData1);
+        assertThat(resultSetMetaData1.getColumnCount()).isEqualTo(2);
+        assertThat(resultSetMetaData1.getColumnLabel(2)).isEqualTo("NAME");
+        assertThat(resultSetMetaData1.isNullable(1)).isEqualTo(ResultSetMetaData.columnNoNulls);
+        assertThat(parameterMetaData1.getParameterCount()).isEqualTo(1);
+        assertThat(metaDataCache.getMissCount()).isEqualTo(2);
+        assertThat(metaDataCache.getHitCount()).isEqualTo(2);
+        connection1.createStatement().execute("drop table person");
+    }
+
+    @Test
+    public void test_result_set_metadata_after_ddl() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("metadataddl", DataSource.class, Connection.class, Statement.class, PreparedStatement.class, ResultSet.class);
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:metadataddl;DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        final Connection connection = dataSource.getConnection();
+        connection.createStatement().execute("create table animal (id bigint not null, name varchar(20))");
+        final String sql = "select * from animal";
+        final ResultSetMetaData resultSetMetaData1 = connection.prepareStatement(sql).executeQuery().getMetaData();
+        // When
+        connection.createStatement().execute("alter table animal add column legs int");
+        final ResultSetMetaData resultSetMetaData2 = connection.prepareStatement(sql).executeQuery().getMetaData();
+        final PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        preparedStatement.execute();
+        final ResultSetMetaData resultSetMetaData3 = preparedStatement.getResultSet().getMetaData();
+        // Then
+        assertThat(resultSetMetaData1.getColumnCount()).isEqualTo(2);
+        assertThat(resultSetMetaData2).isNotSameAs(resultSetMetaData1);
+        assertThat(resultSetMetaData2.getColumnCount()).isEqualTo(3);
+        assertThat(resultSetMetaData2.getColumnLabel(3)).isEqualTo("LEGS");
+        assertThat(resultSetMetaData3).isNotInstanceOf(ResultSetMetaDataSnapshot.class);
+        connection.createStatement().execute("drop table animal");
+    }
+
+    @Test
+    public void test_catalog_cache_with_invalidation() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("catalog", DataSource.class, Connection.class, DatabaseMetaData.class, Statement.class);
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:catalog;DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        final CatalogCache catalogCache = ((AbstractDataSourceProxy) dataSource).getCatalogCache();
+        final Connection connection1 = dataSource.getConnection();
+        final Connection connection2 = dataSource.getConnection();
+        connection1.createStatement().execute("create table city (id bigint primary key, name varchar(20))");
+        // When
+        final DatabaseMetaData databaseMetaData1 = connection1.getMetaData();
+        final ResultSet tables1 = databaseMetaData1.getTables(null, null, "CITY", new String[]{"TABLE"});
+        final ResultSet tables2 = connection2.getMetaData().getTables(null, null, "CITY", new String[]{"TABLE"});
+        final ResultSet columns = connection2.getMetaData().getColumns(null, null, "CITY", null);
+        // Then
+        assertThat(databaseMetaData1).isInstanceOf(AbstractDatabaseMetaDataProxy.class);
+        assertThat(databaseMetaData1.getConnection()).isSameAs(connection1);
+        assertThat(tables1.next()).isTrue();
+        assertThat(tables1.getString("TABLE_NAME")).isEqualTo("CITY");
+        assertThat(tables1.next()).isFalse();
+        assertThat(tables2.next()).isTrue();
+        assertThat(tables2.getString("TABLE_NAME")).isEqualTo("CITY");
+        int columnCount = 0;
+        while (columns.next()) {
+            ++columnCount;
+        }
+        assertThat(columnCount).isEqualTo(2);
+        assertThat(catalogCache.getMissCount()).isEqualTo(2);
+        assertThat(catalogCache.getHitCount()).isEqualTo(1);
+        catalogCache.invalidate();
+        connection1.getMetaData().getPrimaryKeys(null, null, "CITY").close();
+        connection1.getMetaData().getTables(null, null, "CITY", new String[]{"TABLE"}).close();
+        assertThat(catalogCache.getMissCount()).isEqualTo(4);
+        connection1.createStatement().execute("drop table city");
+    }
+
+    @Test
+    public void test_catalog_cache_per_current_schema() throws Exception {
+        // Given
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("catalogschema", DataSource.class, Connection.class, DatabaseMetaData.class, Statement.class);
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:catalogschema;DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        final CatalogCache catalogCache = ((AbstractDataSourceProxy) dataSource).getCatalogCache();
+        final Connection connection1 = dataSource.getConnection();
+        final Connection connection2 = dataSource.getConnection();
+        connection1.createStatement().execute("create schema other");
+        connection2.setSchema("OTHER");
+        // When
+        connection1.getMetaData().getPrimaryKeys(null, null, "CITY").close();
+        connection2.getMetaData().getPrimaryKeys(null, null, "CITY").close();
+        connection2.getMetaData().getPrimaryKeys(null, "OTHER", "CITY").close();
+        connection1.getMetaData().getPrimaryKeys(null, "OTHER", "CITY").close();
+        // Then
+        assertThat(catalogCache.getMissCount()).isEqualTo(3);
+        assertThat(catalogCache.getHitCount()).isEqualTo(1);
+        connection1.createStatement().execute("drop schema other");
+    }
+
+}
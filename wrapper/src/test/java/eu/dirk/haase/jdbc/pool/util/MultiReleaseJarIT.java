@@ -0,0 +1,43 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.generate.Generator;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * L&auml;uft im Maven-Profil '{@code multi-release}' gegen das gepackte
+ * Multi-Release JAR (siehe {@code META-INF/versions/11}).
+ */
+@RunWith(BlockJUnit4ClassRunner.class)
+public class MultiReleaseJarIT {
+
+    @Test
+    public void test_standard_proxies_are_defined_in_the_class_loader_of_their_super_class() throws Exception {
+        // Given
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:multirelease;DB_CLOSE_DELAY=-1");
+        // When
+        final Map<Class<?>, Object> ifaceToClassMap = Generator.instance().generate(GeneratedProxies.newClassClassMap());
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.createStatement().executeQuery("select 1")) {
+            // Then
+            assertThat(AbstractConnectionProxy.class.getProtectionDomain().getCodeSource().getLocation().getPath()).endsWith(".jar");
+            assertThat(connection.getClass().getName()).isEqualTo("eu.dirk.haase.jdbc.proxy.gen.ConnectionProxy");
+            assertThat(connection.getClass().getClassLoader()).isSameAs(AbstractConnectionProxy.class.getClassLoader());
+            assertThat(resultSet.getClass().getClassLoader()).isSameAs(AbstractResultSetProxy.class.getClassLoader());
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.querycache.QueryResultCache;
+import eu.dirk.haase.jdbc.proxy.sql.SqlTables;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class QueryResultCacheTest {
+
+    private static Map<Class<?>, Object> ifaceToClassMap;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        ifaceToClassMap = GeneratedProxies.generate("querycache", DataSource.class, Connection.class, Statement.class, PreparedStatement.class, ResultSet.class);
+    }
+
+    private static DataSource newDataSource(final String name) throws Exception {
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        final DataSource dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        final Connection connection = dataSource.getConnection();
+        connection.createStatement().execute("create table country (code varchar(2) primary key, name varchar(200))");
+        for (int i = 0; 100 > i; ++i) {
+            connection.createStatement().executeUpdate("insert into country values ('" + i + "', 'Country " + i + "')");
+        }
+        connection.commit();
+        connection.close();
+        return dataSource;
+    }
+
+    private static String queryName(final Connection connection, final String code) throws SQLException {
+        final PreparedStatement preparedStatement = connection.prepareStatement("select name from country where code = ?");
+        preparedStatement.setString(1, code);
+        final ResultSet resultSet = preparedStatement.executeQuery();
+        return (resultSet.next() ? resultSet.getString(1) : null);
+    }
+
+    @Test
+    public void test_sql_tables() {
+        // Given
+        final String query = "SELECT c.name FROM app.Country c JOIN \"Region\" r ON r.id = c.region, currency WHERE c.code IN (SELECT code FROM euro)";
+        final String update = "update country set name = ? where code = ?";
+        // When
+        final SqlTables queryTables = SqlTables.of(query);
+        final SqlTables updateTables = SqlTables.of(update);
+        // Then
+        assertThat(queryTables.isQuery()).isTrue();
+        assertThat(queryTables.getTables()).containsExactly("country", "region", "currency", "euro");
+        assertThat(updateTables.isQuery()).isFalse();
+        assertThat(updateTables.getTables()).containsExactly("country");
+        assertThat(SqlTables.of("{call refresh_all()}").isUnknownWrite()).isTrue();
+        assertThat(SqlTables.of("select * from country for update").isQuery()).isFalse();
+    }
+
+    @Test
+    public void test_invalidation_by_write_of_other_connection() throws Exception {
+        // Given
+        final DataSource dataSource = newDataSource("querycache_invalidation");
+        final QueryResultCache queryResultCache = ((AbstractDataSourceProxy) dataSource).getQueryResultCache();
+        queryResultCache.addCacheableTable("COUNTRY");
+        try {
+            final Connection reader = dataSource.getConnection();
+            final Connection writer = dataSource.getConnection();
+            // When
+            final String first = queryName(reader, "1");
+            final String second = queryName(reader, "1");
+            writer.createStatement().executeUpdate("update country set name = 'Changed' where code = '1'");
+            final String duringWrite = queryName(reader, "1");
+            writer.commit();
+            final String afterCommit = queryName(reader, "1");
+            // Then
+            assertThat(first).isEqualTo("Country 1");
+            assertThat(second).isEqualTo("Country 1");
+            assertThat(duringWrite).isEqualTo("Country 1");
+            assertThat(afterCommit).isEqualTo("Changed");
+            assertThat(queryResultCache.getHitCount()).isEqualTo(1);
+            assertThat(queryResultCache.getMissCount()).isEqualTo(2);
+        } finally {
+            queryResultCache.removeCacheableTable("COUNTRY");
+        }
+    }
+
+    @Test
+    public void test_statement_of_cached_result_set() throws Exception {
+        // Given
+        final DataSource dataSource = newDataSource("querycache_statement");
+        final QueryResultCache queryResultCache = ((AbstractDataSourceProxy) dataSource).getQueryResultCache();
+        queryResultCache.addCacheableTable("country");
+        try {
+            final Connection connection = dataSource.getConnection();
+            final PreparedStatement preparedStatement = connection.prepareStatement("select name from country where code = ?");
+            preparedStatement.setString(1, "1");
+            // When
+            final ResultSet missResultSet = preparedStatement.executeQuery();
+            final ResultSet hitResultSet = preparedStatement.executeQuery();
+            // Then
+            assertThat(queryResultCache.getHitCount()).isEqualTo(1);
+            assertThat(missResultSet.getStatement()).isSameAs(preparedStatement);
+            assertThat(hitResultSet.getStatement()).isSameAs(preparedStatement);
+        } finally {
+            queryResultCache.removeCacheableTable("country");
+        }
+    }
+
+    @Test
+    public void test_stream_of_cached_result_set() throws Exception {
+        // Given
+        final DataSource dataSource = newDataSource("querycache_stream");
+        final QueryResultCache queryResultCache = ((AbstractDataSourceProxy) dataSource).getQueryResultCache();
+        queryResultCache.addCacheableTable("country");
+        try {
+            final Connection connection = dataSource.getConnection();
+            queryName(connection, "3");
+            final PreparedStatement preparedStatement = connection.prepareStatement("select name from country where code = ?");
+            preparedStatement.setString(1, "3");
+            // When
+            final ResultSet hitResultSet = preparedStatement.executeQuery();
+            final List<String> nameList;
+            try (Stream<String> nameStream = ((AbstractResultSetProxy) hitResultSet).stream((rs) -> rs.getString("NAME"))) {
+                nameList = nameStream.collect(Collectors.toList());
+            }
+            // Then
+            assertThat(queryResultCache.getHitCount()).isEqualTo(1);
+            assertThat(nameList).containsExactly("Country 3");
+            assertThat(hitResultSet.isClosed()).isTrue();
+        } finally {
+            queryResultCache.removeCacheableTable("country");
+        }
+    }
+
+    @Test
+    public void test_bypass_for_inexact_parameters() throws Exception {
+        // Given
+        final DataSource dataSource = newDataSource("querycache_inexact");
+        final QueryResultCache queryResultCache = ((AbstractDataSourceProxy) dataSource).getQueryResultCache();
+        queryResultCache.addCacheableTable("country");
+        try {
+            final Connection connection = dataSource.getConnection();
+            final PreparedStatement preparedStatement = connection.prepareStatement("select name from country where code = ?");
+            preparedStatement.setObject(1, "2", Types.VARCHAR);
+            // When
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            final String name = (resultSet.next() ? resultSet.getString(1) : null);
+            preparedStatement.clearParameters();
+            preparedStatement.setString(1, "2");
+            preparedStatement.executeQuery().close();
+            // Then
+            assertThat(name).isEqualTo("Country 2");
+            assertThat(queryResultCache.getMissCount()).isEqualTo(1);
+            assertThat(queryResultCache.getHitCount()).isEqualTo(0);
+        } finally {
+            queryResultCache.removeCacheableTable("country");
+        }
+    }
+
+    @Test
+    public void test_bounded_by_weight() throws Exception {
+        // Given
+        final DataSource dataSource = newDataSource("querycache_weight");
+        final QueryResultCache queryResultCache = ((AbstractDataSourceProxy) dataSource).getQueryResultCache();
+        queryResultCache.setMaximumWeight(20_000);
+        queryResultCache.addCacheableTable("country");
+        try {
+            final Connection connection = dataSource.getConnection();
+            // When
+            for (int round = 0; 3 > round; ++round) {
+                for (int i = 0; 100 > i; ++i) {
+                    assertThat(queryName(connection, String.valueOf(i))).isEqualTo("Country " + i);
+                    // ein paar "heisse" Eintraege:
+                    queryName(connection, "7");
+                }
+            }
+            // Then
+            assertThat(queryResultCache.getWeight()).isLessThanOrEqualTo(20_000);
+            assertThat(queryResultCache.getEvictionCount()).isGreaterThan(0);
+            final long hitCount = queryResultCache.getHitCount();
+            queryName(connection, "7");
+            assertThat(queryResultCache.getHitCount()).isEqualTo(hitCount + 1);
+        } finally {
+            queryResultCache.removeCacheableTable("country");
+        }
+    }
+
+}
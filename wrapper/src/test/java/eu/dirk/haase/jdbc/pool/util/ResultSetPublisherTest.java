@@ -0,0 +1,103 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.resultset.ResultSetPublisher;
+import eu.dirk.haase.jdbc.proxy.resultset.RowSubscriber;
+import eu.dirk.haase.jdbc.proxy.resultset.RowSubscription;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class ResultSetPublisherTest {
+
+    private static DataSource dataSource;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("publisher");
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:publisher;DB_CLOSE_DELAY=-1");
+        dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+    }
+
+    @Test
+    public void test_stream_with_batches_closes_statement() throws Exception {
+        // Given
+        final Connection connection = dataSource.getConnection();
+        final Statement statement = connection.createStatement();
+        final AbstractResultSetProxy resultSet = (AbstractResultSetProxy) statement.executeQuery("select x from system_range(1, 1000)");
+        // When
+        final long sum;
+        try (Stream<Long> stream = resultSet.stream((rs) -> rs.getLong(1), 64)) {
+            sum = stream.parallel().mapToLong(Long::longValue).sum();
+        }
+        // Then
+        assertThat(sum).isEqualTo(500500L);
+        assertThat(resultSet.isClosed()).isTrue();
+        assertThat(statement.isClosed()).isTrue();
+        connection.close();
+    }
+
+    @Test
+    public void test_demand_driven_rows_and_cancel() throws Exception {
+        // Given
+        final Connection connection = dataSource.getConnection();
+        final AbstractStatementProxy statement = (AbstractStatementProxy) connection.createStatement();
+        final ResultSetPublisher<Integer> publisher = statement.publish("select x from system_range(1, 100)", (rs) -> rs.getInt(1));
+        final List<Integer> itemList = new CopyOnWriteArrayList<>();
+        final RowSubscription[] subscription = new RowSubscription[1];
+        final CountDownLatch firstRows = new CountDownLatch(3);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        // When
+        publisher.subscribe(new RowSubscriber<Integer>() {
+            @Override
+            public void onComplete() {
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+            }
+
+            @Override
+            public void onNext(final Integer item) {
+                itemList.add(item);
+                firstRows.countDown();
+            }
+
+            @Override
+            public void onSubscribe(final RowSubscription rowSubscription) {
+                subscription[0] = rowSubscription;
+                rowSubscription.request(3);
+            }
+        });
+        assertThat(firstRows.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        final List<Integer> afterFirstRequest = new CopyOnWriteArrayList<>(itemList);
+        final int fetchSize = statement.getFetchSize();
+        subscription[0].cancel();
+        for (int i = 0; (100 > i) && !statement.isClosed(); ++i) {
+            Thread.sleep(10);
+        }
+        // Then
+        assertThat(afterFirstRequest).containsExactly(1, 2, 3);
+        assertThat(statement.isClosed()).isTrue();
+        assertThat(fetchSize).isEqualTo(3);
+        connection.close();
+    }
+
+}
@@ -0,0 +1,107 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.generate.RowMapperGenerator;
+import eu.dirk.haase.jdbc.proxy.resultset.RowMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class RowMapperGeneratorTest {
+
+    @Test
+    public void test_generated_mapper_sets_fields_and_setters() throws Exception {
+        // Given
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:rowmapper;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2DataSource.getConnection()) {
+            connection.createStatement().execute("create table orders (order_id bigint, qty int, price decimal(10,2), note varchar(20), discount int)");
+            connection.createStatement().execute("insert into orders values (4711, 3, 9.95, 'express', null)");
+            final String sql = "select order_id, qty, price, note, discount from orders";
+            final ResultSet resultSet = connection.createStatement().executeQuery(sql);
+            // When
+            final RowMapper<Order> rowMapper = RowMapperGenerator.rowMapper(Order.class, sql, resultSet.getMetaData());
+            final RowMapper<Order> cachedRowMapper = RowMapperGenerator.rowMapper(Order.class, "select order_id, qty, price, note, discount from orders where 1 = 1", resultSet.getMetaData());
+            resultSet.next();
+            final Order order = rowMapper.map(resultSet);
+            // Then
+            assertThat(rowMapper.getClass().getName()).startsWith("eu.dirk.haase.jdbc.proxy.generate.mapper.OrderRowMapper");
+            assertThat(cachedRowMapper).isNotSameAs(rowMapper);
+            assertThat(RowMapperGenerator.rowMapper(Order.class, sql, resultSet.getMetaData())).isSameAs(rowMapper);
+            assertThat(order.orderId).isEqualTo(4711L);
+            assertThat(order.getQty()).isEqualTo(3);
+            assertThat(order.price).isEqualTo(new BigDecimal("9.95"));
+            assertThat(order.note).isEqualTo("express");
+            assertThat(order.discount).isNull();
+        }
+    }
+
+    @Test
+    public void test_generated_mapper_prefers_setter_matching_column_type() throws Exception {
+        // Given
+        final JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setUrl("jdbc:h2:mem:rowmapper_overload;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2DataSource.getConnection()) {
+            connection.createStatement().execute("create table codes (code bigint, label varchar(20))");
+            connection.createStatement().execute("insert into codes values (42, 'x')");
+            final String sql = "select code, label as code_label from codes";
+            final ResultSet resultSet = connection.createStatement().executeQuery(sql);
+            // When
+            final RowMapper<Code> rowMapper = RowMapperGenerator.rowMapper(Code.class, sql, resultSet.getMetaData());
+            resultSet.next();
+            final Code code = rowMapper.map(resultSet);
+            // Then
+            assertThat(code.setter).isEqualTo("long");
+            assertThat(code.label).isEqualTo("x");
+        }
+    }
+
+    public static class Code {
+
+        public String label;
+        public String setter;
+
+        public void setCode(final String code) {
+            this.setter = "String";
+        }
+
+        public void setCode(final long code) {
+            this.setter = "long";
+        }
+
+        public void setCodeLabel(final Object label) {
+            this.label = "Object";
+        }
+
+        public void setCodeLabel(final String label) {
+            this.label = label;
+        }
+
+    }
+
+    public static class Order {
+
+        public Integer discount;
+        public String note;
+        public long orderId;
+        public BigDecimal price;
+        private int qty;
+
+        public int getQty() {
+            return qty;
+        }
+
+        public void setQty(final int qty) {
+            this.qty = qty;
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.base.BindParameters;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.slowlog.SlowQueryLog;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class SlowQueryLogTest {
+
+    @Test
+    public void test_bind_parameters() {
+        // Given
+        final BindParameters bindParameters = new BindParameters();
+        // When
+        bindParameters.set(2, "x");
+        bindParameters.set(1, 42);
+        bindParameters.set(3, new byte[]{1});
+        bindParameters.set(12, null);
+        // Then
+        assertThat(bindParameters.size()).isEqualTo(12);
+        assertThat(bindParameters.toString()).startsWith("[42, 'x', <byte[]>, NULL,");
+        bindParameters.clear();
+        assertThat(bindParameters.toString()).isEqualTo("[]");
+    }
+
+    @Test
+    public void test_slow_query_log() throws Exception {
+        // Given
+        final Path file = Files.createTempFile("slow-query", ".log");
+        final DataSource dataSource;
+        SlowQueryLog.enable(file, 0);
+        try {
+            final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("slowlog", DataSource.class, Connection.class, Statement.class, PreparedStatement.class, ResultSet.class);
+            dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(new DummyDataSource(false).newDataSource());
+            // When
+            final PreparedStatement preparedStatement = dataSource.getConnection().prepareStatement("select name from person where id = ? and city = ?");
+            preparedStatement.setLong(1, 4711L);
+            preparedStatement.setString(2, "Berlin");
+            preparedStatement.executeQuery();
+            dataSource.getConnection().createStatement().executeQuery("select 1 from dual");
+        } finally {
+            SlowQueryLog.disable();
+        }
+        SlowQueryLog.flush();
+        // Then
+        final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).endsWith("select name from person where id = ? and city = ? parameters=[4711, 'Berlin']");
+        assertThat(lines.get(1)).endsWith("select 1 from dual");
+        assertThat(SlowQueryLog.droppedCount()).isEqualTo(0);
+        Files.delete(file);
+    }
+
+}
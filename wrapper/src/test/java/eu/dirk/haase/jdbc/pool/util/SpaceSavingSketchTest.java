@@ -0,0 +1,72 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.metrics.JdbcMetrics;
+import eu.dirk.haase.jdbc.proxy.metrics.SpaceSavingSketch;
+import eu.dirk.haase.jdbc.proxy.metrics.SqlStatistics;
+import eu.dirk.haase.jdbc.proxy.metrics.TopSqlTracker;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void test_heavy_hitters_survive_many_distinct_keys() {
+        // Given
+        final SpaceSavingSketch sketch = new SpaceSavingSketch(64);
+        // When
+        for (int i = 0; 100_000 > i; ++i) {
+            sketch.record("select * from t where id = " + i, 1_000);
+            if ((i % 10) == 0) {
+                sketch.record("select * from heavy", 50_000);
+            }
+        }
+        final List<SqlStatistics> top = sketch.snapshot().stream()
+                .sorted(SqlStatistics.BY_TOTAL_TIME)
+                .collect(Collectors.toList());
+        // Then
+        assertThat(top.size()).isLessThanOrEqualTo(sketch.capacity());
+        assertThat(top.get(0).getFingerprint()).isEqualTo("select * from heavy");
+        assertThat(top.get(0).getCount()).isEqualTo(10_000);
+        assertThat(top.get(0).getErrorNanos()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_top_sql_tracker() throws Exception {
+        // Given
+        final DataSource dataSource;
+        TopSqlTracker.enable();
+        JdbcMetrics.enable();
+        try {
+            final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("topsql");
+            dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(new DummyDataSource(false).newDataSource());
+        } finally {
+            JdbcMetrics.disable();
+            TopSqlTracker.disable();
+        }
+        TopSqlTracker.reset();
+        JdbcMetrics.reset();
+        // When
+        final Statement statement = dataSource.getConnection().createStatement();
+        statement.executeQuery("select name from person where id = 1");
+        statement.executeQuery("select name  from person where id = 2");
+        // Then
+        final List<SqlStatistics> top = TopSqlTracker.top(10);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getFingerprint()).isEqualTo("select name from person where id = ?");
+        assertThat(top.get(0).getCount()).isEqualTo(2);
+        assertThat(JdbcMetrics.snapshot("Statement.executeQuery").getCount()).isEqualTo(2);
+    }
+
+}
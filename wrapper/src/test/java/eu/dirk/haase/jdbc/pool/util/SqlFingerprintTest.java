@@ -0,0 +1,42 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.sql.SqlFingerprint;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class SqlFingerprintTest {
+
+    @Test
+    public void test_normalize() {
+        // Given
+        final String sql = "SELECT *  FROM \"Person\" p\n"
+                + "WHERE p.id IN (1, 2, 3) AND p.name = 'O''Neil' -- Kommentar\n"
+                + "AND p.score > 1.5e-3 /* Block */ AND p.flags = 0xFF AND min(p.a, p.b) = ?";
+        // When
+        final String fingerprint = SqlFingerprint.normalize(sql);
+        // Then
+        assertThat(fingerprint).isEqualTo("select * from \"Person\" p where p.id in (?) and p.name = ? "
+                + "and p.score > ? and p.flags = ? and min(p.a, p.b) = ?");
+    }
+
+    @Test
+    public void test_hash_and_identity_cache() {
+        // Given
+        final String sql = "select name from person where id in (?, ?)";
+        // When
+        final SqlFingerprint first = SqlFingerprint.of(sql);
+        final SqlFingerprint second = SqlFingerprint.of(sql);
+        final SqlFingerprint other = SqlFingerprint.of("SELECT name FROM person WHERE id IN (4,5,6)");
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(other).isEqualTo(first);
+        assertThat(other.getHash()).isEqualTo(first.getHash());
+        assertThat(SqlFingerprint.of("select name from person").getHash()).isNotEqualTo(first.getHash());
+    }
+
+}
@@ -0,0 +1,107 @@
+package eu.dirk.haase.jdbc.pool.util;
+
+import eu.dirk.haase.jdbc.proxy.*;
+import eu.dirk.haase.jdbc.proxy.factory.DataSourceWrapperFactory;
+import eu.dirk.haase.jdbc.proxy.record.ReplayResult;
+import eu.dirk.haase.jdbc.proxy.record.WorkloadRecorder;
+import eu.dirk.haase.jdbc.proxy.record.WorkloadReplayer;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+@RunWith(BlockJUnit4ClassRunner.class)
+public class WorkloadRecorderTest {
+
+    private static void workload(final DataSource dataSource) {
+        try {
+            final Connection connection = dataSource.getConnection();
+            final PreparedStatement preparedStatement = connection.prepareStatement("select name from person where id = ? and city = ?");
+            preparedStatement.setLong(1, 4711L);
+            preparedStatement.setString(2, "Berlin");
+            preparedStatement.executeQuery().close();
+            preparedStatement.close();
+            connection.commit();
+            connection.close();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex.toString(), ex);
+        }
+    }
+
+    @Test
+    public void test_record_and_replay() throws Exception {
+        // Given
+        final Path file = Files.createTempFile("workload", ".trc");
+        final DataSource dataSource;
+        WorkloadRecorder.enable();
+        try {
+            final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("record", DataSource.class, Connection.class, Statement.class, PreparedStatement.class, ResultSet.class);
+            dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(new DummyDataSource(false).newDataSource());
+        } finally {
+            WorkloadRecorder.disable();
+        }
+        // When
+        WorkloadRecorder.start(file, 64 * 1024);
+        final Thread thread = new Thread(() -> workload(dataSource));
+        thread.start();
+        workload(dataSource);
+        thread.join();
+        final long size = WorkloadRecorder.stop();
+        final WorkloadReplayer workloadReplayer = new WorkloadReplayer(file);
+        final ReplayResult replayResult = workloadReplayer.replay(new DummyDataSource(false).newDataSource(), 0);
+        // Then
+        assertThat(size).isGreaterThan(0);
+        assertThat(WorkloadRecorder.droppedCount()).isEqualTo(0);
+        assertThat(workloadReplayer.eventCount()).isEqualTo(14);
+        assertThat(replayResult.getThreadCount()).isEqualTo(2);
+        assertThat(replayResult.getEventCount()).isEqualTo(14);
+        assertThat(replayResult.getErrorCount()).isEqualTo(0);
+        assertThat(replayResult.getSkippedCount()).isEqualTo(0);
+        Files.delete(file);
+    }
+
+    @Test
+    public void test_record_fetched_rows() throws Exception {
+        // Given
+        final Path file = Files.createTempFile("workload", ".trc");
+        final DataSource dataSource;
+        WorkloadRecorder.enable();
+        try {
+            final Map<Class<?>, Object> ifaceToClassMap = GeneratedProxies.generate("recordrows");
+            final JdbcDataSource h2DataSource = new JdbcDataSource();
+            h2DataSource.setUrl("jdbc:h2:mem:recordrows;DB_CLOSE_DELAY=-1");
+            dataSource = new DataSourceWrapperFactory(ifaceToClassMap).wrapDataSource(h2DataSource);
+        } finally {
+            WorkloadRecorder.disable();
+        }
+        final Connection connection = dataSource.getConnection();
+        connection.createStatement().execute("create table planet (id bigint primary key)");
+        connection.createStatement().execute("insert into planet values (1), (2), (3)");
+        // When
+        WorkloadRecorder.start(file, 64 * 1024);
+        final Statement statement = connection.createStatement();
+        final ResultSet resultSet = statement.executeQuery("select id from planet");
+        int rowCount = 0;
+        while (resultSet.next()) {
+            ++rowCount;
+        }
+        resultSet.close();
+        statement.close();
+        WorkloadRecorder.stop();
+        final WorkloadReplayer workloadReplayer = new WorkloadReplayer(file);
+        // Then
+        assertThat(rowCount).isEqualTo(3);
+        assertThat(workloadReplayer.fetchRowCount()).isEqualTo(3);
+        connection.createStatement().execute("drop table planet");
+        Files.delete(file);
+    }
+
+}
@@ -27,9 +27,9 @@ public class WrapperTest {
     @Before
     public void setUp() throws Exception {
         JavassistProxyFactory.main();
-        interfaceToClassMap.put(DataSource.class, "eu.dirk.haase.jdbc.proxy.WAbstractDataSourceProxy");
-        interfaceToClassMap.put(XADataSource.class, "eu.dirk.haase.jdbc.proxy.WAbstractXADataSourceProxy");
-        interfaceToClassMap.put(ConnectionPoolDataSource.class, "eu.dirk.haase.jdbc.proxy.WAbstractConnectionPoolDataSourceProxy");
+        interfaceToClassMap.put(DataSource.class, "eu.dirk.haase.jdbc.proxy.WDataSourceProxy");
+        interfaceToClassMap.put(XADataSource.class, "eu.dirk.haase.jdbc.proxy.WXADataSourceProxy");
+        interfaceToClassMap.put(ConnectionPoolDataSource.class, "eu.dirk.haase.jdbc.proxy.WConnectionPoolDataSourceProxy");
     }
 
     @Test
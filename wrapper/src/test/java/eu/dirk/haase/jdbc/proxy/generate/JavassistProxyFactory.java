@@ -32,6 +32,7 @@ public final class JavassistProxyFactory {
         iface2ClassMap.put(CallableStatement.class, AbstractCallableStatementProxy.class);
         iface2ClassMap.put(PreparedStatement.class, AbstractPreparedStatementProxy.class);
         iface2ClassMap.put(Statement.class, AbstractStatementProxy.class);
+        iface2ClassMap.put(DatabaseMetaData.class, AbstractDatabaseMetaDataProxy.class);
         iface2ClassMap.put(Connection.class, AbstractConnectionProxy.class);
         iface2ClassMap.put(DataSource.class, AbstractDataSourceProxy.class);
         iface2ClassMap.put(XAResource.class, AbstractXAResourceProxy.class);